@@ -224,6 +224,23 @@ public interface AccelMgr extends Manageable
         throws SecurityException;
 
 
+    /**
+     * Perform user RBAC authorization for many permissions in one call.  This function returns a Boolean value for each
+     * permission, in the same order as supplied, meaning whether the subject of a given session is allowed or not to perform
+     * the operation on the object.  The requests are sent over a single connection.
+     *
+     * @param session This object must be instantiated by calling {@link AccelMgr#createSession} method before passing 
+     * into the method.  No variables need to be set by client after returned from createSession.
+     * @param perms   each must contain the object, Permission#objName, and operation, Permission#opName, of
+     * permission User is trying to access.
+     * @return List containing True if user has access, false otherwise, for each permission.
+     * @throws SecurityException
+     *          in the event of data validation failure, security policy violation or DAO error.
+     */
+    List<Boolean> checkAccess( Session session, List<Permission> perms )
+        throws SecurityException;
+
+
     /**
      * This function returns the permissions of the session, i.e., the permissions assigned
      * to its authorized roles. The function is valid if and only if the session is a valid Fortress session.
@@ -293,6 +293,25 @@ public interface AccessMgr extends Manageable
     boolean checkAccess( Session session, Permission perm )
         throws SecurityException;
 
+
+    /**
+     * Perform user RBAC authorization for many permissions in one call.  This function returns a Boolean value for each
+     * permission, in the same order as supplied, meaning whether the subject of a given session is allowed or not to perform
+     * the operation on the object.  The session is validated once and the permissions are resolved together, which is
+     * cheaper than calling {@link #checkAccess(Session, Permission)} for each, i.e. when rendering a page with many controls.
+     * A permission that does not exist results in false rather than an exception.
+     *
+     * @param session This object must be instantiated by calling {@link AccessMgr#createSession} method before passing 
+     * into the method.  No variables need to be set by client after returned from createSession.
+     * @param perms   each must contain the object, {@link Permission#objName}, and operation, {@link Permission#opName}, of 
+     * permission User is trying to access.
+     * @return List containing True if user has access, false otherwise, for each permission.
+     * @throws SecurityException
+     *          in the event of data validation failure, security policy violation or DAO error.
+     */
+    List<Boolean> checkAccess( Session session, List<Permission> perms )
+        throws SecurityException;
+
     /**
      * Combine createSession and checkAccess into a single method.
      * This function returns a Boolean value meaning whether the User is allowed or not to perform a given operation on a given object.
@@ -21,6 +21,7 @@ package org.apache.directory.fortress.core;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.directory.fortress.core.impl.AccessMgrImpl;
+import org.apache.directory.fortress.core.impl.CacheServices;
 import org.apache.directory.fortress.core.rest.AccessMgrRestImpl;
 import org.apache.directory.fortress.core.util.ClassUtil;
 import org.apache.directory.fortress.core.util.Config;
@@ -75,6 +76,7 @@ public final class AccessMgrFactory
             else
             {
                 accessMgr = new AccessMgrImpl();
+                CacheServices.start();
             }
         }
         else
@@ -21,6 +21,7 @@ package org.apache.directory.fortress.core;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.directory.fortress.core.impl.AdminMgrImpl;
+import org.apache.directory.fortress.core.impl.CacheServices;
 import org.apache.directory.fortress.core.model.Session;
 import org.apache.directory.fortress.core.rest.AdminMgrRestImpl;
 import org.apache.directory.fortress.core.util.ClassUtil;
@@ -78,6 +79,7 @@ public final class AdminMgrFactory
             else
             {
                 adminMgr = new AdminMgrImpl();
+                CacheServices.start();
             }
         }
         else
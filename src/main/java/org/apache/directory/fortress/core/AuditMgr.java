@@ -26,6 +26,7 @@ import org.apache.directory.fortress.core.model.UserAudit;
 import org.apache.directory.fortress.core.model.Bind;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 
 /**
@@ -151,6 +152,35 @@ public interface AuditMgr extends Manageable
         throws SecurityException;
 
 
+    /**
+     * This method returns a stream of authorization events for a particular user, object and timestamp, see
+     * {@link #searchAuthZs(UserAudit)}.
+     * Entries are read from the directory {@code pageSize} at a time, using the ldap paged results control, as the stream is
+     * consumed, so memory use does not grow with the number of matches.  The stream holds a directory connection until it has
+     * been read to the end or closed, use try-with-resources if it may not be read to the end.  Errors that occur while the
+     * stream is read are thrown as {@link FinderRuntimeException}.
+     * <h3></h3>
+     * <h4>required parameters</h4>
+     * <ul>
+     *   <li>{@link UserAudit#userId} - contains the target userId</li>
+     *   <li>{@link UserAudit#objName} - contains the object (authorization resource) name</li>
+     * </ul>
+     * <h4>optional parameters</h4>
+     * <ul>
+     *   <li>{@link UserAudit#beginDate} - contains the date in which to begin search</li>
+     *   <li>{@link UserAudit#failedOnly} - if set to 'true', return only failed authorization events</li>
+     * </ul>
+     *
+     * @param uAudit   This entity is instantiated and populated before invocation.
+     * @param pageSize contains the number of entries to read from the directory at a time.
+     * @return a Stream of objects of type AuthZ.  Each AuthZ object contains one authorization event.
+     * @throws SecurityException
+     *          if the search could not be started.
+     */
+    Stream<AuthZ> streamAuthZs( UserAudit uAudit, int pageSize )
+        throws SecurityException;
+
+
     /**
      * This method returns a list of authentication audit events for a particular user 
      * {@link org.apache.directory.fortress.core.model.UserAudit#userId},
@@ -21,6 +21,7 @@ package org.apache.directory.fortress.core;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.directory.fortress.core.impl.AuditMgrImpl;
+import org.apache.directory.fortress.core.impl.CacheServices;
 import org.apache.directory.fortress.core.model.Session;
 import org.apache.directory.fortress.core.rest.AuditMgrRestImpl;
 import org.apache.directory.fortress.core.util.ClassUtil;
@@ -77,6 +78,7 @@ public final class AuditMgrFactory
             else
             {
                 auditMgr = new AuditMgrImpl();
+                CacheServices.start();
             }
         }
         else
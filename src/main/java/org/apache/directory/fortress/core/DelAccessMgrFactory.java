@@ -20,6 +20,7 @@
 package org.apache.directory.fortress.core;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.directory.fortress.core.impl.CacheServices;
 import org.apache.directory.fortress.core.impl.DelAccessMgrImpl;
 import org.apache.directory.fortress.core.model.Session;
 import org.apache.directory.fortress.core.rest.DelAccessMgrRestImpl;
@@ -77,6 +78,7 @@ public final class DelAccessMgrFactory
             else
             {
                 accessMgr = new DelAccessMgrImpl();
+                CacheServices.start();
             }
         }
         else
@@ -20,6 +20,7 @@
 package org.apache.directory.fortress.core;
 
 import org.apache.directory.api.util.Strings;
+import org.apache.directory.fortress.core.impl.CacheServices;
 import org.apache.directory.fortress.core.impl.DelAdminMgrImpl;
 import org.apache.directory.fortress.core.model.Session;
 import org.apache.directory.fortress.core.rest.DelAdminMgrRestImpl;
@@ -78,6 +79,7 @@ public final class DelAdminMgrFactory
             else
             {
                 delAdminMgr = new DelAdminMgrImpl();
+                CacheServices.start();
             }
         }
         else
@@ -20,6 +20,7 @@
 package org.apache.directory.fortress.core;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.directory.fortress.core.impl.CacheServices;
 import org.apache.directory.fortress.core.impl.DelReviewMgrImpl;
 import org.apache.directory.fortress.core.model.Session;
 import org.apache.directory.fortress.core.rest.DelReviewMgrRestImpl;
@@ -75,6 +76,7 @@ public final class DelReviewMgrFactory
             else
             {
                 delReviewMgr = new DelReviewMgrImpl();
+                CacheServices.start();
             }
         }
         else
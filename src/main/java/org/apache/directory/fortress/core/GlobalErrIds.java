@@ -191,6 +191,16 @@ public final class GlobalErrIds
      */
     public static final int FT_CONFIG_JSSE_TRUSTSTORE_NULL = 136;
 
+    /**
+     * The ldap server is unavailable, the result was computed from data cached before.  Used as a Session warning.
+     */
+    public static final int FT_LDAP_DEGRADED = 137;
+
+    /**
+     * The search for the entries changed in the directory, used to invalidate the caches, failed.
+     */
+    public static final int FT_CHANGE_SEARCH_FAILED = 138;
+
     /**
      * 1000's - User Entity Rule and LDAP Errors
      */
@@ -1161,6 +1171,11 @@ public final class GlobalErrIds
      */
     public static final int CNTR_PARENT_INVLD = 6006;
 
+    /**
+     * The containers under the ldap suffix could not be searched.
+     */
+    public static final int CNTR_SEARCH_FAILED = 6007;
+
     /**
      * The ldap suffix could not be created on the ldap server.
      */
@@ -445,6 +445,46 @@ public final class GlobalIds
     public static final String LDAP_ADMIN_POOL_TEST_IDLE = "admin.conn.test.idle";
     public static final String LDAP_ADMIN_POOL_EVICT_RUN_MILLIS = "admin.conn.evict.run.millis";
 
+    /**
+     * When pooled ldap connections are validated, either 'borrow' or 'idle'.
+     */
+    public static final String LDAP_VALIDATION = "conn.validation";
+    public static final String LDAP_VALIDATION_IDLE_MILLIS = "conn.validation.idle.millis";
+
+    /**
+     * Set to false to not register the ldap metrics with JMX.  Set to true to also keep ldap latency by DAO method.
+     */
+    public static final String LDAP_METRICS_JMX = "ldap.metrics.jmx";
+    public static final String LDAP_METRICS_METHODS = "ldap.metrics.methods";
+
+    /**
+     * Threads waiting on the responses to asynchronous ldap operations, and operations queued for them.
+     */
+    public static final String LDAP_ASYNC_THREADS = "ldap.async.threads";
+    public static final String LDAP_ASYNC_QUEUE = "ldap.async.queue";
+
+    /**
+     * Milliseconds to wait for a pooled ldap connection once the maximum are in use, 0 to open another instead.
+     */
+    public static final String LDAP_POOL_MAX_WAIT_MILLIS = "conn.max.wait.millis";
+
+    /**
+     * Number of ldap connections a tenant may hold at once, for all tenants or one with suffix '.[contextId]', and the
+     * milliseconds to wait for one before refusing.
+     */
+    public static final String TENANT_MAX_CONN = "tenant.max.conn";
+    public static final String TENANT_CONN_WAIT_MILLIS = "tenant.conn.wait.millis";
+
+    /**
+     * Consecutive ldap failures that open the circuit breaker, 0 for none, the milliseconds it stays open, the connections let
+     * through to probe the server, the age in seconds of cached data that may be used meanwhile, and the number of Users kept.
+     */
+    public static final String LDAP_BREAKER_FAILURES = "ldap.breaker.failures";
+    public static final String LDAP_BREAKER_OPEN_MILLIS = "ldap.breaker.open.millis";
+    public static final String LDAP_BREAKER_PROBES = "ldap.breaker.probes";
+    public static final String LDAP_BREAKER_STALE_SECONDS = "ldap.breaker.stale.seconds";
+    public static final String LDAP_BREAKER_STALE_USERS = "ldap.breaker.stale.users";
+
     /**
      * Used for ldap connection pool of log users.
      */
@@ -455,6 +495,64 @@ public final class GlobalIds
     public static final String LDAP_LOG_POOL_TEST_IDLE = "log.conn.test.idle";
     public static final String LDAP_LOG_POOL_EVICT_RUN_MILLIS = "log.conn.evict.run.millis";
 
+    /**
+     * Used to configure the asynchronous authorization audit queue.  The overflow policy defaults to DROP_OLDEST, nothing is
+     * spilled unless the spill directory is set.
+     */
+    public static final String AUDIT_ASYNC = "audit.async";
+    public static final String AUDIT_QUEUE_SIZE = "audit.queue.size";
+    public static final String AUDIT_BATCH_SIZE = "audit.batch.size";
+    public static final String AUDIT_OVERFLOW = "audit.queue.overflow";
+    public static final String AUDIT_SPILL_DIR = "audit.spill.dir";
+    public static final String AUDIT_CLOSE_TIMEOUT = "audit.close.timeout";
+
+    /**
+     * Number of seconds a cached role or ou hierarchy is used before it is reloaded from ldap in the background.
+     */
+    public static final String HIER_CACHE_TTL = "hier.cache.ttl";
+
+    /**
+     * Number of threads reloading the expired role and ou hierarchies.
+     */
+    public static final String HIER_CACHE_RELOAD_THREADS = "hier.cache.reload.threads";
+
+    /**
+     * Number of seconds the in-memory index of SSD and DSD sets is used before it is reloaded from ldap.
+     */
+    public static final String SD_CACHE_TTL = "sd.cache.ttl";
+
+    /**
+     * Implementation of the caches, 'ehcache' or 'tinylfu'.  Suffixed with '.' and the name of a cache, applies to that one.
+     */
+    public static final String CACHE_IMPL = "cache.impl";
+
+    /**
+     * Seconds between two logs of the counts of every cache, 0 to not log them.
+     */
+    public static final String CACHE_STATS_INTERVAL = "cache.stats.interval";
+
+    /**
+     * Set to false to not register the cache statistics, invalidator and warmer with JMX.  Default is 'ldap.metrics.jmx'.
+     */
+    public static final String CACHE_METRICS_JMX = "cache.metrics.jmx";
+
+    /**
+     * Seconds between two reads of the changes made to the directory, used to invalidate the caches of this process, 0 to not
+     * read them.  The changes are read from the 'accesslog' or by 'timestamp', at most 'cache.invalidation.max' at once.
+     */
+    public static final String CACHE_INVALIDATION_INTERVAL = "cache.invalidation.interval";
+    public static final String CACHE_INVALIDATION_SOURCE = "cache.invalidation.source";
+    public static final String CACHE_INVALIDATION_MAX = "cache.invalidation.max";
+
+    /**
+     * If true, the caches of every tenant are loaded in parallel when the first manager is created, on
+     * 'cache.warmup.threads' threads.  The tenants are those listed, comma separated, in 'cache.warmup.tenants', or else
+     * found under the suffix.
+     */
+    public static final String CACHE_WARMUP = "cache.warmup";
+    public static final String CACHE_WARMUP_THREADS = "cache.warmup.threads";
+    public static final String CACHE_WARMUP_TENANTS = "cache.warmup.tenants";
+
 
     // Used for TLS/SSL client-side configs:
     public static final String ENABLE_LDAP_SSL = "enable.ldap.ssl";
@@ -468,6 +566,19 @@ public final class GlobalIds
     public static final String LDAP_HOST = "host";
     public static final String LDAP_PORT = "port";
 
+    /**
+     * Read replicas of the LDAP server, e.g. host1:389,host2:389.  Writes always go to {@link #LDAP_HOST}.
+     */
+    public static final String LDAP_REPLICAS = "replicas";
+    public static final String LDAP_READ_BALANCE = "replica.balance";
+    public static final String LDAP_HEALTH_INTERVAL = "replica.health.interval";
+    public static final String LDAP_READ_PIN_MILLIS = "replica.read.pin.millis";
+    /**
+     * Send password binds to the replicas.  Off by default, as the password policy of the provider then misses failed binds
+     * and does not lock accounts.
+     */
+    public static final String LDAP_REPLICA_BINDS = "replica.binds";
+
     /**
      * maximum number of entries allowed for ldap filter replacements.
      */
@@ -587,6 +698,18 @@ public final class GlobalIds
      */
     public static final String HTTP_PW_PROP = "http.pw";
 
+    /**
+     * Parameters for the pooled connections to fortress-rest.  The pool limits are counts, the keep-alive and idle times are
+     * in seconds and the timeouts in milliseconds.
+     */
+    public static final String HTTP_MAX_TOTAL = "http.max.total";
+    public static final String HTTP_MAX_PER_ROUTE = "http.max.per.route";
+    public static final String HTTP_KEEPALIVE = "http.keepalive";
+    public static final String HTTP_IDLE_TIMEOUT = "http.idle.timeout";
+    public static final String HTTP_CONNECT_TIMEOUT = "http.connect.timeout";
+    public static final String HTTP_SOCKET_TIMEOUT = "http.socket.timeout";
+    public static final String HTTP_REQUEST_TIMEOUT = "http.request.timeout";
+
     /**
      * Attribute name for property ARBAC02 enforcement boolean.
      */
@@ -20,6 +20,7 @@
 package org.apache.directory.fortress.core;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.directory.fortress.core.impl.CacheServices;
 import org.apache.directory.fortress.core.impl.GroupMgrImpl;
 import org.apache.directory.fortress.core.model.Session;
 import org.apache.directory.fortress.core.rest.GroupMgrRestImpl;
@@ -83,6 +84,7 @@ public final class GroupMgrFactory
             else
             {
                 groupMgr = new GroupMgrImpl();
+                CacheServices.start();
             }
         }
         else
@@ -68,6 +68,7 @@ public class PropertyMgrFactory
             else
             {
                 propertyMgr = new org.apache.directory.fortress.core.impl.PropertyMgrImpl();
+                org.apache.directory.fortress.core.impl.CacheServices.start();
             }
         }
         else
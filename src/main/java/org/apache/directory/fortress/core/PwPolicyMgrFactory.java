@@ -20,6 +20,7 @@
 package org.apache.directory.fortress.core;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.directory.fortress.core.impl.CacheServices;
 import org.apache.directory.fortress.core.impl.PwPolicyMgrImpl;
 import org.apache.directory.fortress.core.model.Session;
 import org.apache.directory.fortress.core.rest.PwPolicyMgrRestImpl;
@@ -76,6 +77,7 @@ public final class PwPolicyMgrFactory
             else
             {
                 policyMgr = new PwPolicyMgrImpl();
+                CacheServices.start();
             }
         }
         else
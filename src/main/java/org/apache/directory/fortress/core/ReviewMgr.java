@@ -22,6 +22,7 @@ package org.apache.directory.fortress.core;
 
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import org.apache.directory.fortress.core.model.OrgUnit;
 import org.apache.directory.fortress.core.model.PermObj;
@@ -146,6 +147,29 @@ public interface ReviewMgr extends Manageable
     List<Permission> findPermissions( Permission permission )
         throws SecurityException;
 
+
+    /**
+     * Method returns a stream of type Permission that match the perm object search string, see
+     * {@link #findPermissions(Permission)}.
+     * Entries are read from the directory {@code pageSize} at a time, using the ldap paged results control, as the stream is
+     * consumed, so memory use does not grow with the number of matches.  The stream holds a directory connection until it has
+     * been read to the end or closed, use try-with-resources if it may not be read to the end.  Errors that occur while the
+     * stream is read are thrown as {@link FinderRuntimeException}.
+     * <h3></h3>
+     * <h4>optional parameters</h4>
+     * <ul>
+     *   <li>Permission#objName - contains one or more characters of existing object being targeted</li>
+     *   <li>Permission#opName - contains one or more characters of existing permission operation</li>
+     * </ul>
+     *
+     * @param permission contains object and operation name search strings.
+     * @param pageSize   contains the number of entries to read from the directory at a time.
+     * @return Stream of type Permission.
+     * @throws SecurityException thrown in the event the search could not be started.
+     */
+    Stream<Permission> streamPermissions( Permission permission, int pageSize )
+        throws SecurityException;
+
     /**
      * Method returns Permission operations for the provided permission object
      * 
@@ -280,6 +304,28 @@ public interface ReviewMgr extends Manageable
         throws SecurityException;
 
 
+    /**
+     * Return a stream of type User of all users in the people container that match all or part of the User#userId
+     * field passed in User entity, see {@link #findUsers(User)}.
+     * Entries are read from the directory {@code pageSize} at a time, using the ldap paged results control, as the stream is
+     * consumed, so memory use does not grow with the number of matches.  The stream holds a directory connection until it has
+     * been read to the end or closed, use try-with-resources if it may not be read to the end.  Errors that occur while the
+     * stream is read are thrown as {@link FinderRuntimeException}.
+     * <h3></h3>
+     * <h4>required parameters</h4>
+     * <ul>
+     *   <li>User#userId - contains all or some leading chars that match userId(s) stored in the directory.</li>
+     * </ul>
+     *
+     * @param user     contains all or some leading chars that match userIds stored in the directory.
+     * @param pageSize contains the number of entries to read from the directory at a time.
+     * @return Stream of type User.
+     * @throws SecurityException In the event the search could not be started.
+     */
+    Stream<User> streamUsers( User user, int pageSize )
+        throws SecurityException;
+
+
     /**
      * Return a list of type User of all users in the people container that match the name field passed in OrgUnit entity.
      * <h3></h3>
@@ -431,6 +477,27 @@ public interface ReviewMgr extends Manageable
         throws SecurityException;
 
 
+    /**
+     * This function returns a stream of the users authorized to a given role, see {@link #authorizedUsers(Role)}.
+     * Entries are read from the directory {@code pageSize} at a time, using the ldap paged results control, as the stream is
+     * consumed, so memory use does not grow with the number of matches.  The stream holds a directory connection until it has
+     * been read to the end or closed, use try-with-resources if it may not be read to the end.  Errors that occur while the
+     * stream is read are thrown as {@link FinderRuntimeException}.
+     * <h3></h3>
+     * <h4>required parameters</h4>
+     * <ul>
+     *   <li>Role#name - contains the name to use for the Role targeted for search.</li>
+     * </ul>
+     *
+     * @param role     Contains role name, Role#name of Role entity assigned to User.
+     * @param pageSize contains the number of entries to read from the directory at a time.
+     * @return Stream of type User containing all user's that having matching role assignment.
+     * @throws SecurityException In the event the search could not be started.
+     */
+    Stream<User> streamAuthorizedUsers( Role role, int pageSize )
+        throws SecurityException;
+
+
     /**
      * This function returns the set of roles authorized for a given user. The function is valid if
      * and only if the user is a member of the USERS data set.
@@ -20,6 +20,7 @@
 package org.apache.directory.fortress.core;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.directory.fortress.core.impl.CacheServices;
 import org.apache.directory.fortress.core.impl.ReviewMgrImpl;
 import org.apache.directory.fortress.core.model.Session;
 import org.apache.directory.fortress.core.rest.ReviewMgrRestImpl;
@@ -76,6 +77,7 @@ public final class ReviewMgrFactory
             else
             {
                 reviewMgr = new ReviewMgrImpl();
+                CacheServices.start();
             }
         }
         else
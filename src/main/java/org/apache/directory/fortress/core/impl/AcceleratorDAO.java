@@ -96,7 +96,7 @@ final class AcceleratorDAO extends LdapDataProvider
 
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminConnection( user.getContextId() );
             ld.setTimeOut( 0 );
             // Create a new RBAC session
             RbacCreateSessionRequest rbacCreateSessionRequest = new RbacCreateSessionRequestImpl();
@@ -166,29 +166,13 @@ final class AcceleratorDAO extends LdapDataProvider
      */
     boolean checkAccess( Session session, Permission perm ) throws SecurityException
     {
-        boolean result = false;
+        boolean result;
         LdapConnection ld = null;
 
         try
         {
-            ld = getAdminConnection();
-            RbacCheckAccessRequest rbacCheckAccessRequest = new RbacCheckAccessRequestImpl();
-            rbacCheckAccessRequest.setSessionId( session.getSessionId() );
-            rbacCheckAccessRequest.setObject( perm.getObjName() );
-
-            // objectId is optional
-            if ( StringUtils.isNotEmpty( perm.getObjId() ) )
-            {
-                rbacCheckAccessRequest.setObjectId( perm.getObjId() );
-            }
-
-            rbacCheckAccessRequest.setOperation( perm.getOpName() );
-            // Send the request
-            RbacCheckAccessResponse rbacCheckAccessResponse = ( RbacCheckAccessResponse ) ld.extended(
-                rbacCheckAccessRequest );
-            LOG.debug( "checkAccess result: {}", rbacCheckAccessResponse.getLdapResult().getResultCode() );
-
-            result = rbacCheckAccessResponse.getLdapResult().getResultCode() == ResultCodeEnum.SUCCESS;
+            ld = getAdminConnection( session.getContextId() );
+            result = checkAccess( ld, session, perm );
         }
         catch ( LdapException e )
         {
@@ -206,6 +190,67 @@ final class AcceleratorDAO extends LdapDataProvider
     }
 
 
+    /**
+     * Perform user impl authorization for a list of permissions.  Same as {@link #checkAccess(Session, Permission)} except all of the
+     * {@link RbacCheckAccessRequest}s are sent over a single connection.
+     *
+     * @param session This object must be instantiated by calling {@link #createSession} method before passing into the method.  No variables need to be set by client after returned from createSession.
+     * @param perms each must contain the object, {@link org.apache.directory.fortress.core.model.Permission#objName}, and operation, {@link org.apache.directory.fortress.core.model.Permission#opName}, of permission User is trying to access.
+     * @return List containing True if user has access, false otherwise, for each permission in the order supplied.
+     * @throws SecurityException rethrows {@code LdapException} with {@code GlobalErrIds.ACEL_CHECK_ACCESS_ERR}.
+     */
+    List<Boolean> checkAccess( Session session, List<Permission> perms ) throws SecurityException
+    {
+        List<Boolean> results = new ArrayList<>( perms.size() );
+        LdapConnection ld = null;
+        Permission perm = null;
+
+        try
+        {
+            ld = getAdminConnection( session.getContextId() );
+            for ( Permission inPerm : perms )
+            {
+                perm = inPerm;
+                results.add( checkAccess( ld, session, perm ) );
+            }
+        }
+        catch ( LdapException e )
+        {
+            String error = "checkAccess perm obj [" + ( perm != null ? perm.getObjName() : null ) + "], operation ["
+                + ( perm != null ? perm.getOpName() : null ) + "] caught LDAPException=" + " msg=" + e.getMessage();
+            throw new SecurityException( GlobalErrIds.ACEL_CHECK_ACCESS_ERR, error, e );
+        }
+        finally
+        {
+            closeAdminConnection( ld );
+        }
+
+        return results;
+    }
+
+
+    private boolean checkAccess( LdapConnection ld, Session session, Permission perm ) throws LdapException
+    {
+        RbacCheckAccessRequest rbacCheckAccessRequest = new RbacCheckAccessRequestImpl();
+        rbacCheckAccessRequest.setSessionId( session.getSessionId() );
+        rbacCheckAccessRequest.setObject( perm.getObjName() );
+
+        // objectId is optional
+        if ( StringUtils.isNotEmpty( perm.getObjId() ) )
+        {
+            rbacCheckAccessRequest.setObjectId( perm.getObjId() );
+        }
+
+        rbacCheckAccessRequest.setOperation( perm.getOpName() );
+        // Send the request
+        RbacCheckAccessResponse rbacCheckAccessResponse = ( RbacCheckAccessResponse ) ld.extended(
+            rbacCheckAccessRequest );
+        LOG.debug( "checkAccess result: {}", rbacCheckAccessResponse.getLdapResult().getResultCode() );
+
+        return rbacCheckAccessResponse.getLdapResult().getResultCode() == ResultCodeEnum.SUCCESS;
+    }
+
+
     /**
      * Deactivate user role from impl session
      * This function follows the pattern from: {@link org.apache.directory.fortress.core.AccessMgr#dropActiveRole(org.apache.directory.fortress.core.model.Session, org.apache.directory.fortress.core.model.UserRole)}.
@@ -222,7 +267,7 @@ final class AcceleratorDAO extends LdapDataProvider
 
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminConnection( session.getContextId() );
             RbacDropRoleRequest dropRoleRequest = new RbacDropRoleRequestImpl();
             dropRoleRequest.setSessionId( session.getSessionId() );
             dropRoleRequest.setRole( userRole.getName() );
@@ -268,7 +313,7 @@ final class AcceleratorDAO extends LdapDataProvider
 
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminConnection( session.getContextId() );
             RbacAddRoleRequest addRoleRequest = new RbacAddRoleRequestImpl();
             addRoleRequest.setSessionId( session.getSessionId() );
             addRoleRequest.setRole( userRole.getName() );
@@ -325,7 +370,7 @@ final class AcceleratorDAO extends LdapDataProvider
 
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminConnection( session.getContextId() );
             RbacDeleteSessionRequest deleteSessionRequest = new RbacDeleteSessionRequestImpl();
             deleteSessionRequest.setSessionId( session.getSessionId() );
             deleteSessionRequest.setUserIdentity( session.getUserId() );
@@ -364,7 +409,7 @@ final class AcceleratorDAO extends LdapDataProvider
 
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminConnection( session.getContextId() );
             RbacSessionRolesRequest sessionRolesRequest = new RbacSessionRolesRequestImpl();
             sessionRolesRequest.setSessionId( session.getSessionId() );
             sessionRolesRequest.setUserIdentity( session.getUserId() );
@@ -112,7 +112,10 @@ public class AccessMgrImpl extends Manageable implements AccessMgr, Serializable
     {
         String methodName = "createSession";
         assertContext( CLS_NM, methodName, user, GlobalErrIds.USER_NULL );
-        return userP.createSession( user, isTrusted );
+        Session session = userP.createSession( user, isTrusted );
+        // Compute the ids of the session's inherited roles now so checkAccess need not:
+        RoleIdUtil.getInstance().loadSession( session, this.contextId );
+        return session;
     }
 
     /**
@@ -125,7 +128,10 @@ public class AccessMgrImpl extends Manageable implements AccessMgr, Serializable
         String methodName = "createSession";
         assertContext( CLS_NM, methodName, user, GlobalErrIds.USER_NULL );
         VUtil.assertNotNull( constraints, GlobalErrIds.ROLE_CONSTRAINT_NULL, methodName );
-        return userP.createSession( user, constraints, isTrusted );
+        Session session = userP.createSession( user, constraints, isTrusted );
+        // Compute the ids of the session's inherited roles now so checkAccess need not:
+        RoleIdUtil.getInstance().loadSession( session, this.contextId );
+        return session;
     }
 
     /**
@@ -138,7 +144,10 @@ public class AccessMgrImpl extends Manageable implements AccessMgr, Serializable
         String methodName = "createSession";
         assertContext( CLS_NM, methodName, group, GlobalErrIds.GROUP_NULL );
 
-        return groupP.createSession( group );
+        Session session = groupP.createSession( group );
+        // Compute the ids of the session's inherited roles now so checkAccess need not:
+        RoleIdUtil.getInstance().loadSession( session, this.contextId );
+        return session;
     }
 
     /**
@@ -164,6 +173,37 @@ public class AccessMgrImpl extends Manageable implements AccessMgr, Serializable
     }
 
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Not annotated, the admin operation 'checkAccess' is registered by {@link #checkAccess(Session, Permission)}, and
+     * checked for both by {@link #setEntitySession}.
+     */
+    @Override
+    public List<Boolean> checkAccess( Session session, List<Permission> perms )
+        throws SecurityException
+    {
+        String methodName = "checkAccess";
+        assertContext( CLS_NM, methodName, session, GlobalErrIds.USER_SESS_NULL );
+        VUtil.assertNotNull( perms, GlobalErrIds.PERM_NULL, getFullMethodName( CLS_NM, methodName ) );
+
+        for ( Permission perm : perms )
+        {
+            assertContext( CLS_NM, methodName, perm, GlobalErrIds.PERM_NULL );
+            VUtil.getInstance().assertNotNullOrEmpty( perm.getOpName(), GlobalErrIds.PERM_OPERATION_NULL,
+                getFullMethodName( CLS_NM, methodName ) );
+            VUtil.getInstance().assertNotNullOrEmpty( perm.getObjName(), GlobalErrIds.PERM_OBJECT_NULL,
+                getFullMethodName( CLS_NM, methodName ) );
+        }
+
+        // The session is validated once for the entire list:
+        VUtil.getInstance().validateConstraints( session, VUtil.ConstraintType.USER, false );
+        VUtil.getInstance().validateConstraints( session, VUtil.ConstraintType.ROLE, false );
+        setEntitySession(CLS_NM, methodName, session);
+        return permP.checkPermissions( session, perms );
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -301,7 +341,7 @@ public class AccessMgrImpl extends Manageable implements AccessMgr, Serializable
         {
             User inUser = new User(session.getUserId());
             inUser.setContextId(this.contextId);
-            User ue = userP.read(inUser, true);
+            User ue = userP.readAuthz(inUser);
             assignedRoles = ue.getRoles();
         }
         int indx;
@@ -321,6 +361,7 @@ public class AccessMgrImpl extends Manageable implements AccessMgr, Serializable
 
         // Check role temporal constraints, not DSD, performed earlier:
         VUtil.getInstance().validateConstraints( session, VUtil.ConstraintType.ROLE, false );
+        RoleIdUtil.getInstance().loadSession( session, this.contextId );
     }
 
 
@@ -359,6 +400,7 @@ public class AccessMgrImpl extends Manageable implements AccessMgr, Serializable
                 + session.getUserId() + "], not previously activated";
             throw new SecurityException( GlobalErrIds.URLE_NOT_ACTIVE, info );
         }
+        RoleIdUtil.getInstance().loadSession( session, this.contextId );
     }
 
 
@@ -939,7 +939,6 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
             // default cardinality == 2
             ssdSet.setCardinality( 2 );
         }
-        clearSSDCache( ssdSet );
         return sdP.add( ssdSet );
     }
 
@@ -974,8 +973,6 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
         entity.addMember( role.getName() );
         setAdminData( CLS_NM, methodName, entity );
         SDSet ssdOut = sdP.update( entity );
-        // remove any references to the old SSD from cache:
-        clearSSDCache( role );
         return ssdOut;
     }
 
@@ -1002,8 +999,6 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
         }
         setAdminData( CLS_NM, methodName, entity );
         SDSet ssdOut = sdP.update( entity );
-        // remove any references to the old SSD from cache:
-        clearSSDCache( role );
         return ssdOut;
     }
 
@@ -1019,42 +1014,10 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
         assertContext( CLS_NM, methodName, ssdSet, GlobalErrIds.SSD_NULL );
         setEntitySession( CLS_NM, methodName, ssdSet );
         ssdSet.setType( SDSet.SDType.STATIC );
-        // remove any references to the old SSD from cache:
-        clearSSDCache( ssdSet );
         return sdP.delete( ssdSet );
     }
 
 
-    /**
-     * Clear the SSD cache entries that correspond to this SSD
-     *
-     * @param ssdSet
-     * @throws SecurityException
-     */
-    private void clearSSDCache( SDSet ssdSet )
-    {
-        if ( ssdSet.getMembers() != null )
-        {
-            for ( String roleName : ssdSet.getMembers() )
-            {
-                SDUtil.getInstance().clearSsdCacheEntry( roleName, contextId );
-            }
-        }
-    }
-
-
-    /**
-     * Clear the SSD cache entries that correspond to this Role.
-     *
-     * @param role
-     * @throws SecurityException
-     */
-    private void clearSSDCache( Role role )
-    {
-        SDUtil.getInstance().clearSsdCacheEntry( role.getName(), contextId );
-    }
-
-
     /**
      * {@inheritDoc}
      */
@@ -1067,8 +1030,6 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
         setEntitySession( CLS_NM, methodName, ssdSet );
         ssdSet.setType( SDSet.SDType.STATIC );
         ssdSet.setCardinality( cardinality );
-        // remove any references to the old SSD from cache:
-        clearSSDCache( ssdSet );
         return sdP.update( ssdSet );
     }
 
@@ -1123,8 +1084,6 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
         entity.addMember( role.getName() );
         setAdminData( CLS_NM, methodName, entity );
         SDSet dsdOut = sdP.update( entity );
-        // remove any references to the old DSD from cache:
-        clearDSDCache( dsdSet );
         return dsdOut;
     }
 
@@ -1151,8 +1110,6 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
         }
         setAdminData( CLS_NM, methodName, entity );
         SDSet dsdOut = sdP.update( entity );
-        // remove any references to the old DSD from cache:
-        clearDSDCache( dsdSet );
         return dsdOut;
     }
 
@@ -1168,8 +1125,6 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
         assertContext( CLS_NM, methodName, dsdSet, GlobalErrIds.DSD_NULL );
         setEntitySession( CLS_NM, methodName, dsdSet );
         dsdSet.setType( SDSet.SDType.DYNAMIC );
-        // remove any references to the old DSD from cache:
-        clearDSDCache( dsdSet );
         return sdP.delete( dsdSet );
     }
 
@@ -1186,20 +1141,6 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
         setEntitySession( CLS_NM, methodName, dsdSet );
         dsdSet.setType( SDSet.SDType.DYNAMIC );
         dsdSet.setCardinality( cardinality );
-        // remove any references to the old DSD from cache:
-        clearDSDCache( dsdSet );
         return sdP.update( dsdSet );
     }
-
-
-    /**
-     * Clear the DSD cache entries that correspond to this DSD
-     *
-     * @param dsdSet
-     * @throws SecurityException
-     */
-    private void clearDSDCache( SDSet dsdSet )
-    {
-        SDUtil.getInstance().clearDsdCacheEntry( dsdSet.getName(), contextId );
-    }
 }
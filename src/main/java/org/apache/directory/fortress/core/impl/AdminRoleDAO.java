@@ -187,7 +187,7 @@ final class AdminRoleDAO extends LdapDataProvider implements PropertyProvider<Ad
             // These multi-valued attributes are optional.  The utility function will return quietly if no items are loaded into collection:
             loadAttrs( entity.getParents(), entry, GlobalIds.PARENT_NODES );
 
-            ld = getAdminConnection();
+            ld = getAdminConnection( entity.getContextId() );
             add( ld, entry, entity );
         }
         catch ( LdapException e )
@@ -262,7 +262,7 @@ final class AdminRoleDAO extends LdapDataProvider implements PropertyProvider<Ad
 
             if ( mods.size() > 0 )
             {
-                ld = getAdminConnection();
+                ld = getAdminConnection( entity.getContextId() );
                 modify( ld, dn, mods, entity );
             }
         }
@@ -294,7 +294,7 @@ final class AdminRoleDAO extends LdapDataProvider implements PropertyProvider<Ad
         {
             List<Modification> mods = new ArrayList<Modification>();
             mods.add( new DefaultModification( ModificationOperation.REMOVE_ATTRIBUTE, GlobalIds.PARENT_NODES ) );
-            ld = getAdminConnection();
+            ld = getAdminConnection( entity.getContextId() );
             modify( ld, dn, mods, entity );
         }
         catch ( LdapException e )
@@ -327,7 +327,7 @@ final class AdminRoleDAO extends LdapDataProvider implements PropertyProvider<Ad
         {
             List<Modification> mods = new ArrayList<Modification>();
             mods.add( new DefaultModification( ModificationOperation.ADD_ATTRIBUTE, ROLE_OCCUPANT, userDn ) );
-            ld = getAdminConnection();
+            ld = getAdminConnection( entity.getContextId() );
             modify( ld, dn, mods, entity );
         }
         catch ( LdapException e )
@@ -364,7 +364,7 @@ final class AdminRoleDAO extends LdapDataProvider implements PropertyProvider<Ad
             List<Modification> mods = new ArrayList<Modification>();
             mods.add( new DefaultModification(
                 ModificationOperation.REMOVE_ATTRIBUTE, ROLE_OCCUPANT, userDn ) );
-            ld = getAdminConnection();
+            ld = getAdminConnection( entity.getContextId() );
             modify( ld, dn, mods, entity );
         }
         catch ( LdapException e )
@@ -395,7 +395,7 @@ final class AdminRoleDAO extends LdapDataProvider implements PropertyProvider<Ad
 
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminConnection( role.getContextId() );
             delete( ld, dn, role );
         }
         catch ( LdapException e )
@@ -425,7 +425,7 @@ final class AdminRoleDAO extends LdapDataProvider implements PropertyProvider<Ad
 
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( adminRole.getContextId() );
             Entry findEntry = read( ld, dn, ROLE_ATRS );
             if ( findEntry != null )
             {
@@ -475,7 +475,7 @@ final class AdminRoleDAO extends LdapDataProvider implements PropertyProvider<Ad
             String searchVal = encodeSafeText( adminRole.getName(), GlobalIds.ROLE_LEN );
             filter = GlobalIds.FILTER_PREFIX + GlobalIds.ROLE_OBJECT_CLASS_NM + ")("
                 + ROLE_NM + "=" + searchVal + "*))";
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( adminRole.getContextId() );
             SearchCursor searchResults = search( ld, roleRoot,
                 SearchScope.ONELEVEL, filter, ROLE_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -524,7 +524,7 @@ final class AdminRoleDAO extends LdapDataProvider implements PropertyProvider<Ad
             searchVal = encodeSafeText( adminRole.getName(), GlobalIds.ROLE_LEN );
             filter = GlobalIds.FILTER_PREFIX + GlobalIds.ROLE_OBJECT_CLASS_NM + ")("
                 + ROLE_NM + "=" + searchVal + "*))";
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( adminRole.getContextId() );
             SearchCursor searchResults = search( ld, roleRoot,
                 SearchScope.ONELEVEL, filter, ROLE_NM_ATR, false, limit );
 
@@ -568,7 +568,7 @@ final class AdminRoleDAO extends LdapDataProvider implements PropertyProvider<Ad
         {
             String filter = GlobalIds.FILTER_PREFIX + GlobalIds.ROLE_OBJECT_CLASS_NM + ")";
             filter += "(" + ROLE_OCCUPANT + "=" + userDn + "))";
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( contextId );
             SearchCursor searchResults = search( ld, roleRoot,
                 SearchScope.ONELEVEL, filter, ROLE_NM_ATR, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
 
@@ -616,7 +616,7 @@ final class AdminRoleDAO extends LdapDataProvider implements PropertyProvider<Ad
         {
             filter = GlobalIds.FILTER_PREFIX + GlobalIds.ROLE_OBJECT_CLASS_NM + ")("
                 + GlobalIds.PARENT_NODES + "=*))";
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( contextId );
             SearchCursor searchResults = search( ld, roleRoot,
                 SearchScope.ONELEVEL, filter, DESC_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -34,9 +34,6 @@ import org.apache.directory.fortress.core.model.Graphable;
 import org.apache.directory.fortress.core.model.Hier;
 import org.apache.directory.fortress.core.model.Relationship;
 import org.apache.directory.fortress.core.model.UserAdminRole;
-import org.apache.directory.fortress.core.util.cache.Cache;
-import org.apache.directory.fortress.core.util.cache.CacheMgr;
-import org.jgrapht.graph.SimpleDirectedGraph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -63,7 +60,7 @@ import org.slf4j.LoggerFactory;
  */
 final class AdminRoleUtil
 {
-    private static final Cache adminRoleCache;
+    private static final HierCache adminRoleCache;
     private static final AdminRoleP adminRoleP = new AdminRoleP();
     private static final String CLS_NM = AdminRoleUtil.class.getName();
     private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
@@ -74,8 +71,14 @@ final class AdminRoleUtil
      */
     static
     {
-        CacheMgr cacheMgr = CacheMgr.getInstance();
-        adminRoleCache = cacheMgr.getCache( "fortress.admin.roles" );
+        adminRoleCache = new HierCache( HierUtil.Type.ARLE.toString(), new HierCache.Loader()
+        {
+            @Override
+            public HierClosure load( String contextId )
+            {
+                return loadGraph( contextId );
+            }
+        } );
     }
 
     /**
@@ -116,7 +119,7 @@ final class AdminRoleUtil
      */
     static Set<String> getDescendants( String roleName, String contextId )
     {
-        return HierUtil.getDescendants( roleName, getGraph( contextId ) );
+        return getHier( contextId ).getDescendants( roleName );
     }
 
 
@@ -128,7 +131,7 @@ final class AdminRoleUtil
      */
     public static Set<String> getAscendants( String roleName, String contextId )
     {
-        return HierUtil.getAscendants( roleName, getGraph( contextId ) );
+        return getHier( contextId ).getAscendants( roleName );
     }
 
 
@@ -140,7 +143,7 @@ final class AdminRoleUtil
      */
     static Set<String> getParents( String roleName, String contextId )
     {
-        return HierUtil.getParents( roleName, getGraph( contextId ) );
+        return HierUtil.getParents( roleName, getHier( contextId ).getGraph() );
     }
 
 
@@ -152,7 +155,7 @@ final class AdminRoleUtil
      */
     public static Set<String> getChildren( String roleName, String contextId )
     {
-        return HierUtil.getChildren( roleName, getGraph( contextId ) );
+        return HierUtil.getChildren( roleName, getHier( contextId ).getGraph() );
     }
 
 
@@ -164,7 +167,19 @@ final class AdminRoleUtil
      */
     static int numChildren( String roleName, String contextId )
     {
-        return HierUtil.numChildren( roleName, getGraph( contextId ) );
+        return HierUtil.numChildren( roleName, getHier( contextId ).getGraph() );
+    }
+
+
+    /**
+     * Return the version of the tenant's current role hierarchy.  It changes each time the hierarchy is reloaded or updated.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @return version of the hierarchy, see {@link HierClosure#getVersion()}.
+     */
+    static long getVersion( String contextId )
+    {
+        return getHier( contextId ).getVersion();
     }
 
 
@@ -186,7 +201,7 @@ final class AdminRoleUtil
             {
                 String rleName = uRole.getName();
                 iRoles.add( rleName );
-                Set<String> parents = HierUtil.getAscendants( rleName, getGraph( contextId ) );
+                Set<String> parents = getHier( contextId ).getAscendants( rleName );
 
                 if ( CollectionUtils.isNotEmpty( parents ) )
                 {
@@ -200,7 +215,7 @@ final class AdminRoleUtil
 
     /**
      * This api is used by {@link DelAdminMgrImpl} to determine parentage for Hierarchical ARBAC processing.
-     * It calls {@link HierUtil#validateRelationship(org.jgrapht.graph.SimpleDirectedGraph, String, String, boolean)} to evaluate three adminRole relationship expressions:
+     * It calls {@link HierUtil#validateRelationship(HierClosure, String, String, boolean)} to evaluate three adminRole relationship expressions:
      * <ol>
      * <li>If child equals parent</li>
      * <li>If mustExist true and parent-child relationship exists</li>
@@ -217,14 +232,14 @@ final class AdminRoleUtil
     static void validateRelationship( AdminRole childRole, AdminRole parentRole, boolean mustExist )
         throws ValidationException
     {
-        HierUtil.validateRelationship( getGraph( childRole.getContextId() ), childRole.getName(), parentRole.getName(),
+        HierUtil.validateRelationship( getHier( childRole.getContextId() ), childRole.getName(), parentRole.getName(),
             mustExist );
     }
 
 
     /**
-     * This api allows synchronized access to allow updates to hierarchical relationships.
-     * Method will update the hierarchical data set and reload the JGraphT simple digraph with latest.
+     * This api allows updates to hierarchical relationships.
+     * Method will replace the cached hierarchy with a copy containing the update.  Readers of the previous copy are not affected.
      *
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
      * @param relationship contains parent-child relationship targeted for addition.
@@ -233,7 +248,29 @@ final class AdminRoleUtil
      */
     static void updateHier( String contextId, Relationship relationship, Hier.Op op ) throws SecurityException
     {
-        HierUtil.updateHier( getGraph( contextId ), relationship, op );
+        adminRoleCache.update( getKey( contextId ), contextId, relationship, op );
+    }
+
+
+    /**
+     * Reload the admin role hierarchy of a tenant in the background, after it was changed in ldap by another process.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     */
+    static void invalidate( String contextId )
+    {
+        adminRoleCache.invalidate( getKey( contextId ), contextId );
+    }
+
+
+    /**
+     * Load the admin role hierarchy of a tenant, if it has not been loaded.  Called by {@link CacheWarmer}.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     */
+    static void warm( String contextId )
+    {
+        getHier( contextId );
     }
 
 
@@ -242,9 +279,9 @@ final class AdminRoleUtil
      * using 3rd party lib, <a href="http://www.jgrapht.org/">JGraphT</a>.
      *
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
-     * @return handle to simple digraph containing adminRole hierarchies.
+     * @return handle to simple digraph and closure containing adminRole hierarchies.
      */
-    private static synchronized SimpleDirectedGraph<String, Relationship> loadGraph( String contextId )
+    private static HierClosure loadGraph( String contextId )
     {
         Hier inHier = new Hier( Hier.Type.ROLE );
         inHier.setContextId( contextId );
@@ -261,12 +298,7 @@ final class AdminRoleUtil
         }
 
         Hier hier = HierUtil.loadHier( contextId, descendants );
-        SimpleDirectedGraph<String, Relationship> graph;
-
-        graph = HierUtil.buildGraph( hier );
-        adminRoleCache.put( getKey( contextId ), graph );
-
-        return graph;
+        return new HierClosure( HierUtil.buildGraph( hier ) );
     }
 
 
@@ -275,24 +307,11 @@ final class AdminRoleUtil
      * using 3rd party lib, <a href="http://www.jgrapht.org/">JGraphT</a>.
      *
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
-     * @return handle to simple digraph containing adminRole hierarchies.
+     * @return handle to simple digraph and closure containing adminRole hierarchies.
      */
-    private static SimpleDirectedGraph<String, Relationship> getGraph( String contextId )
+    private static HierClosure getHier( String contextId )
     {
-        String key = getKey( contextId );        
-        LOG.debug("Getting graph for key " + contextId);
-         
-        SimpleDirectedGraph<String, Relationship> graph = ( SimpleDirectedGraph<String, Relationship> ) adminRoleCache
-                 .get( key );
-             
-        if(graph == null){
-            LOG.debug("Graph was null, creating... " + contextId);
-            return loadGraph( contextId );
-        }
-        else{
-            LOG.debug("Graph found in cache, returning...");
-            return graph;
-        }
+        return adminRoleCache.get( getKey( contextId ), contextId );
     }
 
 
@@ -22,6 +22,7 @@ package org.apache.directory.fortress.core.impl;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.directory.api.ldap.model.constants.SchemaConstants;
@@ -35,6 +36,7 @@ import org.apache.directory.fortress.core.FinderException;
 import org.apache.directory.fortress.core.GlobalErrIds;
 import org.apache.directory.fortress.core.GlobalIds;
 import org.apache.directory.fortress.core.ldap.LdapDataProvider;
+import org.apache.directory.fortress.core.ldap.PagedSearchCursor;
 import org.apache.directory.fortress.core.model.AuthZ;
 import org.apache.directory.fortress.core.model.Bind;
 import org.apache.directory.fortress.core.model.Mod;
@@ -272,7 +274,7 @@ final class AuditDAO extends LdapDataProvider
             filter += ")";
 
             //log.warn("filter=" + filter);
-            ld = getLogConnection();
+            ld = getLogConnection( audit.getContextId() );
             SearchCursor searchResults = search( ld, auditRoot,
                 SearchScope.ONELEVEL, filter, AUDIT_AUTHZ_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -323,27 +325,8 @@ final class AuditDAO extends LdapDataProvider
 
         try
         {
-            String reqDn = PermDAO.getOpRdn( audit.getOpName(), audit.getObjId() ) + "," + GlobalIds.POBJ_NAME + "="
-                + audit.getObjName() + "," + permRoot;
-            String filter = GlobalIds.FILTER_PREFIX + ACCESS_AUTHZ_CLASS_NM + ")(" + REQDN + "=" +
-                reqDn + ")(" + REQUAUTHZID + "=" + SchemaConstants.UID_AT + "=" + audit.getUserId() + "," + userRoot
-                + ")";
-
-            if ( audit.isFailedOnly() )
-            {
-                filter += "(" + REQRESULT + "=" + GlobalIds.AUTHZ_COMPARE_FAILURE_FLAG + ")";
-            }
-
-            if ( audit.getBeginDate() != null )
-            {
-                String szTime = TUtil.encodeGeneralizedTime( audit.getBeginDate() );
-                filter += "(" + REQEND + ">=" + szTime + ")";
-            }
-
-            filter += ")";
-
-            //System.out.println("filter=" + filter);
-            ld = getLogConnection();
+            String filter = getSearchAuthZsFilter( audit, permRoot, userRoot );
+            ld = getLogConnection( audit.getContextId() );
             SearchCursor searchResults = search( ld, auditRoot,
                 SearchScope.ONELEVEL, filter, AUDIT_AUTHZ_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -372,6 +355,71 @@ final class AuditDAO extends LdapDataProvider
     }
 
 
+    /**
+     * Stream the authorization events that match the criteria of {@link #searchAuthZs(UserAudit)}, reading them from ldap a
+     * page at a time.
+     *
+     * @param audit    contains the user, permission and time criteria to search on.
+     * @param pageSize specifies the number of entries to read from ldap at a time.
+     * @return stream of matching events, must be closed if not read to the end.
+     * @throws FinderException in the event the search could not be started.
+     */
+    Stream<AuthZ> streamAuthZs( UserAudit audit, int pageSize ) throws FinderException
+    {
+        LdapConnection ld = null;
+        String auditRoot = Config.getInstance().getProperty( AUDIT_ROOT );
+        String permRoot = getRootDn( audit.isAdmin(), audit.getContextId() );
+        String userRoot = getRootDn( audit.getContextId(), GlobalIds.USER_ROOT );
+
+        try
+        {
+            String filter = getSearchAuthZsFilter( audit, permRoot, userRoot );
+            ld = getLogConnection( audit.getContextId() );
+            PagedSearchCursor cursor = searchPaged( ld, auditRoot, SearchScope.ONELEVEL, filter, AUDIT_AUTHZ_ATRS, false,
+                pageSize );
+            return stream( cursor, new EntryMapper<AuthZ>()
+            {
+                @Override
+                public AuthZ map( Entry entry, long sequence ) throws LdapException
+                {
+                    return getAuthzEntityFromLdapEntry( entry, sequence );
+                }
+            }, GlobalErrIds.AUDT_AUTHZ_SEARCH_FAILED, closeLogConnectionTask( ld ) );
+        }
+        catch ( LdapException e )
+        {
+            closeLogConnection( ld );
+            String error = "LdapException in AuditDAO.searchAuthZs id=" + e;
+            throw new FinderException( GlobalErrIds.AUDT_AUTHZ_SEARCH_FAILED, error, e );
+        }
+    }
+
+
+    private String getSearchAuthZsFilter( UserAudit audit, String permRoot, String userRoot )
+    {
+        String reqDn = PermDAO.getOpRdn( audit.getOpName(), audit.getObjId() ) + "," + GlobalIds.POBJ_NAME + "="
+            + audit.getObjName() + "," + permRoot;
+        String filter = GlobalIds.FILTER_PREFIX + ACCESS_AUTHZ_CLASS_NM + ")(" + REQDN + "=" +
+            reqDn + ")(" + REQUAUTHZID + "=" + SchemaConstants.UID_AT + "=" + audit.getUserId() + "," + userRoot
+            + ")";
+
+        if ( audit.isFailedOnly() )
+        {
+            filter += "(" + REQRESULT + "=" + GlobalIds.AUTHZ_COMPARE_FAILURE_FLAG + ")";
+        }
+
+        if ( audit.getBeginDate() != null )
+        {
+            String szTime = TUtil.encodeGeneralizedTime( audit.getBeginDate() );
+            filter += "(" + REQEND + ">=" + szTime + ")";
+        }
+
+        filter += ")";
+
+        return filter;
+    }
+
+
     private String getRootDn( boolean isAdmin, String contextId )
     {
         String dn;
@@ -433,7 +481,7 @@ final class AuditDAO extends LdapDataProvider
             filter += ")";
 
             //log.warn("filter=" + filter);
-            ld = getLogConnection();
+            ld = getLogConnection( audit.getContextId() );
             SearchCursor searchResults = search( ld, auditRoot,
                 SearchScope.ONELEVEL, filter, AUDIT_AUTHZ_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -516,7 +564,7 @@ final class AuditDAO extends LdapDataProvider
             }
 
             //log.warn("filter=" + filter);
-            ld = getLogConnection();
+            ld = getLogConnection( audit.getContextId() );
             SearchCursor searchResults = search( ld, auditRoot,
                 SearchScope.ONELEVEL, filter, AUDIT_BIND_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -572,7 +620,7 @@ final class AuditDAO extends LdapDataProvider
 
             filter += ")";
             //log.warn("filter=" + filter);
-            ld = getLogConnection();
+            ld = getLogConnection( audit.getContextId() );
             SearchCursor searchResults = search( ld, auditRoot,
                 SearchScope.ONELEVEL, filter, AUDIT_MOD_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -662,7 +710,7 @@ final class AuditDAO extends LdapDataProvider
 
             filter += ")";
             //log.warn("filter=" + filter);
-            ld = getLogConnection();
+            ld = getLogConnection( audit.getContextId() );
             SearchCursor searchResults = search( ld, auditRoot,
                 SearchScope.ONELEVEL, filter, AUDIT_MOD_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -21,6 +21,7 @@ package org.apache.directory.fortress.core.impl;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.directory.fortress.annotation.AdminPermissionOperation;
@@ -142,6 +143,22 @@ public class AuditMgrImpl extends Manageable implements AuditMgr, Serializable
     }
 
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @AdminPermissionOperation(operationName="searchAuthZs")
+    public Stream<AuthZ> streamAuthZs(UserAudit uAudit, int pageSize)
+        throws SecurityException
+    {
+        // Same permission as the list variant:
+        String methodName = "searchAuthZs";
+        assertContext(CLS_NM, methodName, uAudit, GlobalErrIds.AUDT_INPUT_NULL);
+        checkAccess(CLS_NM, methodName);
+        return auditP.streamAuthZs(uAudit, pageSize);
+    }
+
+
     /**
      * {@inheritDoc}
      */
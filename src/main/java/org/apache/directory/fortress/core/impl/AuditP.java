@@ -21,6 +21,7 @@ package org.apache.directory.fortress.core.impl;
 
 
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.apache.directory.fortress.core.SecurityException;
 import org.apache.directory.fortress.core.model.AuthZ;
@@ -83,6 +84,21 @@ final class AuditP
     }
 
 
+    /**
+     * Same as {@link #searchAuthZs(UserAudit)} but the events are read from the directory a page at a time as the stream is
+     * consumed.
+     *
+     * @param uAudit   This entity is instantiated and populated before invocation.
+     * @param pageSize the number of entries to read from the directory at a time.
+     * @return a Stream of objects of type AuthZ, must be closed if not read to the end.
+     * @throws SecurityException in the event the search could not be started.
+     */
+    Stream<AuthZ> streamAuthZs( UserAudit uAudit, int pageSize ) throws SecurityException
+    {
+        return aDao.streamAuthZs( uAudit, pageSize );
+    }
+
+
     /**
      * This method returns a list of authentication audit events for a particular user {@link UserAudit#userId},
      * and given timestamp field {@link UserAudit#beginDate}.<BR>
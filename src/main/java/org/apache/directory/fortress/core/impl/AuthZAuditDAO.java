@@ -0,0 +1,96 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.directory.api.ldap.model.entry.DefaultAttribute;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.exception.LdapNoSuchObjectException;
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.ldap.LdapDataProvider;
+import org.apache.directory.ldap.client.api.LdapConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * This class writes batches of {@link AuthZAuditEvent}s to the ldap server.  Each event is an ldap compare using OpenLDAP's Proxy Authorization Control
+ * to assert identity of end user onto connection, which leaves a record of the authorization decision in the slapd access log.
+ * A batch is processed over a single connection taken from the pool.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class AuthZAuditDAO extends LdapDataProvider
+{
+    private static final String CLS_NM = AuthZAuditDAO.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+
+
+    /**
+     * Perform LDAP compare operations to associate audit records with user authorization events.
+     *
+     * @param events contains the authorization events to record.
+     * @return the events that could not be written, empty if none.
+     */
+    List<AuthZAuditEvent> audit( List<AuthZAuditEvent> events )
+    {
+        List<AuthZAuditEvent> failed = new ArrayList<>();
+        LdapConnection ld = null;
+
+        try
+        {
+            ld = getAdminConnection();
+            for ( AuthZAuditEvent event : events )
+            {
+                try
+                {
+                    compareNode( ld, event.getPermDn(), event.getUserDn(),
+                        new DefaultAttribute( GlobalIds.POP_NAME, event.getAttributeValue() ) );
+                }
+                catch ( LdapNoSuchObjectException e )
+                {
+                    // The permission was removed after the decision was made, the access log still has the record.
+                }
+                catch ( LdapException | UnsupportedEncodingException e )
+                {
+                    failed.add( event );
+                    LOG.warn( "audit permDn [{}] userDn [{}] caught {}", event.getPermDn(), event.getUserDn(), e.toString() );
+                }
+            }
+        }
+        catch ( LdapException e )
+        {
+            failed.addAll( events );
+            LOG.warn( "audit could not get connection for batch of [{}] caught LdapException={}", events.size(), e.getMessage() );
+        }
+        finally
+        {
+            closeAdminConnection( ld );
+        }
+
+        return failed;
+    }
+}
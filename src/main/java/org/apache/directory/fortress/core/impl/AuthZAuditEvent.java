@@ -0,0 +1,119 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+
+
+/**
+ * Contains the data needed to record a single authorization event in the ldap server's access log.  It is passed from
+ * {@link PermDAO} to the {@link AuthZAuditQueue} and written by the {@link AuthZAuditDAO}.
+ * <p>
+ * This class is immutable and thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class AuthZAuditEvent
+{
+    private static final String ENCODING = "UTF-8";
+    private static final char FIELD_DELIMITER = ' ';
+    private final String permDn;
+    private final String userDn;
+    private final String attributeValue;
+
+
+    /**
+     * @param permDn         contains distinguished name of the permission object.
+     * @param userDn         contains the distinguished name of the user object.
+     * @param attributeValue will be associated with the 'audit' record stored in ldap.
+     */
+    AuthZAuditEvent( String permDn, String userDn, String attributeValue )
+    {
+        this.permDn = permDn;
+        this.userDn = userDn;
+        this.attributeValue = attributeValue;
+    }
+
+
+    String getPermDn()
+    {
+        return permDn;
+    }
+
+
+    String getUserDn()
+    {
+        return userDn;
+    }
+
+
+    String getAttributeValue()
+    {
+        return attributeValue;
+    }
+
+
+    /**
+     * Convert to a single line of text used when the event is spilled to local disk.
+     *
+     * @return encoded line.
+     */
+    String toLine()
+    {
+        try
+        {
+            return URLEncoder.encode( permDn, ENCODING ) + FIELD_DELIMITER + URLEncoder.encode( userDn, ENCODING )
+                + FIELD_DELIMITER + URLEncoder.encode( attributeValue, ENCODING );
+        }
+        catch ( UnsupportedEncodingException e )
+        {
+            // UTF-8 is always supported.
+            throw new IllegalStateException( e );
+        }
+    }
+
+
+    /**
+     * Convert a line created by {@link #toLine()} back to an event.
+     *
+     * @param line encoded line.
+     * @return the event or null if line is malformed.
+     */
+    static AuthZAuditEvent fromLine( String line )
+    {
+        String[] fields = line.split( String.valueOf( FIELD_DELIMITER ) );
+        if ( fields.length != 3 )
+        {
+            return null;
+        }
+        try
+        {
+            return new AuthZAuditEvent( URLDecoder.decode( fields[0], ENCODING ),
+                URLDecoder.decode( fields[1], ENCODING ), URLDecoder.decode( fields[2], ENCODING ) );
+        }
+        catch ( UnsupportedEncodingException | IllegalArgumentException e )
+        {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,696 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.util.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * This class decouples the authorization audit trail from {@link org.apache.directory.fortress.core.AccessMgr#checkAccess}.  Audit events are placed on a
+ * bounded queue and the caller returns immediately with its decision.  A background worker drains the queue in batches
+ * and writes them to the ldap server using {@link AuthZAuditDAO}.
+ * <p>
+ * When the queue is full, one of the following policies is applied, fortress config param: 'audit.queue.overflow':
+ * <ul>
+ *   <li>DROP_OLDEST - the oldest event on the queue is discarded to make room.  This is the default.</li>
+ *   <li>SPILL - the event is appended to a spill file in the directory 'audit.spill.dir', and replayed once the queue has
+ *   drained.  The events that could not be written to the ldap server are spilled as well, and retried later.</li>
+ *   <li>BLOCK - the caller waits until there is room on the queue, i.e. on the ldap server when it is slow.</li>
+ * </ul>
+ * Nothing is spilled unless 'audit.spill.dir' is set, SPILL falls back to DROP_OLDEST without it.  The spill files hold user
+ * dns and the objects they accessed, they are created readable by their owner only.  Each instance spills to a file of its
+ * own, locked while it is in use.  Spill files left behind by a process that has stopped, i.e. that are no longer locked,
+ * are replayed by the next one started with the same directory.
+ * <p>
+ * {@link #close()}, also run at JVM shutdown, writes the events still queued to the ldap server, or spills those it cannot
+ * write in time.  Events added after it are spilled.  Events that are neither written nor spilled are counted as dropped,
+ * and logged as a warning.
+ * <p>
+ * The queue depth along with counts of dropped, spilled and failed events may be obtained from this class for monitoring.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class AuthZAuditQueue
+{
+    private static final String CLS_NM = AuthZAuditQueue.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    private static final int DEFAULT_QUEUE_SIZE = 10000;
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final int DEFAULT_CLOSE_TIMEOUT = 10;
+    private static final String SPILL_PREFIX = "fortress-audit-spill-";
+    private static final String SPILL_SUFFIX = ".log";
+    private static final String REPLAY_SUFFIX = ".replay";
+    private static final long IDLE_WAIT_MILLIS = 100;
+    // Wait before replaying again after a write failed:
+    private static final long RETRY_MILLIS = 5000;
+    private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString( "rw-------" );
+
+    /**
+     * Determines what happens to an audit event when the queue is full.
+     */
+    public enum OverflowPolicy
+    {
+        BLOCK,
+        DROP_OLDEST,
+        SPILL
+    }
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final Object spillLock = new Object();
+    private final AuthZAuditDAO auditDao = new AuthZAuditDAO();
+    private BlockingQueue<AuthZAuditEvent> queue;
+    private int capacity;
+    private int batchSize;
+    private int closeTimeout;
+    private OverflowPolicy overflowPolicy;
+    private File spillDir;
+    private File spillFile;
+    private SpillFile spillOut;
+    private Thread worker;
+    private volatile boolean closed;
+    // Only read and written by the worker thread:
+    private long retryAt;
+
+    private static volatile AuthZAuditQueue sINSTANCE = null;
+
+    public static AuthZAuditQueue getInstance()
+    {
+        if(sINSTANCE == null)
+        {
+            synchronized (AuthZAuditQueue.class)
+            {
+                if(sINSTANCE == null)
+                {
+                    sINSTANCE = new AuthZAuditQueue();
+                }
+            }
+        }
+        return sINSTANCE;
+    }
+
+    /**
+     * Private constructor
+     *
+     */
+    private AuthZAuditQueue()
+    {
+        init();
+    }
+
+    private void init()
+    {
+        Config cfg = Config.getInstance();
+        capacity = cfg.getInt( GlobalIds.AUDIT_QUEUE_SIZE, DEFAULT_QUEUE_SIZE );
+        batchSize = cfg.getInt( GlobalIds.AUDIT_BATCH_SIZE, DEFAULT_BATCH_SIZE );
+        closeTimeout = cfg.getInt( GlobalIds.AUDIT_CLOSE_TIMEOUT, DEFAULT_CLOSE_TIMEOUT );
+        String policy = cfg.getProperty( GlobalIds.AUDIT_OVERFLOW, OverflowPolicy.DROP_OLDEST.name() );
+        try
+        {
+            overflowPolicy = OverflowPolicy.valueOf( policy.trim().toUpperCase( Locale.ENGLISH ) );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            LOG.warn( "init invalid {} [{}], using {}", GlobalIds.AUDIT_OVERFLOW, policy, OverflowPolicy.DROP_OLDEST );
+            overflowPolicy = OverflowPolicy.DROP_OLDEST;
+        }
+        queue = new LinkedBlockingQueue<>( capacity );
+        String dir = cfg.getProperty( GlobalIds.AUDIT_SPILL_DIR );
+        if ( StringUtils.isNotBlank( dir ) )
+        {
+            spillDir = new File( dir.trim() );
+            spillFile = new File( spillDir, SPILL_PREFIX + UUID.randomUUID() + SPILL_SUFFIX );
+        }
+        else if ( overflowPolicy == OverflowPolicy.SPILL )
+        {
+            LOG.warn( "init {} requires {}, using {}", OverflowPolicy.SPILL, GlobalIds.AUDIT_SPILL_DIR,
+                OverflowPolicy.DROP_OLDEST );
+            overflowPolicy = OverflowPolicy.DROP_OLDEST;
+        }
+        LOG.info( "init audit queue size [{}] batch size [{}] overflow policy [{}] spill file [{}]", capacity, batchSize,
+            overflowPolicy, spillFile );
+
+        worker = new Thread( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                drain();
+            }
+        }, "fortress-authz-audit" );
+        worker.setDaemon( true );
+        worker.start();
+        Runtime.getRuntime().addShutdownHook( new Thread( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                close();
+            }
+        }, "fortress-authz-audit-close" ) );
+    }
+
+
+    /**
+     * Place an audit event on the queue.  Unless the overflow policy is BLOCK and the queue is full, this method does not wait.
+     *
+     * @param event contains the authorization event to record.
+     */
+    void add( AuthZAuditEvent event )
+    {
+        if ( closed )
+        {
+            spill( event );
+            return;
+        }
+        if ( overflowPolicy == OverflowPolicy.SPILL )
+        {
+            if ( !queue.offer( event ) )
+            {
+                spill( event );
+                return;
+            }
+        }
+        else if ( overflowPolicy == OverflowPolicy.DROP_OLDEST )
+        {
+            while ( !queue.offer( event ) )
+            {
+                // Take the place of the oldest event.
+                if ( queue.poll() != null )
+                {
+                    dropped.incrementAndGet();
+                }
+            }
+        }
+        else
+        {
+            try
+            {
+                queue.put( event );
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                spill( event );
+                return;
+            }
+        }
+        enqueued.incrementAndGet();
+    }
+
+
+    /**
+     * Stop taking events.  Those still queued are written to the ldap server, waiting at most 'audit.close.timeout' seconds,
+     * and spilled if they could not be written in that time.  Runs at JVM shutdown, may be called earlier, e.g. when the
+     * application is undeployed.
+     */
+    public void close()
+    {
+        if ( closed )
+        {
+            return;
+        }
+        closed = true;
+        try
+        {
+            worker.join( TimeUnit.SECONDS.toMillis( closeTimeout ) );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        List<AuthZAuditEvent> left = new ArrayList<>();
+        queue.drainTo( left );
+        if ( !left.isEmpty() )
+        {
+            LOG.warn( "close could not write [{}] queued events in {} seconds", left.size(), closeTimeout );
+            spill( left );
+        }
+        synchronized ( spillLock )
+        {
+            if ( spillOut != null )
+            {
+                // keep the file for the next process to replay:
+                spillOut.close();
+                spillOut = null;
+            }
+        }
+        LOG.info( "close audit queue written [{}] spilled [{}] dropped [{}] failed [{}]", written.get(), spilled.get(),
+            dropped.get(), failed.get() );
+    }
+
+
+    /**
+     * @return the number of events currently waiting on the queue.
+     */
+    public int getDepth()
+    {
+        return queue.size();
+    }
+
+
+    /**
+     * @return the maximum number of events that may wait on the queue.
+     */
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+
+    /**
+     * @return the overflow policy in use.
+     */
+    public OverflowPolicy getOverflowPolicy()
+    {
+        return overflowPolicy;
+    }
+
+
+    /**
+     * @return the total number of events placed on the queue.
+     */
+    public long getEnqueued()
+    {
+        return enqueued.get();
+    }
+
+
+    /**
+     * @return the total number of events written to the ldap server.
+     */
+    public long getWritten()
+    {
+        return written.get();
+    }
+
+
+    /**
+     * @return the total number of events discarded due to overflow.
+     */
+    public long getDropped()
+    {
+        return dropped.get();
+    }
+
+
+    /**
+     * @return the total number of events spilled to local disk due to overflow.
+     */
+    public long getSpilled()
+    {
+        return spilled.get();
+    }
+
+
+    /**
+     * @return the total number of events that could not be written to the ldap server.
+     */
+    public long getFailed()
+    {
+        return failed.get();
+    }
+
+
+    /**
+     * Run by the worker thread.  Take batches off the queue and write them.  When the queue is empty, replay any events that
+     * were spilled to disk.  Once closed, write what is left on the queue and stop.
+     */
+    private void drain()
+    {
+        replayOrphans();
+        List<AuthZAuditEvent> batch = new ArrayList<>( batchSize );
+        while ( true )
+        {
+            try
+            {
+                AuthZAuditEvent event = queue.poll( IDLE_WAIT_MILLIS, TimeUnit.MILLISECONDS );
+                if ( event != null )
+                {
+                    batch.add( event );
+                    queue.drainTo( batch, batchSize - 1 );
+                    write( batch );
+                    batch.clear();
+                }
+                else if ( closed )
+                {
+                    return;
+                }
+                else if ( System.currentTimeMillis() >= retryAt )
+                {
+                    replay();
+                }
+            }
+            catch ( InterruptedException e )
+            {
+                return;
+            }
+            catch ( RuntimeException e )
+            {
+                LOG.error( "drain caught RuntimeException={}", e.getMessage(), e );
+                batch.clear();
+            }
+        }
+    }
+
+
+    /**
+     * Write a batch.  Under SPILL the events that failed are spilled, to be retried once the replay is due, otherwise they
+     * are lost.
+     */
+    private void write( List<AuthZAuditEvent> batch )
+    {
+        List<AuthZAuditEvent> notWritten = auditDao.audit( batch );
+        written.addAndGet( batch.size() - notWritten.size() );
+        if ( notWritten.isEmpty() )
+        {
+            return;
+        }
+        failed.addAndGet( notWritten.size() );
+        retryAt = System.currentTimeMillis() + RETRY_MILLIS;
+        if ( overflowPolicy == OverflowPolicy.SPILL )
+        {
+            spill( notWritten );
+        }
+        else
+        {
+            LOG.warn( "write lost [{}] of [{}] events that could not be written, policy [{}]", notWritten.size(),
+                batch.size(), overflowPolicy );
+        }
+    }
+
+
+    private void spill( AuthZAuditEvent event )
+    {
+        spill( Collections.singletonList( event ) );
+    }
+
+
+    /**
+     * Append events to the spill file of this instance, creating and locking it first if needed.  Without a spill directory,
+     * or if the file cannot be written, the events are dropped.
+     *
+     * @param events contains the authorization events to record.
+     */
+    private void spill( List<AuthZAuditEvent> events )
+    {
+        if ( spillDir == null )
+        {
+            dropped.addAndGet( events.size() );
+            LOG.warn( "spill dropped [{}] events, {} is not set", events.size(), GlobalIds.AUDIT_SPILL_DIR );
+            return;
+        }
+        synchronized ( spillLock )
+        {
+            try
+            {
+                if ( spillOut == null )
+                {
+                    create( spillFile );
+                    spillOut = SpillFile.lock( spillFile );
+                    if ( spillOut == null )
+                    {
+                        throw new IOException( "locked by another process" );
+                    }
+                }
+                for ( AuthZAuditEvent event : events )
+                {
+                    spillOut.writer.write( event.toLine() );
+                    spillOut.writer.write( '\n' );
+                }
+                spillOut.writer.flush();
+                spilled.addAndGet( events.size() );
+            }
+            catch ( IOException e )
+            {
+                dropped.addAndGet( events.size() );
+                LOG.warn( "spill file [{}] dropped [{}] events, caught IOException={}", spillFile, events.size(),
+                    e.getMessage() );
+            }
+        }
+    }
+
+
+    /**
+     * Create a spill file, if it does not exist, readable and writable by its owner only.
+     */
+    private static void create( File file ) throws IOException
+    {
+        if ( file.exists() )
+        {
+            return;
+        }
+        Path path = file.toPath();
+        if ( FileSystems.getDefault().supportedFileAttributeViews().contains( "posix" ) )
+        {
+            Files.createFile( path, PosixFilePermissions.asFileAttribute( OWNER_ONLY ) );
+        }
+        else
+        {
+            Files.createFile( path );
+            boolean owner = file.setReadable( false, false ) && file.setReadable( true, true ) && file.setWritable(
+                false, false ) && file.setWritable( true, true );
+            if ( !owner )
+            {
+                LOG.warn( "create could not restrict file [{}] to its owner", file );
+            }
+        }
+    }
+
+
+    /**
+     * Move the spill file of this instance aside, still locked, and write its events.
+     *
+     * @return true if events were replayed.
+     */
+    private boolean replay()
+    {
+        SpillFile replayFile;
+        synchronized ( spillLock )
+        {
+            if ( spillOut == null )
+            {
+                return false;
+            }
+            File renamed = new File( spillFile.getPath() + REPLAY_SUFFIX );
+            if ( !spillFile.renameTo( renamed ) )
+            {
+                LOG.warn( "replay could not rename file [{}]", spillFile );
+                return false;
+            }
+            replayFile = spillOut;
+            replayFile.file = renamed;
+            spillOut = null;
+        }
+        replay( replayFile );
+        return true;
+    }
+
+
+    /**
+     * Replay the spill files in 'audit.spill.dir' that no running process holds, e.g. left behind by one that crashed.
+     */
+    private void replayOrphans()
+    {
+        if ( spillDir == null )
+        {
+            return;
+        }
+        File[] files = spillDir.listFiles( new FileFilter()
+        {
+            @Override
+            public boolean accept( File file )
+            {
+                String name = file.getName();
+                return file.isFile() && name.startsWith( SPILL_PREFIX ) && ( name.endsWith( SPILL_SUFFIX ) || name
+                    .endsWith( SPILL_SUFFIX + REPLAY_SUFFIX ) );
+            }
+        } );
+        if ( files == null )
+        {
+            return;
+        }
+        for ( File file : files )
+        {
+            if ( file.equals( spillFile ) )
+            {
+                continue;
+            }
+            try
+            {
+                SpillFile orphan = SpillFile.lock( file );
+                if ( orphan != null )
+                {
+                    LOG.info( "replayOrphans replaying file [{}]", file );
+                    replay( orphan );
+                }
+            }
+            catch ( IOException e )
+            {
+                LOG.warn( "replayOrphans file [{}] caught IOException={}", file, e.getMessage() );
+            }
+        }
+    }
+
+
+    /**
+     * Write the events of a locked spill file, then delete and unlock it.
+     */
+    private void replay( SpillFile replayFile )
+    {
+        List<AuthZAuditEvent> batch = new ArrayList<>( batchSize );
+        try
+        {
+            replayFile.channel.position( 0 );
+            BufferedReader reader = new BufferedReader( new InputStreamReader( Channels.newInputStream(
+                replayFile.channel ), StandardCharsets.UTF_8 ) );
+            String line;
+            while ( ( line = reader.readLine() ) != null )
+            {
+                AuthZAuditEvent event = AuthZAuditEvent.fromLine( line );
+                if ( event != null )
+                {
+                    batch.add( event );
+                }
+                if ( batch.size() == batchSize )
+                {
+                    write( batch );
+                    batch.clear();
+                }
+            }
+            if ( !batch.isEmpty() )
+            {
+                write( batch );
+            }
+        }
+        catch ( IOException e )
+        {
+            LOG.warn( "replay file [{}] caught IOException={}", replayFile.file, e.getMessage() );
+        }
+        // delete before unlocking, so no other process replays it again:
+        if ( !replayFile.file.delete() )
+        {
+            LOG.warn( "replay could not delete file [{}]", replayFile.file );
+        }
+        replayFile.close();
+    }
+
+
+    /**
+     * A spill file held under an exclusive lock.
+     */
+    private static final class SpillFile
+    {
+        private File file;
+        private final FileChannel channel;
+        private final FileLock lock;
+        private final Writer writer;
+
+
+        private SpillFile( File file, FileChannel channel, FileLock lock )
+        {
+            this.file = file;
+            this.channel = channel;
+            this.lock = lock;
+            this.writer = new BufferedWriter( Channels.newWriter( channel, StandardCharsets.UTF_8.newEncoder(), -1 ) );
+        }
+
+
+        /**
+         * Open and lock a file, appending to what it holds.
+         *
+         * @return the locked file, or null if another process or instance holds it.
+         */
+        private static SpillFile lock( File file ) throws IOException
+        {
+            FileChannel channel = new RandomAccessFile( file, "rw" ).getChannel();
+            try
+            {
+                FileLock lock = channel.tryLock();
+                // a file deleted since it was opened has been replayed by its previous holder:
+                if ( lock != null && file.exists() )
+                {
+                    channel.position( channel.size() );
+                    return new SpillFile( file, channel, lock );
+                }
+            }
+            catch ( OverlappingFileLockException e )
+            {
+                // held by this JVM
+            }
+            channel.close();
+            return null;
+        }
+
+
+        private void close()
+        {
+            try
+            {
+                writer.flush();
+                lock.release();
+                channel.close();
+            }
+            catch ( IOException e )
+            {
+                LOG.warn( "close file [{}] caught IOException={}", file, e.getMessage() );
+            }
+        }
+    }
+}
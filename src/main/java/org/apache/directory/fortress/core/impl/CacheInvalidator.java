@@ -0,0 +1,540 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.directory.api.ldap.model.constants.SchemaConstants;
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.SecurityException;
+import org.apache.directory.fortress.core.model.OrgUnit;
+import org.apache.directory.fortress.core.util.Config;
+import org.apache.directory.fortress.core.util.ConfigSnapshot;
+import org.apache.directory.fortress.core.util.cache.CacheMgr;
+import org.apache.directory.fortress.core.util.time.TUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Keeps the caches of this process current with the changes other processes make to the directory.  Every
+ * 'cache.invalidation.interval' seconds, the entries changed since the last read are found with {@link ChangeDAO}, each is
+ * mapped to the container and tenant it is under, and the caches built from that container are invalidated for that tenant:
+ * the hierarchies and constraints of a tenant are reloaded in the background, the indexes of permissions, org units and
+ * policies are removed, and a changed user is removed from {@link UserCache}.  A change is applied at most one interval, plus
+ * the time to read it, after it is made.
+ * <p>
+ * The changes are read from the OpenLDAP access log, which must log writes, or by the 'modifyTimestamp' of the entries, which
+ * must be indexed, and does not show deletes; a deleted entry leaves the caches until they expire or are reloaded.  When more
+ * than 'cache.invalidation.max' changes are read at once, every cache is cleared.
+ * <p>
+ * Off unless 'cache.invalidation.interval' is set.  The counts are published over JMX, see {@link CacheInvalidatorMXBean}.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class CacheInvalidator implements CacheInvalidatorMXBean
+{
+    private static final String CLS_NM = CacheInvalidator.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    private static final String OBJECT_NAME = "org.apache.directory.fortress:type=CacheInvalidator";
+    static final String ACCESSLOG = "accesslog";
+    static final String TIMESTAMP = "timestamp";
+    private static final int DEFAULT_MAX = 1000;
+    private static final char SEP = '\0';
+    // The containers whose entries are cached, most specific first when one is under another:
+    private static final String[] ROOTS =
+        {
+            GlobalIds.ROLE_ROOT, GlobalIds.ADMIN_ROLE_ROOT, GlobalIds.OSU_ROOT, GlobalIds.PSU_ROOT, GlobalIds.SD_ROOT,
+            GlobalIds.PPOLICY_ROOT, GlobalIds.ADS_PPOLICY_ROOT, GlobalIds.PERM_ROOT, GlobalIds.ADMIN_PERM_ROOT,
+            GlobalIds.USER_ROOT
+    };
+    private static volatile CacheInvalidator sINSTANCE = null;
+
+    // Created only when the changes are read:
+    private ChangeDAO changeDAO;
+    private OrgUnitP orgUnitP;
+    private PolicyP policyP;
+    private final String source;
+    private final int maxEntries;
+    private final AtomicLong polls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong changes = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong overflows = new AtomicLong();
+    // Only read and written by the poller thread:
+    private String since;
+    private Set<String> seen = new HashSet<>();
+    private volatile long lastPoll;
+    private volatile String lastChange;
+
+
+    /**
+     * Start reading the changes, if fortress config param 'cache.invalidation.interval' is set.  Called by
+     * {@link CacheServices#start()}.
+     *
+     * @return the invalidator.
+     */
+    static CacheInvalidator getInstance()
+    {
+        if ( sINSTANCE == null )
+        {
+            synchronized ( CacheInvalidator.class )
+            {
+                if ( sINSTANCE == null )
+                {
+                    sINSTANCE = new CacheInvalidator();
+                }
+            }
+        }
+        return sINSTANCE;
+    }
+
+
+    private CacheInvalidator()
+    {
+        Config cfg = Config.getInstance();
+        int interval = cfg.getInt( GlobalIds.CACHE_INVALIDATION_INTERVAL, 0 );
+        source = cfg.getProperty( GlobalIds.CACHE_INVALIDATION_SOURCE, cfg.isOpenldap() ? ACCESSLOG : TIMESTAMP );
+        maxEntries = cfg.getInt( GlobalIds.CACHE_INVALIDATION_MAX, DEFAULT_MAX );
+        if ( interval > 0 )
+        {
+            changeDAO = new ChangeDAO();
+            orgUnitP = new OrgUnitP();
+            policyP = new PolicyP();
+            since = TUtil.encodeGeneralizedTime( new Date( System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(
+                interval ) ) );
+            ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor( new ThreadFactory()
+            {
+                @Override
+                public Thread newThread( Runnable runnable )
+                {
+                    Thread thread = new Thread( runnable, "fortress-cache-invalidator" );
+                    thread.setDaemon( true );
+                    return thread;
+                }
+            } );
+            poller.scheduleWithFixedDelay( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    poll();
+                }
+            }, interval, interval, TimeUnit.SECONDS );
+            register();
+            LOG.info( "CacheInvalidator reading the {} every {} seconds", source, interval );
+        }
+    }
+
+
+    /**
+     * Read the changes made since the last read and invalidate the caches they affect.
+     */
+    private void poll()
+    {
+        long start = System.currentTimeMillis();
+        polls.incrementAndGet();
+        try
+        {
+            List<ChangeDAO.Change> found = ACCESSLOG.equalsIgnoreCase( source ) ? changeDAO.findLogChanges( since,
+                maxEntries ) : changeDAO.findEntryChanges( since, maxEntries );
+            String newSince = since;
+            String latest = null;
+            Set<String> newSeen = new HashSet<>();
+            Set<String> targets = new LinkedHashSet<>();
+            ConfigSnapshot cfg = Config.getInstance().getSnapshot();
+            Map<String, String> containers = getContainers( cfg );
+            String suffix = normalize( cfg.getSuffix() ).toLowerCase();
+            for ( ChangeDAO.Change change : found )
+            {
+                String key = change.getDn() + SEP + change.getTime();
+                if ( change.getTime() == null || seen.contains( key ) )
+                {
+                    // read at the end of the previous poll
+                    continue;
+                }
+                changes.incrementAndGet();
+                if ( latest == null || change.getTime().compareTo( latest ) > 0 )
+                {
+                    latest = change.getTime();
+                }
+                int order = change.getTime().compareTo( newSince );
+                if ( order > 0 )
+                {
+                    newSince = change.getTime();
+                    newSeen.clear();
+                }
+                if ( order >= 0 )
+                {
+                    newSeen.add( key );
+                }
+                String target = getTarget( change.getDn(), suffix, containers );
+                if ( target != null )
+                {
+                    targets.add( target );
+                }
+            }
+            if ( found.size() >= maxEntries )
+            {
+                // Some changes were not read, clear everything and move past them.
+                overflows.incrementAndGet();
+                LOG.warn( "poll read {} or more changes since {}, clearing all caches", maxEntries, since );
+                CacheMgr.getInstance().clearAll();
+                newSince = TUtil.encodeGeneralizedTime( new Date( start ) );
+                newSeen.clear();
+            }
+            else
+            {
+                for ( String target : targets )
+                {
+                    invalidate( target );
+                }
+            }
+            if ( !newSince.equals( since ) )
+            {
+                seen = newSeen;
+            }
+            else
+            {
+                seen.addAll( newSeen );
+            }
+            if ( latest != null )
+            {
+                lastChange = latest;
+            }
+            since = newSince;
+            lastPoll = start;
+        }
+        catch ( SecurityException e )
+        {
+            failures.incrementAndGet();
+            LOG.warn( "poll since {} caught SecurityException={}", since, e.getMessage() );
+        }
+        catch ( RuntimeException e )
+        {
+            failures.incrementAndGet();
+            LOG.error( "poll since {} caught RuntimeException={}", since, e.getMessage(), e );
+        }
+    }
+
+
+    /**
+     * Invalidate the caches built from a container of a tenant.  The default tenant is cached both as null and as HOME.
+     */
+    private void invalidate( String target )
+    {
+        String[] parts = StringUtils.splitPreserveAllTokens( target, SEP );
+        String root = parts[0];
+        String contextId = parts[1];
+        String[] contextIds = GlobalIds.HOME.equals( contextId ) ? new String[]
+            { null, GlobalIds.HOME } : new String[]
+            { contextId };
+        LOG.debug( "invalidate {} context [{}]", root, contextId );
+        invalidations.incrementAndGet();
+        for ( String ctx : contextIds )
+        {
+            if ( GlobalIds.ROLE_ROOT.equals( root ) )
+            {
+                RoleUtil.getInstance().invalidate( ctx );
+            }
+            else if ( GlobalIds.ADMIN_ROLE_ROOT.equals( root ) )
+            {
+                AdminRoleUtil.invalidate( ctx );
+            }
+            else if ( GlobalIds.OSU_ROOT.equals( root ) )
+            {
+                UsoUtil.getInstance().invalidate( ctx );
+                orgUnitP.invalidate( OrgUnit.Type.USER, ctx );
+            }
+            else if ( GlobalIds.PSU_ROOT.equals( root ) )
+            {
+                PsoUtil.getInstance().invalidate( ctx );
+                orgUnitP.invalidate( OrgUnit.Type.PERM, ctx );
+            }
+            else if ( GlobalIds.SD_ROOT.equals( root ) )
+            {
+                SDUtil.getInstance().invalidate( ctx );
+            }
+            else if ( GlobalIds.PPOLICY_ROOT.equals( root ) || GlobalIds.ADS_PPOLICY_ROOT.equals( root ) )
+            {
+                policyP.invalidate( ctx );
+            }
+            else if ( GlobalIds.PERM_ROOT.equals( root ) )
+            {
+                PermUtil.getInstance().invalidate( ctx, false );
+            }
+            else if ( GlobalIds.ADMIN_PERM_ROOT.equals( root ) )
+            {
+                PermUtil.getInstance().invalidate( ctx, true );
+            }
+            else if ( GlobalIds.USER_ROOT.equals( root ) )
+            {
+                UserCache.getInstance().remove( ctx, parts[2] );
+            }
+        }
+    }
+
+
+    /**
+     * @return the cached containers, by config param name, each relative to the suffix, normalized and lower case.  The
+     * longest first, so an entry is mapped to the innermost container it is under.
+     */
+    static Map<String, String> getContainers( ConfigSnapshot cfg )
+    {
+        String suffix = "," + normalize( cfg.getSuffix() ).toLowerCase();
+        List<String[]> found = new ArrayList<>();
+        for ( String root : ROOTS )
+        {
+            String name = cfg.getProperty( root );
+            if ( StringUtils.isNotEmpty( name ) )
+            {
+                name = normalize( name ).toLowerCase();
+                if ( name.endsWith( suffix ) )
+                {
+                    found.add( new String[]
+                        { root, name.substring( 0, name.length() - suffix.length() ) } );
+                }
+            }
+        }
+        Collections.sort( found, new Comparator<String[]>()
+        {
+            @Override
+            public int compare( String[] left, String[] right )
+            {
+                return right[1].length() - left[1].length();
+            }
+        } );
+        Map<String, String> containers = new LinkedHashMap<>();
+        for ( String[] container : found )
+        {
+            containers.put( container[0], container[1] );
+        }
+        return containers;
+    }
+
+
+    /**
+     * Map a changed entry to the caches it affects.
+     *
+     * @param dn         of the changed entry.
+     * @param suffix     normalized and lower case.
+     * @param containers from {@link #getContainers(ConfigSnapshot)}.
+     * @return the config param name of the container, a separator and the tenant, HOME for the default, followed for a user
+     * by a separator and its userId.  Null if the entry is not in a cached container.
+     */
+    static String getTarget( String dn, String suffix, Map<String, String> containers )
+    {
+        if ( dn == null )
+        {
+            return null;
+        }
+        String name = normalize( dn );
+        String lower = name.toLowerCase();
+        if ( !lower.endsWith( "," + suffix ) )
+        {
+            return null;
+        }
+        int length = lower.length() - suffix.length() - 1;
+        String rest = lower.substring( 0, length );
+        String contextId = GlobalIds.HOME;
+        String tenant = null;
+        int comma = rest.lastIndexOf( ',' );
+        String prefix = SchemaConstants.OU_AT.toLowerCase() + "=";
+        if ( comma > 0 && rest.startsWith( prefix, comma + 1 ) )
+        {
+            // ou=<contextId> under the suffix
+            tenant = rest.substring( 0, comma );
+        }
+        for ( Map.Entry<String, String> container : containers.entrySet() )
+        {
+            String rel = container.getValue();
+            String found = null;
+            if ( isUnder( rest, rel ) )
+            {
+                found = rest;
+            }
+            else if ( tenant != null && isUnder( tenant, rel ) )
+            {
+                found = tenant;
+                contextId = name.substring( comma + 1 + prefix.length(), length );
+            }
+            if ( found != null )
+            {
+                StringBuilder target = new StringBuilder( container.getKey() ).append( SEP ).append( contextId );
+                if ( GlobalIds.USER_ROOT.equals( container.getKey() ) )
+                {
+                    if ( found.length() == rel.length() )
+                    {
+                        // the container itself
+                        return null;
+                    }
+                    int equals = name.indexOf( '=' );
+                    int end = name.indexOf( ',' );
+                    target.append( SEP ).append( name.substring( equals + 1, end ) );
+                }
+                return target.toString();
+            }
+        }
+        return null;
+    }
+
+
+    private static boolean isUnder( String name, String container )
+    {
+        return name.equals( container ) || name.endsWith( "," + container );
+    }
+
+
+    /**
+     * @return the dn without spaces around the separators, in its original case.
+     */
+    static String normalize( String dn )
+    {
+        StringBuilder name = new StringBuilder( dn.length() );
+        for ( int i = 0; i < dn.length(); i++ )
+        {
+            char c = dn.charAt( i );
+            if ( c == ' ' )
+            {
+                int next = i + 1;
+                while ( next < dn.length() && dn.charAt( next ) == ' ' )
+                {
+                    next++;
+                }
+                boolean before = name.length() == 0 || name.charAt( name.length() - 1 ) == ',' || name.charAt(
+                    name.length() - 1 ) == '=';
+                boolean after = next == dn.length() || dn.charAt( next ) == ',' || dn.charAt( next ) == '=';
+                if ( before || after )
+                {
+                    i = next - 1;
+                    continue;
+                }
+            }
+            name.append( c );
+        }
+        return name.toString();
+    }
+
+
+    private void register()
+    {
+        Config cfg = Config.getInstance();
+        if ( !cfg.getBoolean( GlobalIds.CACHE_METRICS_JMX, cfg.getBoolean( GlobalIds.LDAP_METRICS_JMX, true ) ) )
+        {
+            return;
+        }
+        try
+        {
+            ObjectName name = new ObjectName( OBJECT_NAME );
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if ( server.isRegistered( name ) )
+            {
+                // e.g. another application in this jvm
+                LOG.info( "register {} already registered", OBJECT_NAME );
+                return;
+            }
+            server.registerMBean( this, name );
+        }
+        catch ( JMException | java.lang.SecurityException e )
+        {
+            LOG.warn( "register {} caught {}", OBJECT_NAME, e.toString() );
+        }
+    }
+
+
+    @Override
+    public String getSource()
+    {
+        return source;
+    }
+
+
+    @Override
+    public long getPolls()
+    {
+        return polls.get();
+    }
+
+
+    @Override
+    public long getFailures()
+    {
+        return failures.get();
+    }
+
+
+    @Override
+    public long getChanges()
+    {
+        return changes.get();
+    }
+
+
+    @Override
+    public long getInvalidations()
+    {
+        return invalidations.get();
+    }
+
+
+    @Override
+    public long getOverflows()
+    {
+        return overflows.get();
+    }
+
+
+    @Override
+    public long getLagMillis()
+    {
+        long last = lastPoll;
+        return last == 0 ? -1 : System.currentTimeMillis() - last;
+    }
+
+
+    @Override
+    public String getLastChange()
+    {
+        return lastChange;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+/**
+ * The management interface of {@link CacheInvalidator}, registered with the platform MBean server as
+ * 'org.apache.directory.fortress:type=CacheInvalidator' when fortress config param 'cache.invalidation.interval' is set, unless
+ * 'cache.metrics.jmx' is false.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public interface CacheInvalidatorMXBean
+{
+    /**
+     * @return where the changes are read from, 'accesslog' or 'timestamp'.
+     */
+    String getSource();
+
+
+    /**
+     * @return the number of times the changes were read.
+     */
+    long getPolls();
+
+
+    /**
+     * @return the number of times the changes could not be read.
+     */
+    long getFailures();
+
+
+    /**
+     * @return the number of changed entries read.
+     */
+    long getChanges();
+
+
+    /**
+     * @return the number of caches invalidated, for a tenant or a user.
+     */
+    long getInvalidations();
+
+
+    /**
+     * @return the number of times more changes were read at once than 'cache.invalidation.max', and all caches were cleared.
+     */
+    long getOverflows();
+
+
+    /**
+     * @return the milliseconds since the last read of the changes that succeeded began.  A change made before then has been
+     * applied.  -1 if none has.
+     */
+    long getLagMillis();
+
+
+    /**
+     * @return the generalized time, as recorded by the server, of the last change read.  Null if none.
+     */
+    String getLastChange();
+}
@@ -0,0 +1,87 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.util.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Starts the background services that keep the caches of this process loaded and current, {@link CacheInvalidator} and
+ * {@link CacheWarmer}, each only if it is configured.  Called by the manager factories when they create an ldap manager, not
+ * a REST one, so a REST client neither starts them nor needs the cache configuration.
+ * <p>
+ * A service that fails to start is logged, and started again by the next manager created.  The manager is created either way.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class CacheServices
+{
+    private static final String CLS_NM = CacheServices.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    private static volatile boolean started = false;
+
+
+    private CacheServices()
+    {
+    }
+
+
+    /**
+     * Start the cache invalidator, if fortress config param 'cache.invalidation.interval' is set, and the cache warm-up, if
+     * 'cache.warmup' is true.  Does nothing once they have started.
+     */
+    public static void start()
+    {
+        if ( started )
+        {
+            return;
+        }
+        synchronized ( CacheServices.class )
+        {
+            if ( started )
+            {
+                return;
+            }
+            try
+            {
+                Config cfg = Config.getInstance();
+                if ( cfg.getInt( GlobalIds.CACHE_INVALIDATION_INTERVAL, 0 ) > 0 )
+                {
+                    CacheInvalidator.getInstance();
+                }
+                if ( cfg.getBoolean( GlobalIds.CACHE_WARMUP, false ) )
+                {
+                    CacheWarmer.getInstance();
+                }
+                started = true;
+            }
+            catch ( RuntimeException e )
+            {
+                LOG.error( "start caught RuntimeException={}", e.getMessage(), e );
+            }
+        }
+    }
+}
@@ -0,0 +1,460 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.directory.api.ldap.model.constants.SchemaConstants;
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.SecurityException;
+import org.apache.directory.fortress.core.model.OrgUnit;
+import org.apache.directory.fortress.core.util.Config;
+import org.apache.directory.fortress.core.util.ConfigSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Loads the caches of every tenant when the first manager is created, so the first requests of each tenant after a start do
+ * not wait on them: the role, admin role and org unit hierarchies, the sets of org units and policy names, the SSD and DSD
+ * indexes and the permission indexes.  The loads run in parallel, on 'cache.warmup.threads' threads, in the background.
+ * <p>
+ * The tenants are those listed in 'cache.warmup.tenants', or else the containers found directly under the suffix that do not
+ * hold the containers of the default tenant, which is always warmed.  A cache that fails to load is loaded on first use, as
+ * without the warm-up.
+ * <p>
+ * Use {@link #isWarm()} or {@link #awaitReady(long, TimeUnit)}, e.g. from a readiness probe, to hold traffic until the
+ * warm-up is done.  Both return at once when 'cache.warmup' is not true.  The counts are published over JMX, see
+ * {@link CacheWarmerMXBean}.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class CacheWarmer implements CacheWarmerMXBean
+{
+    private static final String CLS_NM = CacheWarmer.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    private static final String OBJECT_NAME = "org.apache.directory.fortress:type=CacheWarmer";
+    private static final int DEFAULT_THREADS = 4;
+    // The containers of the default tenant, whose top is directly under the suffix:
+    private static final String[] ROOTS =
+        {
+            GlobalIds.USER_ROOT, GlobalIds.PERM_ROOT, GlobalIds.ROLE_ROOT, GlobalIds.PPOLICY_ROOT, GlobalIds.SD_ROOT,
+            GlobalIds.OSU_ROOT, GlobalIds.PSU_ROOT, GlobalIds.ADMIN_ROLE_ROOT, GlobalIds.ADMIN_PERM_ROOT,
+            GlobalIds.GROUP_ROOT, GlobalIds.ADS_PPOLICY_ROOT, GlobalIds.CONFIG_ROOT_PARAM
+    };
+    private static volatile CacheWarmer sINSTANCE = null;
+
+    private final CountDownLatch ready = new CountDownLatch( 1 );
+    private final AtomicLong loaded = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    // Created only when the warm-up runs:
+    private OrgUnitP orgUnitP;
+    private PolicyP policyP;
+    private volatile int tenants;
+    private volatile long millis = -1;
+
+
+    /**
+     * Start the warm-up, if fortress config param 'cache.warmup' is true.  Called by {@link CacheServices#start()}.
+     *
+     * @return the warmer.
+     */
+    static CacheWarmer getInstance()
+    {
+        if ( sINSTANCE == null )
+        {
+            synchronized ( CacheWarmer.class )
+            {
+                if ( sINSTANCE == null )
+                {
+                    sINSTANCE = new CacheWarmer();
+                }
+            }
+        }
+        return sINSTANCE;
+    }
+
+
+    private CacheWarmer()
+    {
+        if ( !Config.getInstance().getBoolean( GlobalIds.CACHE_WARMUP, false ) )
+        {
+            ready.countDown();
+            return;
+        }
+        orgUnitP = new OrgUnitP();
+        policyP = new PolicyP();
+        Thread thread = new Thread( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                warm();
+            }
+        }, "fortress-cache-warmer" );
+        thread.setDaemon( true );
+        thread.start();
+        register();
+    }
+
+
+    /**
+     * Return whether the caches have been warmed.  Starts the warm-up if it has not been started.
+     *
+     * @return true once the caches of every tenant have been loaded, or failed to, or if 'cache.warmup' is not true.
+     */
+    public static boolean isWarm()
+    {
+        return getInstance().isReady();
+    }
+
+
+    /**
+     * Wait for the caches to be warmed.  Starts the warm-up if it has not been started.
+     *
+     * @param timeout the maximum time to wait.
+     * @param unit    of the timeout.
+     * @return true if the caches have been warmed, false if the time elapsed first.
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     */
+    public static boolean awaitReady( long timeout, TimeUnit unit ) throws InterruptedException
+    {
+        return getInstance().ready.await( timeout, unit );
+    }
+
+
+    /**
+     * Load the caches of every tenant, in parallel, then signal ready.
+     */
+    private void warm()
+    {
+        long start = System.nanoTime();
+        int threads = Config.getInstance().getInt( GlobalIds.CACHE_WARMUP_THREADS, DEFAULT_THREADS );
+        ExecutorService loaders = Executors.newFixedThreadPool( Math.max( threads, 1 ), new ThreadFactory()
+        {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread( Runnable runnable )
+            {
+                Thread thread = new Thread( runnable, "fortress-cache-warmer-" + count.incrementAndGet() );
+                thread.setDaemon( true );
+                return thread;
+            }
+        } );
+        try
+        {
+            List<String> contextIds = findTenants();
+            tenants = contextIds.size();
+            LOG.info( "warm {} tenants on {} threads", contextIds.size(), threads );
+            List<Future<?>> futures = new ArrayList<>();
+            for ( String contextId : contextIds )
+            {
+                for ( Runnable load : getLoads( contextId ) )
+                {
+                    futures.add( loaders.submit( load ) );
+                }
+            }
+            for ( Future<?> future : futures )
+            {
+                future.get();
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch ( ExecutionException | RuntimeException e )
+        {
+            failures.incrementAndGet();
+            LOG.error( "warm caught {}", e.toString(), e );
+        }
+        finally
+        {
+            loaders.shutdownNow();
+            millis = TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start );
+            ready.countDown();
+            LOG.info( "warm loaded {} caches in {} ms, {} failed", loaded.get(), millis, failures.get() );
+        }
+    }
+
+
+    /**
+     * @return the loads of the caches of a tenant, each may run in parallel with the others.
+     */
+    private List<Runnable> getLoads( final String contextId )
+    {
+        List<Runnable> loads = new ArrayList<>();
+        loads.add( new Load( "roles", contextId )
+        {
+            @Override
+            void load()
+            {
+                RoleUtil.getInstance().warm( contextId );
+            }
+        } );
+        loads.add( new Load( "admin roles", contextId )
+        {
+            @Override
+            void load()
+            {
+                AdminRoleUtil.warm( contextId );
+            }
+        } );
+        loads.add( new Load( "user ous", contextId )
+        {
+            @Override
+            void load()
+            {
+                UsoUtil.getInstance().warm( contextId );
+                orgUnitP.warm( OrgUnit.Type.USER, contextId );
+            }
+        } );
+        loads.add( new Load( "perm ous", contextId )
+        {
+            @Override
+            void load()
+            {
+                PsoUtil.getInstance().warm( contextId );
+                orgUnitP.warm( OrgUnit.Type.PERM, contextId );
+            }
+        } );
+        loads.add( new Load( "policies", contextId )
+        {
+            @Override
+            void load()
+            {
+                policyP.warm( contextId );
+            }
+        } );
+        loads.add( new Load( "sds", contextId )
+        {
+            @Override
+            void load() throws SecurityException
+            {
+                SDUtil.getInstance().warm( contextId );
+            }
+        } );
+        loads.add( new Load( "perms", contextId )
+        {
+            @Override
+            void load()
+            {
+                PermUtil.getInstance().warm( contextId, false );
+            }
+        } );
+        loads.add( new Load( "admin perms", contextId )
+        {
+            @Override
+            void load()
+            {
+                PermUtil.getInstance().warm( contextId, true );
+            }
+        } );
+        return loads;
+    }
+
+
+    /**
+     * @return the default tenant, HOME, followed by those listed in 'cache.warmup.tenants', or else found under the suffix.
+     */
+    private List<String> findTenants()
+    {
+        List<String> contextIds = new ArrayList<>();
+        contextIds.add( GlobalIds.HOME );
+        String list = Config.getInstance().getProperty( GlobalIds.CACHE_WARMUP_TENANTS );
+        if ( StringUtils.isNotEmpty( list ) )
+        {
+            for ( String contextId : list.split( "," ) )
+            {
+                contextId = contextId.trim();
+                if ( !contextId.isEmpty() && !contextId.equals( GlobalIds.HOME ) )
+                {
+                    contextIds.add( contextId );
+                }
+            }
+            return contextIds;
+        }
+        try
+        {
+            Set<String> containers = getContainers( Config.getInstance().getSnapshot() );
+            for ( String name : new OrganizationalUnitDAO().findSuffixChildren() )
+            {
+                if ( name != null && !containers.contains( name.toLowerCase() ) )
+                {
+                    contextIds.add( name );
+                }
+            }
+        }
+        catch ( SecurityException e )
+        {
+            failures.incrementAndGet();
+            LOG.warn( "findTenants caught SecurityException={}, warming the default tenant only", e.getMessage() );
+        }
+        return contextIds;
+    }
+
+
+    /**
+     * @return the names, lower case, of the containers directly under the suffix that hold those of the default tenant.
+     */
+    static Set<String> getContainers( ConfigSnapshot cfg )
+    {
+        Set<String> containers = new HashSet<>();
+        String suffix = "," + CacheInvalidator.normalize( cfg.getSuffix() ).toLowerCase();
+        String prefix = SchemaConstants.OU_AT.toLowerCase() + "=";
+        for ( String root : ROOTS )
+        {
+            String name = cfg.getProperty( root );
+            if ( StringUtils.isNotEmpty( name ) )
+            {
+                name = CacheInvalidator.normalize( name ).toLowerCase();
+                if ( name.endsWith( suffix ) )
+                {
+                    name = name.substring( name.lastIndexOf( ',', name.length() - suffix.length() - 1 ) + 1, name
+                        .length() - suffix.length() );
+                    if ( name.startsWith( prefix ) )
+                    {
+                        containers.add( name.substring( prefix.length() ) );
+                    }
+                }
+            }
+        }
+        return containers;
+    }
+
+
+    private void register()
+    {
+        Config cfg = Config.getInstance();
+        if ( !cfg.getBoolean( GlobalIds.CACHE_METRICS_JMX, cfg.getBoolean( GlobalIds.LDAP_METRICS_JMX, true ) ) )
+        {
+            return;
+        }
+        try
+        {
+            ObjectName name = new ObjectName( OBJECT_NAME );
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if ( server.isRegistered( name ) )
+            {
+                // e.g. another application in this jvm
+                LOG.info( "register {} already registered", OBJECT_NAME );
+                return;
+            }
+            server.registerMBean( this, name );
+        }
+        catch ( JMException | java.lang.SecurityException e )
+        {
+            LOG.warn( "register {} caught {}", OBJECT_NAME, e.toString() );
+        }
+    }
+
+
+    @Override
+    public boolean isReady()
+    {
+        return ready.getCount() == 0;
+    }
+
+
+    @Override
+    public int getTenants()
+    {
+        return tenants;
+    }
+
+
+    @Override
+    public long getLoaded()
+    {
+        return loaded.get();
+    }
+
+
+    @Override
+    public long getFailures()
+    {
+        return failures.get();
+    }
+
+
+    @Override
+    public long getMillis()
+    {
+        return millis;
+    }
+
+
+    /**
+     * Loads one cache of a tenant, counting it as loaded or failed.
+     */
+    private abstract class Load implements Runnable
+    {
+        private final String name;
+        private final String contextId;
+
+
+        Load( String name, String contextId )
+        {
+            this.name = name;
+            this.contextId = contextId;
+        }
+
+
+        abstract void load() throws SecurityException;
+
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                load();
+                loaded.incrementAndGet();
+            }
+            catch ( SecurityException | RuntimeException e )
+            {
+                failures.incrementAndGet();
+                LOG.warn( "warm {} context [{}] caught {}", name, contextId, e.toString() );
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+/**
+ * The management interface of {@link CacheWarmer}, registered with the platform MBean server as
+ * 'org.apache.directory.fortress:type=CacheWarmer' when fortress config param 'cache.warmup' is true, unless
+ * 'cache.metrics.jmx' is false.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public interface CacheWarmerMXBean
+{
+    /**
+     * @return true once the caches of every tenant have been loaded, or failed to.
+     */
+    boolean isReady();
+
+
+    /**
+     * @return the number of tenants warmed, including the default.
+     */
+    int getTenants();
+
+
+    /**
+     * @return the number of caches loaded.
+     */
+    long getLoaded();
+
+
+    /**
+     * @return the number of caches, or tenant lists, that could not be loaded.
+     */
+    long getFailures();
+
+
+    /**
+     * @return the milliseconds the warm-up took, -1 until it is ready.
+     */
+    long getMillis();
+}
@@ -0,0 +1,185 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.directory.api.ldap.model.cursor.CursorException;
+import org.apache.directory.api.ldap.model.cursor.SearchCursor;
+import org.apache.directory.api.ldap.model.entry.Entry;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.message.SearchScope;
+import org.apache.directory.fortress.core.FinderException;
+import org.apache.directory.fortress.core.GlobalErrIds;
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.ldap.LdapDataProvider;
+import org.apache.directory.fortress.core.util.Config;
+import org.apache.directory.ldap.client.api.LdapConnection;
+
+
+/**
+ * This class finds the entries changed in the directory since a point in time, for {@link CacheInvalidator}.  The changes are
+ * read either from the OpenLDAP access log, which records every successful add, modify, rename and delete as an
+ * 'auditWriteObject' under 'audit.root', or else from the 'modifyTimestamp' of the entries under the suffix, which does not
+ * show deletes.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class ChangeDAO extends LdapDataProvider
+{
+    private static final String AUDIT_ROOT = "audit.root";
+    private static final String ACCESS_WRITE_CLASS_NM = "auditWriteObject";
+    private static final String REQDN = "reqDN";
+    private static final String REQSTART = "reqStart";
+    private static final String REQRESULT = "reqResult";
+    private static final String MODIFY_TIMESTAMP = "modifyTimestamp";
+    private static final String[] LOG_ATRS = { REQDN, REQSTART };
+    private static final String[] ENTRY_ATRS = { MODIFY_TIMESTAMP };
+
+
+    /**
+     * A changed entry.
+     */
+    static final class Change
+    {
+        private final String dn;
+        private final String time;
+
+
+        private Change( String dn, String time )
+        {
+            this.dn = dn;
+            this.time = time;
+        }
+
+
+        /**
+         * @return the dn of the entry that was changed.
+         */
+        String getDn()
+        {
+            return dn;
+        }
+
+
+        /**
+         * @return the generalized time of the change, as recorded by the server.
+         */
+        String getTime()
+        {
+            return time;
+        }
+    }
+
+
+    /**
+     * Read the writes recorded by the OpenLDAP access log since a point in time.
+     *
+     * @param since      generalized time, the writes at or after it are returned.
+     * @param maxEntries the maximum number of writes returned.
+     * @return the writes, in no particular order.
+     * @throws FinderException in the event of ldap error.
+     */
+    List<Change> findLogChanges( String since, int maxEntries ) throws FinderException
+    {
+        List<Change> changes = new ArrayList<>();
+        LdapConnection ld = null;
+        String auditRoot = Config.getInstance().getProperty( AUDIT_ROOT );
+        String filter = GlobalIds.FILTER_PREFIX + ACCESS_WRITE_CLASS_NM + ")(" + REQRESULT + "=0)(" + REQSTART + ">="
+            + since + "))";
+
+        try
+        {
+            ld = getLogConnection();
+            SearchCursor searchResults = search( ld, auditRoot, SearchScope.ONELEVEL, filter, LOG_ATRS, false, maxEntries );
+
+            while ( searchResults.next() )
+            {
+                Entry entry = searchResults.getEntry();
+                changes.add( new Change( getAttribute( entry, REQDN ), getAttribute( entry, REQSTART ) ) );
+            }
+        }
+        catch ( LdapException e )
+        {
+            String error = "findLogChanges since [" + since + "] caught LdapException=" + e;
+            throw new FinderException( GlobalErrIds.FT_CHANGE_SEARCH_FAILED, error, e );
+        }
+        catch ( CursorException e )
+        {
+            String error = "findLogChanges since [" + since + "] caught CursorException=" + e.getMessage();
+            throw new FinderException( GlobalErrIds.FT_CHANGE_SEARCH_FAILED, error, e );
+        }
+        finally
+        {
+            closeLogConnection( ld );
+        }
+
+        return changes;
+    }
+
+
+    /**
+     * Read the entries under the suffix modified or added since a point in time.
+     *
+     * @param since      generalized time, the entries modified at or after it are returned.
+     * @param maxEntries the maximum number of entries returned.
+     * @return the entries, in no particular order.
+     * @throws FinderException in the event of ldap error.
+     */
+    List<Change> findEntryChanges( String since, int maxEntries ) throws FinderException
+    {
+        List<Change> changes = new ArrayList<>();
+        LdapConnection ld = null;
+        String suffix = Config.getInstance().getProperty( GlobalIds.SUFFIX );
+        String filter = "(" + MODIFY_TIMESTAMP + ">=" + since + ")";
+
+        try
+        {
+            ld = getAdminConnection();
+            SearchCursor searchResults = search( ld, suffix, SearchScope.SUBTREE, filter, ENTRY_ATRS, false, maxEntries );
+
+            while ( searchResults.next() )
+            {
+                Entry entry = searchResults.getEntry();
+                changes.add( new Change( entry.getDn().getName(), getAttribute( entry, MODIFY_TIMESTAMP ) ) );
+            }
+        }
+        catch ( LdapException e )
+        {
+            String error = "findEntryChanges since [" + since + "] caught LdapException=" + e;
+            throw new FinderException( GlobalErrIds.FT_CHANGE_SEARCH_FAILED, error, e );
+        }
+        catch ( CursorException e )
+        {
+            String error = "findEntryChanges since [" + since + "] caught CursorException=" + e.getMessage();
+            throw new FinderException( GlobalErrIds.FT_CHANGE_SEARCH_FAILED, error, e );
+        }
+        finally
+        {
+            closeAdminConnection( ld );
+        }
+
+        return changes;
+    }
+}
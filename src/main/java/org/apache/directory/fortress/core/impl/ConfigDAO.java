@@ -330,7 +330,7 @@ final class ConfigDAO extends LdapDataProvider
         LOG.info( "getConfig dn [{}]", dn );
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminReadConnection();
             Entry findEntry = read( ld, dn, CONFIG_ATRS );
             configuration.setName( name );
             configuration.addProperties( PropUtil.getProperties( getAttributes( findEntry, GlobalIds.PROPS ) ) );
@@ -369,7 +369,7 @@ final class ConfigDAO extends LdapDataProvider
         LOG.debug( "getPosixIds dn [{}]", dn );
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminReadConnection();
             Entry findEntry = read( ld, dn, POSIX_IDS );
             configuration.setName( name );
             configuration.setUidNumber( getAttribute( findEntry, UID_NUMBER_SEQUENCE ) );
@@ -103,7 +103,7 @@ public class DSDChecker
         {
             // get all DSD sets that contain the candidate activated and authorized roles,
             //If DSD cache is disabled, this will search the directory using authorizedRoleSet
-            Set<SDSet> dsdSets = SDUtil.getInstance().getDsdCache( authorizedRoleSet, contextId);
+            Set<SDSet> dsdSets = SDUtil.getInstance().getDsdSets( authorizedRoleSet, contextId );
             if ( dsdSets != null && dsdSets.size() > 0 )
             {
                 for ( SDSet dsd : dsdSets )
@@ -200,7 +200,7 @@ public class DelAccessMgrImpl extends AccessMgrImpl implements DelAccessMgr, Ser
             throw new SecurityException(GlobalErrIds.ARLE_ALREADY_ACTIVE, info);
         }
 
-        User ue = userP.read(session.getUser(), true);
+        User ue = userP.readAuthz(session.getUser());
         List<UserAdminRole> uRoles = ue.getAdminRoles();
         int indx;
         // Is the admin role activation target valid for this user?
@@ -303,7 +303,7 @@ public class DelAccessMgrImpl extends AccessMgrImpl implements DelAccessMgr, Ser
             User ue;
             if(!isAdd)
             {
-                ue = userP.read(user, false);
+                ue = userP.readAuthz(user);
             }
             else
             {
@@ -357,7 +357,7 @@ public class DelAccessMgrImpl extends AccessMgrImpl implements DelAccessMgr, Ser
         if(CollectionUtils.isNotEmpty( uaRoles ))
         {
             // validate user and retrieve user' ou:
-            User ue = userP.read(user, false);
+            User ue = userP.readAuthz(user);
             for(UserAdminRole uaRole : uaRoles)
             {
                 if(uaRole.getName().equalsIgnoreCase(SUPER_ADMIN))
@@ -123,7 +123,7 @@ final class GroupDAO extends LdapDataProvider implements PropertyProvider<Group>
                 myEntry.add( SchemaConstants.DESCRIPTION_AT, group.getDescription() );
             }
 
-            ld = getAdminConnection();
+            ld = getAdminConnection( group.getContextId() );
             add( ld, myEntry );
         }
         catch ( LdapException e )
@@ -173,7 +173,7 @@ final class GroupDAO extends LdapDataProvider implements PropertyProvider<Group>
 
             if ( mods.size() > 0 )
             {
-                ld = getAdminConnection();
+                ld = getAdminConnection( group.getContextId() );
                 modify( ld, nodeDn, mods, group );
             }
         }
@@ -201,7 +201,7 @@ final class GroupDAO extends LdapDataProvider implements PropertyProvider<Group>
             List<Modification> mods = new ArrayList<Modification>();
             mods.add( new DefaultModification(
                 ModificationOperation.ADD_ATTRIBUTE, GROUP_PROPERTY_ATTR_IMPL, key + "=" + value ) );
-            ld = getAdminConnection();
+            ld = getAdminConnection( group.getContextId() );
             modify( ld, nodeDn, mods, group );
         }
         catch ( LdapException e )
@@ -229,7 +229,7 @@ final class GroupDAO extends LdapDataProvider implements PropertyProvider<Group>
             List<Modification> mods = new ArrayList<Modification>();
             mods.add( new DefaultModification(
                 ModificationOperation.REMOVE_ATTRIBUTE, GROUP_PROPERTY_ATTR_IMPL, key + "=" + value ) );
-            ld = getAdminConnection();
+            ld = getAdminConnection( group.getContextId() );
             modify( ld, nodeDn, mods, group );
         }
         catch ( LdapException e )
@@ -259,7 +259,7 @@ final class GroupDAO extends LdapDataProvider implements PropertyProvider<Group>
         LOG.debug( "remove group dn [{}]", nodeDn );
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminConnection( group.getContextId() );
             delete( ld, nodeDn, group );
         }
         catch ( LdapException e )
@@ -292,7 +292,7 @@ final class GroupDAO extends LdapDataProvider implements PropertyProvider<Group>
             List<Modification> mods = new ArrayList<Modification>();
             mods.add( new DefaultModification(
                 ModificationOperation.ADD_ATTRIBUTE, SchemaConstants.MEMBER_AT, userDn ) );
-            ld = getAdminConnection();
+            ld = getAdminConnection( entity.getContextId() );
             modify( ld, dn, mods, entity );
         }
         catch ( LdapException e )
@@ -328,7 +328,7 @@ final class GroupDAO extends LdapDataProvider implements PropertyProvider<Group>
             mods.add( new DefaultModification(
                 ModificationOperation.REMOVE_ATTRIBUTE, SchemaConstants.MEMBER_AT, userDn ) );
 
-            ld = getAdminConnection();
+            ld = getAdminConnection( entity.getContextId() );
             modify( ld, dn, mods, entity );
         }
         catch ( LdapException e )
@@ -360,7 +360,7 @@ final class GroupDAO extends LdapDataProvider implements PropertyProvider<Group>
 
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( group.getContextId() );
             Entry findEntry = read( ld, dn, GROUP_ATRS );
             if ( findEntry == null )
             {
@@ -406,7 +406,7 @@ final class GroupDAO extends LdapDataProvider implements PropertyProvider<Group>
             String searchVal = encodeSafeText( group.getName(), GlobalIds.ROLE_LEN );
             filter = GlobalIds.FILTER_PREFIX + GROUP_OBJECT_CLASS_IMPL + ")(" + SchemaConstants.CN_AT + "=" + searchVal
                 + "*))";
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( group.getContextId() );
             searchResults = search( ld, groupRoot, SearchScope.ONELEVEL, filter, GROUP_ATRS, false,
                 Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -453,7 +453,7 @@ final class GroupDAO extends LdapDataProvider implements PropertyProvider<Group>
             encodeSafeText( user.getUserId(), GlobalIds.USERID_LEN );
             filter = GlobalIds.FILTER_PREFIX + GROUP_OBJECT_CLASS_IMPL + ")(" + SchemaConstants.MEMBER_AT + "="
                 + user.getDn() + "))";
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( user.getContextId() );
             searchResults = search( ld, groupRoot, SearchScope.ONELEVEL, filter, GROUP_ATRS, false,
                 Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -501,7 +501,7 @@ final class GroupDAO extends LdapDataProvider implements PropertyProvider<Group>
             encodeSafeText( role.getName(), GlobalIds.ROLE_LEN );
             filter = GlobalIds.FILTER_PREFIX + GROUP_OBJECT_CLASS_IMPL + ")(" + SchemaConstants.MEMBER_AT + "="
                     + role.getDn() + "))";
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( role.getContextId() );
             searchResults = search( ld, groupRoot, SearchScope.ONELEVEL, filter, GROUP_ATRS, false,
                     Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -0,0 +1,343 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.SecurityException;
+import org.apache.directory.fortress.core.model.Hier;
+import org.apache.directory.fortress.core.model.Relationship;
+import org.apache.directory.fortress.core.util.Config;
+import org.apache.directory.fortress.core.util.cache.CacheMgr;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Holds the {@link HierClosure} of every tenant for one type of hierarchy.  It is used by {@link RoleUtil}, {@link AdminRoleUtil},
+ * {@link PsoUtil} and {@link UsoUtil}.
+ * <p>
+ * Each tenant's hierarchy is published as an immutable snapshot through an atomic reference:
+ * <ul>
+ *   <li>Lookups never lock.  Once a tenant is loaded, they return the current snapshot and never wait on ldap.</li>
+ *   <li>Loads are single-flight per tenant.  Only the first lookup for a tenant waits, along with any lookups for the same tenant that arrive while it loads.
+ *   Other tenants are not affected.</li>
+ *   <li>When a snapshot is older than fortress config param 'hier.cache.ttl', it is reloaded by a background thread while readers continue with the old one.</li>
+ *   <li>Updates copy the current snapshot, apply the change and swap it in with compare-and-set, see {@link HierUtil#updateHier(HierClosure, Relationship, Hier.Op)}.</li>
+ *   <li>While the ldap circuit breaker is not closed, a reload does not replace the snapshot, see {@link LastKnownGood}.</li>
+ * </ul>
+ * All snapshots are discarded when {@link CacheMgr#clearAll()} is called.  A tenant changed by another process is reloaded
+ * when {@link CacheInvalidator} calls {@link #invalidate(String, String)}.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class HierCache
+{
+    private static final String CLS_NM = HierCache.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    private static final int DEFAULT_TTL = 600;
+    private static final int DEFAULT_RELOAD_THREADS = 2;
+    // At most one reload per tenant and hierarchy is queued, see load:
+    private static final ExecutorService RELOADER = createReloader();
+
+    /**
+     * Reads a tenant's hierarchy from ldap.
+     */
+    interface Loader
+    {
+        /**
+         * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+         * @return the tenant's hierarchy.  Never null.
+         */
+        HierClosure load( String contextId );
+    }
+
+    private final ConcurrentHashMap<String, Tenant> tenants = new ConcurrentHashMap<>();
+    private final String name;
+    private final Loader loader;
+    private final long ttlNanos;
+
+
+    /**
+     * @param name   of the hierarchy type, used for logging.
+     * @param loader reads the hierarchy of a tenant.
+     */
+    HierCache( String name, Loader loader )
+    {
+        this.name = name;
+        this.loader = loader;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos( Config.getInstance().getInt( GlobalIds.HIER_CACHE_TTL, DEFAULT_TTL ) );
+    }
+
+
+    /**
+     * Return the current hierarchy of a tenant.  Waits only if the tenant has not been loaded.
+     *
+     * @param key       identifies the tenant.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @return the tenant's hierarchy.
+     */
+    HierClosure get( String key, String contextId )
+    {
+        Tenant tenant = getTenant( key );
+        Snapshot snapshot = tenant.current.get();
+        if ( snapshot == null || snapshot.epoch != CacheMgr.getInstance().getEpoch() )
+        {
+            return await( load( tenant, contextId, false ) );
+        }
+        if ( System.nanoTime() - snapshot.loaded > ttlNanos )
+        {
+            // Serve the old snapshot while it reloads.
+            load( tenant, contextId, true );
+        }
+        return snapshot.hier;
+    }
+
+
+    /**
+     * Apply a change to the hierarchy of a tenant.  The current snapshot is copied and the change applied to the copy, which then replaces it.
+     *
+     * @param key          identifies the tenant.
+     * @param contextId    maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @param relationship contains parent-child relationship targeted for addition or removal.
+     * @param op           used to pass the ldap op {@link Hier.Op#ADD}, {@link Hier.Op#REM}.
+     * @throws SecurityException in the event of a system error.
+     */
+    void update( String key, String contextId, Relationship relationship, Hier.Op op ) throws SecurityException
+    {
+        Tenant tenant = getTenant( key );
+        while ( true )
+        {
+            Snapshot snapshot = tenant.current.get();
+            if ( snapshot == null || snapshot.epoch != CacheMgr.getInstance().getEpoch() )
+            {
+                // Nothing to update, a load will read the change from ldap.
+                get( key, contextId );
+                continue;
+            }
+            Snapshot next = new Snapshot( HierUtil.updateHier( snapshot.hier, relationship, op ), snapshot.loaded, snapshot.epoch );
+            if ( tenant.current.compareAndSet( snapshot, next ) )
+            {
+                return;
+            }
+        }
+    }
+
+
+    /**
+     * Reload the hierarchy of a tenant, after it was changed in ldap by another process, in the background.  Readers continue
+     * with the current snapshot meanwhile.  A load already running when this is called is followed by another.  Has no effect
+     * if the tenant has not been loaded.
+     *
+     * @param key       identifies the tenant.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     */
+    void invalidate( String key, String contextId )
+    {
+        Tenant tenant = tenants.get( key );
+        if ( tenant != null && tenant.current.get() != null )
+        {
+            tenant.invalidations.incrementAndGet();
+            load( tenant, contextId, true );
+        }
+    }
+
+
+    private Tenant getTenant( String key )
+    {
+        Tenant tenant = tenants.get( key );
+        if ( tenant == null )
+        {
+            Tenant newTenant = new Tenant();
+            tenant = tenants.putIfAbsent( key, newTenant );
+            if ( tenant == null )
+            {
+                tenant = newTenant;
+            }
+        }
+        return tenant;
+    }
+
+
+    /**
+     * Start a load of the tenant, unless one is already running in which case it is joined.
+     *
+     * @param tenant    to load.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @param isAsync   if true, the load is run by a background thread, otherwise the caller.
+     * @return completes when the load has finished.
+     */
+    private CompletableFuture<HierClosure> load( final Tenant tenant, final String contextId, boolean isAsync )
+    {
+        while ( true )
+        {
+            CompletableFuture<HierClosure> loading = tenant.loading.get();
+            if ( loading != null )
+            {
+                return loading;
+            }
+            final CompletableFuture<HierClosure> future = new CompletableFuture<>();
+            if ( tenant.loading.compareAndSet( null, future ) )
+            {
+                if ( isAsync )
+                {
+                    RELOADER.execute( new Runnable()
+                    {
+                        @Override
+                        public void run()
+                        {
+                            doLoad( tenant, contextId, future );
+                        }
+                    } );
+                }
+                else
+                {
+                    doLoad( tenant, contextId, future );
+                }
+                return future;
+            }
+        }
+    }
+
+
+    /**
+     * @return the pool of 'hier.cache.reload.threads' threads that reload the expired hierarchies.
+     */
+    private static ExecutorService createReloader()
+    {
+        int threads = Math.max( 1, Config.getInstance().getInt( GlobalIds.HIER_CACHE_RELOAD_THREADS,
+            DEFAULT_RELOAD_THREADS ) );
+        ThreadPoolExecutor reloader = new ThreadPoolExecutor( threads, threads, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(), new ThreadFactory()
+            {
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread( Runnable runnable )
+                {
+                    Thread thread = new Thread( runnable, "fortress-hier-loader-" + count.incrementAndGet() );
+                    thread.setDaemon( true );
+                    return thread;
+                }
+            } );
+        reloader.allowCoreThreadTimeOut( true );
+        return reloader;
+    }
+
+
+    private void doLoad( Tenant tenant, String contextId, CompletableFuture<HierClosure> future )
+    {
+        long invalidation = tenant.invalidations.get();
+        try
+        {
+            Snapshot previous = tenant.current.get();
+            long epoch = CacheMgr.getInstance().getEpoch();
+            long loaded = System.nanoTime();
+            HierClosure hier = loader.load( contextId );
+            if ( previous != null && previous.epoch == epoch && LastKnownGood.getInstance().isUsable( previous.loaded ) )
+            {
+                // The loader reports a failed read as an empty hierarchy.  While the directory is failing, keep the one read before:
+                LOG.warn( "load {} context [{}] kept previous while ldap is unavailable", name, contextId );
+                future.complete( previous.hier );
+                return;
+            }
+            // If an update was applied while loading, keep it.  It contains the latest change and this load may not.
+            if ( !tenant.current.compareAndSet( previous, new Snapshot( hier, loaded, epoch ) ) )
+            {
+                LOG.debug( "load {} context [{}] superseded by update", name, contextId );
+            }
+            future.complete( tenant.current.get().hier );
+        }
+        catch ( RuntimeException e )
+        {
+            LOG.error( "load {} context [{}] caught RuntimeException={}", name, contextId, e.getMessage(), e );
+            future.completeExceptionally( e );
+        }
+        finally
+        {
+            tenant.loading.set( null );
+            if ( tenant.invalidations.get() != invalidation )
+            {
+                // Changed in ldap while it was read, read it again:
+                load( tenant, contextId, true );
+            }
+        }
+    }
+
+
+    private HierClosure await( CompletableFuture<HierClosure> future )
+    {
+        try
+        {
+            return future.join();
+        }
+        catch ( CompletionException e )
+        {
+            if ( e.getCause() instanceof RuntimeException )
+            {
+                throw ( RuntimeException ) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+
+    /**
+     * The state of one tenant.
+     */
+    private static final class Tenant
+    {
+        private final AtomicReference<Snapshot> current = new AtomicReference<>();
+        private final AtomicReference<CompletableFuture<HierClosure>> loading = new AtomicReference<>();
+        private final AtomicLong invalidations = new AtomicLong();
+    }
+
+
+    /**
+     * A hierarchy along with the time it was read from ldap and the cache epoch it belongs to.
+     */
+    private static final class Snapshot
+    {
+        private final HierClosure hier;
+        private final long loaded;
+        private final long epoch;
+
+        private Snapshot( HierClosure hier, long loaded, long epoch )
+        {
+            this.hier = hier;
+            this.loaded = loaded;
+            this.epoch = epoch;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.directory.fortress.core.model.Relationship;
+import org.jgrapht.Graphs;
+import org.jgrapht.graph.SimpleDirectedGraph;
+
+
+/**
+ * Contains a hierarchy, {@code org.jgrapht.graph.SimpleDirectedGraph}, along with its transitive closure, i.e. the full set of
+ * ascendants and descendants of every vertex, computed once when the hierarchy is loaded.  It is shared by {@link RoleUtil},
+ * {@link AdminRoleUtil}, {@link PsoUtil} and {@link UsoUtil}, which hold one per tenant.
+ * <p>
+ * Once constructed neither the graph nor the closure are ever changed.  {@link HierUtil#updateHier(HierClosure, Relationship, org.apache.directory.fortress.core.model.Hier.Op)}
+ * copies the graph, applies the edge change and builds a new instance which replaces this one in the cache.  Readers holding this
+ * instance continue to see a consistent hierarchy.
+ * <p>
+ * Lookups of ascendants and descendants are a single hash map access and do not allocate.  The sets returned are unmodifiable,
+ * sorted and case insensitive, like those previously computed on each call.
+ * <p>
+ * This class is immutable and thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class HierClosure
+{
+    private static final Set<String> EMPTY_SET = Collections.unmodifiableSet( new TreeSet<String>( String.CASE_INSENSITIVE_ORDER ) );
+    private static final AtomicLong VERSIONS = new AtomicLong();
+    private final long version = VERSIONS.incrementAndGet();
+    private final SimpleDirectedGraph<String, Relationship> graph;
+    private final Map<String, Set<String>> ascendants;
+    private final Map<String, Set<String>> descendants;
+
+
+    /**
+     * Compute the closure of a graph.  The graph must not be modified afterwards.
+     *
+     * @param graph contains vertices of uppercase names and edges, as {@link Relationship}s, pointing from child to parent.
+     */
+    HierClosure( SimpleDirectedGraph<String, Relationship> graph )
+    {
+        this.graph = graph;
+        this.ascendants = new HashMap<>();
+        this.descendants = new HashMap<>();
+        if ( graph != null )
+        {
+            for ( String vertex : graph.vertexSet() )
+            {
+                computeAscendants( vertex );
+                computeDescendants( vertex );
+            }
+        }
+    }
+
+
+    /**
+     * @return a number unique to this instance.  A hierarchy that has been reloaded or updated has a different version.
+     */
+    long getVersion()
+    {
+        return version;
+    }
+
+
+    /**
+     * @return the graph this closure was computed from.  It must not be modified.
+     */
+    SimpleDirectedGraph<String, Relationship> getGraph()
+    {
+        return graph;
+    }
+
+
+    /**
+     * Return all of the ascendants of a given vertex.
+     *
+     * @param name of vertex, case insensitive.
+     * @return unmodifiable Set of names that are ascendants of given vertex, empty if none.
+     */
+    Set<String> getAscendants( String name )
+    {
+        Set<String> result = ascendants.get( name.toUpperCase() );
+        return result != null ? result : EMPTY_SET;
+    }
+
+
+    /**
+     * Return all of the descendants of a given vertex.
+     *
+     * @param name of vertex, case insensitive.
+     * @return unmodifiable Set of names that are descendants of given vertex, empty if none.
+     */
+    Set<String> getDescendants( String name )
+    {
+        Set<String> result = descendants.get( name.toUpperCase() );
+        return result != null ? result : EMPTY_SET;
+    }
+
+
+    /**
+     * Return a copy of the graph, suitable for modification and construction of a new closure.
+     *
+     * @return new graph containing the same vertices and edges.
+     */
+    SimpleDirectedGraph<String, Relationship> copyGraph()
+    {
+        SimpleDirectedGraph<String, Relationship> copy = new SimpleDirectedGraph<>( Relationship.class );
+        if ( graph != null )
+        {
+            Graphs.addGraph( copy, graph );
+        }
+        return copy;
+    }
+
+
+    /**
+     * The ascendants of a vertex are its parents plus the ascendants of each parent.  Results are memoized so each vertex is visited once.
+     * The graph is acyclic which ensures termination.
+     */
+    private Set<String> computeAscendants( String vertex )
+    {
+        Set<String> result = ascendants.get( vertex );
+        if ( result == null )
+        {
+            Set<String> parents = new TreeSet<>( String.CASE_INSENSITIVE_ORDER );
+            for ( Relationship edge : graph.outgoingEdgesOf( vertex ) )
+            {
+                String parent = graph.getEdgeTarget( edge );
+                parents.add( parent );
+                parents.addAll( computeAscendants( parent ) );
+            }
+            result = parents.isEmpty() ? EMPTY_SET : Collections.unmodifiableSet( parents );
+            ascendants.put( vertex, result );
+        }
+        return result;
+    }
+
+
+    /**
+     * The descendants of a vertex are its children plus the descendants of each child.
+     */
+    private Set<String> computeDescendants( String vertex )
+    {
+        Set<String> result = descendants.get( vertex );
+        if ( result == null )
+        {
+            Set<String> children = new TreeSet<>( String.CASE_INSENSITIVE_ORDER );
+            for ( Relationship edge : graph.incomingEdgesOf( vertex ) )
+            {
+                String child = graph.getEdgeSource( edge );
+                children.add( child );
+                children.addAll( computeDescendants( child ) );
+            }
+            result = children.isEmpty() ? EMPTY_SET : Collections.unmodifiableSet( children );
+            descendants.put( vertex, result );
+        }
+        return result;
+    }
+}
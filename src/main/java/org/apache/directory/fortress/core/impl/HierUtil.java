@@ -26,7 +26,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.concurrent.locks.ReadWriteLock;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.directory.fortress.core.model.Graphable;
@@ -57,6 +56,8 @@ import org.apache.directory.fortress.core.ValidationException;
  * <li>processes general hierarchical data structure i.e. allows multiple inheritance with parents.</li>
  * <li>constructs and parses simple directed graphs.</li>
  * </ol>
+ * The ascendants and descendants of every node are precomputed and held along with the graph in a {@link HierClosure}.  Updates never modify
+ * a graph in place, a new {@link HierClosure} is built from a copy.
  * Static methods on this class are intended for use by other Fortress classes, and cannot be directly invoked by outside programs.
  * <p>
  * This class is thread safe.
@@ -83,9 +84,6 @@ final class HierUtil
         PSO
     }
 
-    private static final Map<String, ReadWriteLock> synchMap = new HashMap<String, ReadWriteLock>();
-
-
     /**
      * Private constructor
      *
@@ -105,15 +103,14 @@ final class HierUtil
      * Method will throw {@link org.apache.directory.fortress.core.ValidationException} if rule check fails meaning caller failed validation
      * attempt to add/remove hierarchical relationship failed.
      *
-     * @param graph     contains a reference to simple digraph {@code org.jgrapht.graph.SimpleDirectedGraph}.
+     * @param hier      contains a reference to the hierarchy and its closure.
      * @param child     contains name of child.
      * @param parent    contains name of parent.
      * @param mustExist boolean is used to specify if relationship must be true.
      * @throws org.apache.directory.fortress.core.ValidationException
      *          in the event it fails one of the 3 checks.
      */
-    static void validateRelationship( SimpleDirectedGraph<String, Relationship> graph, String child, String parent,
-        boolean mustExist )
+    static void validateRelationship( HierClosure hier, String child, String parent, boolean mustExist )
         throws ValidationException
     {
         // Ensure the two nodes aren't the same:
@@ -124,19 +121,19 @@ final class HierUtil
         }
         Relationship rel = new Relationship( child.toUpperCase(), parent.toUpperCase() );
         // Ensure there is a valid child to parent relationship.
-        if ( mustExist && !isRelationship( graph, rel ) )
+        if ( mustExist && !isRelationship( hier.getGraph(), rel ) )
         {
             String error = "validateRelationship child [" + child + "] does not have parent [" + parent + "]";
             throw new ValidationException( GlobalErrIds.HIER_REL_NOT_EXIST, error );
         }
         // Ensure the child doesn't already have the parent as an ascendant.
-        else if ( !mustExist && isAscendant( child, parent, graph ) )
+        else if ( !mustExist && hier.getAscendants( child ).contains( parent ) )
         {
             String error = "validateRelationship child [" + child + "] already has parent [" + parent + "]";
             throw new ValidationException( GlobalErrIds.HIER_REL_EXIST, error );
         }
         // Prevent cycles by making sure the child isn't an ascendant of parent.
-        else if ( !mustExist && isDescedant( parent, child, graph ) )
+        else if ( !mustExist && hier.getDescendants( child ).contains( parent ) )
         {
             String error = "validateRelationship child [" + child + "] is parent of [" + parent + "]";
             throw new ValidationException( GlobalErrIds.HIER_REL_CYCLIC, error );
@@ -183,38 +180,30 @@ final class HierUtil
 
 
     /**
-     * This method is synchronized and adds an edge and its associated vertices to simple directed graph stored in static memory of this process.
+     * This method adds an edge and its associated vertices to a simple directed graph.  The graph is a private copy, see {@link #updateHier(HierClosure, Relationship, Hier.Op)}.
      *
-     * @param graph synchronized parameter contains a reference to simple digraph {@code org.jgrapht.graph.SimpleDirectedGraph}.
+     * @param graph contains a reference to simple digraph {@code org.jgrapht.graph.SimpleDirectedGraph}.
      * @param relation contains parent-child relationship targeted for addition.
-     * @return {@code org.jgrapht.graph.SimpleDirectedGraph} containing the vertices of {@code String}, and edges, as {@link Relationship}s that correspond to relational data.
      */
     private static void addEdge( SimpleDirectedGraph<String, Relationship> graph, Relationship relation )
     {
         LOG.debug( "addEdge" );
-        synchronized ( graph )
-        {
-            graph.addVertex( relation.getChild().toUpperCase() );
-            graph.addVertex( relation.getParent().toUpperCase() );
-            graph.addEdge( relation.getChild().toUpperCase(), relation.getParent().toUpperCase(), relation );
-        }
+        graph.addVertex( relation.getChild().toUpperCase() );
+        graph.addVertex( relation.getParent().toUpperCase() );
+        graph.addEdge( relation.getChild().toUpperCase(), relation.getParent().toUpperCase(), relation );
     }
 
 
     /**
-     * This method is synchronized and removes an edge from a simple directed graph stored in static memory of this process.
+     * This method removes an edge from a simple directed graph.  The graph is a private copy, see {@link #updateHier(HierClosure, Relationship, Hier.Op)}.
      *
-     * @param graph synchronized parameter contains a reference to simple digraph {@code org.jgrapht.graph.SimpleDirectedGraph}.
+     * @param graph contains a reference to simple digraph {@code org.jgrapht.graph.SimpleDirectedGraph}.
      * @param relation contains parent-child relationship targeted for removal.
-     * @return {@code org.jgrapht.graph.SimpleDirectedGraph} containing the vertices of {@code String}, and edges, as {@link Relationship}s that correspond to relational data.
      */
     private static void removeEdge( SimpleDirectedGraph<String, Relationship> graph, Relationship relation )
     {
         LOG.debug( "removeEdge" );
-        synchronized ( graph )
-        {
-            graph.removeEdge( relation );
-        }
+        graph.removeEdge( relation.getChild().toUpperCase(), relation.getParent().toUpperCase() );
     }
 
 
@@ -242,7 +231,7 @@ final class HierUtil
      */
     private static boolean isRelationship( SimpleDirectedGraph<String, Relationship> graph, Relationship rel )
     {
-        return graph.containsEdge( rel );
+        return graph != null && graph.containsEdge( rel );
     }
 
 
@@ -274,167 +263,6 @@ final class HierUtil
     }
 
 
-    /**
-     * Recursively traverse the hierarchical graph and return all of the ascendants of a given node.
-     *
-     * @param childName maps to vertex to determine parentage.
-     * @param graph     contains a reference to simple digraph {@code org.jgrapht.graph.SimpleDirectedGraph}.
-     * @return Set of names that are parents of given child.
-     */
-    static Set<String> getAscendants( String childName, SimpleDirectedGraph<String, Relationship> graph )
-    {
-        Map<String, String> vx = new HashMap<>();
-        // TreeSet will return in sorted order with case insensitive comparator:
-        Set<String> parents = new TreeSet<>( String.CASE_INSENSITIVE_ORDER );
-        vx.put( VERTEX, childName.toUpperCase() );
-        getAscendants( vx, graph, parents );
-        return parents;
-    }
-
-
-    /**
-     * Utility function recursively traverses a given digraph to build a set of all ascendant names.
-     *
-     * @param vertex     contains the position of the cursor for traversal of graph.
-     * @param graph      contains a reference to simple digraph {@code org.jgrapht.graph.SimpleDirectedGraph}.
-     * @param ascendants contains the result set of ascendant names.
-     * @return value contains the vertex of current position.
-     */
-    private static String getAscendants( Map<String, String> vertex, SimpleDirectedGraph<String, Relationship> graph,
-        Set<String> ascendants )
-    {
-        String v = vertex.get( VERTEX );
-        if ( v == null )
-        {
-            return null;
-        }
-        else if ( graph == null )
-        {
-            return null;
-        }
-        LOG.debug( "getAscendants [{}]", v);
-        Set<Relationship> edges;
-        try
-        {
-            edges = graph.outgoingEdgesOf( v );
-
-        }
-        catch ( java.lang.IllegalArgumentException iae )
-        {
-            // vertex is leaf.
-            return null;
-        }
-        for ( Relationship edge : edges )
-        {
-            vertex.put( VERTEX, edge.getParent() );
-            ascendants.add( edge.getParent() );
-            v = getAscendants( vertex, graph, ascendants );
-        }
-        return v;
-    }
-
-
-    /**
-     * Recursively traverse the hierarchical graph and return all of the descendants for a given node.
-     *
-     * @param parentName maps to vertex to determine parentage.
-     * @param graph      contains a reference to simple digraph {@code org.jgrapht.graph.SimpleDirectedGraph}.
-     * @return Set of names that are children of given parent.
-     */
-    static Set<String> getDescendants( String parentName, SimpleDirectedGraph<String, Relationship> graph )
-    {
-        Map<String, String> vx = new HashMap<>();
-        // TreeSet will return in sorted order with case insensitive comparator:
-        Set<String> children = new TreeSet<>( String.CASE_INSENSITIVE_ORDER );
-        vx.put( VERTEX, parentName.toUpperCase() );
-        getDescendants( vx, graph, children );
-        return children;
-    }
-
-
-    /**
-     * Recursively traverse the hierarchical graph and determine child node contains a given parent as one of its ascendants.
-     *
-     * @param childName maps to vertex to determine parentage.
-     * @param parentName maps to vertex to determine parentage.
-     * @param graph      contains a reference to simple digraph {@code org.jgrapht.graph.SimpleDirectedGraph}.
-     * @return Set of names that are children of given parent.
-     */
-    private static boolean isAscendant( String childName, String parentName,
-        SimpleDirectedGraph<String, Relationship> graph )
-    {
-        boolean isAscendant = false;
-        Set<String> ascendants = getAscendants( childName, graph );
-        if ( ascendants.contains( parentName ) )
-        {
-            isAscendant = true;
-        }
-        return isAscendant;
-    }
-
-
-    /**
-     * Recursively traverse the hierarchical graph and determine if parent node contains a given child as one of its descendants.
-     *
-     * @param childName maps to vertex to determine parentage.
-     * @param parentName maps to vertex to determine parentage.
-     * @param graph      contains a reference to simple digraph {@code org.jgrapht.graph.SimpleDirectedGraph}.
-     * @return Set of names that are children of given parent.
-     */
-    private static boolean isDescedant( String childName, String parentName,
-        SimpleDirectedGraph<String, Relationship> graph )
-    {
-        boolean isDescendant = false;
-        Set<String> descendants = getDescendants( parentName, graph );
-        if ( descendants.contains( childName ) )
-        {
-            isDescendant = true;
-        }
-        return isDescendant;
-    }
-
-
-    /**
-     * Utility function recursively traverses a given digraph to build a set of all descendants names.
-     *
-     * @param vertex      contains the position of the cursor for traversal of graph.
-     * @param graph       contains a reference to simple digraph {@code org.jgrapht.graph.SimpleDirectedGraph}.
-     * @param descendants contains the result set of names of all descendants of node.
-     * @return value contains the vertex of current position.
-     */
-    private static String getDescendants( Map<String, String> vertex, SimpleDirectedGraph<String, Relationship> graph,
-        Set<String> descendants )
-    {
-        String v = vertex.get( VERTEX );
-        if ( v == null )
-        {
-            return null;
-        }
-        else if ( graph == null )
-        {
-            return null;
-        }
-        LOG.debug( "getDescendants [{}]", v);
-        Set<Relationship> edges;
-        try
-        {
-            edges = graph.incomingEdgesOf( v );
-        }
-        catch ( java.lang.IllegalArgumentException iae )
-        {
-            // vertex is leaf.
-            return null;
-        }
-        for ( Relationship edge : edges )
-        {
-            vertex.put( VERTEX, edge.getChild() );
-            descendants.add( edge.getChild() );
-            v = getDescendants( vertex, graph, descendants );
-        }
-        return v;
-    }
-
-
     /**
      * Utility function returns a set of all children (direct descendant) names.
      *
@@ -618,17 +446,19 @@ final class HierUtil
 
 
     /**
-     * This api allows synchronized access to allow updates to hierarchical relationships.
-     * Method will update the hierarchical data set and reload the JGraphT simple digraph with latest.
+     * This api applies an update to hierarchical relationships.  The hierarchy passed in is not changed.  Its graph is copied, the edge
+     * added or removed from the copy and a new closure computed, which the caller stores in place of the old one.
      *
-     * @param graph contains a reference to simple digraph {@code org.jgrapht.graph.SimpleDirectedGraph}.
+     * @param hier contains a reference to the hierarchy and its closure.
      * @param relationship contains parent-child relationship targeted for addition.
      * @param op   used to pass the ldap op {@link Hier.Op#ADD}, {@link Hier.Op#MOD}, {@link org.apache.directory.fortress.core.model.Hier.Op#REM}
+     * @return the updated hierarchy.
      * @throws org.apache.directory.fortress.core.SecurityException in the event of a system error.
      */
-    static void updateHier( SimpleDirectedGraph<String, Relationship> graph, Relationship relationship, Hier.Op op )
+    static HierClosure updateHier( HierClosure hier, Relationship relationship, Hier.Op op )
         throws SecurityException
     {
+        SimpleDirectedGraph<String, Relationship> graph = hier.copyGraph();
         if ( op == Hier.Op.ADD )
             HierUtil.addEdge( graph, relationship );
         else if ( op == Hier.Op.REM )
@@ -636,6 +466,7 @@ final class HierUtil
         else
             throw new SecurityException( GlobalErrIds.HIER_CANNOT_PERFORM, CLS_NM
                 + "updateHier Cannot perform hierarchical operation" );
+        return new HierClosure( graph );
     }
 
 
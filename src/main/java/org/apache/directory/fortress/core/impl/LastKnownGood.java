@@ -0,0 +1,249 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang.SerializationUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.directory.fortress.core.GlobalErrIds;
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.ldap.LdapCircuitBreaker;
+import org.apache.directory.fortress.core.model.ObjectFactory;
+import org.apache.directory.fortress.core.model.Session;
+import org.apache.directory.fortress.core.model.User;
+import org.apache.directory.fortress.core.model.UserAdminRole;
+import org.apache.directory.fortress.core.model.UserRole;
+import org.apache.directory.fortress.core.model.Warning;
+import org.apache.directory.fortress.core.util.Config;
+
+
+/**
+ * Keeps the Users last read from ldap, so {@link UserP} may answer with them while the {@link LdapCircuitBreaker} is not
+ * closed.  Permissions and hierarchies are kept by their own caches, {@link PermUtil} and {@link HierCache}.  Only used if the
+ * breaker is enabled, see fortress config param 'ldap.breaker.failures'.  Holds up to 'ldap.breaker.stale.users' Users, when
+ * full an arbitrary one is dropped to make room.
+ * <p>
+ * Only Users read with {@link Projection#AUTHN} or {@link Projection#AUTHZ}, the ones sessions and checks use, are kept.  They
+ * are stored trimmed to the attributes of those projections, less the password, and never modified after, so storing one costs
+ * a few references.  A copy is made only when one is returned, so callers may modify it.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class LastKnownGood
+{
+    private static final String DEGRADED_MSG = "LDAP UNAVAILABLE, ANSWERED FROM CACHED DATA";
+    private static final char KEY_DELIMITER = '\u0000';
+    private static final LdapCircuitBreaker BREAKER = LdapCircuitBreaker.getInstance();
+    private final ConcurrentHashMap<String, Entry> users = new ConcurrentHashMap<>();
+    private final int max;
+
+    private static volatile LastKnownGood sINSTANCE = null;
+
+    static LastKnownGood getInstance()
+    {
+        if(sINSTANCE == null)
+        {
+            synchronized (LastKnownGood.class)
+            {
+                if(sINSTANCE == null)
+                {
+                    sINSTANCE = new LastKnownGood();
+                }
+            }
+        }
+        return sINSTANCE;
+    }
+
+    /**
+     * Private constructor
+     *
+     */
+    private LastKnownGood()
+    {
+        max = Config.getInstance().getInt( GlobalIds.LDAP_BREAKER_STALE_USERS, 10000 );
+    }
+
+
+    /**
+     * @return true if the circuit breaker is enabled.
+     */
+    boolean isEnabled()
+    {
+        return BREAKER.isEnabled();
+    }
+
+
+    /**
+     * @return true if the circuit breaker is not closed, i.e. cached data should be used.
+     */
+    boolean isDegraded()
+    {
+        return !BREAKER.isClosed();
+    }
+
+
+    /**
+     * @param loaded the value of {@link System#nanoTime()} when the data was read from ldap.
+     * @return true if the circuit breaker is not closed and the data is not older than 'ldap.breaker.stale.seconds'.
+     */
+    boolean isUsable( long loaded )
+    {
+        return isDegraded() && BREAKER.isUsable( TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - loaded ) );
+    }
+
+
+    /**
+     * Keep a trimmed User just read from ldap.
+     *
+     * @param inUser  contains the userId and contextId it was read with.
+     * @param user    as read.
+     * @param projection contains the attributes the user was read with.
+     */
+    void putUser( User inUser, User user, Projection projection )
+    {
+        if ( projection == Projection.FULL )
+        {
+            return;
+        }
+        String key = getKey( inUser, projection );
+        if ( users.put( key, new Entry( trim( user ), System.currentTimeMillis() ) ) == null && users.size() > max )
+        {
+            Iterator<String> keys = users.keySet().iterator();
+            while ( users.size() > max && keys.hasNext() )
+            {
+                String eldest = keys.next();
+                if ( !eldest.equals( key ) )
+                {
+                    keys.remove();
+                }
+            }
+        }
+    }
+
+
+    /**
+     * @param user    contains the userId and contextId.
+     * @param projection contains the attributes the user is needed with.
+     * @return copy of the User last read, null if there is none or it is older than 'ldap.breaker.stale.seconds'.
+     */
+    User getUser( User user, Projection projection )
+    {
+        Entry entry = users.get( getKey( user, projection ) );
+        if ( entry == null || !BREAKER.isUsable( System.currentTimeMillis() - entry.loaded ) )
+        {
+            return null;
+        }
+        return ( User ) SerializationUtils.clone( entry.user );
+    }
+
+
+    /**
+     * Copy the attributes of {@link Projection#AUTHZ}, other than the password, to a new User.  The role assignments are
+     * shared, they are not modified once read.
+     */
+    private static User trim( User user )
+    {
+        User trimmed = new User();
+        trimmed.setContextId( user.getContextId() );
+        trimmed.setUserId( user.getUserId() );
+        trimmed.setInternalId( user.getInternalId() );
+        trimmed.setDn( user.getDn() );
+        trimmed.setOu( user.getOu() );
+        trimmed.setCn( user.getCn() );
+        trimmed.setSn( user.getSn() );
+        trimmed.setDescription( user.getDescription() );
+        trimmed.setPwPolicy( user.getPwPolicy() );
+        trimmed.setReset( user.isReset() );
+        trimmed.setLocked( user.isLocked() );
+        trimmed.setSystem( user.isSystem() );
+        trimmed.setName( user.getName() );
+        trimmed.setTimeout( user.getTimeout() );
+        trimmed.setBeginTime( user.getBeginTime() );
+        trimmed.setEndTime( user.getEndTime() );
+        trimmed.setBeginDate( user.getBeginDate() );
+        trimmed.setEndDate( user.getEndDate() );
+        trimmed.setBeginLockDate( user.getBeginLockDate() );
+        trimmed.setEndLockDate( user.getEndLockDate() );
+        trimmed.setDayMask( user.getDayMask() );
+        Properties props = user.getProperties();
+        if ( props != null )
+        {
+            trimmed.addProperties( props );
+        }
+        trimmed.setRoles( new ArrayList<UserRole>( user.getRoles() ) );
+        trimmed.setAdminRoles( new ArrayList<UserAdminRole>( user.getAdminRoles() ) );
+        return trimmed;
+    }
+
+
+    /**
+     * Warn the caller the result was computed from cached data, once per Session.
+     *
+     * @param session receives the warning.
+     */
+    static void setDegraded( Session session )
+    {
+        List<Warning> warnings = session.getWarnings();
+        if ( warnings != null )
+        {
+            for ( Warning warning : warnings )
+            {
+                if ( warning.getId() == GlobalErrIds.FT_LDAP_DEGRADED )
+                {
+                    return;
+                }
+            }
+        }
+        session.setWarning( new ObjectFactory().createWarning( GlobalErrIds.FT_LDAP_DEGRADED, DEGRADED_MSG,
+            Warning.Type.DIRECTORY ) );
+    }
+
+
+    private static String getKey( User user, Projection projection )
+    {
+        String contextId = StringUtils.isNotEmpty( user.getContextId() ) ? user.getContextId() : GlobalIds.HOME;
+        return contextId + KEY_DELIMITER + user.getUserId().toUpperCase() + KEY_DELIMITER + projection;
+    }
+
+
+    /**
+     * A User and the time it was read.
+     */
+    private static final class Entry
+    {
+        private final User user;
+        private final long loaded;
+
+        private Entry( User user, long loaded )
+        {
+            this.user = user;
+            this.loaded = loaded;
+        }
+    }
+}
@@ -156,7 +156,7 @@ final class OrgUnitDAO extends LdapDataProvider
             // These multi-valued attributes are optional.  The utility function will return quietly if no items are loaded into collection:
             loadAttrs( entity.getParents(), entry, GlobalIds.PARENT_NODES );
 
-            ld = getAdminConnection();
+            ld = getAdminConnection( entity.getContextId() );
             add( ld, entry, entity );
         }
         catch ( LdapException e )
@@ -211,7 +211,7 @@ final class OrgUnitDAO extends LdapDataProvider
 
             if ( mods.size() > 0 )
             {
-                ld = getAdminConnection();
+                ld = getAdminConnection( entity.getContextId() );
                 modify( ld, dn, mods, entity );
             }
         }
@@ -255,7 +255,7 @@ final class OrgUnitDAO extends LdapDataProvider
         {
             List<Modification> mods = new ArrayList<Modification>();
             mods.add( new DefaultModification( ModificationOperation.REMOVE_ATTRIBUTE, GlobalIds.PARENT_NODES ) );
-            ld = getAdminConnection();
+            ld = getAdminConnection( entity.getContextId() );
             modify( ld, dn, mods, entity );
         }
         catch ( LdapException e )
@@ -295,7 +295,7 @@ final class OrgUnitDAO extends LdapDataProvider
 
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminConnection( entity.getContextId() );
             delete( ld, dn, entity );
         }
         catch ( LdapException e )
@@ -338,7 +338,7 @@ final class OrgUnitDAO extends LdapDataProvider
 
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( entity.getContextId() );
             Entry findEntry = read( ld, dn, ORGUNIT_ATRS );
 
             if ( findEntry == null )
@@ -420,7 +420,7 @@ final class OrgUnitDAO extends LdapDataProvider
             String searchVal = encodeSafeText( orgUnit.getName(), GlobalIds.ROLE_LEN );
             String filter = GlobalIds.FILTER_PREFIX + ORGUNIT_OBJECT_CLASS_NM + ")("
                 + SchemaConstants.OU_AT + "=" + searchVal + "*))";
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( orgUnit.getContextId() );
             SearchCursor searchResults = search( ld, orgUnitRoot,
                 SearchScope.ONELEVEL, filter, ORGUNIT_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -489,7 +489,7 @@ final class OrgUnitDAO extends LdapDataProvider
         try
         {
             String filter = "(objectclass=" + ORGUNIT_OBJECT_CLASS_NM + ")";
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( orgUnit.getContextId() );
             SearchCursor searchResults = search( ld, orgUnitRoot,
                 SearchScope.ONELEVEL, filter, ORGUNIT_ATR, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
 
@@ -579,7 +579,7 @@ final class OrgUnitDAO extends LdapDataProvider
         {
             filter = GlobalIds.FILTER_PREFIX + ORGUNIT_OBJECT_CLASS_NM + ")("
                 + GlobalIds.PARENT_NODES + "=*))";
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( orgUnit.getContextId() );
             SearchCursor searchResults = search( ld, orgUnitRoot,
                 SearchScope.ONELEVEL, filter, DESC_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -626,13 +626,13 @@ final class OrgUnitDAO extends LdapDataProvider
             switch ( orgUnit.type )
             {
                 case USER:
-                    dn = new Dn( SchemaConstants.OU_AT + "=" + orgUnit.getName(), getRootDn( orgUnit.getContextId(),
-                        GlobalIds.OSU_ROOT ) );
+                    dn = getChildDn( getRoot( orgUnit.getContextId(), GlobalIds.OSU_ROOT ), SchemaConstants.OU_AT,
+                        orgUnit.getName() );
                     break;
 
                 case PERM:
-                    dn = new Dn( SchemaConstants.OU_AT + "=" + orgUnit.getName(), getRootDn( orgUnit.getContextId(),
-                        GlobalIds.PSU_ROOT ) );
+                    dn = getChildDn( getRoot( orgUnit.getContextId(), GlobalIds.PSU_ROOT ), SchemaConstants.OU_AT,
+                        orgUnit.getName() );
                     break;
 
                 default:
@@ -22,8 +22,9 @@ package org.apache.directory.fortress.core.impl;
 
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.directory.fortress.core.GlobalErrIds;
@@ -54,7 +55,8 @@ import org.slf4j.LoggerFactory;
  *  or {@link org.apache.directory.fortress.core.ValidationException} as {@link SecurityException}s with appropriate
  * error id from {@link GlobalErrIds}.
  * <p>
- * This class uses synchronized data sets ({@link #ouCache} but is thread safe.
+ * This class uses data sets ({@link #ouCache}), whose sets are replaced rather than modified so they are read without locking,
+ * and is thread safe.
 
  * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
  */
@@ -64,9 +66,9 @@ final class OrgUnitP
     private static final String CLS_NM = OrgUnitP.class.getName();
     private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
 
-    // these fields are used to synchronize access to the above static pools:
-    private static final ReadWriteLock userPoolLock = new ReentrantReadWriteLock();
-    private static final ReadWriteLock permPoolLock = new ReentrantReadWriteLock();
+    // these fields are used to serialize changes to the above static pools:
+    private static final Lock userPoolLock = new ReentrantLock();
+    private static final Lock permPoolLock = new ReentrantLock();
     private static Cache ouCache;
 
     // DAO class for OU data sets must be initializer before the other statics:
@@ -102,36 +104,20 @@ final class OrgUnitP
 
         if ( entity.type == OrgUnit.Type.USER )
         {
-            try
-            {
-                userPoolLock.readLock().lock();
-                Set<String> userPool = getUserSet( entity );
+            Set<String> userPool = getUserSet( entity );
 
-                if ( userPool != null )
-                {
-                    result = userPool.contains( entity.getName() );
-                }
-            }
-            finally
+            if ( userPool != null )
             {
-                userPoolLock.readLock().unlock();
+                result = userPool.contains( entity.getName() );
             }
         }
         else
         {
-            try
-            {
-                permPoolLock.readLock().lock();
-                Set<String> permPool = getPermSet( entity );
+            Set<String> permPool = getPermSet( entity );
 
-                if ( permPool != null )
-                {
-                    result = permPool.contains( entity.getName() );
-                }
-            }
-            finally
+            if ( permPool != null )
             {
-                permPoolLock.readLock().unlock();
+                result = permPool.contains( entity.getName() );
             }
         }
 
@@ -158,8 +144,6 @@ final class OrgUnitP
             LOG.info( warning, se );
         }
 
-        ouCache.put( getKey( USER_OUS, orgUnit.getContextId() ), ouUserSet );
-
         return ouUserSet;
     }
 
@@ -183,8 +167,6 @@ final class OrgUnitP
             LOG.info( warning, se );
         }
 
-        ouCache.put( getKey( PERM_OUS, orgUnit.getContextId() ), ouPermSet );
-
         return ouPermSet;
     }
 
@@ -194,17 +176,17 @@ final class OrgUnitP
      * @param orgUnit will be a Perm OU.
      * @return Set containing the OU mapping to a Perm type and tenant.
      */
-    private Set<String> getPermSet( OrgUnit orgUnit )
+    @SuppressWarnings("unchecked")
+    private Set<String> getPermSet( final OrgUnit orgUnit )
     {
-        @SuppressWarnings("unchecked")
-        Set<String> permSet = ( Set<String> ) ouCache.get( getKey( PERM_OUS, orgUnit.getContextId() ) );
-
-        if ( permSet == null )
+        return ( Set<String> ) ouCache.get( getKey( PERM_OUS, orgUnit.getContextId() ), new Cache.Loader()
         {
-            permSet = loadPermSet( orgUnit );
-        }
-
-        return permSet;
+            @Override
+            public Object load( Object key )
+            {
+                return loadPermSet( orgUnit );
+            }
+        } );
     }
 
 
@@ -213,17 +195,51 @@ final class OrgUnitP
      * @param orgUnit will be a User OU
      * @return Set containing the OU mapping to the user type and tenant.
      */
-    private Set<String> getUserSet( OrgUnit orgUnit )
+    @SuppressWarnings("unchecked")
+    private Set<String> getUserSet( final OrgUnit orgUnit )
     {
-        @SuppressWarnings("unchecked")
-        Set<String> userSet = ( Set<String> ) ouCache.get( getKey( USER_OUS, orgUnit.getContextId() ) );
+        return ( Set<String> ) ouCache.get( getKey( USER_OUS, orgUnit.getContextId() ), new Cache.Loader()
+        {
+            @Override
+            public Object load( Object key )
+            {
+                return loadUserSet( orgUnit );
+            }
+        } );
+    }
+
+
+    /**
+     * Discard the cached set of a tenant's orgUnits, after they were changed in ldap by another process.  The next validation
+     * loads it again.
+     *
+     * @param type      either USER or PERM.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     */
+    void invalidate( OrgUnit.Type type, String contextId )
+    {
+        ouCache.clear( getKey( type == OrgUnit.Type.USER ? USER_OUS : PERM_OUS, contextId ) );
+    }
+
 
-        if ( userSet == null )
+    /**
+     * Load the set of a tenant's orgUnits, if it has not been loaded.  Called by {@link CacheWarmer}.
+     *
+     * @param type      either USER or PERM.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     */
+    void warm( OrgUnit.Type type, String contextId )
+    {
+        OrgUnit orgUnit = new OrgUnit( null, type );
+        orgUnit.setContextId( contextId );
+        if ( type == OrgUnit.Type.USER )
         {
-            userSet = loadUserSet( orgUnit );
+            getUserSet( orgUnit );
+        }
+        else
+        {
+            getPermSet( orgUnit );
         }
-
-        return userSet;
     }
 
 
@@ -276,36 +292,42 @@ final class OrgUnitP
         {
             try
             {
-                userPoolLock.writeLock().lock();
+                userPoolLock.lock();
 
                 Set<String> userPool = getUserSet( entity );
 
                 if ( userPool != null )
                 {
+                    // readers hold the set without locking, replace it with a changed copy:
+                    userPool = copyOf( userPool );
                     userPool.add( entity.getName() );
+                    ouCache.put( getKey( USER_OUS, entity.getContextId() ), userPool );
                 }
             }
             finally
             {
-                userPoolLock.writeLock().unlock();
+                userPoolLock.unlock();
             }
         }
         else
         {
             try
             {
-                permPoolLock.writeLock().lock();
+                permPoolLock.lock();
 
                 Set<String> permPool = getPermSet( entity );
 
                 if ( permPool != null )
                 {
+                    // readers hold the set without locking, replace it with a changed copy:
+                    permPool = copyOf( permPool );
                     permPool.add( entity.getName() );
+                    ouCache.put( getKey( PERM_OUS, entity.getContextId() ), permPool );
                 }
             }
             finally
             {
-                permPoolLock.writeLock().unlock();
+                permPoolLock.unlock();
             }
         }
 
@@ -363,34 +385,40 @@ final class OrgUnitP
         {
             try
             {
-                userPoolLock.writeLock().lock();
+                userPoolLock.lock();
                 Set<String> userPool = getUserSet( entity );
 
                 if ( userPool != null )
                 {
+                    // readers hold the set without locking, replace it with a changed copy:
+                    userPool = copyOf( userPool );
                     userPool.remove( entity.getName() );
+                    ouCache.put( getKey( USER_OUS, entity.getContextId() ), userPool );
                 }
             }
             finally
             {
-                userPoolLock.writeLock().unlock();
+                userPoolLock.unlock();
             }
         }
         else
         {
             try
             {
-                permPoolLock.writeLock().lock();
+                permPoolLock.lock();
                 Set<String> permPool = getPermSet( entity );
 
                 if ( permPool != null )
                 {
+                    // readers hold the set without locking, replace it with a changed copy:
+                    permPool = copyOf( permPool );
                     permPool.remove( entity.getName() );
+                    ouCache.put( getKey( PERM_OUS, entity.getContextId() ), permPool );
                 }
             }
             finally
             {
-                permPoolLock.writeLock().unlock();
+                permPoolLock.unlock();
             }
         }
 
@@ -438,6 +466,14 @@ final class OrgUnitP
     }
 
 
+    private static Set<String> copyOf( Set<String> ouSet )
+    {
+        Set<String> copy = new TreeSet<>( String.CASE_INSENSITIVE_ORDER );
+        copy.addAll( ouSet );
+        return copy;
+    }
+
+
     /**
      * Build a key that is composed of the OU type ({@link #USER_OUS} or {@link #PERM_OUS}) and the contextId which is the id of tenant.
      *
@@ -20,13 +20,19 @@
 package org.apache.directory.fortress.core.impl;
 
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.commons.lang.StringUtils;
 import org.apache.directory.api.ldap.model.constants.SchemaConstants;
 import org.apache.directory.api.ldap.model.cursor.CursorException;
+import org.apache.directory.api.ldap.model.cursor.SearchCursor;
 import org.apache.directory.api.ldap.model.entry.DefaultEntry;
 import org.apache.directory.api.ldap.model.entry.Entry;
 import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.message.SearchScope;
 import org.apache.directory.fortress.core.CreateException;
+import org.apache.directory.fortress.core.FinderException;
 import org.apache.directory.fortress.core.GlobalErrIds;
 import org.apache.directory.fortress.core.GlobalIds;
 import org.apache.directory.fortress.core.RemoveException;
@@ -104,7 +110,7 @@ final class OrganizationalUnitDAO extends LdapDataProvider
                 SchemaConstants.OU_AT, oe.getName(),
                 SchemaConstants.DESCRIPTION_AT, oe.getDescription() );
 
-            ld = getAdminConnection();
+            ld = getAdminConnection( oe.getContextId() );
             add( ld, myEntry );
         }
         catch ( LdapException e )
@@ -141,7 +147,7 @@ final class OrganizationalUnitDAO extends LdapDataProvider
 
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminConnection( oe.getContextId() );
             deleteRecursive( ld, nodeDn );
         }
         catch ( CursorException e )
@@ -161,4 +167,49 @@ final class OrganizationalUnitDAO extends LdapDataProvider
             closeAdminConnection( ld );
         }
     }
-}
\ No newline at end of file
+
+
+    /**
+     * Return the names of the containers directly under the suffix, i.e. the tenants along with the containers of the
+     * default tenant, e.g. People.
+     *
+     * @return names of the containers, may be empty.
+     * @throws org.apache.directory.fortress.core.FinderException in the event of ldap error.
+     */
+    List<String> findSuffixChildren()
+        throws FinderException
+    {
+        List<String> names = new ArrayList<>();
+        LdapConnection ld = null;
+        String suffixDn = getRootDn( null );
+        String filter = GlobalIds.FILTER_PREFIX + SchemaConstants.ORGANIZATIONAL_UNIT_OC + "))";
+
+        try
+        {
+            ld = getAdminConnection();
+            SearchCursor searchResults = search( ld, suffixDn, SearchScope.ONELEVEL, filter, new String[]
+                { SchemaConstants.OU_AT }, false, 0 );
+
+            while ( searchResults.next() )
+            {
+                names.add( getAttribute( searchResults.getEntry(), SchemaConstants.OU_AT ) );
+            }
+        }
+        catch ( CursorException e )
+        {
+            String error = "findSuffixChildren suffix [" + suffixDn + "] caught CursorException=" + e.getMessage();
+            throw new FinderException( GlobalErrIds.CNTR_SEARCH_FAILED, error, e );
+        }
+        catch ( LdapException e )
+        {
+            String error = "findSuffixChildren suffix [" + suffixDn + "] caught LDAPException=" + e;
+            throw new FinderException( GlobalErrIds.CNTR_SEARCH_FAILED, error, e );
+        }
+        finally
+        {
+            closeAdminConnection( ld );
+        }
+
+        return names;
+    }
+}
@@ -22,9 +22,11 @@ package org.apache.directory.fortress.core.impl;
 
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
@@ -50,6 +52,7 @@ import org.apache.directory.fortress.core.GlobalIds;
 import org.apache.directory.fortress.core.RemoveException;
 import org.apache.directory.fortress.core.UpdateException;
 import org.apache.directory.fortress.core.ldap.LdapDataProvider;
+import org.apache.directory.fortress.core.ldap.PagedSearchCursor;
 import org.apache.directory.fortress.core.model.AdminRole;
 import org.apache.directory.fortress.core.model.ObjectFactory;
 import org.apache.directory.fortress.core.model.OrgUnit;
@@ -222,6 +225,17 @@ class PermDAO extends LdapDataProvider
             PERMISSION_ATTRIBUTE_SET
     };
 
+    // Read by checkAccess, only what is needed to decide and audit it:
+    private static final String[] PERMISSION_OP_AUTHZ_ATRS =
+        {
+            PERM_NAME,
+            GlobalIds.POBJ_NAME,
+            GlobalIds.POP_NAME,
+            GlobalIds.POBJ_ID,
+            ROLES,
+            USERS
+    };
+
     private static final String[] PERMISION_OBJ_ATRS =
         {
             GlobalIds.FT_IID, GlobalIds.POBJ_NAME, SchemaConstants.DESCRIPTION_AT, SchemaConstants.OU_AT, GlobalIds.TYPE,
@@ -293,7 +307,7 @@ class PermDAO extends LdapDataProvider
             }
 
             // now add the new entry to directory:
-            ld = getAdminConnection();
+            ld = getAdminConnection( entity.getContextId() );
             add( ld, entry, entity );
             entity.setDn( dn );
         }
@@ -353,7 +367,7 @@ class PermDAO extends LdapDataProvider
 
             if ( mods.size() > 0 )
             {
-                ld = getAdminConnection();
+                ld = getAdminConnection( entity.getContextId() );
                 modify( ld, dn, mods, entity );
                 entity.setDn( dn );
             }
@@ -385,7 +399,7 @@ class PermDAO extends LdapDataProvider
 
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminConnection( entity.getContextId() );
             deleteRecursive( ld, dn, entity );
         }
         catch ( LdapException e )
@@ -471,7 +485,7 @@ class PermDAO extends LdapDataProvider
             }
 
             // now add the new entry to directory:
-            ld = getAdminConnection();
+            ld = getAdminConnection( entity.getContextId() );
             add( ld, entry, entity );
             entity.setDn( dn );
         }
@@ -529,7 +543,7 @@ class PermDAO extends LdapDataProvider
             entry.add( SchemaConstants.CN_AT, entity.getName() );                    
             
             // now add the new entry to directory:
-            ld = getAdminConnection();
+            ld = getAdminConnection( entity.getContextId() );
             add( ld, entry, entity );
             entity.setDn( dn );
         }
@@ -616,7 +630,7 @@ class PermDAO extends LdapDataProvider
             
             
             // now add the new entry to directory:
-            ld = getAdminConnection();
+            ld = getAdminConnection( entity.getContextId() );
             add( ld, entry, entity );
             entity.setDn( dn );
         }
@@ -688,7 +702,7 @@ class PermDAO extends LdapDataProvider
             	           
             if ( mods.size() > 0 )
             {
-                ld = getAdminConnection();
+                ld = getAdminConnection( entity.getContextId() );
                 modify( ld, dn, mods, entity );
                 entity.setDn( dn );
             }
@@ -757,7 +771,7 @@ class PermDAO extends LdapDataProvider
 
             if ( mods.size() > 0 )
             {
-                ld = getAdminConnection();
+                ld = getAdminConnection( entity.getContextId() );
                 modify( ld, dn, mods, entity );
                 entity.setDn( dn );
             }
@@ -790,7 +804,7 @@ class PermDAO extends LdapDataProvider
 
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminConnection( entity.getContextId() );
             deleteRecursive( ld, dn, entity );
         }
         catch ( LdapException e )
@@ -822,7 +836,7 @@ class PermDAO extends LdapDataProvider
 
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminConnection( entity.getContextId() );
             deleteRecursive( ld, dn, entity );
         }
         catch ( LdapException e )
@@ -854,7 +868,7 @@ class PermDAO extends LdapDataProvider
 
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminConnection( entity.getContextId() );
             delete(ld,  dn);
         }
         catch ( LdapException e )
@@ -889,7 +903,7 @@ class PermDAO extends LdapDataProvider
 
             mods.add( new DefaultModification(
                 ModificationOperation.ADD_ATTRIBUTE, ROLES, role.getName() ) );
-            ld = getAdminConnection();
+            ld = getAdminConnection( pOp.getContextId() );
             modify( ld, dn, mods, pOp );
         }
         catch ( LdapAttributeInUseException e )
@@ -939,7 +953,7 @@ class PermDAO extends LdapDataProvider
             List<Modification> mods = new ArrayList<Modification>();
             mods.add( new DefaultModification(
                 ModificationOperation.REMOVE_ATTRIBUTE, ROLES, role.getName() ) );
-            ld = getAdminConnection();
+            ld = getAdminConnection( pOp.getContextId() );
             modify( ld, dn, mods, pOp );
         }
         catch ( LdapNoSuchAttributeException e )
@@ -981,7 +995,7 @@ class PermDAO extends LdapDataProvider
             List<Modification> mods = new ArrayList<Modification>();
             mods.add( new DefaultModification(
                 ModificationOperation.ADD_ATTRIBUTE, USERS, user.getUserId() ) );
-            ld = getAdminConnection();
+            ld = getAdminConnection( pOp.getContextId() );
             modify( ld, dn, mods, pOp );
         }
         catch ( LdapAttributeInUseException e )
@@ -1033,7 +1047,7 @@ class PermDAO extends LdapDataProvider
 
             mods.add( new DefaultModification( ModificationOperation.REMOVE_ATTRIBUTE,
                 USERS, user.getUserId() ) );
-            ld = getAdminConnection();
+            ld = getAdminConnection( pOp.getContextId() );
             modify( ld, dn, mods, pOp );
         }
         catch ( LdapNoSuchAttributeException e )
@@ -1064,6 +1078,19 @@ class PermDAO extends LdapDataProvider
      */
     Permission getPerm( Permission permission )
         throws FinderException
+    {
+        return getPerm( permission, Projection.FULL );
+    }
+
+
+    /**
+     * @param permission contains the names of the permission operation.
+     * @param projection contains the attributes to read, the others are left null.
+     * @return Permission entity.
+     * @throws FinderException in the event the permission was not found or of ldap error.
+     */
+    Permission getPerm( Permission permission, Projection projection )
+        throws FinderException
     {
         Permission entity = null;
         LdapConnection ld = null;
@@ -1072,8 +1099,8 @@ class PermDAO extends LdapDataProvider
 
         try
         {
-            ld = getAdminConnection();
-            Entry findEntry = read( ld, dn, PERMISSION_OP_ATRS );
+            ld = getAdminReadConnection( permission.getContextId() );
+            Entry findEntry = read( ld, dn, getAtrs( projection ) );
             if ( findEntry == null )
             {
                 String warning = "getPerm no entry found dn [" + dn + "]";
@@ -1115,7 +1142,7 @@ class PermDAO extends LdapDataProvider
 
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( permObj.getContextId() );
             Entry findEntry = read( ld, dn, PERMISION_OBJ_ATRS );
             if ( findEntry == null )
             {
@@ -1151,7 +1178,7 @@ class PermDAO extends LdapDataProvider
 
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( permAttributeSet.getContextId() );
             Entry findEntry = read( ld, dn, PERMISION_ATTRIBUTE_SET_ATRS );
             if ( findEntry == null )
             {
@@ -1199,7 +1226,7 @@ class PermDAO extends LdapDataProvider
             filterbuf.append( "=" );
             filterbuf.append( paSetVal );
             filterbuf.append(  "))" );
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( paSet.getContextId() );
             SearchCursor searchResults = search( ld, permRoot,
                 SearchScope.SUBTREE, filterbuf.toString(), PERMISION_ATTRIBUTE_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -1229,7 +1256,7 @@ class PermDAO extends LdapDataProvider
     /**
      * This method performs fortress authorization using data passed in (session) and stored on ldap server (permission).  It has been recently changed to use ldap compare operations in order to trigger slapd access log updates in directory.
      * It performs ldap operations:  read and (optionally) compare.  The first is to pull back the permission to see if user has access or not.  The second is to trigger audit
-     * record storage on ldap server but can be disabled.
+     * record storage on ldap server but can be disabled.  By default the compare is handed to {@link AuthZAuditQueue} and performed asynchronously.
      *
      * @param session contains {@link Session#getUserId()}, for impl check {@link org.apache.directory.fortress.core.model.Session#getRoles()}, for arbac check: {@link org.apache.directory.fortress.core.model.Session#getAdminRoles()}.
      * @param inPerm  must contain required attributes {@link Permission#objName} and {@link Permission#opName}.  {@link org.apache.directory.fortress.core.model.Permission#objId} is optional.
@@ -1246,10 +1273,10 @@ class PermDAO extends LdapDataProvider
 
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminConnection( inPerm.getContextId() );
 
             // LDAP Operation #1: Read the targeted permission from ldap server
-            Entry entry = read( ld, dn, PERMISSION_OP_ATRS );
+            Entry entry = read( ld, dn, getAtrs( Projection.AUTHZ ) );
             if ( entry == null )
             {
                 // if permission not found, cannot continue.
@@ -1318,8 +1345,135 @@ class PermDAO extends LdapDataProvider
     }
 
 
+    /**
+     * This method performs fortress authorization against a permission that has already been loaded, i.e. from the in-memory index
+     * maintained by {@link PermUtil}.  No read is performed on the ldap server.  The compare used to leave an audit trail is still performed,
+     * by default asynchronously on {@link AuthZAuditQueue}, unless disabled in fortress config.
+     *
+     * @param session contains {@link Session#getUserId()}, for impl check {@link org.apache.directory.fortress.core.model.Session#getRoles()}, for arbac check: {@link org.apache.directory.fortress.core.model.Session#getAdminRoles()}.
+     * @param inPerm  must contain required attributes {@link Permission#objName} and {@link Permission#opName}.  {@link org.apache.directory.fortress.core.model.Permission#objId} is optional.
+     * @param outPerm contains the roles and users assigned to the permission.
+     * @return boolean containing result of check.
+     * @throws org.apache.directory.fortress.core.FinderException
+     *          In the event system error occurs writing the audit record to ldap server.
+     */
+    boolean checkPermission( Session session, Permission inPerm, Permission outPerm ) throws FinderException
+    {
+        boolean isAuthZd = isAuthorized( session, outPerm );
+
+        if ( !session.isGroupSession() && isAuditEnabled() )
+        {
+            String dn = getDn( inPerm, inPerm.getContextId() );
+            String attributeValue = isAuthZd ? outPerm.getOpName() : outPerm.getOpName() + GlobalIds.FAILED_AUTHZ_INDICATOR;
+            if ( isAuditAsync() )
+            {
+                AuthZAuditQueue.getInstance().add( new AuthZAuditEvent( dn, session.getUser().getDn(), attributeValue ) );
+                return isAuthZd;
+            }
+
+            LdapConnection ld = null;
+            try
+            {
+                ld = getAdminConnection( inPerm.getContextId() );
+                addAuthZAudit( ld, dn, session.getUser().getDn(), attributeValue );
+            }
+            catch ( LdapException e )
+            {
+                String error = "checkPermission caught LdapException=" + e;
+                throw new FinderException( GlobalErrIds.PERM_COMPARE_OP_FAILED, error, e );
+            }
+            finally
+            {
+                closeAdminConnection( ld );
+            }
+        }
+
+        return isAuthZd;
+    }
+
+
+    /**
+     * This method performs fortress authorization for a list of permissions that have already been loaded, by {@link PermUtil}
+     * or {@link #findPermissions(List, String, boolean)}.  The audit records for every decision are written together.
+     *
+     * @param session  contains {@link Session#getUserId()}, for impl check {@link org.apache.directory.fortress.core.model.Session#getRoles()}, for arbac check: {@link org.apache.directory.fortress.core.model.Session#getAdminRoles()}.
+     * @param inPerms  each must contain required attributes {@link Permission#objName} and {@link Permission#opName}.
+     * @param outPerms contains the loaded permission at the same position as its request or null if it does not exist.
+     * @return List containing result of check for each permission.
+     * @throws org.apache.directory.fortress.core.FinderException
+     *          In the event system error occurs writing the audit records to ldap server.
+     */
+    List<Boolean> checkPermissions( Session session, List<Permission> inPerms, List<Permission> outPerms )
+        throws FinderException
+    {
+        List<Boolean> results = new ArrayList<>( inPerms.size() );
+        boolean isAudit = !session.isGroupSession() && isAuditEnabled();
+        List<AuthZAuditEvent> events = new ArrayList<>();
+
+        for ( int i = 0; i < inPerms.size(); i++ )
+        {
+            Permission inPerm = inPerms.get( i );
+            Permission outPerm = outPerms.get( i );
+            boolean isAuthZd = outPerm != null && isAuthorized( session, outPerm );
+            results.add( isAuthZd );
+
+            if ( isAudit )
+            {
+                String attributeValue;
+                if ( outPerm == null )
+                {
+                    attributeValue = "AuthZ Invalid";
+                }
+                else
+                {
+                    attributeValue = isAuthZd ? outPerm.getOpName() : outPerm.getOpName() + GlobalIds.FAILED_AUTHZ_INDICATOR;
+                }
+                events.add( new AuthZAuditEvent( getDn( inPerm, inPerm.getContextId() ), session.getUser().getDn(), attributeValue ) );
+            }
+        }
+
+        if ( !events.isEmpty() )
+        {
+            if ( isAuditAsync() )
+            {
+                AuthZAuditQueue queue = AuthZAuditQueue.getInstance();
+                for ( AuthZAuditEvent event : events )
+                {
+                    queue.add( event );
+                }
+            }
+            else if ( !new AuthZAuditDAO().audit( events ).isEmpty() )
+            {
+                String error = "checkPermissions could not write audit records for userId [" + session.getUserId() + "]";
+                throw new FinderException( GlobalErrIds.PERM_COMPARE_OP_FAILED, error );
+            }
+        }
+
+        return results;
+    }
+
+
+    /**
+     * @return true if authorization events are to be recorded on the ldap server, fortress config param: 'disable.audit'.
+     */
+    private boolean isAuditEnabled()
+    {
+        return Config.getInstance().isOpenldap() && ! Config.getInstance().isAuditDisabled();
+    }
+
+
+    /**
+     * @return true if authorization events are recorded by {@link AuthZAuditQueue} rather than inline, fortress config param: 'audit.async'.
+     */
+    private boolean isAuditAsync()
+    {
+        return Config.getInstance().getBoolean( GlobalIds.AUDIT_ASYNC, true );
+    }
+
+
     /**
      * Perform LDAP compare operation here to associate audit record with user authorization event.
+     * When asynchronous audit is enabled, the event is placed on the {@link AuthZAuditQueue} instead and the connection is not used.
      *
      * @param ld this method expects the ldap connection to be good
      * @param permDn contains distinguished name of the permission object.
@@ -1331,8 +1485,13 @@ class PermDAO extends LdapDataProvider
         throws FinderException
     {
         // Audit can be turned off here with fortress config param: 'disable.audit=true'
-        if ( Config.getInstance().isOpenldap() && ! Config.getInstance().isAuditDisabled() )
+        if ( isAuditEnabled() )
         {
+            if ( isAuditAsync() )
+            {
+                AuthZAuditQueue.getInstance().add( new AuthZAuditEvent( permDn, userDn, attributeValue ) );
+                return;
+            }
             try
             {
                 // The compare method uses OpenLDAP's Proxy Authorization Control to assert identity of end user onto connection:
@@ -1365,7 +1524,7 @@ class PermDAO extends LdapDataProvider
      * @param permission contains {@link org.apache.directory.fortress.core.model.Permission#getUsers()} and {@link Permission#getRoles()}.
      * @return binary result.
      */
-    private boolean isAuthorized( Session session, Permission permission )
+    boolean isAuthorized( Session session, Permission permission )
     {
         boolean result = false;
         Set<String> userIds = permission.getUsers();
@@ -1381,37 +1540,16 @@ class PermDAO extends LdapDataProvider
 
         if ( CollectionUtils.isNotEmpty( roles ) )
         {
-            if ( permission.isAdmin() )
+            // Permissions held by PermUtil carry the ids of their roles, otherwise compute them here:
+            BitSet roleIds = permission.getRoleIds();
+            if ( roleIds == null )
             {
-                // ARBAC Permission check include's User's inherited admin roles:
-                Set<String> activatedRoles = AdminRoleUtil.getInheritedRoles( session.getAdminRoles(),
-                    permission.getContextId() );
-
-                for ( String role : roles )
-                {
-                    // This is case insensitive op determines if user has matching admin role to the admin permission::
-                    if ( activatedRoles.contains( role ) )
-                    {
-                        result = true;
-                        break;
-                    }
-                }
+                roleIds = RoleIdUtil.getInstance().getIds( roles, permission.getContextId(), permission.isAdmin() );
             }
-            else
-            {
-                // RBAC Permission check include's User's inherited roles:
-                Set<String> activatedRoles = RoleUtil.getInstance().getInheritedRoles( session.getRoles(), permission.getContextId() );
 
-                for ( String role : roles )
-                {
-                    // This is case insensitive op determines if user has matching role:
-                    if ( activatedRoles.contains( role ) )
-                    {
-                        result = true;
-                        break;
-                    }
-                }
-            }
+            // The session's activated roles and their ascendants, RBAC or ARBAC, are held as ids.  Does user have a matching role?
+            result = RoleIdUtil.getInstance().getSessionIds( session, permission.getContextId(), permission.isAdmin() )
+                .intersects( roleIds );
         }
 
         return result;
@@ -1526,23 +1664,10 @@ class PermDAO extends LdapDataProvider
 
         try
         {
-            String permObjVal = encodeSafeText( permission.getObjName(), GlobalIds.PERM_LEN );
-            String permOpVal = encodeSafeText( permission.getOpName(), GlobalIds.PERM_LEN );
-            StringBuilder filterbuf = new StringBuilder();
-            filterbuf.append( GlobalIds.FILTER_PREFIX );
-            filterbuf.append( PERM_OP_OBJECT_CLASS_NAME );
-            filterbuf.append( ")(" );
-            filterbuf.append( GlobalIds.POBJ_NAME );
-            filterbuf.append( "=" );
-            filterbuf.append( permObjVal );
-            filterbuf.append( "*)(" );
-            filterbuf.append( GlobalIds.POP_NAME );
-            filterbuf.append( "=" );
-            filterbuf.append( permOpVal );
-            filterbuf.append(  "*))" );
-            ld = getAdminConnection();
+            String filter = getFindPermissionsFilter( permission );
+            ld = getAdminReadConnection( permission.getContextId() );
             SearchCursor searchResults = search( ld, permRoot,
-                SearchScope.SUBTREE, filterbuf.toString(), PERMISSION_OP_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
+                SearchScope.SUBTREE, filter, PERMISSION_OP_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
 
             while ( searchResults.next() )
@@ -1567,6 +1692,65 @@ class PermDAO extends LdapDataProvider
         return permList;
     }
 
+
+    /**
+     * Stream the permissions that match the criteria of {@link #findPermissions(Permission)}, reading them from ldap a page
+     * at a time.
+     *
+     * @param permission contains the object and operation names to search on.
+     * @param pageSize   specifies the number of entries to read from ldap at a time.
+     * @return stream of matching permissions, must be closed if not read to the end.
+     * @throws FinderException in the event the search could not be started.
+     */
+    Stream<Permission> streamPermissions( final Permission permission, int pageSize ) throws FinderException
+    {
+        String permRoot = getRootDn( permission.isAdmin(), permission.getContextId() );
+        LdapConnection ld = null;
+
+        try
+        {
+            String filter = getFindPermissionsFilter( permission );
+            ld = getAdminReadConnection( permission.getContextId() );
+            PagedSearchCursor cursor = searchPaged( ld, permRoot, SearchScope.SUBTREE, filter, PERMISSION_OP_ATRS, false,
+                pageSize );
+            return stream( cursor, new EntryMapper<Permission>()
+            {
+                @Override
+                public Permission map( Entry entry, long sequence ) throws LdapException
+                {
+                    return unloadPopLdapEntry( entry, sequence, permission.isAdmin() );
+                }
+            }, GlobalErrIds.PERM_SEARCH_FAILED, closeAdminConnectionTask( ld ) );
+        }
+        catch ( LdapException e )
+        {
+            closeAdminConnection( ld );
+            String error = "findPermissions caught LdapException=" + e;
+            throw new FinderException( GlobalErrIds.PERM_SEARCH_FAILED, error, e );
+        }
+    }
+
+
+    private String getFindPermissionsFilter( Permission permission ) throws LdapException
+    {
+        String permObjVal = encodeSafeText( permission.getObjName(), GlobalIds.PERM_LEN );
+        String permOpVal = encodeSafeText( permission.getOpName(), GlobalIds.PERM_LEN );
+        StringBuilder filterbuf = new StringBuilder();
+        filterbuf.append( GlobalIds.FILTER_PREFIX );
+        filterbuf.append( PERM_OP_OBJECT_CLASS_NAME );
+        filterbuf.append( ")(" );
+        filterbuf.append( GlobalIds.POBJ_NAME );
+        filterbuf.append( "=" );
+        filterbuf.append( permObjVal );
+        filterbuf.append( "*)(" );
+        filterbuf.append( GlobalIds.POP_NAME );
+        filterbuf.append( "=" );
+        filterbuf.append( permOpVal );
+        filterbuf.append(  "*))" );
+
+        return filterbuf.toString();
+    }
+
     List<Permission> findPermissionOperations( PermObj permObj )
             throws FinderException
         {
@@ -1585,7 +1769,7 @@ class PermDAO extends LdapDataProvider
                 filterbuf.append( "=" );
                 filterbuf.append( permObjVal );
                 filterbuf.append(  "))" );
-                ld = getAdminConnection();
+                ld = getAdminReadConnection( permObj.getContextId() );
                 SearchCursor searchResults = search( ld, permRoot,
                     SearchScope.SUBTREE, filterbuf.toString(), PERMISSION_OP_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
                 long sequence = 0;
@@ -1652,7 +1836,7 @@ class PermDAO extends LdapDataProvider
                 }
                 
                 filterbuf.append("))");
-                ld = getAdminConnection();
+                ld = getAdminReadConnection( permission.getContextId() );
                 SearchCursor searchResults = search( ld, permRoot,
                     SearchScope.SUBTREE, filterbuf.toString(), PERMISSION_OP_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
                 long sequence = 0;
@@ -1704,7 +1888,7 @@ class PermDAO extends LdapDataProvider
             filterbuf.append( "=" );
             filterbuf.append( permObjVal );
             filterbuf.append( "*))" );
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( permObj.getContextId() );
             SearchCursor searchResults = search( ld, permRoot,
                 SearchScope.SUBTREE, filterbuf.toString(), PERMISION_OBJ_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -1766,7 +1950,7 @@ class PermDAO extends LdapDataProvider
                 maxLimit = 0;
             }
 
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( ou.getContextId() );
             SearchCursor searchResults = search( ld, permRoot,
                 SearchScope.SUBTREE, filterbuf.toString(), PERMISION_OBJ_ATRS, false, maxLimit );
             long sequence = 0;
@@ -1866,7 +2050,7 @@ class PermDAO extends LdapDataProvider
             }
 
             filterbuf.append( ")" );
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( role.getContextId() );
             SearchCursor searchResults = search( ld, permRoot,
                 SearchScope.SUBTREE, filterbuf.toString(), PERMISSION_OP_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -1932,7 +2116,7 @@ class PermDAO extends LdapDataProvider
             filterbuf.append( "=" );
             filterbuf.append( user.getUserId() );
             filterbuf.append( ")))" );
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( user.getContextId() );
             SearchCursor searchResults = search( ld, permRoot,
                 SearchScope.SUBTREE, filterbuf.toString(), PERMISSION_OP_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -1985,7 +2169,7 @@ class PermDAO extends LdapDataProvider
             filterbuf.append( "=" );
             filterbuf.append( user.getUserId() );
             filterbuf.append( "))" );
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( user.getContextId() );
             SearchCursor searchResults = search( ld, permRoot,
                 SearchScope.SUBTREE, filterbuf.toString(), PERMISSION_OP_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -2064,7 +2248,7 @@ class PermDAO extends LdapDataProvider
             }
 
             filterbuf.append( "))" );
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( session.getContextId() );
             SearchCursor searchResults = search( ld, permRoot,
                 SearchScope.SUBTREE, filterbuf.toString(), PERMISSION_OP_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -2095,6 +2279,148 @@ class PermDAO extends LdapDataProvider
     }
 
 
+    /**
+     * Return every permission operation stored within a tenant's RBAC, or ARBAC, permission container.  Used to populate
+     * the in-memory permission index maintained by {@link PermUtil}.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @param isAdmin   if true, search the administrative permission container.
+     * @return List of all Permission operations found for the tenant.
+     * @throws org.apache.directory.fortress.core.FinderException
+     *
+     */
+    List<Permission> findAllPermissions( String contextId, boolean isAdmin ) throws FinderException
+    {
+        List<Permission> permList = new ArrayList<>();
+        LdapConnection ld = null;
+        String permRoot = getRootDn( isAdmin, contextId );
+
+        try
+        {
+            String filter = GlobalIds.FILTER_PREFIX + PERM_OP_OBJECT_CLASS_NAME + "))";
+            ld = getAdminReadConnection( contextId );
+            SearchCursor searchResults = search( ld, permRoot,
+                SearchScope.SUBTREE, filter, PERMISSION_OP_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
+            long sequence = 0;
+
+            while ( searchResults.next() )
+            {
+                Permission perm = unloadPopLdapEntry( searchResults.getEntry(), sequence++, isAdmin );
+                perm.setContextId( contextId );
+                permList.add( perm );
+            }
+        }
+        catch ( LdapException e )
+        {
+            String error = "findAllPermissions contextId [" + contextId + "] isAdmin [" + isAdmin
+                + "] caught LdapException=" + e;
+            throw new FinderException( GlobalErrIds.PERM_SEARCH_FAILED, error, e );
+        }
+        catch ( CursorException e )
+        {
+            String error = "findAllPermissions contextId [" + contextId + "] isAdmin [" + isAdmin
+                + "] caught CursorException=" + e.getMessage();
+            throw new FinderException( GlobalErrIds.PERM_SEARCH_FAILED, error, e );
+        }
+        finally
+        {
+            closeAdminConnection( ld );
+        }
+
+        return permList;
+    }
+
+
+    /**
+     * Read a list of permission operations with a single search.  The filter contains one term for each operation requested.
+     * Operations that do not exist are not returned.
+     *
+     * @param perms     each must contain {@link Permission#objName}, {@link Permission#opName} and optionally {@link Permission#objId}.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @param isAdmin   if true, search the administrative permission container.
+     * @return List of Permission operations found.
+     * @throws org.apache.directory.fortress.core.FinderException
+     *
+     */
+    List<Permission> findPermissions( List<Permission> perms, String contextId, boolean isAdmin ) throws FinderException
+    {
+        List<Permission> permList = new ArrayList<>();
+        LdapConnection ld = null;
+        String permRoot = getRootDn( isAdmin, contextId );
+
+        try
+        {
+            StringBuilder filterbuf = new StringBuilder();
+            filterbuf.append( GlobalIds.FILTER_PREFIX );
+            filterbuf.append( PERM_OP_OBJECT_CLASS_NAME );
+            filterbuf.append( ")(|" );
+            for ( Permission perm : perms )
+            {
+                filterbuf.append( "(&(" );
+                filterbuf.append( GlobalIds.POBJ_NAME );
+                filterbuf.append( "=" );
+                filterbuf.append( encodeSafeText( perm.getObjName(), GlobalIds.PERM_LEN ) );
+                filterbuf.append( ")(" );
+                filterbuf.append( GlobalIds.POP_NAME );
+                filterbuf.append( "=" );
+                filterbuf.append( encodeSafeText( perm.getOpName(), GlobalIds.PERM_LEN ) );
+                if ( StringUtils.isNotEmpty( perm.getObjId() ) )
+                {
+                    filterbuf.append( ")(" );
+                    filterbuf.append( GlobalIds.POBJ_ID );
+                    filterbuf.append( "=" );
+                    filterbuf.append( encodeSafeText( perm.getObjId(), GlobalIds.PERM_LEN ) );
+                    filterbuf.append( "))" );
+                }
+                else
+                {
+                    filterbuf.append( ")(!(" );
+                    filterbuf.append( GlobalIds.POBJ_ID );
+                    filterbuf.append( "=*)))" );
+                }
+            }
+            filterbuf.append( "))" );
+            ld = getAdminReadConnection( contextId );
+            SearchCursor searchResults = search( ld, permRoot,
+                SearchScope.SUBTREE, filterbuf.toString(), getAtrs( Projection.AUTHZ ), false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
+            long sequence = 0;
+
+            while ( searchResults.next() )
+            {
+                Permission perm = unloadPopLdapEntry( searchResults.getEntry(), sequence++, isAdmin );
+                perm.setContextId( contextId );
+                permList.add( perm );
+            }
+        }
+        catch ( LdapException e )
+        {
+            String error = "findPermissions list size [" + perms.size() + "] caught LdapException=" + e;
+            throw new FinderException( GlobalErrIds.PERM_SEARCH_FAILED, error, e );
+        }
+        catch ( CursorException e )
+        {
+            String error = "findPermissions list size [" + perms.size() + "] caught CursorException=" + e.getMessage();
+            throw new FinderException( GlobalErrIds.PERM_SEARCH_FAILED, error, e );
+        }
+        finally
+        {
+            closeAdminConnection( ld );
+        }
+
+        return permList;
+    }
+
+
+    /**
+     * @param projection contains the attributes of a permission operation to read.
+     * @return their names.
+     */
+    private static String[] getAtrs( Projection projection )
+    {
+        return projection == Projection.FULL ? PERMISSION_OP_ATRS : PERMISSION_OP_AUTHZ_ATRS;
+    }
+
+
     /**
      * @param opName
      * @param objId
@@ -20,8 +20,13 @@
 package org.apache.directory.fortress.core.impl;
 
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
@@ -77,6 +82,10 @@ final class PermP
      * to perform the operation on that object if and only if that permission is assigned to (at least)
      * one of the session's active roles. This implementation will verify the roles or userId correspond
      * to the subject's active roles are registered in the object's access control list.
+     * The permission is taken from the in-memory index maintained by {@link PermUtil}.  If not found there, it is read from the directory,
+     * unless it was recorded as missing by an earlier check.
+     * While the ldap circuit breaker is not closed, a permission found in the index is checked without the audit trail and the
+     * session is warned, see {@link LastKnownGood#setDegraded(Session)}.
      *
      * @param session    This object must be instantiated by calling {@link AccessMgrImpl#createSession} method before passing into the method.  No variables need to be set by client after returned from createSession.
      * @param permission object contains obj attribute which is a String and contains the name of the object user is trying to access;
@@ -86,10 +95,104 @@ final class PermP
      */
     boolean checkPermission( Session session, Permission permission ) throws SecurityException
     {
+        PermUtil permUtil = PermUtil.getInstance();
+        if ( permUtil.isEnabled() )
+        {
+            Permission outPerm = permUtil.getPermission( permission );
+            if ( outPerm != null )
+            {
+                if ( LastKnownGood.getInstance().isDegraded() )
+                {
+                    // The directory is failing, answer from the index without the audit trail:
+                    LastKnownGood.setDegraded( session );
+                    return pDao.isAuthorized( session, outPerm );
+                }
+                return pDao.checkPermission( session, permission, outPerm );
+            }
+            // Reads it, or records it missing:
+            return checkPermissions( session, Collections.singletonList( permission ) ).get( 0 );
+        }
         return pDao.checkPermission( session, permission );
     }
 
 
+    /**
+     * Same as {@link #checkPermission(Session, Permission)} but for a list of permissions.  Those not found in the in-memory index
+     * are read from the directory with a single search.  A permission that does not exist is not authorized, and is recorded in
+     * the index so it is not searched for again.
+     *
+     * @param session This object must be instantiated by calling {@link AccessMgrImpl#createSession} method before passing into the method.  No variables need to be set by client after returned from createSession.
+     * @param perms   each contains the object and operation name the user is trying to access.
+     * @return List containing True if user has access, false otherwise, for each permission in the order supplied.
+     * @throws SecurityException in the event of data validation failure, security policy violation or DAO error.
+     */
+    List<Boolean> checkPermissions( Session session, List<Permission> perms ) throws SecurityException
+    {
+        PermUtil permUtil = PermUtil.getInstance();
+        List<Permission> outPerms = new ArrayList<>( perms.size() );
+        List<Integer> misses = new ArrayList<>();
+
+        for ( Permission perm : perms )
+        {
+            Permission outPerm = permUtil.isEnabled() ? permUtil.getPermission( perm ) : null;
+            if ( outPerm == null && !( permUtil.isEnabled() && permUtil.isMissing( perm ) ) )
+            {
+                misses.add( outPerms.size() );
+            }
+            outPerms.add( outPerm );
+        }
+
+        if ( misses.isEmpty() && LastKnownGood.getInstance().isDegraded() )
+        {
+            // The directory is failing, answer from the index without the audit trail:
+            LastKnownGood.setDegraded( session );
+            List<Boolean> results = new ArrayList<>( outPerms.size() );
+            for ( Permission outPerm : outPerms )
+            {
+                results.add( outPerm != null && pDao.isAuthorized( session, outPerm ) );
+            }
+            return results;
+        }
+
+        // RBAC and ARBAC permissions are stored in different containers:
+        for ( boolean isAdmin : new boolean[]{ false, true } )
+        {
+            List<Permission> inPerms = new ArrayList<>();
+            for ( int i : misses )
+            {
+                if ( perms.get( i ).isAdmin() == isAdmin )
+                {
+                    inPerms.add( perms.get( i ) );
+                }
+            }
+            if ( inPerms.isEmpty() )
+            {
+                continue;
+            }
+
+            Map<String, Permission> found = new HashMap<>();
+            for ( Permission outPerm : pDao.findPermissions( inPerms, inPerms.get( 0 ).getContextId(), isAdmin ) )
+            {
+                found.put( PermUtil.buildKey( outPerm ), outPerm );
+            }
+            for ( int i : misses )
+            {
+                if ( perms.get( i ).isAdmin() == isAdmin )
+                {
+                    Permission outPerm = found.get( PermUtil.buildKey( perms.get( i ) ) );
+                    outPerms.set( i, outPerm );
+                    if ( outPerm == null && permUtil.isEnabled() )
+                    {
+                        permUtil.putMissing( perms.get( i ) );
+                    }
+                }
+            }
+        }
+
+        return pDao.checkPermissions( session, perms, outPerms );
+    }
+
+
     /**
      * Takes a Permission entity that contains full or partial object name and/or full or partial operation name for search.
      *
@@ -101,6 +204,21 @@ final class PermP
     {
         return pDao.findPermissions( permission );
     }
+
+
+    /**
+     * Same as {@link #search(Permission)} but the matching Permissions are read from the directory a page at a time as the
+     * stream is consumed.
+     *
+     * @param permission contains all or partial object name and/or all or partial operation name.
+     * @param pageSize   the number of entries to read from the directory at a time.
+     * @return Stream of fully populated matching Permission entities, must be closed if not read to the end.
+     * @throws SecurityException in the event the search could not be started.
+     */
+    Stream<Permission> streamPermissions( Permission permission, int pageSize ) throws SecurityException
+    {
+        return pDao.streamPermissions( permission, pageSize );
+    }
     
     /**
      * Takes a permission object that contains an object name and returns permisison operations for that object
@@ -318,6 +436,20 @@ final class PermP
     }
 
 
+    /**
+     * Return all of the Permission operations for a tenant.  Used to load the in-memory index maintained by {@link PermUtil}.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @param isAdmin   if true, return the administrative permissions.
+     * @return List of type Permission containing fully populated Permission operations.
+     * @throws SecurityException in the event of DAO search error.
+     */
+    List<Permission> getAllPermissions( String contextId, boolean isAdmin ) throws SecurityException
+    {
+        return pDao.findAllPermissions( contextId, isAdmin );
+    }
+
+
     /**
      * Return the matching Permission object entity.  This method will throw SecurityException if not found.
      *
@@ -364,7 +496,9 @@ final class PermP
     Permission add( Permission entity ) throws SecurityException
     {
         validate( entity, false );
-        return pDao.createOperation( entity );
+        Permission outPerm = pDao.createOperation( entity );
+        refreshIndex( entity );
+        return outPerm;
     }
     
     /**
@@ -491,7 +625,9 @@ final class PermP
         {
             validate( entity, true );
         }
-        return pDao.updateOperation( entity );
+        Permission outPerm = pDao.updateOperation( entity );
+        refreshIndex( entity );
+        return outPerm;
     }
 
 
@@ -506,6 +642,11 @@ final class PermP
     void delete( PermObj entity ) throws SecurityException
     {
         pDao.deleteObj( entity );
+        PermUtil permUtil = PermUtil.getInstance();
+        if ( permUtil.isEnabled() )
+        {
+            permUtil.remove( entity );
+        }
     }
 
 
@@ -519,6 +660,11 @@ final class PermP
     void delete( Permission entity ) throws SecurityException
     {
         pDao.deleteOperation( entity );
+        PermUtil permUtil = PermUtil.getInstance();
+        if ( permUtil.isEnabled() )
+        {
+            permUtil.remove( entity );
+        }
     }
 
     //TODO: add documentation
@@ -542,6 +688,7 @@ final class PermP
     {
         // Now assign it to the perm op:
         pDao.grant( pOp, role );
+        refreshIndex( pOp );
     }
 
 
@@ -559,6 +706,7 @@ final class PermP
     void revoke( Permission pOp, Role role ) throws SecurityException
     {
         pDao.revoke( pOp, role );
+        refreshIndex( pOp );
     }
 
 
@@ -573,6 +721,7 @@ final class PermP
     {
         // call dao to grant userId access to the perm op:
         pDao.grant( pOp, user );
+        refreshIndex( pOp );
     }
 
 
@@ -586,6 +735,22 @@ final class PermP
     void revoke( Permission pOp, User user ) throws SecurityException
     {
         pDao.revoke( pOp, user );
+        refreshIndex( pOp );
+    }
+
+
+    /**
+     * Keep the in-memory permission index current after an operation, or its assignments, have changed.
+     *
+     * @param pOp contains object and operation name for resource.
+     */
+    private void refreshIndex( Permission pOp )
+    {
+        PermUtil permUtil = PermUtil.getInstance();
+        if ( permUtil.isEnabled() )
+        {
+            permUtil.refresh( pOp );
+        }
     }
 
 
@@ -0,0 +1,469 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.directory.fortress.core.FinderException;
+import org.apache.directory.fortress.core.GlobalErrIds;
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.SecurityException;
+import org.apache.directory.fortress.core.model.PermObj;
+import org.apache.directory.fortress.core.model.Permission;
+import org.apache.directory.fortress.core.util.Config;
+import org.apache.directory.fortress.core.util.cache.Cache;
+import org.apache.directory.fortress.core.util.cache.CacheMgr;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * This utility maintains an in-memory index of the {@link org.apache.directory.fortress.core.model.Permission} operations for each tenant.
+ * The index is keyed on (objName, objId, opName) and contains the roles and users assigned to each operation, so that
+ * {@link org.apache.directory.fortress.core.impl.AccessMgrImpl#checkAccess} can be evaluated without reading the permission from ldap.
+ * <p>
+ * A tenant's index is loaded with a single search, {@link org.apache.directory.fortress.core.impl.PermP#getAllPermissions(String, boolean)}, the first
+ * time it is needed and stored within the {@code fortress.perms} cache.  RBAC and ARBAC permissions are indexed separately.
+ * Threads needing the same index wait on a single load, see {@link Cache#get(Object, Cache.Loader)}, while other tenants load
+ * theirs in parallel.  After a load fails, the tenant's index is not loaded again for a second, doubling with every further
+ * failure up to a minute, and checks read their permissions from ldap meanwhile.
+ * <p>
+ * A permission found missing in ldap is recorded in the index, see {@link #putMissing(Permission)}, so checking it again
+ * does not read ldap.  Up to 10000 are recorded per index.
+ * Changes made through {@link org.apache.directory.fortress.core.impl.PermP} are applied to the index as they occur.  Changes made by other processes
+ * become visible after the cache entry expires.  If the reload fails while the ldap circuit breaker is not closed, the previous index
+ * is used until the breaker closes or it becomes too old, see {@link LastKnownGood}.
+ * <p>
+ * The index is enabled by default and may be turned off with fortress config param: 'enable.perm.cache=false'.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class PermUtil
+{
+    private Cache permCache;
+    // The last index loaded for each tenant, used while the directory is failing:
+    private final Map<String, Loaded> loaded = new ConcurrentHashMap<>();
+    // The tenants whose last load failed:
+    private final Map<String, Backoff> failed = new ConcurrentHashMap<>();
+    private PermP permP;
+    private boolean isEnabled;
+    private static final String FORTRESS_PERMS = "fortress.perms";
+    private static final String IS_PERM_CACHE_ENABLED_PARM = "enable.perm.cache";
+    private static final String PERM_KEY = "PERM";
+    private static final String ADMIN_PERM_KEY = "APERM";
+    private static final char KEY_DELIMITER = '\u0000';
+    private static final int MAX_MISSING = 10000;
+    private static final long MIN_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos( 1 );
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MINUTES.toNanos( 1 );
+    // Stands for a permission that does not exist:
+    private static final Permission MISSING = new Permission();
+    private static final String CLS_NM = PermUtil.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+
+    private static volatile PermUtil sINSTANCE = null;
+
+    static PermUtil getInstance()
+    {
+        if(sINSTANCE == null)
+        {
+            synchronized (PermUtil.class)
+            {
+                if(sINSTANCE == null)
+                {
+                    sINSTANCE = new PermUtil();
+                }
+            }
+        }
+        return sINSTANCE;
+    }
+
+    /**
+     * Private constructor
+     *
+     */
+    private PermUtil()
+    {
+        init();
+    }
+
+    private void init()
+    {
+        permP = new PermP();
+        isEnabled = Config.getInstance().getBoolean( IS_PERM_CACHE_ENABLED_PARM, true );
+        if ( isEnabled )
+        {
+            permCache = CacheMgr.getInstance().getCache( FORTRESS_PERMS );
+        }
+    }
+
+
+    /**
+     * @return true if the permission index is in use.
+     */
+    boolean isEnabled()
+    {
+        return isEnabled;
+    }
+
+
+    /**
+     * Return the indexed copy of a permission operation.  The returned entity is shared and must not be modified by caller.
+     *
+     * @param perm contains {@link Permission#objName}, {@link Permission#opName}, optionally {@link Permission#objId}, the admin flag and contextId.
+     * @return the indexed Permission or null if not found.
+     */
+    Permission getPermission( Permission perm )
+    {
+        Map<String, Permission> index = getIndex( perm.getContextId(), perm.isAdmin() );
+        Permission outPerm = index != null ? index.get( buildKey( perm ) ) : null;
+        return outPerm != MISSING ? outPerm : null;
+    }
+
+
+    /**
+     * @param perm contains {@link Permission#objName}, {@link Permission#opName}, optionally {@link Permission#objId}, the admin flag and contextId.
+     * @return true if the permission operation was recorded as missing by {@link #putMissing(Permission)}.
+     */
+    boolean isMissing( Permission perm )
+    {
+        Map<String, Permission> index = getIndex( perm.getContextId(), perm.isAdmin() );
+        return index != null && index.get( buildKey( perm ) ) == MISSING;
+    }
+
+
+    /**
+     * Record a permission operation that was not in the index and was not found in ldap either, so it is not read again.
+     * The record is removed when the operation is added through {@link PermP}, or when the index is reloaded.
+     *
+     * @param perm contains {@link Permission#objName}, {@link Permission#opName}, optionally {@link Permission#objId}, the admin flag and contextId.
+     */
+    void putMissing( Permission perm )
+    {
+        Map<String, Permission> index = getIndex( perm.getContextId(), perm.isAdmin() );
+        if ( index instanceof Index && ( ( Index ) index ).missing.get() < MAX_MISSING && index.putIfAbsent( buildKey(
+            perm ), MISSING ) == null )
+        {
+            ( ( Index ) index ).missing.incrementAndGet();
+        }
+    }
+
+
+    /**
+     * Read the permission operation from ldap and replace its entry in the index.  Called after the operation,
+     * or its role and user assignments, have been modified.
+     *
+     * @param perm contains {@link Permission#objName}, {@link Permission#opName}, optionally {@link Permission#objId}, the admin flag and contextId.
+     */
+    void refresh( Permission perm )
+    {
+        Map<String, Permission> index = getIndex( perm.getContextId(), perm.isAdmin() );
+        if ( index == null )
+        {
+            return;
+        }
+        String key = buildKey( perm );
+        try
+        {
+            Permission outPerm = permP.read( perm );
+            outPerm.setContextId( perm.getContextId() );
+            outPerm.setRoleIds( RoleIdUtil.getInstance().getIds( outPerm.getRoles(), perm.getContextId(), perm.isAdmin() ) );
+            index.put( key, outPerm );
+        }
+        catch ( FinderException fe )
+        {
+            index.remove( key );
+            if ( fe.getErrorId() != GlobalErrIds.PERM_OP_NOT_FOUND )
+            {
+                LOG.warn( "refresh permission [{}] caught FinderException={}", key, fe.getMessage() );
+            }
+        }
+        catch ( SecurityException se )
+        {
+            index.remove( key );
+            LOG.warn( "refresh permission [{}] caught SecurityException={}", key, se.getMessage() );
+        }
+    }
+
+
+    /**
+     * Discard the index of a tenant, after its permissions were changed in ldap by another process.  The next check loads it again.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @param isAdmin   if true, discard the administrative permissions.
+     */
+    void invalidate( String contextId, boolean isAdmin )
+    {
+        if ( isEnabled )
+        {
+            permCache.clear( getKey( contextId, isAdmin ) );
+        }
+    }
+
+
+    /**
+     * Load the index of a tenant, if it has not been loaded.  Called by {@link CacheWarmer}.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @param isAdmin   if true, load the administrative permissions.
+     */
+    void warm( String contextId, boolean isAdmin )
+    {
+        getIndex( contextId, isAdmin );
+    }
+
+
+    /**
+     * Remove a permission operation from the index.
+     *
+     * @param perm contains {@link Permission#objName}, {@link Permission#opName}, optionally {@link Permission#objId}, the admin flag and contextId.
+     */
+    void remove( Permission perm )
+    {
+        Map<String, Permission> index = getIndex( perm.getContextId(), perm.isAdmin() );
+        if ( index != null )
+        {
+            index.remove( buildKey( perm ) );
+        }
+    }
+
+
+    /**
+     * Remove all operations belonging to a permission object from the index.
+     *
+     * @param pObj contains {@link PermObj#objName}, the admin flag and contextId.
+     */
+    void remove( PermObj pObj )
+    {
+        Map<String, Permission> index = getIndex( pObj.getContextId(), pObj.isAdmin() );
+        if ( index != null )
+        {
+            for ( Iterator<Map.Entry<String, Permission>> it = index.entrySet().iterator(); it.hasNext(); )
+            {
+                Map.Entry<String, Permission> entry = it.next();
+                if ( entry.getValue() != MISSING && entry.getValue().getObjName().equalsIgnoreCase( pObj.getObjName() ) )
+                {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Load all of the permission operations for a tenant from ldap, stored within the cache by {@link #getIndex(String, boolean)}.
+     * Only called by the cache's loader, so one load of a tenant runs at a time.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @param isAdmin   if true, load the administrative permissions.
+     * @return the index, or null if the permissions could not be loaded, or the last load failed too recently to retry.
+     */
+    private Map<String, Permission> loadIndex( String contextId, boolean isAdmin )
+    {
+        String key = getKey( contextId, isAdmin );
+        Backoff backoff = failed.get( key );
+        if ( backoff != null && System.nanoTime() - backoff.retry < 0 )
+        {
+            return null;
+        }
+        LOG.info( "loadIndex initializing PERM context [{}]", key );
+        Index index = new Index( CacheMgr.getInstance().getEpoch() );
+        long start = System.nanoTime();
+
+        try
+        {
+            List<Permission> perms = permP.getAllPermissions( contextId, isAdmin );
+            for ( Permission perm : perms )
+            {
+                perm.setRoleIds( RoleIdUtil.getInstance().getIds( perm.getRoles(), contextId, isAdmin ) );
+                index.put( buildKey( perm ), perm );
+            }
+        }
+        catch ( SecurityException se )
+        {
+            // Nothing is stored, the caller falls back to reading from ldap.
+            long delay = getDelay( backoff != null ? backoff.delay : 0 );
+            failed.put( key, new Backoff( delay ) );
+            LOG.warn( "loadIndex context [{}] caught SecurityException={}, retry in [{}] ms", key, se.getMessage(),
+                TimeUnit.NANOSECONDS.toMillis( delay ) );
+            return null;
+        }
+        if ( backoff != null )
+        {
+            failed.remove( key );
+        }
+
+        if ( LastKnownGood.getInstance().isEnabled() )
+        {
+            loaded.put( key, new Loaded( index, start ) );
+        }
+        return index;
+    }
+
+
+    /**
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @param isAdmin   if true, return the administrative permissions.
+     * @return handle to map containing the tenant's indexed permissions.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Permission> getIndex( final String contextId, final boolean isAdmin )
+    {
+        if ( !isEnabled )
+        {
+            return null;
+        }
+        String key = getKey( contextId, isAdmin );
+        Cache.Loader loader = new Cache.Loader()
+        {
+            @Override
+            public Object load( Object key )
+            {
+                return loadIndex( contextId, isAdmin );
+            }
+        };
+        // Single flight: one thread loads a missing tenant, the others needing it wait for its index.
+        Map<String, Permission> index = ( Map<String, Permission> ) permCache.get( key, loader );
+        if ( index instanceof Index && ( ( Index ) index ).epoch != CacheMgr.getInstance().getEpoch() )
+        {
+            // Loaded while the caches were cleared, its role ids may be from the discarded mapping:
+            permCache.clear( key );
+            index = ( Map<String, Permission> ) permCache.get( key, loader );
+        }
+        if ( index == null )
+        {
+            Loaded last = loaded.get( key );
+            if ( last != null && last.index.epoch == CacheMgr.getInstance().getEpoch() && LastKnownGood.getInstance()
+                .isUsable( last.start ) )
+            {
+                // The directory is failing, keep using the previous index until it is back:
+                index = last.index;
+            }
+        }
+        return index;
+    }
+
+
+    /**
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @param isAdmin   if true, key the administrative permissions.
+     * @return key to this tenant's cache entry.
+     */
+    private static String getKey( String contextId, boolean isAdmin )
+    {
+        String key = isAdmin ? ADMIN_PERM_KEY : PERM_KEY;
+
+        if ( StringUtils.isNotEmpty( contextId ) && !contextId.equalsIgnoreCase( GlobalIds.NULL ) )
+        {
+            key += ":" + contextId;
+        }
+
+        return key;
+    }
+
+
+    /**
+     * @param previous the delay applied after the last failed load of the tenant, 0 if the last load did not fail.
+     * @return the delay to apply after this failed load, one second doubling up to a minute.
+     */
+    static long getDelay( long previous )
+    {
+        return previous > 0 ? Math.min( previous * 2, MAX_BACKOFF_NANOS ) : MIN_BACKOFF_NANOS;
+    }
+
+
+    /**
+     * Names are matched case insensitive, the same as the ldap server does.
+     *
+     * @param perm contains {@link Permission#objName}, {@link Permission#opName} and optionally {@link Permission#objId}.
+     * @return key to the permission within a tenant's index.
+     */
+    static String buildKey( Permission perm )
+    {
+        StringBuilder key = new StringBuilder();
+        key.append( perm.getObjName().toUpperCase( Locale.ENGLISH ) ).append( KEY_DELIMITER );
+        if ( StringUtils.isNotEmpty( perm.getObjId() ) )
+        {
+            key.append( perm.getObjId().toUpperCase( Locale.ENGLISH ) );
+        }
+        key.append( KEY_DELIMITER ).append( perm.getOpName().toUpperCase( Locale.ENGLISH ) );
+        return key.toString();
+    }
+
+
+    /**
+     * The permissions of a tenant, and the number recorded as missing.
+     */
+    private static final class Index extends ConcurrentHashMap<String, Permission>
+    {
+        private static final long serialVersionUID = 1L;
+        private final AtomicInteger missing = new AtomicInteger();
+        // The role ids of the permissions are those of this epoch, see RoleIdUtil:
+        private final long epoch;
+
+        private Index( long epoch )
+        {
+            this.epoch = epoch;
+        }
+    }
+
+
+    /**
+     * When a tenant whose load failed may be loaded again, and the delay that was applied.
+     */
+    private static final class Backoff
+    {
+        private final long delay;
+        private final long retry;
+
+        private Backoff( long delay )
+        {
+            this.delay = delay;
+            this.retry = System.nanoTime() + delay;
+        }
+    }
+
+
+    /**
+     * An index and the time its load started.
+     */
+    private static final class Loaded
+    {
+        private final Index index;
+        private final long start;
+
+        private Loaded( Index index, long start )
+        {
+            this.index = index;
+            this.start = start;
+        }
+    }
+}
@@ -255,7 +255,7 @@ final class PolicyDAO extends LdapDataProvider
                 entry.add( PW_SAFE_MODIFY, entity.getSafeModify().toString().toUpperCase() );
             }
 
-            ld = getAdminConnection();
+            ld = getAdminConnection( entity.getContextId() );
             add( ld, entry, entity );
         }
         catch ( LdapException e )
@@ -398,7 +398,7 @@ final class PolicyDAO extends LdapDataProvider
 
             if ( mods != null && mods.size() > 0 )
             {
-                ld = getAdminConnection();
+                ld = getAdminConnection( entity.getContextId() );
                 modify( ld, dn, mods, entity );
             }
         }
@@ -425,7 +425,7 @@ final class PolicyDAO extends LdapDataProvider
 
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminConnection( entity.getContextId() );
             delete( ld, dn, entity );
         }
         catch ( LdapException e )
@@ -454,7 +454,7 @@ final class PolicyDAO extends LdapDataProvider
 
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( policy.getContextId() );
             Entry findEntry = read( ld, dn, PASSWORD_POLICY_ATRS );
             entity = unloadLdapEntry( findEntry, 0 );
         }
@@ -601,7 +601,7 @@ final class PolicyDAO extends LdapDataProvider
         {
             searchVal = encodeSafeText( policy.getName(), GlobalIds.PWPOLICY_NAME_LEN );
             String szFilter = GlobalIds.FILTER_PREFIX + PW_POLICY_CLASS + ")(" + PW_PWD_ID + "=" + searchVal + "*))";
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( policy.getContextId() );
             SearchCursor searchResults = search( ld, policyRoot,
                 SearchScope.ONELEVEL, szFilter, PASSWORD_POLICY_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -644,7 +644,7 @@ final class PolicyDAO extends LdapDataProvider
         try
         {
             String szFilter = "(objectclass=" + PW_POLICY_CLASS + ")";
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( contextId );
             SearchCursor searchResults = search( ld, policyRoot,
                 SearchScope.ONELEVEL, szFilter, PASSWORD_POLICY_NAME_ATR, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
 
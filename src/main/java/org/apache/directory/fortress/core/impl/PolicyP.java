@@ -22,8 +22,9 @@ package org.apache.directory.fortress.core.impl;
 
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.directory.fortress.core.GlobalErrIds;
@@ -51,7 +52,8 @@ import org.slf4j.LoggerFactory;
  * or {@link org.apache.directory.fortress.core.ValidationException} as {@link SecurityException}s with appropriate
  * error id from {@link org.apache.directory.fortress.core.GlobalErrIds}.
  * <p>
- * This class uses one reference to synchronized data set {@link #policyCache} but is thread safe.
+ * This class uses one reference to data set {@link #policyCache}, whose sets are replaced rather than modified so they are
+ * read without locking, and is thread safe.
  *
  * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
  */
@@ -65,7 +67,7 @@ final class PolicyP
     // DAO class for ol pw policy data sets must be initialized before the other statics:
     private PolicyDAO olDao = new PolicyDAO();
     // this field is used to synchronize access to the above static data set:
-    private static final ReadWriteLock policySetLock = new ReentrantReadWriteLock();
+    private static final Lock policySetLock = new ReentrantLock();
     // static field holds the list of names for all valid pw policies in effect:
     private static Cache policyCache;
     private static final int MIN_PW_LEN = 20;
@@ -100,24 +102,37 @@ final class PolicyP
     boolean isValid( PwPolicy policy )
     {
         boolean result = false;
+        Set<String> policySet = getPolicySet( policy.getContextId() );
 
-        try
+        if ( policySet != null )
         {
-            policySetLock.readLock().lock();
+            result = policySet.contains( policy.getName() );
+        }
 
-            Set<String> policySet = getPolicySet( policy.getContextId() );
+        return result;
+    }
 
-            if ( policySet != null )
-            {
-                result = policySet.contains( policy.getName() );
-            }
 
-            return result;
-        }
-        finally
-        {
-            policySetLock.readLock().unlock();
-        }
+    /**
+     * Discard the cached set of a tenant's policy names, after they were changed in ldap by another process.  The next
+     * validation loads it again.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     */
+    void invalidate( String contextId )
+    {
+        policyCache.clear( getKey( contextId ) );
+    }
+
+
+    /**
+     * Load the set of a tenant's policy names, if it has not been loaded.  Called by {@link CacheWarmer}.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     */
+    void warm( String contextId )
+    {
+        getPolicySet( contextId );
     }
 
 
@@ -150,18 +165,21 @@ final class PolicyP
 
         try
         {
-            policySetLock.writeLock().lock();
+            policySetLock.lock();
 
             Set<String> policySet = getPolicySet( policy.getContextId() );
 
             if ( policySet != null )
             {
+                // readers hold the set without locking, replace it with a changed copy:
+                policySet = copyOf( policySet );
                 policySet.add( policy.getName() );
+                policyCache.put( getKey( policy.getContextId() ), policySet );
             }
         }
         finally
         {
-            policySetLock.writeLock().unlock();
+            policySetLock.unlock();
         }
     }
 
@@ -195,18 +213,21 @@ final class PolicyP
 
         try
         {
-            policySetLock.writeLock().lock();
+            policySetLock.lock();
 
             Set<String> policySet = getPolicySet( policy.getContextId() );
 
             if ( policySet != null )
             {
+                // readers hold the set without locking, replace it with a changed copy:
+                policySet = copyOf( policySet );
                 policySet.remove( policy.getName() );
+                policyCache.put( getKey( policy.getContextId() ), policySet );
             }
         }
         finally
         {
-            policySetLock.writeLock().unlock();
+            policySetLock.unlock();
         }
     }
 
@@ -367,7 +388,7 @@ final class PolicyP
 
 
     /**
-     * Load the cache with read only list of valid openldap policy names.
+     * Load the read only list of valid openldap policy names, stored within the cache by {@link #getPolicySet(String)}.
      *
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
      * @return Set of unique names.
@@ -386,8 +407,6 @@ final class PolicyP
             LOG.info( warning );
         }
 
-        policyCache.put( getKey( contextId ), policySet );
-
         return policySet;
     }
 
@@ -397,25 +416,25 @@ final class PolicyP
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
      * @return set containing list of policy names active.
      */
-    private Set<String> getPolicySet( String contextId )
+    @SuppressWarnings("unchecked")
+    private Set<String> getPolicySet( final String contextId )
     {
-        try
+        return ( Set<String> ) policyCache.get( getKey( contextId ), new Cache.Loader()
         {
-            policySetLock.readLock().lock();
-
-            Set<String> policySet = ( Set<String> ) policyCache.get( getKey( contextId ) );
-
-            if ( policySet == null )
+            @Override
+            public Object load( Object key )
             {
-                policySet = loadPolicySet( contextId );
+                return loadPolicySet( contextId );
             }
+        } );
+    }
 
-            return policySet;
-        }
-        finally
-        {
-            policySetLock.readLock().unlock();
-        }
+
+    private static Set<String> copyOf( Set<String> policySet )
+    {
+        Set<String> copy = new TreeSet<>( String.CASE_INSENSITIVE_ORDER );
+        copy.addAll( policySet );
+        return copy;
     }
 
 
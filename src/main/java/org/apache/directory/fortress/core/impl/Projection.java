@@ -0,0 +1,46 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+/**
+ * Names the attributes a DAO reads from an entry.  Session and authorization paths read only what they use, so the server
+ * sends less and less is parsed and held per request.  Attributes that are not read are left null on the entity.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+enum Projection
+{
+    /**
+     * Identity, password policy state, temporal constraint and properties of a user.  Enough to authenticate and validate it.
+     */
+    AUTHN,
+
+    /**
+     * For a user, {@link #AUTHN} along with its RBAC and administrative role assignments and their constraints.  For a
+     * permission, its names and the users and roles granted it.
+     */
+    AUTHZ,
+
+    /**
+     * Every attribute the entity is loaded from.
+     */
+    FULL
+}
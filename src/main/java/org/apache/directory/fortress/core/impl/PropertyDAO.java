@@ -59,7 +59,7 @@ final class PropertyDAO extends LdapDataProvider
             List<Modification> mods = new ArrayList<Modification>();
             loadProperties( properties, mods, GlobalIds.PROPS, false );
 
-            ld = getAdminConnection();
+            ld = getAdminConnection( entity.getContextId() );
             modify( ld, entityDn, mods, entity );            
         }
         catch ( LdapException e )
@@ -127,7 +127,7 @@ final class PropertyDAO extends LdapDataProvider
             List<Modification> mods = new ArrayList<Modification>();
             removeProperties( properties, mods, GlobalIds.PROPS );            
 
-            ld = getAdminConnection();
+            ld = getAdminConnection( entity.getContextId() );
             modify( ld, entityDn, mods, entity );            
         }
         catch ( LdapException e )
@@ -157,7 +157,7 @@ final class PropertyDAO extends LdapDataProvider
 
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( entity.getContextId() );
             Entry findEntry = read( ld, entityDn, new String[]{ GlobalIds.PROPS } );
             props = PropUtil.getProperties( getAttributes( findEntry, GlobalIds.PROPS ) );
             
@@ -33,9 +33,6 @@ import org.apache.directory.fortress.core.model.Graphable;
 import org.apache.directory.fortress.core.model.Hier;
 import org.apache.directory.fortress.core.model.OrgUnit;
 import org.apache.directory.fortress.core.model.Relationship;
-import org.apache.directory.fortress.core.util.cache.Cache;
-import org.apache.directory.fortress.core.util.cache.CacheMgr;
-import org.jgrapht.graph.SimpleDirectedGraph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -63,7 +60,7 @@ import org.slf4j.LoggerFactory;
  */
 final class PsoUtil
 {
-    private Cache psoCache;
+    private HierCache psoCache;
     private OrgUnitP orgUnitP;
     private static final String CLS_NM = PsoUtil.class.getName();
     private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
@@ -96,8 +93,14 @@ final class PsoUtil
     {
         orgUnitP = new OrgUnitP();
     	
-        CacheMgr cacheMgr = CacheMgr.getInstance();
-        psoCache = cacheMgr.getCache( "fortress.pso" );                
+        psoCache = new HierCache( HierUtil.Type.PSO.toString(), new HierCache.Loader()
+        {
+            @Override
+            public HierClosure load( String contextId )
+            {
+                return loadGraph( contextId );
+            }
+        } );
     }
 
 
@@ -110,7 +113,7 @@ final class PsoUtil
      */
     Set<String> getDescendants( String name, String contextId )
     {
-        return HierUtil.getDescendants( name, getGraph( contextId ) );
+        return getHier( contextId ).getDescendants( name );
     }
 
 
@@ -123,7 +126,7 @@ final class PsoUtil
      */
     Set<String> getAscendants( String name, String contextId )
     {
-        return HierUtil.getAscendants( name, getGraph( contextId ) );
+        return getHier( contextId ).getAscendants( name );
     }
 
 
@@ -136,7 +139,7 @@ final class PsoUtil
      */
     public Set<String> getChildren( String name, String contextId )
     {
-        return HierUtil.getChildren( name, getGraph( contextId ) );
+        return HierUtil.getChildren( name, getHier( contextId ).getGraph() );
     }
 
 
@@ -149,7 +152,7 @@ final class PsoUtil
      */
     Set<String> getParents( String name, String contextId )
     {
-        return HierUtil.getParents( name, getGraph( contextId ) );
+        return HierUtil.getParents( name, getHier( contextId ).getGraph() );
     }
 
 
@@ -162,7 +165,7 @@ final class PsoUtil
      */
     int numChildren( String name, String contextId )
     {
-        return HierUtil.numChildren( name, getGraph( contextId ) );
+        return HierUtil.numChildren( name, getHier( contextId ).getGraph() );
     }
 
 
@@ -183,7 +186,7 @@ final class PsoUtil
             {
                 String name = ou.getName();
                 iOUs.add( name );
-                Set<String> parents = HierUtil.getAscendants( name, getGraph( contextId ) );
+                Set<String> parents = getHier( contextId ).getAscendants( name );
 
                 if ( CollectionUtils.isNotEmpty( parents ) )
                 {
@@ -197,7 +200,7 @@ final class PsoUtil
 
     /**
      * This api is used by {@link DelAdminMgrImpl} to determine parentage for Permission OU processing.
-     * It calls {@link HierUtil#validateRelationship(org.jgrapht.graph.SimpleDirectedGraph, String, String, boolean)} to evaluate three OU relationship expressions:
+     * It calls {@link HierUtil#validateRelationship(HierClosure, String, String, boolean)} to evaluate three OU relationship expressions:
      * <ol>
      * <li>If child equals parent</li>
      * <li>If mustExist true and parent-child relationship exists</li>
@@ -215,13 +218,13 @@ final class PsoUtil
     void validateRelationship( OrgUnit child, OrgUnit parent, boolean mustExist )
         throws ValidationException
     {
-        HierUtil.validateRelationship( getGraph( child.getContextId() ), child.getName(), parent.getName(), mustExist );
+        HierUtil.validateRelationship( getHier( child.getContextId() ), child.getName(), parent.getName(), mustExist );
     }
 
 
     /**
-     * This api allows synchronized access to allow updates to hierarchical relationships.
-     * Method will update the hierarchical data set and reload the JGraphT simple digraph with latest.
+     * This api allows updates to hierarchical relationships.
+     * Method will replace the cached hierarchy with a copy containing the update.  Readers of the previous copy are not affected.
      *
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
      * @param relationship contains parent-child relationship targeted for addition.
@@ -230,7 +233,29 @@ final class PsoUtil
      */
     void updateHier( String contextId, Relationship relationship, Hier.Op op ) throws SecurityException
     {
-        HierUtil.updateHier( getGraph( contextId ), relationship, op );
+        psoCache.update( getKey( contextId ), contextId, relationship, op );
+    }
+
+
+    /**
+     * Reload the perm ou hierarchy of a tenant in the background, after it was changed in ldap by another process.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     */
+    void invalidate( String contextId )
+    {
+        psoCache.invalidate( getKey( contextId ), contextId );
+    }
+
+
+    /**
+     * Load the perm org unit hierarchy of a tenant, if it has not been loaded.  Called by {@link CacheWarmer}.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     */
+    void warm( String contextId )
+    {
+        getHier( contextId );
     }
 
 
@@ -239,9 +264,9 @@ final class PsoUtil
      * using 3rd party lib, <a href="http://www.jgrapht.org/">JGraphT</a>.
      *
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
-     * @return handle to simple digraph containing perm ou hierarchies.
+     * @return handle to simple digraph and closure containing perm ou hierarchies.
      */
-    private synchronized SimpleDirectedGraph<String, Relationship> loadGraph( String contextId )
+    private HierClosure loadGraph( String contextId )
     {
         Hier inHier = new Hier( Hier.Type.ROLE );
         inHier.setContextId( contextId );
@@ -261,35 +286,17 @@ final class PsoUtil
         }
 
         Hier hier = HierUtil.loadHier( contextId, descendants );
-        SimpleDirectedGraph<String, Relationship> graph;
-
-        graph = HierUtil.buildGraph( hier );
-        psoCache.put( getKey( contextId ), graph );
-
-        return graph;
+        return new HierClosure( HierUtil.buildGraph( hier ) );
     }
 
 
     /**
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
-     * @return handle to simple digraph containing perm ou hierarchies.
+     * @return handle to simple digraph and closure containing perm ou hierarchies.
      */
-    private SimpleDirectedGraph<String, Relationship> getGraph( String contextId )
+    private HierClosure getHier( String contextId )
     {
-        String key = getKey( contextId );        
-        LOG.debug("Getting graph for key " + contextId);
-         
-        SimpleDirectedGraph<String, Relationship> graph = ( SimpleDirectedGraph<String, Relationship> ) psoCache
-                 .get( key );
-             
-        if(graph == null){
-            LOG.debug("Graph was null, creating... " + contextId);
-            return loadGraph( contextId );
-        }
-        else{
-            LOG.debug("Graph found in cache, returning...");
-            return graph;
-        }
+        return psoCache.get( getKey( contextId ), contextId );
     }
 
 
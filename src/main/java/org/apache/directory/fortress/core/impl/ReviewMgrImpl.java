@@ -26,6 +26,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.directory.fortress.annotation.AdminPermissionOperation;
@@ -155,6 +156,21 @@ public class ReviewMgrImpl extends Manageable implements ReviewMgr, Serializable
         return permP.search( permission );
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @AdminPermissionOperation(operationName="findPermissions")
+    public Stream<Permission> streamPermissions(Permission permission, int pageSize)
+        throws SecurityException
+    {
+        // Same permission as the list variant:
+        String methodName = "findPermissions";
+        assertContext( CLS_NM, methodName, permission, GlobalErrIds.PERM_OPERATION_NULL );
+        checkAccess(CLS_NM, methodName);
+        return permP.streamPermissions( permission, pageSize );
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -288,6 +304,21 @@ public class ReviewMgrImpl extends Manageable implements ReviewMgr, Serializable
         return userP.search( user );
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @AdminPermissionOperation(operationName="findUsers")
+    public Stream<User> streamUsers(User user, int pageSize)
+        throws SecurityException
+    {
+        // Same permission as the list variant:
+        String methodName = "findUsers";
+        assertContext( CLS_NM, methodName, user, GlobalErrIds.USER_NULL );
+        checkAccess(CLS_NM, methodName);
+        return userP.streamUsers( user, pageSize );
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -444,6 +475,21 @@ public class ReviewMgrImpl extends Manageable implements ReviewMgr, Serializable
         return userP.getAuthorizedUsers( role );
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @AdminPermissionOperation(operationName="authorizedUsers")
+    public Stream<User> streamAuthorizedUsers(Role role, int pageSize)
+        throws SecurityException
+    {
+        // Same permission as the list variant:
+        String methodName = "authorizedUsers";
+        assertContext( CLS_NM, methodName, role, GlobalErrIds.ROLE_NULL );
+        checkAccess( CLS_NM, methodName );
+        return userP.streamAuthorizedUsers( role, pageSize );
+    }
+
     /**
      * {@inheritDoc}
      */
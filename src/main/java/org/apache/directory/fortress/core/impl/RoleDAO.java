@@ -196,7 +196,7 @@ final class RoleDAO extends LdapDataProvider implements PropertyProvider<Role>,
                 entry.add( GlobalIds.GID_NUMBER, entity.getGidNumber() );
             }
 
-            ld = getAdminConnection();
+            ld = getAdminConnection( entity.getContextId() );
             add( ld, entry, entity );
         }
         catch ( LdapException e )
@@ -254,7 +254,7 @@ final class RoleDAO extends LdapDataProvider implements PropertyProvider<Role>,
 
             if ( mods.size() > 0 )
             {
-                ld = getAdminConnection();
+                ld = getAdminConnection( entity.getContextId() );
                 modify( ld, dn, mods, entity );
             }
         }
@@ -299,7 +299,7 @@ final class RoleDAO extends LdapDataProvider implements PropertyProvider<Role>,
             List<Modification> mods = new ArrayList<Modification>();
             mods.add( new DefaultModification( ModificationOperation.REMOVE_ATTRIBUTE,
                 GlobalIds.PARENT_NODES ) );
-            ld = getAdminConnection();
+            ld = getAdminConnection( entity.getContextId() );
             modify( ld, dn, mods, entity );
         }
         catch ( LdapException e )
@@ -331,7 +331,7 @@ final class RoleDAO extends LdapDataProvider implements PropertyProvider<Role>,
             List<Modification> mods = new ArrayList<Modification>();
             mods.add( new DefaultModification( ModificationOperation.ADD_ATTRIBUTE, SchemaConstants.ROLE_OCCUPANT_AT,
                 userDn ) );
-            ld = getAdminConnection();
+            ld = getAdminConnection( entity.getContextId() );
             modify( ld, dn, mods, entity );
         }
         catch ( LdapException e )
@@ -365,7 +365,7 @@ final class RoleDAO extends LdapDataProvider implements PropertyProvider<Role>,
             List<Modification> mods = new ArrayList<Modification>();
             mods.add( new DefaultModification( ModificationOperation.REMOVE_ATTRIBUTE,
                 SchemaConstants.ROLE_OCCUPANT_AT, userDn ) );
-            ld = getAdminConnection();
+            ld = getAdminConnection( entity.getContextId() );
             modify( ld, dn, mods, entity );
         }
         catch ( LdapException e )
@@ -395,7 +395,7 @@ final class RoleDAO extends LdapDataProvider implements PropertyProvider<Role>,
 
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminConnection( role.getContextId() );
             delete( ld, dn, role );
         }
         catch ( LdapException e )
@@ -425,7 +425,7 @@ final class RoleDAO extends LdapDataProvider implements PropertyProvider<Role>,
 
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( role.getContextId() );
             Entry findEntry = read( ld, dn, ROLE_ATRS );
             if ( findEntry != null )
             {
@@ -475,7 +475,7 @@ final class RoleDAO extends LdapDataProvider implements PropertyProvider<Role>,
             String searchVal = encodeSafeText( role.getName(), GlobalIds.ROLE_LEN );
             filter = GlobalIds.FILTER_PREFIX + GlobalIds.ROLE_OBJECT_CLASS_NM + ")("
                 + ROLE_NM + "=" + searchVal + "*))";
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( role.getContextId() );
             SearchCursor searchResults = search( ld, roleRoot,
                 SearchScope.ONELEVEL, filter, ROLE_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -540,7 +540,7 @@ final class RoleDAO extends LdapDataProvider implements PropertyProvider<Role>,
                 }
                 filterbuf.append( "))" );
 
-                ld = getAdminConnection();
+                ld = getAdminReadConnection( group.getContextId() );
                 SearchCursor searchResults = search( ld, roleRoot,
                     SearchScope.ONELEVEL, filterbuf.toString(), ROLE_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
                 long sequence = 0;
@@ -595,7 +595,7 @@ final class RoleDAO extends LdapDataProvider implements PropertyProvider<Role>,
             String searchVal = encodeSafeText( role.getName(), GlobalIds.ROLE_LEN );
             filter = GlobalIds.FILTER_PREFIX + GlobalIds.ROLE_OBJECT_CLASS_NM + ")("
                 + ROLE_NM + "=" + searchVal + "*))";
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( role.getContextId() );
             SearchCursor searchResults = search( ld, roleRoot,
                 SearchScope.ONELEVEL, filter, ROLE_NM_ATR, false, limit );
 
@@ -642,7 +642,7 @@ final class RoleDAO extends LdapDataProvider implements PropertyProvider<Role>,
         {
             String filter = GlobalIds.FILTER_PREFIX + GlobalIds.ROLE_OBJECT_CLASS_NM + ")";
             filter += "(" + SchemaConstants.ROLE_OCCUPANT_AT + "=" + userDn + "))";
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( contextId );
             SearchCursor searchResults = search( ld, roleRoot,
                 SearchScope.ONELEVEL, filter, ROLE_NM_ATR, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
 
@@ -690,7 +690,7 @@ final class RoleDAO extends LdapDataProvider implements PropertyProvider<Role>,
         {
             filter = GlobalIds.FILTER_PREFIX + GlobalIds.ROLE_OBJECT_CLASS_NM + ")("
                 + GlobalIds.PARENT_NODES + "=*))";
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( contextId );
             SearchCursor searchResults = search( ld, roleRoot,
                 SearchScope.ONELEVEL, filter, DESC_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
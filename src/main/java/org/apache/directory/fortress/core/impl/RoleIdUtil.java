@@ -0,0 +1,218 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.model.RoleBitSet;
+import org.apache.directory.fortress.core.model.Session;
+import org.apache.directory.fortress.core.model.UserRole;
+import org.apache.directory.fortress.core.util.cache.CacheMgr;
+
+
+/**
+ * This utility assigns dense integer ids to the RBAC and ARBAC role names of each tenant, so that sets of roles may be stored as
+ * {@link java.util.BitSet}s.  A {@link org.apache.directory.fortress.core.model.Session} carries the ids of its inherited roles
+ * in a {@link org.apache.directory.fortress.core.model.RoleBitSet} and a cached {@link org.apache.directory.fortress.core.model.Permission}
+ * carries the ids of the roles granted it, which reduces the authorization test to an intersection of the two.
+ * <p>
+ * Ids are not reused while the mapping is in use, a role that is deleted leaves an unused id behind.  The mapping is rebuilt,
+ * starting from id 0, after the caches are cleared, see {@link CacheMgr#getEpoch()}, which also discards the ids held by
+ * {@link PermUtil}.  The sets held by sessions record the version of the role hierarchy they were computed from, see
+ * {@link HierClosure#getVersion()}, and are recomputed on next use once the hierarchy is reloaded or changed, as it is after the
+ * caches are cleared.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class RoleIdUtil
+{
+    private final ConcurrentHashMap<String, RoleIds> tenants = new ConcurrentHashMap<>();
+
+    private static volatile RoleIdUtil sINSTANCE = null;
+
+    static RoleIdUtil getInstance()
+    {
+        if(sINSTANCE == null)
+        {
+            synchronized (RoleIdUtil.class)
+            {
+                if(sINSTANCE == null)
+                {
+                    sINSTANCE = new RoleIdUtil();
+                }
+            }
+        }
+        return sINSTANCE;
+    }
+
+    /**
+     * Private constructor
+     *
+     */
+    private RoleIdUtil()
+    {
+    }
+
+
+    /**
+     * Return the ids of a set of role names.
+     *
+     * @param roles     contains role names, matched case insensitive.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @param isAdmin   if true, the names are ARBAC roles.
+     * @return BitSet containing the role ids.
+     */
+    BitSet getIds( Collection<String> roles, String contextId, boolean isAdmin )
+    {
+        BitSet ids = new BitSet();
+        if ( CollectionUtils.isNotEmpty( roles ) )
+        {
+            RoleIds roleIds = getRoleIds( contextId, isAdmin );
+            for ( String role : roles )
+            {
+                ids.set( roleIds.getId( role ) );
+            }
+        }
+        return ids;
+    }
+
+
+    /**
+     * Return the ids of the inherited roles of a session.  They are computed if not present or stale, and stored on the session.
+     *
+     * @param session   contains the activated roles, {@link Session#getRoles()} or {@link Session#getAdminRoles()}.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @param isAdmin   if true, return the ARBAC roles.
+     * @return RoleBitSet containing the ids of the activated roles and their ascendants.
+     */
+    RoleBitSet getSessionIds( Session session, String contextId, boolean isAdmin )
+    {
+        RoleBitSet roleIds;
+        if ( isAdmin )
+        {
+            long current = AdminRoleUtil.getVersion( contextId );
+            List<? extends UserRole> roles = session.getAdminRoles();
+            roleIds = session.getAdminRoleIds();
+            if ( roleIds == null || !roleIds.isCurrent( roles, current ) )
+            {
+                Set<String> inherited = AdminRoleUtil.getInheritedRoles( session.getAdminRoles(), contextId );
+                roleIds = new RoleBitSet( getIds( inherited, contextId, true ), roles, current );
+                session.setAdminRoleIds( roleIds );
+            }
+        }
+        else
+        {
+            long current = RoleUtil.getInstance().getVersion( contextId );
+            List<? extends UserRole> roles = session.getRoles();
+            roleIds = session.getRoleIds();
+            if ( roleIds == null || !roleIds.isCurrent( roles, current ) )
+            {
+                Set<String> inherited = RoleUtil.getInstance().getInheritedRoles( session.getRoles(), contextId );
+                roleIds = new RoleBitSet( getIds( inherited, contextId, false ), roles, current );
+                session.setRoleIds( roleIds );
+            }
+        }
+        return roleIds;
+    }
+
+
+    /**
+     * Compute the RBAC role ids of a session after it has been created or its roles changed.
+     *
+     * @param session   contains the activated roles.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     */
+    void loadSession( Session session, String contextId )
+    {
+        if ( session != null )
+        {
+            getSessionIds( session, contextId, false );
+        }
+    }
+
+
+    private RoleIds getRoleIds( String contextId, boolean isAdmin )
+    {
+        String key = isAdmin ? HierUtil.Type.ARLE.toString() : HierUtil.Type.ROLE.toString();
+        if ( StringUtils.isNotEmpty( contextId ) && !contextId.equalsIgnoreCase( GlobalIds.NULL ) )
+        {
+            key += ":" + contextId;
+        }
+        long epoch = CacheMgr.getInstance().getEpoch();
+        while ( true )
+        {
+            RoleIds roleIds = tenants.get( key );
+            if ( roleIds != null && roleIds.epoch == epoch )
+            {
+                return roleIds;
+            }
+            // None yet, or the caches were cleared since it was built:
+            RoleIds newIds = new RoleIds( epoch );
+            if ( roleIds == null ? tenants.putIfAbsent( key, newIds ) == null : tenants.replace( key, roleIds, newIds ) )
+            {
+                return newIds;
+            }
+        }
+    }
+
+
+    /**
+     * The ids assigned to role names of a single tenant.
+     */
+    private static final class RoleIds
+    {
+        private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+        private final AtomicInteger next = new AtomicInteger();
+        private final long epoch;
+
+        private RoleIds( long epoch )
+        {
+            this.epoch = epoch;
+        }
+
+        int getId( String role )
+        {
+            String name = role.toUpperCase( Locale.ENGLISH );
+            Integer id = ids.get( name );
+            if ( id == null )
+            {
+                Integer newId = next.getAndIncrement();
+                id = ids.putIfAbsent( name, newId );
+                if ( id == null )
+                {
+                    id = newId;
+                }
+            }
+            return id;
+        }
+    }
+}
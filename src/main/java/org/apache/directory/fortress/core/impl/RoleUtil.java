@@ -35,9 +35,6 @@ import org.apache.directory.fortress.core.model.ParentUtil;
 import org.apache.directory.fortress.core.model.Relationship;
 import org.apache.directory.fortress.core.model.Role;
 import org.apache.directory.fortress.core.model.UserRole;
-import org.apache.directory.fortress.core.util.cache.Cache;
-import org.apache.directory.fortress.core.util.cache.CacheMgr;
-import org.jgrapht.graph.SimpleDirectedGraph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -64,7 +61,7 @@ import org.slf4j.LoggerFactory;
  */
 final class RoleUtil implements ParentUtil
 {
-    private Cache roleCache;
+    private HierCache roleCache;
     private RoleP roleP = new RoleP();
     private static final String CLS_NM = RoleUtil.class.getName();
     private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
@@ -98,8 +95,14 @@ final class RoleUtil implements ParentUtil
     {
     	roleP = new RoleP();
     	
-        CacheMgr cacheMgr = CacheMgr.getInstance();
-        roleCache = cacheMgr.getCache( "fortress.roles" );
+        roleCache = new HierCache( HierUtil.Type.ROLE.toString(), new HierCache.Loader()
+        {
+            @Override
+            public HierClosure load( String contextId )
+            {
+                return loadGraph( contextId );
+            }
+        } );
     }
 
     /**
@@ -141,7 +144,7 @@ final class RoleUtil implements ParentUtil
      */
     Set<String> getDescendants( String roleName, String contextId )
     {
-        return HierUtil.getDescendants( roleName.toUpperCase(), getGraph( contextId ) );
+        return getHier( contextId ).getDescendants( roleName.toUpperCase() );
     }
 
 
@@ -154,7 +157,7 @@ final class RoleUtil implements ParentUtil
      */
     Set<String> getChildren( String roleName, String contextId )
     {
-        return HierUtil.getChildren( roleName.toUpperCase(), getGraph( contextId ) );
+        return HierUtil.getChildren( roleName.toUpperCase(), getHier( contextId ).getGraph() );
     }
 
 
@@ -167,7 +170,7 @@ final class RoleUtil implements ParentUtil
      */
     Set<String> getAscendants( String roleName, String contextId )
     {
-        return HierUtil.getAscendants( roleName.toUpperCase(), getGraph( contextId ) );
+        return getHier( contextId ).getAscendants( roleName.toUpperCase() );
     }
 
 
@@ -180,7 +183,7 @@ final class RoleUtil implements ParentUtil
      */
     Set<String> getParents( String roleName, String contextId )
     {
-        return HierUtil.getParents( roleName.toUpperCase(), getGraph( contextId ) );
+        return HierUtil.getParents( roleName.toUpperCase(), getHier( contextId ).getGraph() );
     }
 
 
@@ -193,7 +196,7 @@ final class RoleUtil implements ParentUtil
      */
     public Set<String> getParentsCB( String roleName, String contextId )
     {
-        return HierUtil.getParents( roleName.toUpperCase(), getGraph( contextId ) );
+        return HierUtil.getParents( roleName.toUpperCase(), getHier( contextId ).getGraph() );
     }
 
 
@@ -206,7 +209,19 @@ final class RoleUtil implements ParentUtil
      */
     int numChildren( String roleName, String contextId )
     {
-        return HierUtil.numChildren( roleName.toUpperCase(), getGraph( contextId ) );
+        return HierUtil.numChildren( roleName.toUpperCase(), getHier( contextId ).getGraph() );
+    }
+
+
+    /**
+     * Return the version of the tenant's current role hierarchy.  It changes each time the hierarchy is reloaded or updated.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @return version of the hierarchy, see {@link HierClosure#getVersion()}.
+     */
+    long getVersion( String contextId )
+    {
+        return getHier( contextId ).getVersion();
     }
 
 
@@ -228,7 +243,7 @@ final class RoleUtil implements ParentUtil
             {
                 String rleName = uRole.getName();
                 iRoles.add( rleName );
-                Set<String> parents = HierUtil.getAscendants( rleName, getGraph( contextId ) );
+                Set<String> parents = getHier( contextId ).getAscendants( rleName );
                 if ( CollectionUtils.isNotEmpty( parents ) )
                 {
                     iRoles.addAll( parents );
@@ -254,7 +269,7 @@ final class RoleUtil implements ParentUtil
             for ( String role : roles )
             {
                 iRoles.add( role );
-                Set<String> parents = HierUtil.getAscendants( role, getGraph( contextId ) );
+                Set<String> parents = getHier( contextId ).getAscendants( role );
                 if ( CollectionUtils.isNotEmpty( parents ) )
                 {
                     iRoles.addAll( parents );
@@ -280,7 +295,7 @@ final class RoleUtil implements ParentUtil
             for ( String role : roles )
             {
                 iRoles.add( role );
-                Set<String> children = HierUtil.getDescendants( role, getGraph( contextId ) );
+                Set<String> children = getHier( contextId ).getDescendants( role );
                 if ( CollectionUtils.isNotEmpty( children ) )
                 {
                     iRoles.addAll( children );
@@ -302,13 +317,13 @@ final class RoleUtil implements ParentUtil
      */
     Set<String> getAscendants( String childName, String parentName, boolean isInclusive, String contextId )
     {
-        return HierUtil.getAscendants( childName, parentName, isInclusive, getGraph( contextId ) );
+        return HierUtil.getAscendants( childName, parentName, isInclusive, getHier( contextId ).getGraph() );
     }
 
 
     /**
      * This api is used by {@link AdminMgrImpl} to determine parentage for Hierarchical RBAC processing.
-     * It calls {@link HierUtil#validateRelationship(org.jgrapht.graph.SimpleDirectedGraph, String, String, boolean)} to evaluate three adminRole relationship expressions:
+     * It calls {@link HierUtil#validateRelationship(HierClosure, String, String, boolean)} to evaluate three adminRole relationship expressions:
      * <ol>
      * <li>If child equals parent</li>
      * <li>If mustExist true and parent-child relationship exists</li>
@@ -326,14 +341,14 @@ final class RoleUtil implements ParentUtil
     void validateRelationship( Role childRole, Role parentRole, boolean mustExist )
         throws ValidationException
     {
-        HierUtil.validateRelationship( getGraph( childRole.getContextId() ), childRole.getName(), parentRole.getName(),
+        HierUtil.validateRelationship( getHier( childRole.getContextId() ), childRole.getName(), parentRole.getName(),
             mustExist );
     }
 
 
     /**
-     * This api allows synchronized access to allow updates to hierarchical relationships.
-     * Method will update the hierarchical data set and reload the JGraphT simple digraph with latest.
+     * This api allows updates to hierarchical relationships.
+     * Method will replace the cached hierarchy with a copy containing the update.  Readers of the previous copy are not affected.
      *
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
      * @param relationship contains parent-child relationship targeted for addition.
@@ -342,7 +357,29 @@ final class RoleUtil implements ParentUtil
      */
     void updateHier( String contextId, Relationship relationship, Hier.Op op ) throws SecurityException
     {
-        HierUtil.updateHier( getGraph( contextId ), relationship, op );
+        roleCache.update( getKey( contextId ), contextId, relationship, op );
+    }
+
+
+    /**
+     * Reload the role hierarchy of a tenant in the background, after it was changed in ldap by another process.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     */
+    void invalidate( String contextId )
+    {
+        roleCache.invalidate( getKey( contextId ), contextId );
+    }
+
+
+    /**
+     * Load the role hierarchy of a tenant, if it has not been loaded.  Called by {@link CacheWarmer}.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     */
+    void warm( String contextId )
+    {
+        getHier( contextId );
     }
 
 
@@ -351,9 +388,9 @@ final class RoleUtil implements ParentUtil
      * using 3rd party lib, <a href="http://www.jgrapht.org/">JGraphT</a>.
      *
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
-     * @return handle to simple digraph containing role hierarchies.
+     * @return handle to simple digraph and closure containing role hierarchies.
      */
-    private synchronized SimpleDirectedGraph<String, Relationship> loadGraph( String contextId )
+    private HierClosure loadGraph( String contextId )
     {
         Hier inHier = new Hier( Hier.Type.ROLE );
         inHier.setContextId( contextId );
@@ -370,12 +407,7 @@ final class RoleUtil implements ParentUtil
         }
 
         Hier hier = HierUtil.loadHier( contextId, descendants );
-        SimpleDirectedGraph<String, Relationship> graph;
-
-        graph = HierUtil.buildGraph( hier );
-        roleCache.put( getKey( contextId ), graph );
-
-        return graph;
+        return new HierClosure( HierUtil.buildGraph( hier ) );
     }
 
 
@@ -400,23 +432,10 @@ final class RoleUtil implements ParentUtil
     /**
      *
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
-     * @return handle to simple digraph containing role hierarchies.
+     * @return handle to simple digraph and closure containing role hierarchies.
      */
-    private SimpleDirectedGraph<String, Relationship> getGraph( String contextId )
+    private HierClosure getHier( String contextId )
     {
-        String key = getKey( contextId );        
-        LOG.debug("Getting graph for key " + contextId);
-         
-        SimpleDirectedGraph<String, Relationship> graph = ( SimpleDirectedGraph<String, Relationship> ) roleCache
-                 .get( key );
-             
-        if(graph == null){
-            LOG.debug("Graph was null, creating... " + contextId);
-            return loadGraph( contextId );
-        }
-        else{
-            LOG.debug("Graph found in cache, returning...");
-            return graph;
-        }
+        return roleCache.get( getKey( contextId ), contextId );
     }
 }
@@ -19,29 +19,22 @@
  */
 package org.apache.directory.fortress.core.impl;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
-import net.sf.ehcache.search.Attribute;
-import net.sf.ehcache.search.Query;
-import net.sf.ehcache.search.Result;
-import net.sf.ehcache.search.Results;
-
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
-import org.apache.directory.api.ldap.model.constants.SchemaConstants;
 import org.apache.directory.fortress.core.*;
 import org.apache.directory.fortress.core.SecurityException;
 import org.apache.directory.fortress.core.model.*;
 import org.apache.directory.fortress.core.util.Config;
-import org.apache.directory.fortress.core.util.cache.Cache;
-import org.apache.directory.fortress.core.util.cache.CacheMgr;
-import org.apache.directory.fortress.core.util.cache.DsdCacheEntry;
 
 /**
  * This utilty provides functionality necessary for SSD and DSD processing and cannot be called by components outside fortress.
- * This class also contains utility functions for maintaining the SSD and DSD cache.
+ * This class also maintains the inverted index of Role name to SSD and DSD, see {@link SdIndex}, so that the sets which apply to
+ * a group of roles are found without searching the directory.
  * <p>
  * This class is thread safe.
  *
@@ -50,15 +43,10 @@ import org.apache.directory.fortress.core.util.cache.DsdCacheEntry;
  */
 final class SDUtil
 {
-    private Cache m_dsdCache;
-    private static final String FORTRESS_DSDS = "fortress.dsd";
-    private Cache m_ssdCache;
-    private static final String FORTRESS_SSDS = "fortress.ssd";
+    private SdIndex dsdIndex;
+    private SdIndex ssdIndex;
     private SdP sp;
     private static final String IS_DSD_CACHE_DISABLED_PARM = "enable.dsd.cache";
-    private static final String DSD_NAME = "name";
-    private static final String EMPTY_ELEMENT = "empty";
-    private static final String CONTEXT_ID = "contextId";
 
     private static volatile SDUtil sINSTANCE = null;
 
@@ -80,13 +68,9 @@ final class SDUtil
     private void init()
     {
         sp = new SdP();
-    	
-        // Get a reference to the CacheManager Singleton object:
-        CacheMgr cacheMgr = CacheMgr.getInstance();
-        // This cache contains a wrapper entry for DSD and is searchable by both DSD and Role name:
-        m_dsdCache = cacheMgr.getCache(FORTRESS_DSDS);
-        // This cache is not searchable and contains Lists of SSD objects by Role:
-        m_ssdCache = cacheMgr.getCache(FORTRESS_SSDS);
+        // These contain the DSD's and SSD's of each tenant indexed by member Role name:
+        dsdIndex = new SdIndex(SDSet.SDType.DYNAMIC, sp);
+        ssdIndex = new SdIndex(SDSet.SDType.STATIC, sp);
     }
 
     /**
@@ -162,7 +146,7 @@ final class SDUtil
         }
 
         // get all SSD sets that contain the new role
-        List<SDSet> ssdSets = getSsdCache( role.getName(), contextId );
+        Set<SDSet> ssdSets = getSsdSets( role.getName(), contextId );
         for ( SDSet ssd : ssdSets )
         {
             matchCount = 0;
@@ -209,7 +193,7 @@ final class SDUtil
         }
 
         // get all DSD sets that contain the target role
-        Set<SDSet> dsdSets = getDsdCache(role.getName(), session.getContextId());
+        Set<SDSet> dsdSets = getDsdSets(role.getName(), session.getContextId());
         for (SDSet dsd : dsdSets)
         {
             // Keeps the number of matched roles to a particular DSD set.
@@ -262,68 +246,27 @@ final class SDUtil
     }
 
     /**
-     * Given DSD entry name, clear its corresponding object values from the cache.
-     *
-     * @param name contains the name of object to be cleared.
-     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.     *
-     * @throws SecurityException in the event of system or rule violation.
-     */
-    void clearDsdCacheEntry(String name, String contextId)
-    {
-        Attribute<String> context = m_dsdCache.getSearchAttribute(CONTEXT_ID);
-        Attribute<String> dsdName = m_dsdCache.getSearchAttribute(DSD_NAME);
-        Query query = m_dsdCache.createQuery();
-        query.includeKeys();
-        query.includeValues();
-        query.addCriteria(dsdName.eq(name).and(context.eq(contextId)));
-        Results results = query.execute();
-        for (Result result : results.all())
-        {
-            m_dsdCache.clear(result.getKey());
-        }
-    }
-
-    /**
-     * Given a role name, return the set of DSD's that have a matching member.
+     * Given a role name, return the set of DSD's that have it, or one of its ascendants, as a member.
      *
-     * @param name contains name of authorized Role used to search the cache.
+     * @param name contains name of Role used to search the index.
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
      * @return un-ordered set of matching DSD's.
      * @throws SecurityException in the event of system or rule violation.
      */
-    private Set<SDSet> getDsdCache(String name, String contextId)
+    private Set<SDSet> getDsdSets(String name, String contextId)
         throws SecurityException
     {
         contextId = getContextId(contextId);
-        Set<SDSet> finalSet = new HashSet<>();
-        Attribute<String> context = m_dsdCache.getSearchAttribute(CONTEXT_ID);
-        Attribute<String> member = m_dsdCache.getSearchAttribute(SchemaConstants.MEMBER_AT);
-        Query query = m_dsdCache.createQuery();
-        query.includeKeys();
-        query.includeValues();
-        query.addCriteria(member.eq(name).and(context.eq(contextId)));
-        Results results = query.execute();
-        boolean empty = false;
-        for (Result result : results.all())
-        {
-            DsdCacheEntry entry = (DsdCacheEntry) result.getValue();
-            if (!entry.isEmpty())
-            {
-                finalSet.add(entry.getSdSet());
-                finalSet = putDsdCache(name, contextId);
-            }
-            else
-            {
-                empty = true;
-            }
-            finalSet.add(entry.getSdSet());
-        }
-        // If nothing was found in the cache, determine if it needs to be seeded:
-        if (finalSet.size() == 0 && !empty)
+        // Was the DSD Cache switched off?
+        boolean isCacheDisabled = Config.getInstance().getBoolean(IS_DSD_CACHE_DISABLED_PARM, false);
+        // If so, get DSD's from LDAP:
+        if (isCacheDisabled)
         {
-            finalSet = putDsdCache(name, contextId);
+            Role role = new Role(name);
+            role.setContextId(contextId);
+            return new HashSet<>(sp.search(role, SDSet.SDType.DYNAMIC));
         }
-        return finalSet;
+        return dsdIndex.getSets(getRoleAndAscendants(name, contextId), contextId);
     }
 
     /**
@@ -334,15 +277,14 @@ final class SDUtil
      * @return un-ordered set of matching DSD's.
      * @throws SecurityException in the event of system or rule violation.
      */
-    Set<SDSet> getDsdCache(Set<String> authorizedRoleSet, String contextId)
+    Set<SDSet> getDsdSets(Set<String> authorizedRoleSet, String contextId)
         throws SecurityException
     {
         contextId = getContextId(contextId);
-        Set<SDSet> dsdRetSets = new HashSet<>();
         // Need to proceed?
-        if (!CollectionUtils.isNotEmpty( authorizedRoleSet ))
+        if (CollectionUtils.isEmpty( authorizedRoleSet ))
         {
-            return dsdRetSets;
+            return new HashSet<>();
         }
         // Was the DSD Cache switched off?
         boolean isCacheDisabled = Config.getInstance().getBoolean(IS_DSD_CACHE_DISABLED_PARM, false);
@@ -352,223 +294,94 @@ final class SDUtil
             SDSet sdSet = new SDSet();
             sdSet.setType(SDSet.SDType.DYNAMIC);
             sdSet.setContextId(contextId);
-            dsdRetSets = sp.search(authorizedRoleSet, sdSet);
-        }
-        // Search the DSD cache for matching Role members:
-        else
-        {
-            // Search on roleName attribute which maps to 'member' attr on the cache record:
-            Attribute<String> member = m_dsdCache.getSearchAttribute(SchemaConstants.MEMBER_AT);
-            Attribute<String> context = m_dsdCache.getSearchAttribute(CONTEXT_ID);
-            Query query = m_dsdCache.createQuery();
-            query.includeKeys();
-            query.includeValues();
-            // Add the passed in authorized Role names to this cache query:
-            Set<String> roles = new HashSet<>(authorizedRoleSet);
-            query.addCriteria(member.in(roles).and(context.eq(contextId)));
-            // Return all DSD cache entries that match roleName to the 'member' attribute in cache entry:
-            Results results = query.execute();
-            for (Result result : results.all())
-            {
-                DsdCacheEntry entry = (DsdCacheEntry) result.getValue();
-                // Do not add dummy DSD sets to the final list:
-                if (!entry.isEmpty())
-                {
-                    dsdRetSets.add(entry.getSdSet());
-                }
-                // Remove role member from authorizedRoleSet to preclude from upcoming DSD search:
-                //authorizedRoleSet.remove(entry.getMember());
-            }
-            // Authorized roles remaining in this set correspond to missed cache hits from above:
-            if (authorizedRoleSet.size() > 0)
-            {
-                dsdRetSets = putDsdCache(authorizedRoleSet, contextId);
-            }
+            return sp.search(authorizedRoleSet, sdSet);
         }
-        return dsdRetSets;
+        // One index lookup per authorized role:
+        return dsdIndex.getSets(authorizedRoleSet, contextId);
     }
 
     /**
-     * Get the matching DSD's from directory and add to the cache (if found).  If matching DSD not found,
-     * add dummy entry to cache to prevent repeated searches.
+     * Given a role name, return the set of SSD's that have it, or one of its ascendants, as a member.
      *
-     * @param authorizedRoleSet contains set of Roles used to search directory for matching DSD's.
+     * @param name of Role used to search the index.
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
-     * @return List of DSD's who have matching Role members.
+     * @return un-ordered set of matching SSD's.
      * @throws SecurityException in the event of system or rule violation.
      */
-    private Set<SDSet> putDsdCache(Set<String> authorizedRoleSet, String contextId)
+    private Set<SDSet> getSsdSets(String name, String contextId)
         throws SecurityException
     {
         contextId = getContextId(contextId);
-        Set<SDSet> dsdSets = new HashSet<>();
-        // Search the DSD's iteratively to seed the DSD cache by Role name:
-        for (String roleName : authorizedRoleSet)
-        {
-            Role role = new Role(roleName);
-            role.setContextId(contextId);
-            List<SDSet> dsdList = sp.search(role, SDSet.SDType.DYNAMIC);
-            if (CollectionUtils.isNotEmpty( dsdList ))
-            {
-                for (SDSet dsd : dsdList)
-                {
-                    dsd.setContextId(contextId);
-                    Set<String> members = dsd.getMembers();
-                    if (members != null)
-                    {
-                        // Seed the cache with DSD objects mapped to role name:
-                        for (String member : members)
-                        {
-                            String key = buildKey(dsd.getName(), member);
-                            DsdCacheEntry entry = new DsdCacheEntry(member, dsd, false);
-                            entry.setName(dsd.getName());
-                            m_dsdCache.put(getKey(key, contextId), entry);
-                        }
-                    }
-                }
-                // Maintain the set of DSD's to be returned to the caller:
-                dsdSets.addAll(dsdList);
-            }
-            else
-            {
-                // Seed the cache with dummy entry for a Role that is not referenced by DSD:
-                String key = buildKey(EMPTY_ELEMENT, roleName);
-                SDSet sdSet = new SDSet();
-                sdSet.setType(SDSet.SDType.DYNAMIC);
-                sdSet.setName(key);
-                sdSet.setMember(roleName);
-                sdSet.setContextId(contextId);
-                DsdCacheEntry entry = new DsdCacheEntry(roleName, sdSet, true);
-                entry.setName(key);
-                m_dsdCache.put(getKey(sdSet.getName(), contextId), entry);
-            }
-        }
-        return dsdSets;
+        return ssdIndex.getSets(getRoleAndAscendants(name, contextId), contextId);
     }
 
     /**
-     * Get the matching DSD's from directory and add to the cache (if found).  If matching DSD not found,
-     * add dummy entry to cache to prevent repeated searches.
+     * Called by {@link SdP} after an SSD or DSD has been added or updated in the directory.
      *
-     * @param roleName of Role is used to search directory for matching DSD's.
+     * @param sdSet contains the SDSet as stored in the directory.
+     * @param type either STATIC or DYNAMIC.
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
-     * @return Set of DSD's who have matching Role member.
-     * @throws SecurityException in the event of system or rule violation.
      */
-    private Set<SDSet> putDsdCache(String roleName, String contextId)
-        throws SecurityException
+    void putSdSet(SDSet sdSet, SDSet.SDType type, String contextId)
     {
-        contextId = getContextId(contextId);
-        Role role = new Role(roleName);
-        role.setContextId(contextId);
-        List<SDSet> dsdList = sp.search(role, SDSet.SDType.DYNAMIC);
-        Set<SDSet> finalSet = new HashSet<>(dsdList);
-        if ( CollectionUtils.isNotEmpty( dsdList ))
-        {
-            for (SDSet dsd : dsdList)
-            {
-                dsd.setContextId(contextId);
-                Set<String> members = dsd.getMembers();
-                if (members != null)
-                {
-                    // Seed the cache with DSD objects mapped to role name:
-                    for (String member : members)
-                    {
-                        String key = buildKey(dsd.getName(), member);
-                        DsdCacheEntry entry = new DsdCacheEntry(member, dsd, false);
-                        entry.setName(dsd.getName());
-                        m_dsdCache.put(getKey(key, contextId), entry);
-                    }
-                }
-            }
-        }
-        else
-        {
-            // Seed the cache with dummy entry for Role that does not have DSD:
-            String key = buildKey(EMPTY_ELEMENT, roleName);
-            SDSet sdSet = new SDSet();
-            sdSet.setType(SDSet.SDType.DYNAMIC);
-            sdSet.setName(key);
-            sdSet.setMember(roleName);
-            sdSet.setContextId(contextId);
-            DsdCacheEntry entry = new DsdCacheEntry(roleName, sdSet, true);
-            entry.setName(key);
-            m_dsdCache.put(getKey(sdSet.getName(), contextId), entry);
-        }
-        return finalSet;
+        getIndex(type).put(sdSet, getContextId(contextId));
     }
 
     /**
-     * Given entry name, clear its corresponding object value from the cache.
+     * Called by {@link SdP} after an SSD or DSD has been removed from the directory.
      *
-     * @param name contains the name of object to be cleared.
+     * @param name of the SDSet.
+     * @param type either STATIC or DYNAMIC.
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
-     * @throws SecurityException in the event of system or rule violation.
      */
-    void clearSsdCacheEntry(String name, String contextId)
+    void removeSdSet(String name, SDSet.SDType type, String contextId)
     {
-        contextId = getContextId(contextId);
-        m_ssdCache.clear(getKey(name, contextId));
+        getIndex(type).remove(name, getContextId(contextId));
     }
 
     /**
-     * Get the matching SSD's from directory and add to the cache (if found).
+     * Called by {@link CacheInvalidator} after the SSDs or DSDs of a tenant were changed in the directory by another process.
      *
-     * @param name of Role is used to search directory for matching SSD's.
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
-     * @return List of SSD's who have matching Role member.
-     * @throws SecurityException in the event of system or rule violation.
      */
-    private List<SDSet> putSsdCache(String name, String contextId)
-        throws SecurityException
+    void invalidate(String contextId)
     {
-        Role role = new Role(name);
-        role.setContextId(contextId);
-        List<SDSet> ssdSets = sp.search(role, SDSet.SDType.STATIC);
-        m_ssdCache.put(getKey(name, contextId), ssdSets);
-        return ssdSets;
+        contextId = getContextId(contextId);
+        ssdIndex.invalidate(contextId);
+        dsdIndex.invalidate(contextId);
     }
 
     /**
-     * Look in cache for matching List of SSD's.
+     * Load the SSDs and DSDs of a tenant, if they have not been loaded.  Called by {@link CacheWarmer}.
      *
-     * @param name of Role is used to search directory for matching SSD's.
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
-     * @return List of SSD's who have matching Role member.
-     * @throws SecurityException in the event of system or rule violation.
+     * @throws SecurityException in the event the sets could not be read from ldap.
      */
-    private List<SDSet> getSsdCache(String name, String contextId)
+    void warm(String contextId)
         throws SecurityException
     {
-        List<SDSet> ssdSets = (List<SDSet>) m_ssdCache.get(getKey(name, contextId));
-        if (ssdSets == null)
-        {
-            ssdSets = putSsdCache(name, contextId);
-        }
-        return ssdSets;
+        contextId = getContextId(contextId);
+        ssdIndex.getSets(Collections.<String>emptySet(), contextId);
+        dsdIndex.getSets(Collections.<String>emptySet(), contextId);
     }
 
-    /**
-     *
-     * @param parm1
-     * @param parm2
-     * @return
-     */
-    private static String buildKey(String parm1, String parm2)
+    private SdIndex getIndex(SDSet.SDType type)
     {
-        return parm1 + ":" + parm2;
+        return type == SDSet.SDType.DYNAMIC ? dsdIndex : ssdIndex;
     }
 
     /**
+     * The SDSet search by role also matches sets that contain the role's parents.
      *
-     * @param name
-     * @param contextId
-     * @return
+     * @param name of Role.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @return Set containing the role along with all of its ascendants.
      */
-    private static String getKey(String name, String contextId)
+    private static Set<String> getRoleAndAscendants(String name, String contextId)
     {
-        contextId = getContextId(contextId);
-        return name += ":" + contextId;
+        Set<String> roles = new HashSet<>(RoleUtil.getInstance().getAscendants(name, contextId));
+        roles.add(name);
+        return roles;
     }
 
     /**
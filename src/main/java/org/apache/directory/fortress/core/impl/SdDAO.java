@@ -173,7 +173,7 @@ final class SdDAO extends LdapDataProvider
             loadAttrs( entity.getMembers(), entry, ROLES );
             entry.add( SD_SET_CARDINALITY, "" + entity.getCardinality() );
 
-            ld = getAdminConnection();
+            ld = getAdminConnection( entity.getContextId() );
             add( ld, entry, entity );
         }
         catch ( LdapException e )
@@ -230,7 +230,7 @@ final class SdDAO extends LdapDataProvider
 
             if ( mods.size() > 0 )
             {
-                ld = getAdminConnection();
+                ld = getAdminConnection( entity.getContextId() );
                 modify( ld, dn, mods, entity );
             }
         }
@@ -270,7 +270,7 @@ final class SdDAO extends LdapDataProvider
 
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminConnection( entity.getContextId() );
             delete( ld, dn, entity );
         }
         catch ( LdapException e )
@@ -311,7 +311,7 @@ final class SdDAO extends LdapDataProvider
 
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( sdSet.getContextId() );
             Entry findEntry = read( ld, dn, SD_SET_ATRS );
             if ( findEntry == null )
             {
@@ -372,7 +372,7 @@ final class SdDAO extends LdapDataProvider
         {
             String searchVal = encodeSafeText( sdset.getName(), GlobalIds.ROLE_LEN );
             String filter = GlobalIds.FILTER_PREFIX + objectClass + ")(" + SD_SET_NM + "=" + searchVal + "*))";
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( sdset.getContextId() );
             SearchCursor searchResults = search( ld, ssdRoot,
                 SearchScope.SUBTREE, filter, SD_SET_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -479,7 +479,7 @@ final class SdDAO extends LdapDataProvider
             }
 
             filterbuf.append( ")" );
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( role.getContextId() );
             SearchCursor searchResults = search( ld, ssdRoot,
                 SearchScope.SUBTREE, filterbuf.toString(), SD_SET_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
 
@@ -568,7 +568,7 @@ final class SdDAO extends LdapDataProvider
                     filterbuf.append( ")" );
                 }
                 filterbuf.append( "))" );
-                ld = getAdminConnection();
+                ld = getAdminReadConnection( sdSet.getContextId() );
                 SearchCursor searchResults = search( ld, ssdRoot,
                     SearchScope.SUBTREE, filterbuf.toString(), SD_SET_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
                 long sequence = 0;
@@ -0,0 +1,392 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.SecurityException;
+import org.apache.directory.fortress.core.model.SDSet;
+import org.apache.directory.fortress.core.util.Config;
+import org.apache.directory.fortress.core.util.cache.CacheMgr;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Inverted index from role name to the Separation of Duty sets, either STATIC or DYNAMIC, that contain the role as a member.
+ * It is used by {@link SDUtil} and {@link DSDChecker} to find the sets that apply to a group of roles without searching ldap.
+ * <p>
+ * All of a tenant's sets are read with a single search on first use and published as an immutable snapshot.  Lookups are one
+ * hash map access per role and never lock.  {@link SdP} keeps the index current when sets are added, updated or deleted.  Changes
+ * made by other processes are picked up when the snapshot is older than fortress config param 'sd.cache.ttl' and is reloaded.
+ * All snapshots are discarded when {@link CacheMgr#clearAll()} is called.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class SdIndex
+{
+    private static final String CLS_NM = SdIndex.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    private static final int DEFAULT_TTL = 600;
+    private final ConcurrentHashMap<String, Tenant> tenants = new ConcurrentHashMap<>();
+    private final SDSet.SDType type;
+    private final SdP sp;
+    private final long ttlNanos;
+
+
+    /**
+     * @param type either STATIC or DYNAMIC.
+     * @param sp   used to read the sets from ldap.
+     */
+    SdIndex( SDSet.SDType type, SdP sp )
+    {
+        this.type = type;
+        this.sp = sp;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos( Config.getInstance().getInt( GlobalIds.SD_CACHE_TTL, DEFAULT_TTL ) );
+    }
+
+
+    /**
+     * Return the sets that contain any of the given roles as a member.
+     *
+     * @param roles     contains role names, matched case insensitive.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @return un-ordered set of matching SDSets, empty if none.
+     * @throws SecurityException in the event the tenant's sets could not be read from ldap.
+     */
+    Set<SDSet> getSets( Collection<String> roles, String contextId ) throws SecurityException
+    {
+        Set<SDSet> sets = new HashSet<>();
+        Snapshot snapshot = getSnapshot( contextId );
+        for ( String role : roles )
+        {
+            List<SDSet> matches = snapshot.byRole.get( role.toUpperCase() );
+            if ( matches != null )
+            {
+                sets.addAll( matches );
+            }
+        }
+        return sets;
+    }
+
+
+    /**
+     * Add or replace a set in the index.  Has no effect if the tenant has not been loaded, its next load reads the set from ldap.
+     *
+     * @param sdSet     contains the set as stored in ldap.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     */
+    void put( SDSet sdSet, String contextId )
+    {
+        sdSet.setType( type );
+        sdSet.setContextId( contextId );
+        change( sdSet.getName(), sdSet, contextId );
+    }
+
+
+    /**
+     * Remove a set from the index.
+     *
+     * @param name      of the set, case insensitive.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     */
+    void remove( String name, String contextId )
+    {
+        change( name, null, contextId );
+    }
+
+
+    /**
+     * Read the sets of a tenant again, after they were changed in ldap by another process.  If the read fails, the current sets
+     * are kept and read again by the next lookup.  Has no effect if the tenant has not been loaded.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     */
+    void invalidate( String contextId )
+    {
+        Tenant tenant = tenants.get( contextId );
+        if ( tenant == null )
+        {
+            return;
+        }
+        tenant.lock.lock();
+        try
+        {
+            Snapshot snapshot = tenant.current.get();
+            if ( snapshot != null && snapshot.epoch == CacheMgr.getInstance().getEpoch() )
+            {
+                try
+                {
+                    load( tenant, contextId );
+                }
+                catch ( SecurityException e )
+                {
+                    LOG.warn( "invalidate {} context [{}] caught SecurityException={}, expiring previous", type, contextId,
+                        e.getMessage() );
+                    tenant.current.set( new Snapshot( snapshot.byName, snapshot.byRole, snapshot.loaded - ttlNanos - 1,
+                        snapshot.epoch ) );
+                }
+            }
+        }
+        finally
+        {
+            tenant.lock.unlock();
+        }
+    }
+
+
+    private void change( String name, SDSet sdSet, String contextId )
+    {
+        Tenant tenant = getTenant( contextId );
+        tenant.lock.lock();
+        try
+        {
+            Snapshot snapshot = tenant.current.get();
+            // Nothing to change, a load will read the set from ldap.
+            if ( snapshot != null && snapshot.epoch == CacheMgr.getInstance().getEpoch() )
+            {
+                tenant.current.set( snapshot.replace( name.toUpperCase(), sdSet ) );
+            }
+        }
+        finally
+        {
+            tenant.lock.unlock();
+        }
+    }
+
+
+    /**
+     * Return the current snapshot of a tenant.  Waits only if the tenant has not been loaded.  If the snapshot has expired, the
+     * caller reloads it, while others keep using the old one.
+     */
+    private Snapshot getSnapshot( String contextId ) throws SecurityException
+    {
+        Tenant tenant = getTenant( contextId );
+        Snapshot snapshot = tenant.current.get();
+        if ( snapshot == null || snapshot.epoch != CacheMgr.getInstance().getEpoch() )
+        {
+            tenant.lock.lock();
+            try
+            {
+                snapshot = tenant.current.get();
+                if ( snapshot == null || snapshot.epoch != CacheMgr.getInstance().getEpoch() )
+                {
+                    snapshot = load( tenant, contextId );
+                }
+            }
+            finally
+            {
+                tenant.lock.unlock();
+            }
+        }
+        else if ( System.nanoTime() - snapshot.loaded > ttlNanos && tenant.lock.tryLock() )
+        {
+            try
+            {
+                if ( snapshot == tenant.current.get() )
+                {
+                    snapshot = load( tenant, contextId );
+                }
+                else
+                {
+                    snapshot = tenant.current.get();
+                }
+            }
+            catch ( SecurityException e )
+            {
+                LOG.warn( "reload {} context [{}] caught SecurityException={}, using previous", type, contextId, e.getMessage() );
+            }
+            finally
+            {
+                tenant.lock.unlock();
+            }
+        }
+        return snapshot;
+    }
+
+
+    /**
+     * Read every set of the tenant.  Caller must hold the tenant's lock.
+     */
+    private Snapshot load( Tenant tenant, String contextId ) throws SecurityException
+    {
+        long epoch = CacheMgr.getInstance().getEpoch();
+        long loaded = System.nanoTime();
+        SDSet sdSet = new SDSet();
+        sdSet.setType( type );
+        sdSet.setContextId( contextId );
+        // Empty name matches every set:
+        sdSet.setName( "" );
+        List<SDSet> sdSets = sp.search( sdSet );
+        Map<String, SDSet> byName = new HashMap<>();
+        for ( SDSet entry : sdSets )
+        {
+            entry.setType( type );
+            entry.setContextId( contextId );
+            byName.put( entry.getName().toUpperCase(), entry );
+        }
+        Snapshot snapshot = new Snapshot( byName, loaded, epoch );
+        tenant.current.set( snapshot );
+        LOG.debug( "load {} context [{}] sets [{}] roles [{}]", type, contextId, byName.size(), snapshot.byRole.size() );
+        return snapshot;
+    }
+
+
+    private Tenant getTenant( String contextId )
+    {
+        Tenant tenant = tenants.get( contextId );
+        if ( tenant == null )
+        {
+            Tenant newTenant = new Tenant();
+            tenant = tenants.putIfAbsent( contextId, newTenant );
+            if ( tenant == null )
+            {
+                tenant = newTenant;
+            }
+        }
+        return tenant;
+    }
+
+
+    /**
+     * The state of one tenant.  The lock serializes loads and changes, readers do not take it.
+     */
+    private static final class Tenant
+    {
+        private final AtomicReference<Snapshot> current = new AtomicReference<>();
+        private final ReentrantLock lock = new ReentrantLock();
+    }
+
+
+    /**
+     * The sets of a tenant by name, the inverted index of uppercase member role name to sets, and the time they were read from ldap.
+     */
+    private static final class Snapshot
+    {
+        private final Map<String, SDSet> byName;
+        private final Map<String, List<SDSet>> byRole;
+        private final long loaded;
+        private final long epoch;
+
+        private Snapshot( Map<String, SDSet> byName, long loaded, long epoch )
+        {
+            this.byName = byName;
+            this.byRole = new HashMap<>();
+            this.loaded = loaded;
+            this.epoch = epoch;
+            for ( SDSet sdSet : byName.values() )
+            {
+                if ( sdSet.getMembers() != null )
+                {
+                    for ( String member : sdSet.getMembers() )
+                    {
+                        String key = member.toUpperCase();
+                        List<SDSet> sets = byRole.get( key );
+                        if ( sets == null )
+                        {
+                            sets = new ArrayList<>();
+                            byRole.put( key, sets );
+                        }
+                        sets.add( sdSet );
+                    }
+                }
+            }
+        }
+
+        private Snapshot( Map<String, SDSet> byName, Map<String, List<SDSet>> byRole, long loaded, long epoch )
+        {
+            this.byName = byName;
+            this.byRole = byRole;
+            this.loaded = loaded;
+            this.epoch = epoch;
+        }
+
+        /**
+         * Copy this snapshot with one set replaced.  Only the index entries of the affected roles are rebuilt.
+         *
+         * @param name  uppercase name of the set.
+         * @param sdSet the new contents of the set, or null if it was removed.
+         * @return new snapshot.
+         */
+        private Snapshot replace( String name, SDSet sdSet )
+        {
+            Map<String, SDSet> names = new HashMap<>( byName );
+            Map<String, List<SDSet>> roles = new HashMap<>( byRole );
+            SDSet previous = sdSet != null ? names.put( name, sdSet ) : names.remove( name );
+            if ( previous != null && previous.getMembers() != null )
+            {
+                for ( String member : previous.getMembers() )
+                {
+                    String key = member.toUpperCase();
+                    List<SDSet> current = roles.get( key );
+                    if ( current == null )
+                    {
+                        continue;
+                    }
+                    List<SDSet> sets = new ArrayList<>( current );
+                    sets.remove( previous );
+                    if ( sets.isEmpty() )
+                    {
+                        roles.remove( key );
+                    }
+                    else
+                    {
+                        roles.put( key, Collections.unmodifiableList( sets ) );
+                    }
+                }
+            }
+            if ( sdSet != null )
+            {
+                add( roles, sdSet );
+            }
+            return new Snapshot( names, roles, loaded, epoch );
+        }
+
+        private static void add( Map<String, List<SDSet>> roles, SDSet sdSet )
+        {
+            if ( sdSet.getMembers() != null )
+            {
+                for ( String member : sdSet.getMembers() )
+                {
+                    String key = member.toUpperCase();
+                    List<SDSet> sets = roles.get( key );
+                    List<SDSet> copy = sets == null ? new ArrayList<SDSet>() : new ArrayList<>( sets );
+                    copy.add( sdSet );
+                    roles.put( key, Collections.unmodifiableList( copy ) );
+                }
+            }
+        }
+    }
+}
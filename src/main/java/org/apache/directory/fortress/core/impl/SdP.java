@@ -73,7 +73,9 @@ final class SdP
     SDSet add( SDSet entity ) throws SecurityException
     {
         validate( entity );
-        return sdDao.create( entity );
+        SDSet sde = sdDao.create( entity );
+        putIndex( entity );
+        return sde;
     }
 
 
@@ -90,7 +92,9 @@ final class SdP
     SDSet update( SDSet entity ) throws SecurityException
     {
         validate( entity );
-        return sdDao.update( entity );
+        SDSet sde = sdDao.update( entity );
+        putIndex( entity );
+        return sde;
     }
 
 
@@ -105,7 +109,9 @@ final class SdP
      */
     SDSet delete( SDSet entity ) throws SecurityException
     {
-        return sdDao.remove( entity );
+        SDSet sde = sdDao.remove( entity );
+        SDUtil.getInstance().removeSdSet( entity.getName(), entity.getType(), entity.getContextId() );
+        return sde;
     }
 
 
@@ -174,6 +180,19 @@ final class SdP
     }
 
 
+    /**
+     * Read back the SDSet following an add or update and replace it in the Role to SDSet index used for SSD and DSD validation.
+     *
+     * @param entity contains the name, type and contextId of the SDSet.
+     * @throws SecurityException in the event of DAO search error.
+     */
+    private void putIndex( SDSet entity ) throws SecurityException
+    {
+        SDSet sde = sdDao.getSD( entity );
+        SDUtil.getInstance().putSdSet( sde, entity.getType(), entity.getContextId() );
+    }
+
+
     /**
      * Method will perform simple validations to ensure the integrity of the SDSet entity targeted for insertion
      * or updating in directory.  This method will ensure the name and type enum are specified.  Method will
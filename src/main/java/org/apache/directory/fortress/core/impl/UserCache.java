@@ -0,0 +1,179 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang.SerializationUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.model.User;
+import org.apache.directory.fortress.core.util.Config;
+import org.apache.directory.fortress.core.util.cache.Cache;
+import org.apache.directory.fortress.core.util.cache.CacheMgr;
+
+
+/**
+ * Holds Users read with {@link Projection#AUTHZ}, i.e. their roles, administrative roles, constraints, ou and lock state, so
+ * that trusted createSession, authenticate, addActiveRole and the ARBAC checks of {@link DelAccessMgrImpl} need not read them
+ * from ldap every time.  See {@link UserP#readAuthz(User)}.
+ * <p>
+ * The entries are stored within the {@code fortress.users} cache, which bounds their number and age, keyed on the tenant and
+ * userId.  Changes made through {@link UserP} remove the user's entry.  Changes made by other processes become visible after the
+ * entry expires.  Copies are stored and returned, so callers may modify them.
+ * <p>
+ * With the ehcache implementation a {@link #get(User)} that misses holds the user's key locked, and readers of the same user
+ * wait, until {@link #put(User, User, long)} is called by the same thread.  The tinylfu implementation does not lock.
+ * <p>
+ * The cache is disabled by default and may be turned on with fortress config param: 'enable.user.cache=true'.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class UserCache
+{
+    private static final String FORTRESS_USERS = "fortress.users";
+    private static final String IS_USER_CACHE_ENABLED_PARM = "enable.user.cache";
+    private static final char KEY_DELIMITER = '\u0000';
+    private final Cache userCache;
+    private final boolean isEnabled;
+    // Changed by every removal, a read that overlapped one is not stored:
+    private final AtomicLong generation = new AtomicLong();
+
+    private static volatile UserCache sINSTANCE = null;
+
+    static UserCache getInstance()
+    {
+        if(sINSTANCE == null)
+        {
+            synchronized (UserCache.class)
+            {
+                if(sINSTANCE == null)
+                {
+                    sINSTANCE = new UserCache();
+                }
+            }
+        }
+        return sINSTANCE;
+    }
+
+    /**
+     * Private constructor
+     *
+     */
+    private UserCache()
+    {
+        this( Config.getInstance().getBoolean( IS_USER_CACHE_ENABLED_PARM, false ) ? CacheMgr.getInstance().getCache(
+            FORTRESS_USERS ) : null );
+    }
+
+
+    /**
+     * @param userCache holds the users, null if the cache is disabled.
+     */
+    UserCache( Cache userCache )
+    {
+        this.userCache = userCache;
+        this.isEnabled = userCache != null;
+    }
+
+
+    /**
+     * @return true if the user cache is in use.
+     */
+    boolean isEnabled()
+    {
+        return isEnabled;
+    }
+
+
+    /**
+     * Return a copy of the cached User.  If there is none, the key is left locked until {@link #put(User, User, long)}.
+     *
+     * @param user contains the userId and contextId.
+     * @return copy of the User, or null if not cached.
+     */
+    User get( User user )
+    {
+        User cached = ( User ) userCache.get( getKey( user.getContextId(), user.getUserId() ) );
+        return cached != null ? ( User ) SerializationUtils.clone( cached ) : null;
+    }
+
+
+    /**
+     * Store a copy of the User read after a {@link #get(User)} that missed, and release the key.  Must be called once after
+     * every miss, with a null user if the read failed.
+     *
+     * @param inUser     contains the userId and contextId it was read with.
+     * @param user       as read with {@link Projection#AUTHZ}, or null to only release the key.
+     * @param generation as returned by {@link #getGeneration()} before the read.
+     */
+    void put( User inUser, User user, long generation )
+    {
+        String key = getKey( inUser.getContextId(), inUser.getUserId() );
+        if ( user == null || generation != this.generation.get() )
+        {
+            // Storing a null value releases the lock held on this key for any threads waiting.
+            userCache.put( key, null );
+        }
+        else
+        {
+            userCache.put( key, SerializationUtils.clone( user ) );
+        }
+    }
+
+
+    /**
+     * @return the number of removals so far, taken before a read and passed to {@link #put(User, User, long)}.
+     */
+    long getGeneration()
+    {
+        return generation.get();
+    }
+
+
+    /**
+     * Remove a User after it was changed.
+     *
+     * @param contextId of the tenant.
+     * @param userId    of the user.
+     */
+    void remove( String contextId, String userId )
+    {
+        if ( isEnabled && userId != null )
+        {
+            generation.incrementAndGet();
+            userCache.clear( getKey( contextId, userId ) );
+        }
+    }
+
+
+    /**
+     * UserIds are matched case insensitive, the same as the ldap server does.
+     */
+    private static String getKey( String contextId, String userId )
+    {
+        String tenant = StringUtils.isNotEmpty( contextId ) && !contextId.equalsIgnoreCase( GlobalIds.NULL ) ? contextId :
+            GlobalIds.HOME;
+        return tenant + KEY_DELIMITER + userId.toUpperCase();
+    }
+}
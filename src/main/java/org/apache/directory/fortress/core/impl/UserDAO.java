@@ -26,6 +26,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.ArrayUtils;
@@ -62,6 +66,7 @@ import org.apache.directory.fortress.core.RemoveException;
 import org.apache.directory.fortress.core.SecurityException;
 import org.apache.directory.fortress.core.UpdateException;
 import org.apache.directory.fortress.core.ldap.LdapDataProvider;
+import org.apache.directory.fortress.core.ldap.PagedSearchCursor;
 import org.apache.directory.fortress.core.model.*;
 import org.apache.directory.fortress.core.util.PropUpdater;
 import org.apache.directory.fortress.core.util.PropUtil;
@@ -197,6 +202,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
     private static final String[] USERID_ATRS = { SchemaConstants.UID_AT };
     // These will be loaded in static initializer that follows:
     private static String[] authnAtrs = null;
+    private static String[] authzAtrs = null;
     private static String[] defaultAtrs = null;
     private static final String[] ROLE_ATR = { GlobalIds.USER_ROLE_DATA };
     private static final String[] AROLE_ATR = { GlobalIds.USER_ADMINROLE_DATA };
@@ -347,7 +353,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
                 myEntry.add( HOME_DIRECTORY, entity.getHomeDirectory() );
             }
 
-            ld = getAdminConnection();
+            ld = getAdminConnection( entity.getContextId() );
             add( ld, myEntry, entity );
             entity.setDn( dn );
         }
@@ -495,7 +501,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
 
             if ( mods.size() > 0 )
             {
-                ld = getAdminConnection();
+                ld = getAdminConnection( entity.getContextId() );
                 modify( ld, userDn, mods, entity );
                 entity.setDn( userDn );
             }
@@ -538,7 +544,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
 
             if ( mods.size() > 0 )
             {
-                ld = getAdminConnection();
+                ld = getAdminConnection( entity.getContextId() );
                 modify( ld, userDn, mods, entity );
                 entity.setDn( userDn );
             }
@@ -571,7 +577,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
 
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminConnection( user.getContextId() );
             delete( ld, userDn, user );
         }
         catch ( LdapException e )
@@ -602,7 +608,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
             List<Modification> mods = new ArrayList<Modification>();
             mods.add( new DefaultModification( ModificationOperation.REPLACE_ATTRIBUTE, OPENLDAP_PW_LOCKED_TIME,
                 LOCK_VALUE ) );
-            ld = getAdminConnection();
+            ld = getAdminConnection( user.getContextId() );
             modify( ld, userDn, mods, user );
         }
         catch ( LdapException e )
@@ -632,7 +638,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
             List<Modification> mods = new ArrayList<Modification>();
 
             mods.add( new DefaultModification( ModificationOperation.REMOVE_ATTRIBUTE, OPENLDAP_PW_LOCKED_TIME ) );
-            ld = getAdminConnection();
+            ld = getAdminConnection( user.getContextId() );
             modify( ld, userDn, mods, user );
         }
         catch ( LdapNoSuchAttributeException e )
@@ -658,31 +664,28 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
      */
     User getUser( User user, boolean isRoles ) throws FinderException
     {
-        User entity = null;
-        LdapConnection ld = null;
-        String userDn = getDn( user.getUserId(), user.getContextId() );
-
-        String[] uATTRS;
-        // Retrieve role attributes?
+        // Retrieve the User's assigned RBAC and Admin Role attributes from directory along with all the others?
+        return getUser( user, isRoles ? Projection.FULL : Projection.AUTHN );
+    }
 
-        if ( isRoles )
-        {
-            // Retrieve the User's assigned RBAC and Admin Role attributes from directory.
-            uATTRS = defaultAtrs;
 
-        }
-        else
-        {
-            // Do not retrieve the User's assigned RBAC and Admin Role attributes from directory.
-            uATTRS = authnAtrs;
-        }
+    /**
+     * @param user       contains the userId and contextId.
+     * @param projection contains the attributes to read, the others are left null.
+     * @return User entity.
+     * @throws FinderException in the event the user was not found or of ldap error.
+     */
+    User getUser( User user, Projection projection ) throws FinderException
+    {
+        LdapConnection ld = null;
+        String userDn = getDn( user.getUserId(), user.getContextId() );
 
         Entry findEntry = null;
 
         try
         {
-            ld = getAdminConnection();
-            findEntry = read( ld, userDn, uATTRS );
+            ld = getAdminReadConnection( user.getContextId() );
+            findEntry = read( ld, userDn, getAtrs( projection ) );
         }
         catch ( LdapNoSuchObjectException e )
         {
@@ -699,11 +702,77 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
             closeAdminConnection( ld );
         }
 
+        return toUser( findEntry, user, projection );
+    }
+
+
+    /**
+     * Start a read of the user and return without waiting for it.  Used to overlap the read with other ldap operations,
+     * e.g. the bind that checks the password.
+     *
+     * @param user       contains the userId and contextId.
+     * @param projection contains the attributes to read, the others are left null.
+     * @return completes with the user, or exceptionally with {@link FinderException}, same as {@link #getUser(User, Projection)}.
+     */
+    CompletableFuture<User> getUserAsync( final User user, final Projection projection )
+    {
+        final CompletableFuture<User> result = new CompletableFuture<>();
+        final String userDn = getDn( user.getUserId(), user.getContextId() );
+        final LdapConnection ld;
+        try
+        {
+            ld = getAdminReadConnection( user.getContextId() );
+        }
+        catch ( LdapException e )
+        {
+            String error = "getUserAsync [" + userDn + "]= caught LDAPException=" + e;
+            result.completeExceptionally( new FinderException( GlobalErrIds.USER_READ_FAILED, error, e ) );
+            return result;
+        }
+
+        readAsync( ld, userDn, getAtrs( projection ) ).whenComplete( new BiConsumer<Entry, Throwable>()
+        {
+            @Override
+            public void accept( Entry findEntry, Throwable t )
+            {
+                closeAdminConnection( ld );
+                Throwable cause = t instanceof CompletionException ? t.getCause() : t;
+                if ( cause instanceof LdapNoSuchObjectException )
+                {
+                    String warning = "getUserAsync COULD NOT FIND ENTRY for user [" + user.getUserId() + "]";
+                    result.completeExceptionally( new FinderException( GlobalErrIds.USER_NOT_FOUND, warning ) );
+                }
+                else if ( cause != null )
+                {
+                    String error = "getUserAsync [" + userDn + "]= caught " + cause;
+                    result.completeExceptionally( new FinderException( GlobalErrIds.USER_READ_FAILED, error,
+                        cause instanceof Exception ? ( Exception ) cause : new RuntimeException( cause ) ) );
+                }
+                else
+                {
+                    try
+                    {
+                        result.complete( toUser( findEntry, user, projection ) );
+                    }
+                    catch ( FinderException | RuntimeException e )
+                    {
+                        result.completeExceptionally( e );
+                    }
+                }
+            }
+        } );
+        return result;
+    }
+
+
+    private User toUser( Entry findEntry, User user, Projection projection ) throws FinderException
+    {
+        User entity = null;
         try
         {
             if ( findEntry != null )
             {
-                entity = unloadLdapEntry( findEntry, 0, user.getContextId() );
+                entity = unloadLdapEntry( findEntry, 0, user.getContextId(), projection );
             }
         }
         catch ( LdapInvalidAttributeValueException e )
@@ -735,7 +804,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
 
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( user.getContextId() );
             Entry findEntry = read( ld, userDn, AROLE_ATR );
             roles = unloadUserAdminRoles( findEntry, user.getUserId(), user.getContextId() );
         }
@@ -771,7 +840,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
 
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( user.getContextId() );
             Entry findEntry = read( ld, userDn, ROLES );
 
             if ( findEntry == null )
@@ -818,7 +887,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
             session = new ObjectFactory().createSession();
             session.setAuthenticated( false );
             session.setUserId( user.getUserId() );
-            ld = getUserConnection();
+            ld = getUserReadConnection( user.getContextId() );
             BindResponse bindResponse = bind( ld, userDn, user.getPassword() );
             String info;
 
@@ -860,7 +929,8 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         }
         finally
         {
-            closeUserConnection( ld );
+            // the pool binds it again as itself, don't wait on that:
+            closeUserConnectionLater( ld );
         }
 
         return session;
@@ -990,43 +1060,9 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
 
         try
         {
-            //String filter;
-            StringBuilder filterbuf = new StringBuilder();
-            if ( StringUtils.isNotEmpty( user.getUserId() ) )
-            {
-                // place a wild card after the input userId:
-                String searchVal = encodeSafeText( user.getUserId(), GlobalIds.USERID_LEN );
-                filterbuf.append( GlobalIds.FILTER_PREFIX );
-                filterbuf.append( Config.getInstance().getProperty( USER_OBJECT_CLASS ) );
-                filterbuf.append( ")(" );
-                filterbuf.append( SchemaConstants.UID_AT );
-                filterbuf.append( "=" );
-                filterbuf.append( searchVal );
-                filterbuf.append( "*))" );
-            }
-            else if ( StringUtils.isNotEmpty( user.getInternalId() ) )
-            {
-                // internalUserId search
-                String searchVal = encodeSafeText( user.getInternalId(), GlobalIds.USERID_LEN );
-                // this is not a wildcard search. Must be exact match.
-                filterbuf.append( GlobalIds.FILTER_PREFIX );
-                filterbuf.append( Config.getInstance().getProperty( USER_OBJECT_CLASS ) );
-                filterbuf.append( ")(" );
-                filterbuf.append( GlobalIds.FT_IID );
-                filterbuf.append( "=" );
-                filterbuf.append( searchVal );
-                filterbuf.append( "))" );
-            }
-            else
-            {
-                // Beware - returns ALL users!!:"
-                filterbuf.append( "(objectclass=" );
-                filterbuf.append( Config.getInstance().getProperty( USER_OBJECT_CLASS ) );
-                filterbuf.append( ")" );
-            }
-
-            ld = getAdminConnection();
-            SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filterbuf.toString(), defaultAtrs, false,
+            String filter = getFindUsersFilter( user );
+            ld = getAdminReadConnection( user.getContextId() );
+            SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filter, defaultAtrs, false,
                     Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) ) );
             long sequence = 0;
 
@@ -1054,6 +1090,82 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
     }
 
 
+    /**
+     * Stream the users that match the criteria of {@link #findUsers(User)}, reading them from ldap a page at a time.
+     *
+     * @param user     contains the userId or internalId to search on.
+     * @param pageSize specifies the number of entries to read from ldap at a time.
+     * @return stream of matching users, must be closed if not read to the end.
+     * @throws FinderException in the event the search could not be started.
+     */
+    Stream<User> streamUsers( final User user, int pageSize ) throws FinderException
+    {
+        String userRoot = getRootDn( user.getContextId(), GlobalIds.USER_ROOT );
+        LdapConnection ld = null;
+
+        try
+        {
+            String filter = getFindUsersFilter( user );
+            ld = getAdminReadConnection( user.getContextId() );
+            PagedSearchCursor cursor = searchPaged( ld, userRoot, SearchScope.ONELEVEL, filter, defaultAtrs, false, pageSize );
+            return stream( cursor, new EntryMapper<User>()
+            {
+                @Override
+                public User map( Entry entry, long sequence ) throws LdapException
+                {
+                    return unloadLdapEntry( entry, sequence, user.getContextId() );
+                }
+            }, GlobalErrIds.USER_SEARCH_FAILED, closeAdminConnectionTask( ld ) );
+        }
+        catch ( LdapException e )
+        {
+            closeAdminConnection( ld );
+            String warning = "findUsers userRoot [" + userRoot + "] caught LDAPException=" + e;
+            throw new FinderException( GlobalErrIds.USER_SEARCH_FAILED, warning, e );
+        }
+    }
+
+
+    private String getFindUsersFilter( User user ) throws LdapException
+    {
+        StringBuilder filterbuf = new StringBuilder();
+        if ( StringUtils.isNotEmpty( user.getUserId() ) )
+        {
+            // place a wild card after the input userId:
+            String searchVal = encodeSafeText( user.getUserId(), GlobalIds.USERID_LEN );
+            filterbuf.append( GlobalIds.FILTER_PREFIX );
+            filterbuf.append( Config.getInstance().getProperty( USER_OBJECT_CLASS ) );
+            filterbuf.append( ")(" );
+            filterbuf.append( SchemaConstants.UID_AT );
+            filterbuf.append( "=" );
+            filterbuf.append( searchVal );
+            filterbuf.append( "*))" );
+        }
+        else if ( StringUtils.isNotEmpty( user.getInternalId() ) )
+        {
+            // internalUserId search
+            String searchVal = encodeSafeText( user.getInternalId(), GlobalIds.USERID_LEN );
+            // this is not a wildcard search. Must be exact match.
+            filterbuf.append( GlobalIds.FILTER_PREFIX );
+            filterbuf.append( Config.getInstance().getProperty( USER_OBJECT_CLASS ) );
+            filterbuf.append( ")(" );
+            filterbuf.append( GlobalIds.FT_IID );
+            filterbuf.append( "=" );
+            filterbuf.append( searchVal );
+            filterbuf.append( "))" );
+        }
+        else
+        {
+            // Beware - returns ALL users!!:"
+            filterbuf.append( "(objectclass=" );
+            filterbuf.append( Config.getInstance().getProperty( USER_OBJECT_CLASS ) );
+            filterbuf.append( ")" );
+        }
+
+        return filterbuf.toString();
+    }
+
+
     /**
      * @param user
      * @param limit
@@ -1078,7 +1190,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
             filterbuf.append( searchVal );
             filterbuf.append( "*))" );
 
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( user.getContextId() );
             SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filterbuf.toString(), USERID,
                 false, limit );
 
@@ -1120,44 +1232,9 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
 
         try
         {
-            String roleVal = encodeSafeText( role.getName(), GlobalIds.USERID_LEN );
-            StringBuilder filterbuf = new StringBuilder();
-            filterbuf.append( GlobalIds.FILTER_PREFIX );
-            filterbuf.append( USERS_AUX_OBJECT_CLASS_NAME );
-            filterbuf.append( ")(" );
-
-            Set<String> roles = RoleUtil.getInstance().getDescendants( role.getName(), role.getContextId() );
-
-            if ( CollectionUtils.isNotEmpty( roles ) )
-            {
-                filterbuf.append( "|(" );
-                filterbuf.append( USER_ROLE_ASSIGN );
-                filterbuf.append( "=" );
-                filterbuf.append( roleVal );
-                filterbuf.append( ")" );
-
-                for ( String uRole : roles )
-                {
-                    filterbuf.append( "(" );
-                    filterbuf.append( USER_ROLE_ASSIGN );
-                    filterbuf.append( "=" );
-                    filterbuf.append( uRole );
-                    filterbuf.append( ")" );
-                }
-
-                filterbuf.append( ")" );
-            }
-            else
-            {
-                filterbuf.append( USER_ROLE_ASSIGN );
-                filterbuf.append( "=" );
-                filterbuf.append( roleVal );
-                filterbuf.append( ")" );
-            }
-
-            filterbuf.append( ")" );
-            ld = getAdminConnection();
-            SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filterbuf.toString(), defaultAtrs, false,
+            String filter = getAuthorizedUsersFilter( role );
+            ld = getAdminReadConnection( role.getContextId() );
+            SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filter, defaultAtrs, false,
                 Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
 
@@ -1187,6 +1264,85 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
     }
 
 
+    /**
+     * Stream the users that match the criteria of {@link #getAuthorizedUsers(Role)}, reading them from ldap a page at a time.
+     *
+     * @param role     contains the name of the role, users assigned to it or its descendants are returned.
+     * @param pageSize specifies the number of entries to read from ldap at a time.
+     * @return stream of matching users, must be closed if not read to the end.
+     * @throws FinderException in the event the search could not be started.
+     */
+    Stream<User> streamAuthorizedUsers( final Role role, int pageSize ) throws FinderException
+    {
+        String userRoot = getRootDn( role.getContextId(), GlobalIds.USER_ROOT );
+        LdapConnection ld = null;
+
+        try
+        {
+            String filter = getAuthorizedUsersFilter( role );
+            ld = getAdminReadConnection( role.getContextId() );
+            PagedSearchCursor cursor = searchPaged( ld, userRoot, SearchScope.ONELEVEL, filter, defaultAtrs, false, pageSize );
+            return stream( cursor, new EntryMapper<User>()
+            {
+                @Override
+                public User map( Entry entry, long sequence ) throws LdapException
+                {
+                    return unloadLdapEntry( entry, sequence, role.getContextId() );
+                }
+            }, GlobalErrIds.URLE_SEARCH_FAILED, closeAdminConnectionTask( ld ) );
+        }
+        catch ( LdapException e )
+        {
+            closeAdminConnection( ld );
+            String warning = "getAuthorizedUsers role name [" + role.getName() + "] caught LDAPException=" + e.getMessage();
+            throw new FinderException( GlobalErrIds.URLE_SEARCH_FAILED, warning, e );
+        }
+    }
+
+
+    private String getAuthorizedUsersFilter( Role role ) throws LdapException
+    {
+        String roleVal = encodeSafeText( role.getName(), GlobalIds.USERID_LEN );
+        StringBuilder filterbuf = new StringBuilder();
+        filterbuf.append( GlobalIds.FILTER_PREFIX );
+        filterbuf.append( USERS_AUX_OBJECT_CLASS_NAME );
+        filterbuf.append( ")(" );
+
+        Set<String> roles = RoleUtil.getInstance().getDescendants( role.getName(), role.getContextId() );
+
+        if ( CollectionUtils.isNotEmpty( roles ) )
+        {
+            filterbuf.append( "|(" );
+            filterbuf.append( USER_ROLE_ASSIGN );
+            filterbuf.append( "=" );
+            filterbuf.append( roleVal );
+            filterbuf.append( ")" );
+
+            for ( String uRole : roles )
+            {
+                filterbuf.append( "(" );
+                filterbuf.append( USER_ROLE_ASSIGN );
+                filterbuf.append( "=" );
+                filterbuf.append( uRole );
+                filterbuf.append( ")" );
+            }
+
+            filterbuf.append( ")" );
+        }
+        else
+        {
+            filterbuf.append( USER_ROLE_ASSIGN );
+            filterbuf.append( "=" );
+            filterbuf.append( roleVal );
+            filterbuf.append( ")" );
+        }
+
+        filterbuf.append( ")" );
+
+        return filterbuf.toString();
+    }
+
+
     /**
      * @param role
      * @param roleConstraint
@@ -1221,7 +1377,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
             
             filterbuf.append( ")" );
             
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( role.getContextId() );
             SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filterbuf.toString(), defaultAtrs, false,
                 Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -1277,7 +1433,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
             
             filterbuf.append( ")" );
             
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( role.getContextId() );
             SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filterbuf.toString(), defaultAtrs, false,
                 Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
 
@@ -1347,7 +1503,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
             filterbuf.append( roleVal );
             filterbuf.append( "))" );
 
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( role.getContextId() );
             SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filterbuf.toString(), USERID_ATR, false,
                 Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -1414,7 +1570,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
             }
 
             filterbuf.append( "))" );
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( contextId );
             SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filterbuf.toString(), USERID_ATRS,
                 false,
                 Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
@@ -1466,7 +1622,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
             filterbuf.append( roleVal );
             filterbuf.append( "))" );
 
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( role.getContextId() );
             SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filterbuf.toString(), defaultAtrs, false,
                 Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -1521,7 +1677,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
             filterbuf.append( roleVal );
             filterbuf.append( "))" );
 
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( role.getContextId() );
             SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filterbuf.toString(), USERID,
                 false, limit );
 
@@ -1575,7 +1731,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
             filterbuf.append( searchVal );
             filterbuf.append( "*))" );
 
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( contextId );
             SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filterbuf.toString(), defaultAtrs, false,
                 Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -1637,7 +1793,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
                 maxLimit = 0;
             }
 
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( ou.getContextId() );
             SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filterbuf.toString(), defaultAtrs, false,
                 maxLimit );
             long sequence = 0;
@@ -1684,7 +1840,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         try
         {
             // Perform this operation as the end user to allow password policy checking:
-            ld = getUserConnection();
+            ld = getUserConnection( entity.getContextId() );
             bind( ld, userDn, entity.getPassword() );
             mods = new ArrayList<Modification>();
 
@@ -1756,7 +1912,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
 
             mods.add( new DefaultModification( ModificationOperation.REPLACE_ATTRIBUTE, OPENLDAP_PW_RESET, "TRUE" ) );
 
-            ld = getAdminConnection();
+            ld = getAdminConnection( user.getContextId() );
             modify( ld, userDn, mods, user );
         }
         catch ( LdapException e )
@@ -1785,7 +1941,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         {
             List<Modification> mods = new ArrayList<Modification>();
             mods.add( new DefaultModification( ModificationOperation.REMOVE_ATTRIBUTE, OPENLDAP_PW_RESET ) );
-            ld = getAdminConnection();
+            ld = getAdminConnection( user.getContextId() );
             modify( ld, userDn, mods, user );
         }
         catch ( LdapNoSuchAttributeException e )
@@ -1828,7 +1984,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
             mods.add( new DefaultModification( ModificationOperation.ADD_ATTRIBUTE, USER_ROLE_ASSIGN, uRole
                 .getName() ) );
 
-            ld = getAdminConnection();
+            ld = getAdminConnection( uRole.getContextId() );
             modify( ld, userDn, mods, uRole );
         }
         catch ( LdapAttributeInUseException e )
@@ -1875,7 +2031,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
             mods.add( new DefaultModification( ModificationOperation.ADD_ATTRIBUTE, GlobalIds.USER_ROLE_DATA,
             		szRoleConstraint ) );
 
-            ld = getAdminConnection();
+            ld = getAdminConnection( uRole.getContextId() );
             modify( ld, userDn, mods, uRole );
         }
         catch ( LdapException e )
@@ -1911,7 +2067,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
             mods.add( new DefaultModification( ModificationOperation.REMOVE_ATTRIBUTE, GlobalIds.USER_ROLE_DATA,
             		szRoleConstraint ) );
 
-            ld = getAdminConnection();
+            ld = getAdminConnection( uRole.getContextId() );
             modify( ld, userDn, mods, uRole );            
         }
         catch ( LdapException e )
@@ -1971,7 +2127,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
                         .USER_ROLE_DATA, fRole.getRawData() ) );                    
                     
                     mods.add( new DefaultModification( ModificationOperation.REMOVE_ATTRIBUTE, USER_ROLE_ASSIGN, fRole.getName() ) );
-                    ld = getAdminConnection();                    
+                    ld = getAdminConnection( uRole.getContextId() );                    
                     
                     modify( ld, userDn, mods, uRole );                                        
                 }
@@ -2021,7 +2177,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
             mods.add( new DefaultModification( ModificationOperation.ADD_ATTRIBUTE, GlobalIds.USER_ADMINROLE_ASSIGN,
                 uRole.getName() ) );
 
-            ld = getAdminConnection();
+            ld = getAdminConnection( uRole.getContextId() );
             modify( ld, userDn, mods, uRole );
         }
         catch ( LdapAttributeInUseException e )
@@ -2085,7 +2241,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
                     mods.add( new DefaultModification( ModificationOperation.REMOVE_ATTRIBUTE, GlobalIds
                         .USER_ADMINROLE_ASSIGN, fRole.getName() ) );
 
-                    ld = getAdminConnection();
+                    ld = getAdminConnection( uRole.getContextId() );
                     modify( ld, userDn, mods, uRole );
                 }
             }
@@ -2130,7 +2286,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
             List<Modification> mods = new ArrayList<Modification>();
 
             mods.add( new DefaultModification( ModificationOperation.REMOVE_ATTRIBUTE, OPENLDAP_POLICY_SUBENTRY ) );
-            ld = getAdminConnection();
+            ld = getAdminConnection( user.getContextId() );
             modify( ld, userDn, mods, user );
         }
         catch ( LdapException e )
@@ -2167,6 +2323,21 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
      */
     private User unloadLdapEntry( Entry entry, long sequence, String contextId )
         throws LdapInvalidAttributeValueException
+    {
+        return unloadLdapEntry( entry, sequence, contextId, Projection.FULL );
+    }
+
+
+    /**
+     * @param entry      contains the attributes of the projection.
+     * @param sequence   of the entry in the results.
+     * @param contextId  of the tenant.
+     * @param projection contains the attributes that were read, the others are not looked for.
+     * @return User entity.
+     * @throws LdapInvalidAttributeValueException
+     */
+    private User unloadLdapEntry( Entry entry, long sequence, String contextId, Projection projection )
+        throws LdapInvalidAttributeValueException
     {
         User entity = new ObjectFactory().createUser();
         entity.setSequenceId( sequence );
@@ -2178,19 +2349,23 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         entity.setSn( getAttribute( entry, SchemaConstants.SN_AT ) );
         entity.setOu( getAttribute( entry, SchemaConstants.OU_AT ) );
         entity.setDn( entry.getDn().getName() );
-        entity.setTitle( getAttribute( entry, SchemaConstants.TITLE_AT ) );
-        entity.setEmployeeType( getAttribute( entry, EMPLOYEE_TYPE ) );
         unloadTemporal( entry, entity );
         entity.setRoles( unloadUserRoles( entry, entity.getUserId(), contextId, null ) );
         entity.setAdminRoles( unloadUserAdminRoles( entry, entity.getUserId(), contextId ) );
-        entity.setAddress( unloadAddress( entry ) );
-        entity.setPhones( getAttributes( entry, SchemaConstants.TELEPHONE_NUMBER_AT ) );
-        entity.setMobiles( getAttributes( entry, MOBILE ) );
-        entity.setEmails( getAttributes( entry, SchemaConstants.MAIL_AT ) );
-        String szBoolean = getAttribute( entry, SYSTEM_USER );
-        if ( szBoolean != null )
+        String szBoolean;
+        if ( projection == Projection.FULL )
         {
-            entity.setSystem( Boolean.valueOf( szBoolean ) );
+            entity.setTitle( getAttribute( entry, SchemaConstants.TITLE_AT ) );
+            entity.setEmployeeType( getAttribute( entry, EMPLOYEE_TYPE ) );
+            entity.setAddress( unloadAddress( entry ) );
+            entity.setPhones( getAttributes( entry, SchemaConstants.TELEPHONE_NUMBER_AT ) );
+            entity.setMobiles( getAttributes( entry, MOBILE ) );
+            entity.setEmails( getAttributes( entry, SchemaConstants.MAIL_AT ) );
+            szBoolean = getAttribute( entry, SYSTEM_USER );
+            if ( szBoolean != null )
+            {
+                entity.setSystem( Boolean.valueOf( szBoolean ) );
+            }
         }
 
         entity.addProperties( PropUtil.getProperties( getAttributes( entry, GlobalIds.PROPS ) ) );
@@ -2216,6 +2391,11 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
             }
         }
 
+        if ( projection != Projection.FULL )
+        {
+            return entity;
+        }
+
         entity.setJpegPhoto( getPhoto( entry, JPEGPHOTO ) );
 
         // These are the posixAccount attributes specified by RFC2307bis (proposed) IETF standard:
@@ -2242,7 +2422,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         String userDn = getDn( userId, contextId );
         try
         {
-            ld = getAdminConnection();
+            ld = getAdminReadConnection( contextId );
             Entry findEntry = read( ld, userDn, ROLE_ATR );
             roles = unloadUserRoles( findEntry, userId, contextId, null );
         }
@@ -2665,11 +2845,12 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         if ( roles != null )
         {
             long sequence = 0;
+            String delimiter = Config.getInstance().getDelimiter();
 
             for ( String raw : roles )
             {
             	//get role name
-            	String roleName = raw.substring(0, raw.indexOf( Config.getInstance().getDelimiter() )).toUpperCase();
+            	String roleName = raw.substring(0, raw.indexOf( delimiter )).toUpperCase();
             	
             	//if role name filter provided, only unload role if it has that name
             	if(roleNameFilter == null || roleNameFilter.toUpperCase().equals( roleName )){            	
@@ -2790,6 +2971,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
                     GlobalIds.CONSTRAINT,
                     OPENLDAP_PW_RESET,
                     OPENLDAP_PW_LOCKED_TIME,
+                    OPENLDAP_POLICY_SUBENTRY,
                     GlobalIds.PROPS };
         }
 
@@ -2843,5 +3025,29 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
                     GlobalIds.CONSTRAINT,
                     GlobalIds.PROPS };
         }
+
+        // Those needed to create a session add the role assignments:
+        authzAtrs = new String[authnAtrs.length + 4];
+        System.arraycopy( authnAtrs, 0, authzAtrs, 0, authnAtrs.length );
+        authzAtrs[authnAtrs.length] = GlobalIds.USER_ROLE_DATA;
+        authzAtrs[authnAtrs.length + 1] = USER_ROLE_ASSIGN;
+        authzAtrs[authnAtrs.length + 2] = GlobalIds.USER_ADMINROLE_ASSIGN;
+        authzAtrs[authnAtrs.length + 3] = GlobalIds.USER_ADMINROLE_DATA;
+    }
+
+
+    private static String[] getAtrs( Projection projection )
+    {
+        switch ( projection )
+        {
+            case AUTHN:
+                return authnAtrs;
+
+            case AUTHZ:
+                return authzAtrs;
+
+            default:
+                return defaultAtrs;
+        }
     }
 }
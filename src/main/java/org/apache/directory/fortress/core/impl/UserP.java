@@ -24,9 +24,13 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
+import org.apache.directory.fortress.core.FinderException;
 import org.apache.directory.fortress.core.GlobalErrIds;
 import org.apache.directory.fortress.core.GlobalIds;
 import org.apache.directory.fortress.core.PasswordException;
@@ -77,6 +81,7 @@ final class UserP
     private PolicyP policyP = new PolicyP();
     private AdminRoleP admRoleP = new AdminRoleP();
     private OrgUnitP orgUnitP = new OrgUnitP();
+    private UserCache userCache = UserCache.getInstance();
 
     /**
      * Takes a User entity that contains full or partial userId OR a full internal userId for search.
@@ -91,6 +96,20 @@ final class UserP
     }
 
 
+    /**
+     * Same as {@link #search(User)} but the matching Users are read from the directory a page at a time as the stream is consumed.
+     *
+     * @param user     contains all or partial userId or full internal userId.
+     * @param pageSize the number of entries to read from the directory at a time.
+     * @return Stream of fully populated matching User entities, must be closed if not read to the end.
+     * @throws SecurityException in the event the search could not be started.
+     */
+    Stream<User> streamUsers( User user, int pageSize ) throws SecurityException
+    {
+        return uDao.streamUsers( user, pageSize );
+    }
+
+
     List<User> search( OrgUnit ou, boolean limitSize ) throws SecurityException
     {
         return uDao.findUsers( ou, limitSize );
@@ -125,6 +144,21 @@ final class UserP
     }
 
 
+    /**
+     * Same as {@link #getAuthorizedUsers(Role)} but the matching Users are read from the directory a page at a time as the
+     * stream is consumed.
+     *
+     * @param role     contains the role name targeted for search.
+     * @param pageSize the number of entries to read from the directory at a time.
+     * @return Stream of fully populated matching User entities, must be closed if not read to the end.
+     * @throws SecurityException in the event the search could not be started.
+     */
+    Stream<User> streamAuthorizedUsers( Role role, int pageSize ) throws SecurityException
+    {
+        return uDao.streamAuthorizedUsers( role, pageSize );
+    }
+
+
     /**
      * Return a list of Users that are authorized the given Role.
      *
@@ -248,7 +282,91 @@ final class UserP
      */
     User read( User user, boolean isRoles ) throws SecurityException
     {
-        return uDao.getUser( user, isRoles );
+        return read( user, isRoles ? Projection.FULL : Projection.AUTHN, null );
+    }
+
+
+    /**
+     * Same as {@link #read(User, boolean)} but while the ldap circuit breaker is not closed, a read that fails is answered with
+     * the copy of the User last read, if not too old, see {@link LastKnownGood}.
+     *
+     * @param user       contains full userId value.
+     * @param projection contains the attributes to read.
+     * @param session    if not null, is warned when the answer comes from the copy.
+     * @return User entity containing the attributes of the projection.
+     * @throws SecurityException in the event of User not found or DAO search error.
+     */
+    private User read( User user, Projection projection, Session session ) throws SecurityException
+    {
+        LastKnownGood lastKnownGood = LastKnownGood.getInstance();
+        if ( !lastKnownGood.isEnabled() )
+        {
+            return uDao.getUser( user, projection );
+        }
+        try
+        {
+            User outUser = uDao.getUser( user, projection );
+            lastKnownGood.putUser( user, outUser, projection );
+            return outUser;
+        }
+        catch ( FinderException fe )
+        {
+            User stale = fe.getErrorId() != GlobalErrIds.USER_NOT_FOUND && lastKnownGood.isDegraded() ? lastKnownGood
+                .getUser( user, projection ) : null;
+            if ( stale == null )
+            {
+                throw fe;
+            }
+            LOG.warn( "read userId [{}] answered from cache, caught FinderException={}", user.getUserId(), fe.getMessage() );
+            if ( session != null )
+            {
+                LastKnownGood.setDegraded( session );
+            }
+            return stale;
+        }
+    }
+
+
+    /**
+     * Read a User with the attributes of {@link Projection#AUTHZ}, i.e. the ones a session and the access checks use.  When
+     * enabled, the User is taken from, or read through, the {@link UserCache}.
+     *
+     * @param user contains full userId value.
+     * @return User entity containing the attributes of {@link Projection#AUTHZ}.
+     * @throws SecurityException in the event of User not found or DAO search error.
+     */
+    User readAuthz( User user ) throws SecurityException
+    {
+        return readAuthz( user, null );
+    }
+
+
+    /**
+     * Same as {@link #readAuthz(User)} with the session warned when the answer comes from {@link LastKnownGood}.
+     */
+    private User readAuthz( User user, Session session ) throws SecurityException
+    {
+        if ( !userCache.isEnabled() )
+        {
+            return read( user, Projection.AUTHZ, session );
+        }
+        User outUser = userCache.get( user );
+        if ( outUser != null )
+        {
+            return outUser;
+        }
+        long generation = userCache.getGeneration();
+        User loaded = null;
+        try
+        {
+            loaded = read( user, Projection.AUTHZ, session );
+            return loaded;
+        }
+        finally
+        {
+            // releases the key for the readers waiting on it, what is read while ldap is failing is not cached:
+            userCache.put( user, LastKnownGood.getInstance().isDegraded() ? null : loaded, generation );
+        }
     }
 
 
@@ -340,6 +458,7 @@ final class UserP
             validate( entity, true );
         }
         entity = uDao.update( entity );
+        userCache.remove( entity.getContextId(), entity.getUserId() );
         return entity;
     }
 
@@ -365,6 +484,7 @@ final class UserP
         }
         user.setDescription( "DELETED" );
         User outUser = uDao.update( user );
+        userCache.remove( user.getContextId(), user.getUserId() );
         return outUser.getDn();
     }
 
@@ -388,7 +508,9 @@ final class UserP
                 + "] can't be removed due to policy violation, rc=" + GlobalErrIds.USER_PLCY_VIOLATION;
             throw new SecurityException( GlobalErrIds.USER_PLCY_VIOLATION, warning );
         }
-        return uDao.remove( user );
+        String dn = uDao.remove( user );
+        userCache.remove( user.getContextId(), user.getUserId() );
+        return dn;
     }
 
 
@@ -402,6 +524,7 @@ final class UserP
     void deletePwPolicy( User user ) throws SecurityException
     {
         uDao.deletePwPolicy( user );
+        userCache.remove( user.getContextId(), user.getUserId() );
     }
 
 
@@ -562,6 +685,8 @@ final class UserP
     /**
      * Called internal to this class only.  Will do all of the session activations of the public method
      * in addition to the password validation.
+     * The User set into the Session carries the attributes of {@link Projection#AUTHZ}, use {@link #read(User, boolean)} for
+     * the others.
      *
      * @param inUser   Contains userId that represents rDn of node in ldap directory.
      * @return Session object will contain authentication result code, RBAC and Admin role activations, OpenLDAP pw policy output and more.
@@ -570,12 +695,44 @@ final class UserP
     private Session createSession( User inUser )
         throws SecurityException
     {
-        // read user entity:
-        User user = read( inUser, true );
-        user.setContextId( inUser.getContextId() );
+        User user = userCache.isEnabled() ? userCache.get( inUser ) : null;
+        Session session;
+        if ( user != null )
+        {
+            // the user entity was read recently, only the password is left to check:
+            session = authenticate( inUser );
+        }
+        else
+        {
+            long generation = userCache.getGeneration();
+            try
+            {
+                // read user entity, while the password is checked on another connection:
+                CompletableFuture<User> pending = uDao.getUserAsync( inUser, Projection.AUTHZ );
 
-        // authenticate password, check pw policies and validate user temporal constraints:
-        Session session = authenticate( inUser );
+                // authenticate password, check pw policies and validate user temporal constraints:
+                try
+                {
+                    session = authenticate( inUser );
+                }
+                catch ( SecurityException se )
+                {
+                    // a failed read is reported first, as when the two were done in turn:
+                    await( pending );
+                    throw se;
+                }
+                user = await( pending );
+            }
+            finally
+            {
+                if ( userCache.isEnabled() )
+                {
+                    // releases the key for the readers waiting on it:
+                    userCache.put( inUser, user, generation );
+                }
+            }
+        }
+        user.setContextId( inUser.getContextId() );
 
         // Set the user entity into the session object:
         session.setUser( user );
@@ -584,7 +741,32 @@ final class UserP
 
 
     /**
-     * Trusted session creation method called internal to this class only.  Will do all of the session activations of the public method
+     * Wait for a read started by the DAO and return its result, or throw its failure.
+     */
+    private <T> T await( CompletableFuture<T> future ) throws SecurityException
+    {
+        try
+        {
+            return future.join();
+        }
+        catch ( CompletionException e )
+        {
+            if ( e.getCause() instanceof SecurityException )
+            {
+                throw ( SecurityException ) e.getCause();
+            }
+            if ( e.getCause() instanceof RuntimeException )
+            {
+                throw ( RuntimeException ) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+
+    /**
+     * Trusted session creation method called internal to this class only.  Will do all of the session activations of the public method.
+     * The User set into the Session carries the attributes of {@link Projection#AUTHZ}.
      *
      * @param inUser Contains userId that represents rDn of node in ldap directory.
      * @return Session object will contain authentication result code, RBAC and Admin role activations, OpenLDAP pw policy output and more.
@@ -593,7 +775,8 @@ final class UserP
     private Session createSessionTrusted( User inUser )
         throws SecurityException
     {
-        User user = read( inUser, true );
+        Session session = new ObjectFactory().createSession();
+        User user = readAuthz( inUser, session );
         user.setContextId( inUser.getContextId() );
 
         if ( user.isLocked() )
@@ -604,7 +787,6 @@ final class UserP
             throw new SecurityException( GlobalErrIds.USER_LOCKED_BY_CONST, warning );
         }
 
-        Session session = new ObjectFactory().createSession();
         session.setUserId( inUser.getUserId() );
         // Set this flag to false because user's password was not authenticated.
         session.setAuthenticated( false );
@@ -622,6 +804,7 @@ final class UserP
     void lock( User user ) throws SecurityException
     {
         uDao.lock( user );
+        userCache.remove( user.getContextId(), user.getUserId() );
     }
 
 
@@ -634,6 +817,7 @@ final class UserP
     void unlock( User user ) throws SecurityException
     {
         uDao.unlock( user );
+        userCache.remove( user.getContextId(), user.getUserId() );
     }
 
 
@@ -648,6 +832,7 @@ final class UserP
     {
         String userId = entity.getUserId();
         boolean result = uDao.changePassword( entity, newPassword );
+        userCache.remove( entity.getContextId(), userId );
         if ( !result )
         {
             LOG.warn( "changePassword failed for user [{}]", userId );
@@ -665,6 +850,7 @@ final class UserP
     void resetPassword( User user ) throws SecurityException
     {
         uDao.resetUserPassword( user );
+        userCache.remove( user.getContextId(), user.getUserId() );
     }
 
 
@@ -706,7 +892,9 @@ final class UserP
     {
         validate( uRole );
         // "assign" custom Fortress role data, i.e. temporal constraints, onto the user node:
-        return uDao.assign( uRole );
+        String dn = uDao.assign( uRole );
+        userCache.remove( uRole.getContextId(), uRole.getUserId() );
+        return dn;
     }
     
     //TODO: add documentation
@@ -715,6 +903,7 @@ final class UserP
     	validate( roleConstraint, uRole.getContextId() );
     	
     	uDao.assign( uRole, roleConstraint );
+        userCache.remove( uRole.getContextId(), uRole.getUserId() );
     }
     
     //TODO: add documentation, maybe change method name?
@@ -723,6 +912,7 @@ final class UserP
     	//TODO: validate?
     	
     	uDao.deassign( uRole, roleConstraint );
+        userCache.remove( uRole.getContextId(), uRole.getUserId() );
     }
 
 
@@ -744,7 +934,9 @@ final class UserP
     {
         validate( uRole );
         // "deassign" custom Fortress role data from the user's node:
-        return uDao.deassign( uRole );
+        String dn = uDao.deassign( uRole );
+        userCache.remove( uRole.getContextId(), uRole.getUserId() );
+        return dn;
     }
 
 
@@ -776,7 +968,9 @@ final class UserP
     {
         validate( uRole );
         // Assign custom Fortress role data, i.e. temporal constraints, onto the user node:
-        return uDao.assign( uRole );
+        String dn = uDao.assign( uRole );
+        userCache.remove( uRole.getContextId(), uRole.getUserId() );
+        return dn;
     }
 
 
@@ -796,7 +990,9 @@ final class UserP
     {
         validate( uRole );
         // Deassign custom Fortress role data from the user's node:
-        return uDao.deassign( uRole );
+        String dn = uDao.deassign( uRole );
+        userCache.remove( uRole.getContextId(), uRole.getUserId() );
+        return dn;
     }
 
 
@@ -987,7 +1183,7 @@ final class UserP
     	List<RoleConstraint> matchingConstraints = new ArrayList<RoleConstraint>();
     	
         //TODO: can we do this in a query?
-        List<UserRole> userRoles = uDao.getUser(user, true).getRoles();
+        List<UserRole> userRoles = uDao.getUser( user, Projection.AUTHZ ).getRoles();
         for(UserRole ur : userRoles){
         	//only get constraints for passed in roles
         	if(roles.contains(ur.getName())){
@@ -0,0 +1,274 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.directory.api.ldap.model.constants.SchemaConstants;
+import org.apache.directory.api.ldap.model.exception.LdapInvalidDnException;
+import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.api.ldap.model.name.Rdn;
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.util.Config;
+import org.apache.directory.fortress.core.util.ConfigSnapshot;
+
+
+/**
+ * Holds the containers of each tenant, e.g. ou=People or ou=Roles, both as the string the DAOs build their dns from and parsed.
+ * A dn handed to {@link LdapDataProvider} that is one of these containers, or a single rdn added to one, is not parsed again.
+ * <p>
+ * The containers are derived from the configuration snapshot they were built from and are thrown away when a new one is published.
+ * There is one entry per tenant and container used.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class DnCache
+{
+    // Key of the suffix, which is not a config param name:
+    private static final String SUFFIX = "";
+    private static volatile DnCache sINSTANCE = null;
+    private volatile Roots roots;
+
+
+    static DnCache getInstance()
+    {
+        if ( sINSTANCE == null )
+        {
+            synchronized ( DnCache.class )
+            {
+                if ( sINSTANCE == null )
+                {
+                    sINSTANCE = new DnCache();
+                }
+            }
+        }
+        return sINSTANCE;
+    }
+
+
+    private DnCache()
+    {
+    }
+
+
+    /**
+     * @param contextId is to determine what sub-tree to use.
+     * @param root      contains the fortress parameter name that corresponds with a particular LDAP container.
+     * @return the dn of the container, empty if it is not under the suffix, or null if the param is not set.
+     */
+    String getRootDn( String contextId, String root )
+    {
+        return getRoot( contextId, root ).name;
+    }
+
+
+    /**
+     * @param contextId is to determine what sub-tree to use.
+     * @return the dn of the tenant, i.e. the suffix or ou=contextId under it.
+     */
+    String getRootDn( String contextId )
+    {
+        return getRoot( contextId, SUFFIX ).name;
+    }
+
+
+    /**
+     * @param contextId is to determine what sub-tree to use.
+     * @param root      contains the fortress parameter name that corresponds with a particular LDAP container.
+     * @return the parsed dn of the container, empty if it is not under the suffix.
+     * @throws LdapInvalidDnException in the event the param is not set or the configured dn is invalid.
+     */
+    Dn getDn( String contextId, String root ) throws LdapInvalidDnException
+    {
+        Root entry = getRoot( contextId, root );
+        if ( entry.dn == null )
+        {
+            throw new LdapInvalidDnException( "invalid root dn [" + entry.name + "]" );
+        }
+        return entry.dn;
+    }
+
+
+    /**
+     * Parse a dn, using the parsed container if it is one, or if it is a single rdn added to one.
+     *
+     * @param name contains ldap distinguished name.
+     * @return the parsed dn.
+     * @throws LdapInvalidDnException in the event the dn is invalid.
+     */
+    Dn toDn( String name ) throws LdapInvalidDnException
+    {
+        Roots current = roots;
+        if ( current != null && name != null )
+        {
+            Dn dn = current.byName.get( name );
+            if ( dn != null )
+            {
+                return dn;
+            }
+            int comma = rdnEnd( name );
+            if ( comma > 0 )
+            {
+                Dn parent = current.byName.get( name.substring( comma + 1 ) );
+                if ( parent != null )
+                {
+                    return new Dn( new Rdn( name.substring( 0, comma ) ), parent );
+                }
+            }
+        }
+        return new Dn( name );
+    }
+
+
+    private Root getRoot( String contextId, String root )
+    {
+        ConfigSnapshot cfg = Config.getInstance().getSnapshot();
+        Roots current = roots;
+        if ( current == null || current.snapshot != cfg )
+        {
+            current = new Roots( cfg );
+            roots = current;
+        }
+        String key = ( isTenant( contextId ) ? contextId : GlobalIds.HOME ) + '\0' + root;
+        Root entry = current.byKey.get( key );
+        if ( entry == null )
+        {
+            String name = SUFFIX.equals( root ) ? buildRootDn( cfg, contextId ) : buildRootDn( cfg, contextId, root );
+            Dn dn = null;
+            if ( name != null )
+            {
+                try
+                {
+                    dn = new Dn( name );
+                    current.byName.put( name, dn );
+                }
+                catch ( LdapInvalidDnException e )
+                {
+                    // left to fail where it is used
+                }
+            }
+            entry = new Root( name, dn );
+            current.byKey.put( key, entry );
+        }
+        return entry;
+    }
+
+
+    private static String buildRootDn( ConfigSnapshot cfg, String contextId, String root )
+    {
+        String szDn = cfg.getProperty( root );
+        if ( isTenant( contextId ) )
+        {
+            int idx = szDn.indexOf( cfg.getSuffix() );
+            if ( idx > 0 )
+            {
+                // Found. The DN is ,ou=<contextId>,
+                return szDn.substring( 0, idx - 1 ) + "," + SchemaConstants.OU_AT + "=" + contextId + ","
+                    + szDn.substring( idx );
+            }
+            else
+            {
+                return "";
+            }
+        }
+        return szDn;
+    }
+
+
+    private static String buildRootDn( ConfigSnapshot cfg, String contextId )
+    {
+        if ( isTenant( contextId ) )
+        {
+            return SchemaConstants.OU_AT + "=" + contextId + "," + cfg.getSuffix();
+        }
+        return cfg.getSuffix();
+    }
+
+
+    /**
+     * The contextId must not be null, or "HOME" or "null".
+     */
+    private static boolean isTenant( String contextId )
+    {
+        return StringUtils.isNotEmpty( contextId ) && !contextId.equalsIgnoreCase( GlobalIds.NULL ) && !contextId
+            .equals( GlobalIds.HOME );
+    }
+
+
+    /**
+     * @return the index of the comma that ends the first rdn, or -1 if the rdn is quoted or multi-valued and must be parsed.
+     */
+    private static int rdnEnd( String name )
+    {
+        for ( int i = 0; i < name.length(); i++ )
+        {
+            char c = name.charAt( i );
+            if ( c == '\\' )
+            {
+                i++;
+            }
+            else if ( c == ',' )
+            {
+                return i;
+            }
+            else if ( c == '"' || c == '+' || c == ';' )
+            {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+
+    /**
+     * The containers built from one configuration snapshot.
+     */
+    private static final class Roots
+    {
+        private final ConfigSnapshot snapshot;
+        private final Map<String, Root> byKey = new ConcurrentHashMap<>();
+        private final Map<String, Dn> byName = new ConcurrentHashMap<>();
+
+
+        private Roots( ConfigSnapshot snapshot )
+        {
+            this.snapshot = snapshot;
+        }
+    }
+
+
+    private static final class Root
+    {
+        private final String name;
+        private final Dn dn;
+
+
+        private Root( String name, Dn dn )
+        {
+            this.name = name;
+            this.dn = dn;
+        }
+    }
+}
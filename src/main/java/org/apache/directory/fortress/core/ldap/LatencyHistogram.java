@@ -0,0 +1,160 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Records durations in microseconds and estimates their percentiles.  Durations under 16 microseconds are counted exactly,
+ * longer ones in buckets that split each power of two in eight, so an estimate is at most 12.5% above the true value.
+ * Recording increments two {@link LongAdder}s and does not lock.  The buckets are created on first use.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class LatencyHistogram
+{
+    private static final int EXACT = 16;
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    // 2^40 microseconds is almost 13 days, anything longer is counted in the last bucket:
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = EXACT + ( MAX_EXPONENT - 4 ) * SUB_BUCKETS + 1;
+    private final AtomicReferenceArray<LongAdder> buckets = new AtomicReferenceArray<>( BUCKETS );
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+
+    /**
+     * @param nanos duration to record, in nanoseconds.
+     */
+    void record( long nanos )
+    {
+        long micros = TimeUnit.NANOSECONDS.toMicros( Math.max( nanos, 0 ) );
+        getBucket( index( micros ) ).increment();
+        total.add( micros );
+        long current = max.get();
+        while ( micros > current && !max.compareAndSet( current, micros ) )
+        {
+            current = max.get();
+        }
+    }
+
+
+    /**
+     * Read the counts.  Recording continues while this runs, so the mean may include a few durations more than the count.
+     *
+     * @return the durations recorded so far, in microseconds.
+     */
+    LatencySnapshot snapshot()
+    {
+        long[] counts = new long[BUCKETS];
+        long n = 0;
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            LongAdder bucket = buckets.get( i );
+            if ( bucket != null )
+            {
+                counts[i] = bucket.sum();
+                n += counts[i];
+            }
+        }
+        long maximum = max.get();
+        return new LatencySnapshot( n, n > 0 ? total.sum() / n : 0, percentile( counts, n, 0.50, maximum ),
+            percentile( counts, n, 0.90, maximum ), percentile( counts, n, 0.99, maximum ), maximum );
+    }
+
+
+    private static long percentile( long[] counts, long n, double fraction, long maximum )
+    {
+        if ( n == 0 )
+        {
+            return 0;
+        }
+        long rank = ( long ) Math.ceil( n * fraction );
+        long seen = 0;
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            seen += counts[i];
+            if ( seen >= rank )
+            {
+                return Math.min( upperBound( i ), maximum );
+            }
+        }
+        return maximum;
+    }
+
+
+    private LongAdder getBucket( int index )
+    {
+        LongAdder bucket = buckets.get( index );
+        if ( bucket == null )
+        {
+            LongAdder newBucket = new LongAdder();
+            if ( buckets.compareAndSet( index, null, newBucket ) )
+            {
+                bucket = newBucket;
+            }
+            else
+            {
+                bucket = buckets.get( index );
+            }
+        }
+        return bucket;
+    }
+
+
+    private static int index( long micros )
+    {
+        if ( micros < EXACT )
+        {
+            return ( int ) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros( micros );
+        if ( exponent >= MAX_EXPONENT )
+        {
+            return BUCKETS - 1;
+        }
+        int sub = ( int ) ( micros >>> ( exponent - SUB_BITS ) ) & ( SUB_BUCKETS - 1 );
+        return EXACT + ( exponent - 4 ) * SUB_BUCKETS + sub;
+    }
+
+
+    /**
+     * @return the largest duration counted in a bucket.
+     */
+    private static long upperBound( int index )
+    {
+        if ( index < EXACT )
+        {
+            return index;
+        }
+        int exponent = ( index - EXACT ) / SUB_BUCKETS + 4;
+        int sub = ( index - EXACT ) % SUB_BUCKETS;
+        long width = 1L << ( exponent - SUB_BITS );
+        return ( 1L << exponent ) + ( sub + 1 ) * width - 1;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import java.beans.ConstructorProperties;
+
+
+/**
+ * The distribution of the durations of an ldap operation, or of waits for a pooled connection, since the process started.
+ * All durations are in microseconds.  The percentiles are estimates, at most 12.5% above the true value.  See {@link LdapMetrics}.
+ * <p>
+ * This class is immutable and thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class LatencySnapshot
+{
+    private final long count;
+    private final long mean;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+    private final long max;
+
+
+    @ConstructorProperties({ "count", "mean", "p50", "p90", "p99", "max" })
+    public LatencySnapshot( long count, long mean, long p50, long p90, long p99, long max )
+    {
+        this.count = count;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.max = max;
+    }
+
+
+    /**
+     * @return the number of durations recorded.
+     */
+    public long getCount()
+    {
+        return count;
+    }
+
+
+    /**
+     * @return the average duration.
+     */
+    public long getMean()
+    {
+        return mean;
+    }
+
+
+    /**
+     * @return the median duration.
+     */
+    public long getP50()
+    {
+        return p50;
+    }
+
+
+    /**
+     * @return the duration 90% of the others do not exceed.
+     */
+    public long getP90()
+    {
+        return p90;
+    }
+
+
+    /**
+     * @return the duration 99% of the others do not exceed.
+     */
+    public long getP99()
+    {
+        return p99;
+    }
+
+
+    /**
+     * @return the longest duration.
+     */
+    public long getMax()
+    {
+        return max;
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return "count=" + count + ", mean=" + mean + "us, p50=" + p50 + "us, p90=" + p90 + "us, p99=" + p99 + "us, max="
+            + max + "us";
+    }
+}
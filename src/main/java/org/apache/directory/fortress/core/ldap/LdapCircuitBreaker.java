@@ -0,0 +1,265 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.directory.api.ldap.model.exception.LdapServiceUnavailableException;
+import org.apache.directory.api.ldap.model.message.ResultCodeEnum;
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.util.Config;
+import org.apache.directory.ldap.client.api.LdapConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Stops sending requests to the ldap server while it is failing, so callers fail at once instead of waiting on it and the
+ * server is not kept busy while it recovers.  Used by {@link LdapConnectionProvider} for the connections to the server at
+ * 'host', the replicas are handled separately.
+ * <ul>
+ *   <li>Closed - requests are sent.  After fortress config param 'ldap.breaker.failures' consecutive failures, it opens.</li>
+ *   <li>Open - connections are refused for 'ldap.breaker.open.millis', then it is half open.</li>
+ *   <li>Half open - up to 'ldap.breaker.probes' connections are let through.  If that many are returned healthy it closes, a
+ *   failure opens it again.</li>
+ * </ul>
+ * A failure is a connection that could not be opened or borrowed, or an operation that timed out or found the server
+ * unavailable.  A success is a connection returned to the pool still connected.
+ * <p>
+ * While the breaker is not closed, the access checks answer from data read before it opened, if no older than
+ * 'ldap.breaker.stale.seconds', and mark the Session as degraded.  The breaker is off unless 'ldap.breaker.failures' is set.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class LdapCircuitBreaker
+{
+    private static final String CLS_NM = LdapCircuitBreaker.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    private final int threshold;
+    private final long openNanos;
+    private final int probes;
+    private final long staleMillis;
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicInteger probesLeft = new AtomicInteger();
+    private final AtomicInteger successes = new AtomicInteger();
+    private volatile State state = State.CLOSED;
+    private volatile long changed = System.nanoTime();
+
+    /**
+     * The states of the breaker.
+     */
+    public enum State
+    {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static volatile LdapCircuitBreaker sINSTANCE = null;
+
+    public static LdapCircuitBreaker getInstance()
+    {
+        if(sINSTANCE == null)
+        {
+            synchronized (LdapCircuitBreaker.class)
+            {
+                if(sINSTANCE == null)
+                {
+                    sINSTANCE = new LdapCircuitBreaker();
+                }
+            }
+        }
+        return sINSTANCE;
+    }
+
+    /**
+     * Private constructor
+     *
+     */
+    private LdapCircuitBreaker()
+    {
+        this( Config.getInstance().getInt( GlobalIds.LDAP_BREAKER_FAILURES, 0 ),
+            Config.getInstance().getInt( GlobalIds.LDAP_BREAKER_OPEN_MILLIS, 10000 ),
+            Config.getInstance().getInt( GlobalIds.LDAP_BREAKER_PROBES, 3 ),
+            Config.getInstance().getInt( GlobalIds.LDAP_BREAKER_STALE_SECONDS, 300 ) );
+    }
+
+
+    /**
+     * @param threshold    consecutive failures that open the breaker, 0 or less is off.
+     * @param openMillis   time it stays open before it is half open.
+     * @param probes       connections let through while half open.
+     * @param staleSeconds age of the data the checks may answer from while it is not closed.
+     */
+    LdapCircuitBreaker( int threshold, long openMillis, int probes, long staleSeconds )
+    {
+        this.threshold = threshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos( openMillis );
+        this.probes = Math.max( probes, 1 );
+        this.staleMillis = TimeUnit.SECONDS.toMillis( staleSeconds );
+    }
+
+
+    /**
+     * @return true if fortress config param 'ldap.breaker.failures' is set.
+     */
+    public boolean isEnabled()
+    {
+        return threshold > 0;
+    }
+
+
+    /**
+     * @return the current state, always closed if the breaker is off.
+     */
+    public State getState()
+    {
+        return state;
+    }
+
+
+    /**
+     * @return true if requests are sent to the server as usual.
+     */
+    public boolean isClosed()
+    {
+        return state == State.CLOSED;
+    }
+
+
+    /**
+     * @param ageMillis the milliseconds since the data was read from ldap.
+     * @return true if the data may be used while the breaker is not closed, see 'ldap.breaker.stale.seconds'.
+     */
+    public boolean isUsable( long ageMillis )
+    {
+        return ageMillis <= staleMillis;
+    }
+
+
+    /**
+     * Called before a connection is borrowed.
+     *
+     * @throws LdapServiceUnavailableException if the breaker is open, or half open and the probes are all out.
+     */
+    void acquire() throws LdapServiceUnavailableException
+    {
+        if ( state == State.CLOSED )
+        {
+            return;
+        }
+        // Half open for as long as it was open, without a verdict, means the probes never came back:
+        if ( ( state == State.OPEN || probesLeft.get() <= 0 ) && ( System.nanoTime() - changed < openNanos || !halfOpen() ) )
+        {
+            throw new LdapServiceUnavailableException( ResultCodeEnum.UNAVAILABLE, "ldap circuit " + state );
+        }
+        if ( state != State.CLOSED && probesLeft.getAndDecrement() <= 0 )
+        {
+            throw new LdapServiceUnavailableException( ResultCodeEnum.UNAVAILABLE, "ldap circuit " + state );
+        }
+    }
+
+
+    /**
+     * Called when a connection is returned to its pool.  It counts as a success if it is still connected.
+     *
+     * @param connection returned to the pool, may be null.
+     */
+    void released( LdapConnection connection )
+    {
+        if ( threshold <= 0 || connection == null || !connection.isConnected() )
+        {
+            return;
+        }
+        if ( state == State.CLOSED )
+        {
+            if ( failures.get() != 0 )
+            {
+                failures.set( 0 );
+            }
+        }
+        else if ( state == State.HALF_OPEN && successes.incrementAndGet() >= probes )
+        {
+            close();
+        }
+    }
+
+
+    /**
+     * Called when a connection could not be borrowed or the server failed an operation.
+     *
+     * @param e contains the failure.
+     */
+    void failed( Exception e )
+    {
+        if ( threshold <= 0 )
+        {
+            return;
+        }
+        if ( state == State.HALF_OPEN || ( state == State.CLOSED && failures.incrementAndGet() >= threshold ) )
+        {
+            open( e );
+        }
+    }
+
+
+    private synchronized void open( Exception e )
+    {
+        if ( state != State.OPEN )
+        {
+            LOG.warn( "ldap circuit {} to OPEN, caught {}", state, e.toString() );
+            state = State.OPEN;
+            changed = System.nanoTime();
+        }
+    }
+
+
+    private synchronized boolean halfOpen()
+    {
+        if ( state == State.CLOSED )
+        {
+            return true;
+        }
+        if ( System.nanoTime() - changed < openNanos )
+        {
+            return probesLeft.get() > 0;
+        }
+        LOG.info( "ldap circuit {} to HALF_OPEN", state );
+        successes.set( 0 );
+        probesLeft.set( probes );
+        state = State.HALF_OPEN;
+        changed = System.nanoTime();
+        return true;
+    }
+
+
+    private synchronized void close()
+    {
+        if ( state == State.HALF_OPEN )
+        {
+            LOG.info( "ldap circuit HALF_OPEN to CLOSED" );
+            failures.set( 0 );
+            state = State.CLOSED;
+            changed = System.nanoTime();
+        }
+    }
+}
@@ -20,7 +20,15 @@
 package org.apache.directory.fortress.core.ldap;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.pool.PoolableObjectFactory;
@@ -28,6 +36,7 @@ import org.apache.commons.pool.impl.GenericObjectPool;
 import org.apache.directory.api.ldap.codec.api.LdapApiService;
 import org.apache.directory.api.ldap.codec.api.LdapApiServiceFactory;
 import org.apache.directory.api.ldap.codec.standalone.StandaloneLdapApiService;
+import org.apache.directory.api.ldap.model.exception.LdapAdminLimitExceededException;
 import org.apache.directory.api.ldap.model.exception.LdapException;
 import org.apache.directory.fortress.core.CfgRuntimeException;
 import org.apache.directory.fortress.core.GlobalErrIds;
@@ -51,7 +60,23 @@ import org.slf4j.LoggerFactory;
  *
  * Each connection pool is initialized on first invocation of getInstance() which stores a reference to self used by subsequent callers.
  * <p>
- * This class is not thread safe.
+ * If read replicas are configured, see config param 'replicas', each has its own admin and user pools.  Connections taken with
+ * {@link #getAdminReadConnection()} and {@link #getUserReadConnection()} come from a healthy replica chosen round-robin, or by
+ * fewest connections in use if config param 'replica.balance' is 'least-outstanding'.  A replica that fails is ejected until a
+ * background health check reaches it again.  All other connections, and so all writes, go to the server at 'host'.
+ * <p>
+ * The pools open connections past their maximum size when all are in use, unless config param 'conn.max.wait.millis' is set,
+ * then a borrow waits that long before it fails.  Connections taken for a tenant, e.g. {@link #getAdminConnection(String)},
+ * also count against the tenant's limit, see {@link TenantBulkhead}.
+ * <p>
+ * If config param 'ldap.breaker.failures' is set, connections to 'host' are refused while it is failing, see
+ * {@link LdapCircuitBreaker}.
+ * <p>
+ * This class is thread safe.  The single instance is created under a lock by {@link #getInstance()}, and its configuration
+ * is not changed after.  The pools, the replicas and their health state, the map of connections borrowed from replicas, the
+ * tenant limits and the breaker are shared by all threads, each of them safe for concurrent use.  The health checker runs on
+ * a thread of its own.  The read-after-write pin set by {@link #markWrite()} is held by each thread for itself.
+ * {@link #closeAllConnectionPools()} must not be called while connections are still being taken.
  *
  * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
  */
@@ -78,6 +103,33 @@ public class LdapConnectionProvider
      */
     private static LdapConnectionPool userPool;
 
+    /**
+     * The read replicas, empty if none
+     */
+    private static List<LdapEndpoint> replicas = Collections.emptyList();
+
+    /**
+     * Replica of each connection borrowed from a replica pool
+     */
+    private static final ConcurrentHashMap<LdapConnection, LdapEndpoint> BORROWED = new ConcurrentHashMap<>();
+
+    /**
+     * The connections held by each tenant
+     */
+    private static TenantBulkhead tenants;
+
+    private static final LdapCircuitBreaker BREAKER = LdapCircuitBreaker.getInstance();
+
+    private static ScheduledExecutorService healthChecker;
+    private static final String LEAST_OUTSTANDING = "least-outstanding";
+    private static final String VALIDATE_IDLE = "idle";
+    private boolean leastOutstanding;
+    private boolean replicaBinds;
+    private long readPinNanos;
+    // Until when the reads of a thread that wrote go to the provider, null if not pinned:
+    private final ThreadLocal<Long> pinnedUntil = new ThreadLocal<>();
+    private final AtomicInteger next = new AtomicInteger();
+
     private static volatile LdapConnectionProvider sINSTANCE = null;
 
     /**
@@ -134,28 +186,6 @@ public class LdapConnectionProvider
 
         LOG.info( "LDAP POOL:  host=[{}], port=[{}], min=[{}], max=[{}]", host, port, min, max );
 
-        LdapConnectionConfig config = new LdapConnectionConfig();
-        config.setLdapHost( host );
-        config.setLdapPort( port );
-        config.setName( Config.getInstance().getProperty( GlobalIds.LDAP_ADMIN_POOL_UID, "" ) );
-
-        config.setUseSsl( IS_SSL );
-        //config.setTrustManagers( new NoVerificationTrustManager() );
-
-        if ( Config.getInstance().getBoolean( ENABLE_LDAP_STARTTLS, false ) )
-        {
-            config.setUseTls( true );
-        }
-
-        if ( IS_SSL && StringUtils.isNotEmpty( Config.getInstance().getProperty( GlobalIds.TRUST_STORE ) ) &&
-            StringUtils.isNotEmpty( Config.getInstance().getProperty( GlobalIds.TRUST_STORE_PW ) ) )
-        {
-            // validate certificates but allow self-signed certs if within this truststore:
-            config.setTrustManagers( new LdapClientTrustStoreManager( Config.getInstance().getProperty( GlobalIds
-                .TRUST_STORE ), Config.getInstance().getProperty( GlobalIds.TRUST_STORE_PW ).toCharArray(), null,
-                true ) );
-        }
-
         String adminPw;
         if ( EncryptUtil.isEnabled() )
         {
@@ -167,7 +197,7 @@ public class LdapConnectionProvider
             adminPw = Config.getInstance().getProperty( GlobalIds.LDAP_ADMIN_POOL_PW, true );
         }
 
-        config.setCredentials( adminPw );
+        LdapApiService ldapApiService;
         try
         {
             List<String> listExOps = new ArrayList<>();
@@ -177,13 +207,12 @@ public class LdapConnectionProvider
             listExOps.add( "org.openldap.accelerator.impl.dropRole.RbacDropRoleFactory" );
             listExOps.add( "org.openldap.accelerator.impl.deleteSession.RbacDeleteSessionFactory" );
             listExOps.add( "org.openldap.accelerator.impl.sessionRoles.RbacSessionRolesFactory" );
-            LdapApiService ldapApiService = new StandaloneLdapApiService( new ArrayList<String>(), listExOps );
+            ldapApiService = new StandaloneLdapApiService( new ArrayList<String>(), listExOps );
 
             if ( !LdapApiServiceFactory.isInitialized() )
             {
                 LdapApiServiceFactory.initialize( ldapApiService );
             }
-            config.setLdapApiService( ldapApiService );
         }
         catch ( Exception ex )
         {
@@ -191,28 +220,74 @@ public class LdapConnectionProvider
             throw new CfgRuntimeException( GlobalErrIds.FT_APACHE_LDAP_POOL_INIT_FAILED, error, ex );
         }
 
-        PoolableObjectFactory<LdapConnection> poolFactory = new ValidatingPoolableLdapConnectionFactory( config );
+        LdapConnectionConfig config = createConfig( host, port, adminPw, ldapApiService );
+        PoolableObjectFactory<LdapConnection> poolFactory = new CountingConnectionFactory( config );
 
         // Create the Admin pool
-        adminPool = new LdapConnectionPool( poolFactory );
-        adminPool.setTestOnBorrow( true );
-        adminPool.setWhenExhaustedAction( GenericObjectPool.WHEN_EXHAUSTED_GROW );
-        adminPool.setMaxActive( max );
-        adminPool.setMinIdle( min );
-        adminPool.setMaxIdle( -1 );
-        adminPool.setTestWhileIdle( testWhileIdle );
-        adminPool.setTimeBetweenEvictionRunsMillis( timeBetweenEvictionRunMillis );
-        //adminPool.setMaxWait( 0 );
+        adminPool = createPool( poolFactory, min, max, testWhileIdle, timeBetweenEvictionRunMillis );
 
         // Create the User pool
-        userPool = new LdapConnectionPool( poolFactory );
-        userPool.setTestOnBorrow( true );
-        userPool.setWhenExhaustedAction( GenericObjectPool.WHEN_EXHAUSTED_GROW );
-        userPool.setMaxActive( max );
-        userPool.setMinIdle( min );
-        userPool.setMaxIdle( -1 );
-        userPool.setTestWhileIdle( testWhileIdle );
-        userPool.setTimeBetweenEvictionRunsMillis( timeBetweenEvictionRunMillis );
+        userPool = createPool( poolFactory, min, max, testWhileIdle, timeBetweenEvictionRunMillis );
+        LdapMetrics.getInstance().addPool( "admin", adminPool );
+        LdapMetrics.getInstance().addPool( "user", userPool );
+
+        // Create the pools of the read replicas, if any:
+        List<LdapEndpoint> endpoints = new ArrayList<>();
+        for ( String replica : StringUtils.split( Config.getInstance().getProperty( GlobalIds.LDAP_REPLICAS, "" ), ", " ) )
+        {
+            String replicaHost = replica;
+            int replicaPort = port;
+            int index = replica.lastIndexOf( ':' );
+            if ( index > 0 )
+            {
+                replicaHost = replica.substring( 0, index );
+                try
+                {
+                    replicaPort = Integer.parseInt( replica.substring( index + 1 ) );
+                }
+                catch ( NumberFormatException nfe )
+                {
+                    String error = "Invalid port in " + GlobalIds.LDAP_REPLICAS + " entry [" + replica + "]";
+                    throw new CfgRuntimeException( GlobalErrIds.FT_APACHE_LDAP_POOL_INIT_FAILED, error, nfe );
+                }
+            }
+            poolFactory = new CountingConnectionFactory( createConfig( replicaHost, replicaPort, adminPw,
+                ldapApiService ) );
+            LdapEndpoint endpoint = new LdapEndpoint( replicaHost, replicaPort, createPool( poolFactory, min, max,
+                testWhileIdle, timeBetweenEvictionRunMillis ), createPool( poolFactory, min, max, testWhileIdle,
+                timeBetweenEvictionRunMillis ) );
+            endpoints.add( endpoint );
+            LdapMetrics.getInstance().addPool( "replica " + endpoint + " admin", endpoint.getPool( true ) );
+            LdapMetrics.getInstance().addPool( "replica " + endpoint + " user", endpoint.getPool( false ) );
+            LOG.info( "LDAP REPLICA POOL:  host=[{}], port=[{}], min=[{}], max=[{}]", replicaHost, replicaPort, min, max );
+        }
+        replicas = Collections.unmodifiableList( endpoints );
+        leastOutstanding = LEAST_OUTSTANDING.equalsIgnoreCase( Config.getInstance().getProperty( GlobalIds
+            .LDAP_READ_BALANCE ) );
+        readPinNanos = TimeUnit.MILLISECONDS.toNanos( Config.getInstance().getInt( GlobalIds.LDAP_READ_PIN_MILLIS, 1000 ) );
+        replicaBinds = Config.getInstance().getBoolean( GlobalIds.LDAP_REPLICA_BINDS, false );
+        int healthInterval = Config.getInstance().getInt( GlobalIds.LDAP_HEALTH_INTERVAL, 30 );
+        if ( !replicas.isEmpty() && healthInterval > 0 )
+        {
+            healthChecker = Executors.newSingleThreadScheduledExecutor( new ThreadFactory()
+            {
+                @Override
+                public Thread newThread( Runnable runnable )
+                {
+                    Thread thread = new Thread( runnable, "fortress-ldap-health" );
+                    thread.setDaemon( true );
+                    return thread;
+                }
+            } );
+            healthChecker.scheduleWithFixedDelay( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    checkReplicas();
+                }
+            }, healthInterval, healthInterval, TimeUnit.SECONDS );
+        }
 
         // This pool of access log connections is used by {@link org.apache.directory.fortress.AuditMgr}.
         // To enable, set {@code log.admin.user} && {@code log.admin.pw} inside fortress.properties file:
@@ -248,15 +323,306 @@ public class LdapConnectionProvider
                 logPw = Config.getInstance().getProperty( GlobalIds.LDAP_LOG_POOL_PW, true );
             }
             logConfig.setCredentials( logPw );
-            poolFactory = new ValidatingPoolableLdapConnectionFactory( logConfig );
+            poolFactory = new CountingConnectionFactory( logConfig );
             logPool = new LdapConnectionPool( poolFactory );
-            logPool.setTestOnBorrow( true );
-            logPool.setWhenExhaustedAction( GenericObjectPool.WHEN_EXHAUSTED_GROW );
+            setExhaustedAction( logPool );
             logPool.setMaxActive( logmax );
             logPool.setMinIdle( logmin );
-            logPool.setTestWhileIdle( logTestWhileIdle );
-            logPool.setTimeBetweenEvictionRunsMillis( logTimeBetweenEvictionRunMillis );
+            setValidation( logPool, logTestWhileIdle, logTimeBetweenEvictionRunMillis );
+            LdapMetrics.getInstance().addPool( "log", logPool );
+        }
+        tenants = new TenantBulkhead( Config.getInstance().getSnapshot() );
+        LdapMetrics.getInstance().setTenants( tenants );
+        LdapMetrics.getInstance().start();
+    }
+
+
+    /**
+     * Create the coordinates of an admin or user connection to the given server.
+     */
+    private LdapConnectionConfig createConfig( String host, int port, String adminPw, LdapApiService ldapApiService )
+    {
+        LdapConnectionConfig config = new LdapConnectionConfig();
+        config.setLdapHost( host );
+        config.setLdapPort( port );
+        config.setName( Config.getInstance().getProperty( GlobalIds.LDAP_ADMIN_POOL_UID, "" ) );
+
+        config.setUseSsl( IS_SSL );
+        //config.setTrustManagers( new NoVerificationTrustManager() );
+
+        if ( Config.getInstance().getBoolean( ENABLE_LDAP_STARTTLS, false ) )
+        {
+            config.setUseTls( true );
+        }
+
+        if ( IS_SSL && StringUtils.isNotEmpty( Config.getInstance().getProperty( GlobalIds.TRUST_STORE ) ) &&
+            StringUtils.isNotEmpty( Config.getInstance().getProperty( GlobalIds.TRUST_STORE_PW ) ) )
+        {
+            // validate certificates but allow self-signed certs if within this truststore:
+            config.setTrustManagers( new LdapClientTrustStoreManager( Config.getInstance().getProperty( GlobalIds
+                .TRUST_STORE ), Config.getInstance().getProperty( GlobalIds.TRUST_STORE_PW ).toCharArray(), null,
+                true ) );
+        }
+
+        config.setCredentials( adminPw );
+        config.setLdapApiService( ldapApiService );
+        return config;
+    }
+
+
+    private LdapConnectionPool createPool( PoolableObjectFactory<LdapConnection> poolFactory, int min, int max,
+        boolean testWhileIdle, int timeBetweenEvictionRunMillis )
+    {
+        LdapConnectionPool pool = new LdapConnectionPool( poolFactory );
+        setExhaustedAction( pool );
+        pool.setMaxActive( max );
+        pool.setMinIdle( min );
+        pool.setMaxIdle( -1 );
+        setValidation( pool, testWhileIdle, timeBetweenEvictionRunMillis );
+        return pool;
+    }
+
+
+    /**
+     * Once the maximum connections are in use, open more unless config param 'conn.max.wait.millis' is set, then wait that
+     * long for one to be returned.
+     */
+    private void setExhaustedAction( LdapConnectionPool pool )
+    {
+        int maxWait = Config.getInstance().getInt( GlobalIds.LDAP_POOL_MAX_WAIT_MILLIS, 0 );
+        if ( maxWait > 0 )
+        {
+            pool.setWhenExhaustedAction( GenericObjectPool.WHEN_EXHAUSTED_BLOCK );
+            pool.setMaxWait( maxWait );
+        }
+        else
+        {
+            pool.setWhenExhaustedAction( GenericObjectPool.WHEN_EXHAUSTED_GROW );
+        }
+    }
+
+
+    /**
+     * Connections are validated on every checkout unless config param 'conn.validation' is 'idle'.  Then the checkout is a
+     * plain borrow, the idle connections are all validated in the background every 'conn.validation.idle.millis', and a
+     * connection found closed while in use is reopened and the operation retried once, see {@link LdapDataProvider}.
+     */
+    private void setValidation( LdapConnectionPool pool, boolean testWhileIdle, int timeBetweenEvictionRunMillis )
+    {
+        if ( VALIDATE_IDLE.equalsIgnoreCase( Config.getInstance().getProperty( GlobalIds.LDAP_VALIDATION ) ) )
+        {
+            pool.setTestOnBorrow( false );
+            pool.setTestWhileIdle( true );
+            pool.setTimeBetweenEvictionRunsMillis( Config.getInstance().getInt( GlobalIds.LDAP_VALIDATION_IDLE_MILLIS,
+                30000 ) );
+            // test every idle connection on each run:
+            pool.setNumTestsPerEvictionRun( -1 );
+        }
+        else
+        {
+            pool.setTestOnBorrow( true );
+            pool.setTestWhileIdle( testWhileIdle );
+            pool.setTimeBetweenEvictionRunsMillis( timeBetweenEvictionRunMillis );
+        }
+    }
+
+
+    /**
+     * Choose the replica to read from.
+     *
+     * @return healthy replica, or null if reads should go to the provider.
+     */
+    private LdapEndpoint selectReplica()
+    {
+        List<LdapEndpoint> endpoints = replicas;
+        if ( endpoints.isEmpty() || isPinned() )
+        {
+            return null;
+        }
+        int size = endpoints.size();
+        int start = Math.abs( next.getAndIncrement() % size );
+        LdapEndpoint selected = null;
+        for ( int i = 0; i < size; i++ )
+        {
+            LdapEndpoint endpoint = endpoints.get( ( start + i ) % size );
+            if ( endpoint.isHealthy() )
+            {
+                if ( !leastOutstanding )
+                {
+                    return endpoint;
+                }
+                if ( selected == null || endpoint.getOutstanding() < selected.getOutstanding() )
+                {
+                    selected = endpoint;
+                }
+            }
+        }
+        return selected;
+    }
+
+
+    /**
+     * Borrow a connection from a replica, falling back to the provider pool if none is available.
+     */
+    private LdapConnection getReadConnection( boolean isAdmin ) throws LdapException
+    {
+        LdapEndpoint endpoint = selectReplica();
+        if ( endpoint != null )
+        {
+            try
+            {
+                LdapConnection connection = borrow( endpoint.getPool( isAdmin ) );
+                endpoint.borrowed();
+                BORROWED.put( connection, endpoint );
+                return connection;
+            }
+            catch ( LdapAdminLimitExceededException e )
+            {
+                // the replica is busy, not broken:
+                throw e;
+            }
+            catch ( Exception e )
+            {
+                eject( endpoint, e );
+            }
+        }
+        return isAdmin ? getAdminConnection() : getUserConnection();
+    }
+
+
+    /**
+     * Borrow a connection from a pool, recording the wait and whether the pool was exhausted, see {@link LdapMetrics}.
+     *
+     * @throws LdapAdminLimitExceededException if the pool waits when exhausted and none was returned in time.
+     */
+    private LdapConnection borrow( LdapConnectionPool pool ) throws LdapException
+    {
+        boolean exhausted = pool.getMaxActive() > 0 && pool.getNumActive() >= pool.getMaxActive();
+        long start = System.nanoTime();
+        try
+        {
+            return pool.getConnection();
+        }
+        catch ( RuntimeException re )
+        {
+            // the pool wraps its timeout:
+            if ( re.getCause() instanceof NoSuchElementException )
+            {
+                throw new LdapAdminLimitExceededException( "borrow timed out, all " + pool.getMaxActive()
+                    + " connections in use" );
+            }
+            throw re;
+        }
+        finally
+        {
+            LdapMetrics.getInstance().recordBorrow( pool, start, exhausted );
+        }
+    }
+
+
+    /**
+     * Borrow a connection from a pool of the server at 'host', unless the circuit breaker is open.
+     */
+    private LdapConnection borrowProvider( LdapConnectionPool pool ) throws LdapException
+    {
+        BREAKER.acquire();
+        try
+        {
+            return borrow( pool );
+        }
+        catch ( LdapException | RuntimeException e )
+        {
+            BREAKER.failed( e );
+            throw e;
+        }
+    }
+
+
+    /**
+     * Return a connection to the pool it was borrowed from.
+     */
+    private void release( LdapConnectionPool pool, LdapConnection connection, boolean isAdmin ) throws Exception
+    {
+        LdapEndpoint endpoint = connection != null && !replicas.isEmpty() ? BORROWED.remove( connection ) : null;
+        if ( endpoint != null )
+        {
+            endpoint.released();
+            endpoint.getPool( isAdmin ).releaseConnection( connection );
+        }
+        else
+        {
+            BREAKER.released( connection );
+            pool.releaseConnection( connection );
+        }
+    }
+
+
+    private void eject( LdapEndpoint endpoint, Exception e )
+    {
+        if ( endpoint.setHealthy( false ) )
+        {
+            LOG.warn( "LDAP REPLICA [{}] ejected, caught {}", endpoint, e.toString() );
+        }
+        // drop the idle connections, they are likely broken:
+        endpoint.getPool( true ).clear();
+        endpoint.getPool( false ).clear();
+    }
+
+
+    /**
+     * Connect to every replica, ejecting those that fail and readmitting those that succeed.
+     */
+    private void checkReplicas()
+    {
+        for ( LdapEndpoint endpoint : replicas )
+        {
+            try
+            {
+                LdapConnectionPool pool = endpoint.getPool( true );
+                pool.releaseConnection( pool.getConnection() );
+                if ( endpoint.setHealthy( true ) )
+                {
+                    LOG.info( "LDAP REPLICA [{}] readmitted", endpoint );
+                }
+            }
+            catch ( Exception e )
+            {
+                eject( endpoint, e );
+            }
+        }
+    }
+
+
+    /**
+     * Called after an entry has been changed.  For the number of milliseconds in config param 'replica.read.pin.millis', the
+     * reads that follow on the same thread go to the provider, so they see the change before it has reached the replicas.
+     * Reads on other threads, i.e. of other requests, keep using the replicas.
+     */
+    public void markWrite()
+    {
+        if ( readPinNanos > 0 && !replicas.isEmpty() )
+        {
+            pinnedUntil.set( System.nanoTime() + readPinNanos );
+        }
+    }
+
+
+    /**
+     * @return true if the current thread wrote within 'replica.read.pin.millis'.
+     */
+    private boolean isPinned()
+    {
+        Long until = pinnedUntil.get();
+        if ( until == null )
+        {
+            return false;
         }
+        if ( System.nanoTime() - until < 0 )
+        {
+            return true;
+        }
+        pinnedUntil.remove();
+        return false;
     }
 
 
@@ -267,9 +633,10 @@ public class LdapConnectionProvider
      */
     public void closeAdminConnection(LdapConnection connection)
     {
+        tenants.release( connection );
         try
         {
-            adminPool.releaseConnection( connection );
+            release( adminPool, connection, true );
         }
         catch ( Exception e )
         {
@@ -285,8 +652,10 @@ public class LdapConnectionProvider
      */
     public void closeLogConnection(LdapConnection connection)
     {
+        tenants.release( connection );
         try
         {
+            BREAKER.released( connection );
             logPool.releaseConnection( connection );
         }
         catch ( Exception e )
@@ -303,9 +672,10 @@ public class LdapConnectionProvider
      */
     public void closeUserConnection(LdapConnection connection)
     {
+        tenants.release( connection );
         try
         {
-            userPool.releaseConnection( connection );
+            release( userPool, connection, false );
         }
         catch ( Exception e )
         {
@@ -324,7 +694,7 @@ public class LdapConnectionProvider
     {
         try
         {
-            return adminPool.getConnection();
+            return borrowProvider( adminPool );
         }
         catch ( Exception e )
         {
@@ -333,6 +703,66 @@ public class LdapConnectionProvider
     }
 
 
+    /**
+     * Get an Admin connection to the LDAP server, counted against the limit of the tenant, see {@link TenantBulkhead}.
+     *
+     * @param contextId contains the id of the tenant.
+     * @return ldap connection.
+     * @throws LdapException If we had an issue getting an LDAP connection, or the tenant holds its maximum.
+     */
+    public LdapConnection getAdminConnection( String contextId ) throws LdapException
+    {
+        TenantBulkhead.Budget budget = tenants.acquire( contextId );
+        LdapConnection connection = null;
+        try
+        {
+            connection = getAdminConnection();
+            return connection;
+        }
+        finally
+        {
+            tenants.charge( budget, connection );
+        }
+    }
+
+
+    /**
+     * Get an Admin connection for reading.  It is taken from a replica if any are configured, see config param 'replicas',
+     * and must be closed with {@link #closeAdminConnection(LdapConnection)}.
+     *
+     * @return ldap connection.
+     * @throws LdapException If we had an issue getting an LDAP connection
+     */
+    public LdapConnection getAdminReadConnection() throws LdapException
+    {
+        return getReadConnection( true );
+    }
+
+
+    /**
+     * Get an Admin connection for reading as {@link #getAdminReadConnection()} does, counted against the limit of the tenant, see
+     * {@link TenantBulkhead}.
+     *
+     * @param contextId contains the id of the tenant.
+     * @return ldap connection.
+     * @throws LdapException If we had an issue getting an LDAP connection, or the tenant holds its maximum.
+     */
+    public LdapConnection getAdminReadConnection( String contextId ) throws LdapException
+    {
+        TenantBulkhead.Budget budget = tenants.acquire( contextId );
+        LdapConnection connection = null;
+        try
+        {
+            connection = getAdminReadConnection();
+            return connection;
+        }
+        finally
+        {
+            tenants.charge( budget, connection );
+        }
+    }
+
+
     /**
      * Calls the PoolMgr to get an Log connection to the LDAP server.
      *
@@ -343,7 +773,7 @@ public class LdapConnectionProvider
     {
         try
         {
-            return logPool.getConnection();
+            return borrowProvider( logPool );
         }
         catch ( Exception e )
         {
@@ -352,6 +782,29 @@ public class LdapConnectionProvider
     }
 
 
+    /**
+     * Get a Log connection to the LDAP server, counted against the limit of the tenant, see {@link TenantBulkhead}.
+     *
+     * @param contextId contains the id of the tenant.
+     * @return ldap connection.
+     * @throws LdapException If we had an issue getting an LDAP connection, or the tenant holds its maximum.
+     */
+    public LdapConnection getLogConnection( String contextId ) throws LdapException
+    {
+        TenantBulkhead.Budget budget = tenants.acquire( contextId );
+        LdapConnection connection = null;
+        try
+        {
+            connection = getLogConnection();
+            return connection;
+        }
+        finally
+        {
+            tenants.charge( budget, connection );
+        }
+    }
+
+
     /**
      * Calls the PoolMgr to get an User connection to the LDAP server.
      *
@@ -362,7 +815,7 @@ public class LdapConnectionProvider
     {
         try
         {
-            return userPool.getConnection();
+            return borrowProvider( userPool );
         }
         catch ( Exception e )
         {
@@ -370,6 +823,66 @@ public class LdapConnectionProvider
         }
     }
 
+
+    /**
+     * Get a User connection to the LDAP server, counted against the limit of the tenant, see {@link TenantBulkhead}.
+     *
+     * @param contextId contains the id of the tenant.
+     * @return ldap connection.
+     * @throws LdapException If we had an issue getting an LDAP connection, or the tenant holds its maximum.
+     */
+    public LdapConnection getUserConnection( String contextId ) throws LdapException
+    {
+        TenantBulkhead.Budget budget = tenants.acquire( contextId );
+        LdapConnection connection = null;
+        try
+        {
+            connection = getUserConnection();
+            return connection;
+        }
+        finally
+        {
+            tenants.charge( budget, connection );
+        }
+    }
+
+    /**
+     * Get a User connection for authentication, to be closed with {@link #closeUserConnection(LdapConnection)}.  It is taken
+     * from the provider, as password policy state, e.g. pwdFailureTime and pwdAccountLockedTime, is written where the bind
+     * happens.  Only if config param 'replica.binds' is true is it taken from a replica, see config param 'replicas'.
+     *
+     * @return ldap connection.
+     * @throws LdapException If we had an issue getting an LDAP connection
+     */
+    public LdapConnection getUserReadConnection() throws LdapException
+    {
+        return replicaBinds ? getReadConnection( false ) : getUserConnection();
+    }
+
+
+    /**
+     * Get a User connection for authentication as {@link #getUserReadConnection()} does, counted against the limit of the tenant, see
+     * {@link TenantBulkhead}.
+     *
+     * @param contextId contains the id of the tenant.
+     * @return ldap connection.
+     * @throws LdapException If we had an issue getting an LDAP connection, or the tenant holds its maximum.
+     */
+    public LdapConnection getUserReadConnection( String contextId ) throws LdapException
+    {
+        TenantBulkhead.Budget budget = tenants.acquire( contextId );
+        LdapConnection connection = null;
+        try
+        {
+            connection = getUserReadConnection();
+            return connection;
+        }
+        finally
+        {
+            tenants.charge( budget, connection );
+        }
+    }
+
     /**
      * Closes all the ldap connection pools.
      */
@@ -395,6 +908,17 @@ public class LdapConnectionProvider
             LOG.warn( "Error closing user pool: " + e );
         }
 
+        if ( healthChecker != null )
+        {
+            healthChecker.shutdownNow();
+        }
+
+        for ( LdapEndpoint endpoint : replicas )
+        {
+            LOG.info( "Closing replica pools [{}]", endpoint );
+            endpoint.close();
+        }
+
         try
         {
             LOG.info( "Closing log pool" );
@@ -404,5 +928,32 @@ public class LdapConnectionProvider
         {
             LOG.warn( "Error closing log pool: " + e );
         }
+
+        LdapMetrics.getInstance().clearPools();
+        LdapMetrics.getInstance().setTenants( null );
+        LdapMetrics.getInstance().stop();
+    }
+
+
+    /**
+     * Counts the pooled connections that fail validation, see {@link LdapCounters#getValidationFail()}.
+     */
+    private static final class CountingConnectionFactory extends ValidatingPoolableLdapConnectionFactory
+    {
+        private CountingConnectionFactory( LdapConnectionConfig config )
+        {
+            super( config );
+        }
+
+        @Override
+        public boolean validateObject( LdapConnection connection )
+        {
+            boolean isValid = super.validateObject( connection );
+            if ( !isValid )
+            {
+                LdapDataProvider.getLdapCounters().incrementValidationFail();
+            }
+            return isValid;
+        }
     }
-}
\ No newline at end of file
+}
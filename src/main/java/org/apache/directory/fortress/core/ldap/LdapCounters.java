@@ -20,22 +20,25 @@
 package org.apache.directory.fortress.core.ldap;
 
 
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 
 /**
- * This class handles simple counters that correspond to ldap operations.
+ * This class handles simple counters that correspond to ldap operations.  The latency of the operations is kept by
+ * {@link LdapMetrics}.
  *
  */
 public class LdapCounters
 {
-    private AtomicInteger readCtr = new AtomicInteger( 0 );
-    private AtomicInteger searchCtr = new AtomicInteger( 0 );
-    private AtomicInteger compareCtr = new AtomicInteger( 0 );
-    private AtomicInteger addCtr = new AtomicInteger( 0 );
-    private AtomicInteger modCtr = new AtomicInteger( 0 );
-    private AtomicInteger deleteCtr = new AtomicInteger( 0 );
-    private AtomicInteger bindCtr = new AtomicInteger( 0 );
+    private final LongAdder readCtr = new LongAdder();
+    private final LongAdder searchCtr = new LongAdder();
+    private final LongAdder compareCtr = new LongAdder();
+    private final LongAdder addCtr = new LongAdder();
+    private final LongAdder modCtr = new LongAdder();
+    private final LongAdder deleteCtr = new LongAdder();
+    private final LongAdder bindCtr = new LongAdder();
+    private final LongAdder retryCtr = new LongAdder();
+    private final LongAdder validationFailCtr = new LongAdder();
 
 
     /**
@@ -43,7 +46,7 @@ public class LdapCounters
      */
     public void incrementSearch()
     {
-        searchCtr.incrementAndGet();
+        searchCtr.increment();
     }
 
 
@@ -52,7 +55,7 @@ public class LdapCounters
      */
     public void incrementRead()
     {
-        readCtr.incrementAndGet();
+        readCtr.increment();
     }
 
 
@@ -61,7 +64,7 @@ public class LdapCounters
      */
     public void incrementCompare()
     {
-        compareCtr.incrementAndGet();
+        compareCtr.increment();
     }
 
 
@@ -70,7 +73,7 @@ public class LdapCounters
      */
     public void incrementAdd()
     {
-        addCtr.incrementAndGet();
+        addCtr.increment();
     }
 
 
@@ -79,7 +82,7 @@ public class LdapCounters
      */
     public void incrementMod()
     {
-        modCtr.incrementAndGet();
+        modCtr.increment();
     }
 
 
@@ -88,7 +91,7 @@ public class LdapCounters
      */
     public void incrementDelete()
     {
-        deleteCtr.incrementAndGet();
+        deleteCtr.increment();
     }
 
     /**
@@ -97,7 +100,25 @@ public class LdapCounters
 
     public void incrementBind()
     {
-        bindCtr.incrementAndGet();
+        bindCtr.increment();
+    }
+
+
+    /**
+     *  Increment the retry counter, operations repeated after their connection was found closed.
+     */
+    public void incrementRetry()
+    {
+        retryCtr.increment();
+    }
+
+
+    /**
+     *  Increment the validation failure counter, pooled connections found broken and discarded.
+     */
+    public void incrementValidationFail()
+    {
+        validationFailCtr.increment();
     }
 
 
@@ -107,7 +128,7 @@ public class LdapCounters
      */
     public long getSearch()
     {
-        return searchCtr.intValue();
+        return searchCtr.sum();
     }
 
 
@@ -117,7 +138,7 @@ public class LdapCounters
      */
     public long getRead()
     {
-        return readCtr.intValue();
+        return readCtr.sum();
     }
 
 
@@ -127,7 +148,7 @@ public class LdapCounters
      */
     public long getCompare()
     {
-        return compareCtr.intValue();
+        return compareCtr.sum();
     }
 
 
@@ -137,7 +158,7 @@ public class LdapCounters
      */
     public long getAdd()
     {
-        return addCtr.intValue();
+        return addCtr.sum();
     }
 
 
@@ -147,7 +168,7 @@ public class LdapCounters
      */
     public long getMod()
     {
-        return modCtr.intValue();
+        return modCtr.sum();
     }
 
 
@@ -157,7 +178,7 @@ public class LdapCounters
      */
     public long getDelete()
     {
-        return deleteCtr.intValue();
+        return deleteCtr.sum();
     }
 
 
@@ -167,6 +188,26 @@ public class LdapCounters
      */
     public long getBind()
     {
-        return bindCtr.intValue();
+        return bindCtr.sum();
+    }
+
+
+    /**
+     * Return the retry counter.
+     * @return long containing retry.
+     */
+    public long getRetry()
+    {
+        return retryCtr.sum();
+    }
+
+
+    /**
+     * Return the validation failure counter.
+     * @return long containing validation failures.
+     */
+    public long getValidationFail()
+    {
+        return validationFailCtr.sum();
     }
-}
\ No newline at end of file
+}
@@ -24,10 +24,25 @@ import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Properties;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.directory.api.ldap.extras.controls.ppolicy.PasswordPolicy;
@@ -47,6 +62,7 @@ import org.apache.directory.api.ldap.model.exception.LdapException;
 import org.apache.directory.api.ldap.model.exception.LdapInvalidAttributeValueException;
 import org.apache.directory.api.ldap.model.exception.LdapInvalidDnException;
 import org.apache.directory.api.ldap.model.exception.LdapOperationErrorException;
+import org.apache.directory.api.ldap.model.exception.LdapServiceUnavailableException;
 import org.apache.directory.api.ldap.model.message.BindRequest;
 import org.apache.directory.api.ldap.model.message.BindRequestImpl;
 import org.apache.directory.api.ldap.model.message.BindResponse;
@@ -58,10 +74,14 @@ import org.apache.directory.api.ldap.model.message.Response;
 import org.apache.directory.api.ldap.model.message.ResultCodeEnum;
 import org.apache.directory.api.ldap.model.message.SearchRequest;
 import org.apache.directory.api.ldap.model.message.SearchRequestImpl;
+import org.apache.directory.api.ldap.model.message.SearchResultDone;
+import org.apache.directory.api.ldap.model.message.SearchResultEntry;
 import org.apache.directory.api.ldap.model.message.SearchScope;
 import org.apache.directory.api.ldap.model.message.controls.ProxiedAuthz;
 import org.apache.directory.api.ldap.model.message.controls.ProxiedAuthzImpl;
 import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.api.ldap.model.name.Rdn;
+import org.apache.directory.fortress.core.FinderRuntimeException;
 import org.apache.directory.fortress.core.GlobalIds;
 import org.apache.directory.fortress.core.model.Constraint;
 import org.apache.directory.fortress.core.model.ConstraintUtil;
@@ -70,7 +90,16 @@ import org.apache.directory.fortress.core.model.Hier;
 import org.apache.directory.fortress.core.model.Relationship;
 import org.apache.directory.fortress.core.util.Config;
 import org.apache.directory.fortress.core.util.LdapUtil;
+import org.apache.directory.ldap.client.api.LdapAsyncConnection;
 import org.apache.directory.ldap.client.api.LdapConnection;
+import org.apache.directory.ldap.client.api.Wrapper;
+import org.apache.directory.ldap.client.api.exception.InvalidConnectionException;
+import org.apache.directory.ldap.client.api.exception.LdapConnectionTimeOutException;
+import org.apache.directory.ldap.client.api.future.CompareFuture;
+import org.apache.directory.ldap.client.api.future.ResponseFuture;
+import org.apache.directory.ldap.client.api.future.SearchFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 
 /**
@@ -87,10 +116,17 @@ public abstract class LdapDataProvider
 {
     // Logging
     private static final String CLS_NM = LdapDataProvider.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
     private static final int MAX_DEPTH = 100;
     private static final LdapCounters COUNTERS = new LdapCounters();
+    private static final LdapMetrics METRICS = LdapMetrics.getInstance();
     private static final PasswordPolicy PP_REQ_CTRL = new PasswordPolicyImpl();
 
+    /**
+     * Waits on the responses to asynchronous operations and completes their futures, see {@link #getAsync()}.
+     */
+    private static volatile ExecutorService async = null;
+
     /**
      * Given a contextId and a fortress param name return the LDAP dn.
      *
@@ -100,32 +136,7 @@ public abstract class LdapDataProvider
      */
     protected static String getRootDn( String contextId, String root )
     {
-        String szDn = Config.getInstance().getProperty( root );
-
-        // The contextId must not be null, or "HOME" or "null"
-        if ( StringUtils.isNotEmpty( contextId ) && !contextId.equalsIgnoreCase( GlobalIds.NULL ) && !contextId
-            .equals( GlobalIds.HOME ) )
-        {
-            int idx = szDn.indexOf( Config.getInstance().getProperty( GlobalIds.SUFFIX ) );
-            if ( idx > 0 )
-            {
-                // Found. The DN is ,ou=<contextId>,
-                StringBuilder dn = new StringBuilder();
-                dn.append( szDn.substring( 0, idx - 1 ) ).append( "," ).append( SchemaConstants.OU_AT ).append( "=" )
-                    .append(
-                        contextId ).append( "," ).append( szDn.substring( idx ) );
-
-                return dn.toString();
-            }
-            else
-            {
-                return "";
-            }
-        }
-        else
-        {
-            return szDn;
-        }
+        return DnCache.getInstance().getRootDn( contextId, root );
     }
 
     /**
@@ -136,18 +147,49 @@ public abstract class LdapDataProvider
      */
     protected String getRootDn( String contextId )
     {
-        StringBuilder dn = new StringBuilder();
-        if ( StringUtils.isNotEmpty( contextId ) && !contextId.equalsIgnoreCase( GlobalIds.NULL ) && !contextId
-            .equals( GlobalIds.HOME ) )
-        {
-            dn.append( SchemaConstants.OU_AT ).append( "=" ).append( contextId ).append( "," +
-                "" ).append( Config.getInstance().getProperty( GlobalIds.SUFFIX ) );
-        }
-        else
-        {
-            dn.append( Config.getInstance().getProperty( GlobalIds.SUFFIX ) );
-        }
-        return dn.toString();
+        return DnCache.getInstance().getRootDn( contextId );
+    }
+
+
+    /**
+     * Given a contextId and a fortress param name return the parsed LDAP dn.  It is parsed once per tenant and configuration.
+     *
+     * @param contextId is to determine what sub-tree to use.
+     * @param root      contains the fortress parameter name that corresponds with a particular LDAP container.
+     * @return Dn of the container.
+     * @throws LdapInvalidDnException in the event the parameter is not set or is not a valid dn.
+     */
+    protected static Dn getRoot( String contextId, String root ) throws LdapInvalidDnException
+    {
+        return DnCache.getInstance().getDn( contextId, root );
+    }
+
+
+    /**
+     * Add an rdn to a parsed dn, the value is escaped and the parent is not parsed again.
+     *
+     * @param parent contains the parsed dn of the container, see {@link #getRoot(String, String)}.
+     * @param type   contains the name of the naming attribute, e.g. uid.
+     * @param value  contains its unescaped value.
+     * @return Dn of the child entry.
+     * @throws LdapInvalidDnException in the event the type or value are invalid.
+     */
+    protected static Dn getChildDn( Dn parent, String type, String value ) throws LdapInvalidDnException
+    {
+        return new Dn( new Rdn( type, value ), parent );
+    }
+
+
+    /**
+     * Parse a dn, without parsing again a container of {@link #getRootDn(String, String)} it ends with.
+     *
+     * @param dn contains ldap distinguished name.
+     * @return Dn parsed.
+     * @throws LdapInvalidDnException in the event the dn is invalid.
+     */
+    protected static Dn toDn( String dn ) throws LdapInvalidDnException
+    {
+        return DnCache.getInstance().toDn( dn );
     }
 
 
@@ -162,9 +204,7 @@ public abstract class LdapDataProvider
      */
     protected Entry read( LdapConnection connection, String dn, String[] attrs ) throws LdapException
     {
-        COUNTERS.incrementRead();
-
-        return connection.lookup( dn, attrs );
+        return read( connection, toDn( dn ), attrs );
     }
 
 
@@ -181,7 +221,20 @@ public abstract class LdapDataProvider
     {
         COUNTERS.incrementRead();
 
-        return connection.lookup( dn, attrs );
+        long start = System.nanoTime();
+        try
+        {
+            return connection.lookup( dn, attrs );
+        }
+        catch ( LdapException e )
+        {
+            reconnect( connection, e, true );
+            return connection.lookup( dn, attrs );
+        }
+        finally
+        {
+            METRICS.record( LdapMetrics.Operation.READ, getClass(), start );
+        }
     }
 
 
@@ -202,7 +255,21 @@ public abstract class LdapDataProvider
     {
         COUNTERS.incrementRead();
 
-        return connection.lookup( dn, attrs );
+        Dn name = toDn( dn );
+        long start = System.nanoTime();
+        try
+        {
+            return connection.lookup( name, attrs );
+        }
+        catch ( LdapException e )
+        {
+            reconnect( connection, e, true );
+            return connection.lookup( name, attrs );
+        }
+        finally
+        {
+            METRICS.record( LdapMetrics.Operation.READ, getClass(), start );
+        }
     }
 
 
@@ -216,7 +283,21 @@ public abstract class LdapDataProvider
     protected void add( LdapConnection connection, Entry entry ) throws LdapException
     {
         COUNTERS.incrementAdd();
-        connection.add( entry );
+        long start = System.nanoTime();
+        try
+        {
+            connection.add( entry );
+        }
+        catch ( LdapException e )
+        {
+            reconnect( connection, e, false );
+            connection.add( entry );
+        }
+        finally
+        {
+            METRICS.record( LdapMetrics.Operation.ADD, getClass(), start );
+        }
+        LdapConnectionProvider.getInstance().markWrite();
     }
 
 
@@ -250,7 +331,21 @@ public abstract class LdapDataProvider
             }
         }
 
-        connection.add( entry );
+        long start = System.nanoTime();
+        try
+        {
+            connection.add( entry );
+        }
+        catch ( LdapException e )
+        {
+            reconnect( connection, e, false );
+            connection.add( entry );
+        }
+        finally
+        {
+            METRICS.record( LdapMetrics.Operation.ADD, getClass(), start );
+        }
+        LdapConnectionProvider.getInstance().markWrite();
     }
 
 
@@ -264,8 +359,7 @@ public abstract class LdapDataProvider
      */
     protected void modify( LdapConnection connection, String dn, List<Modification> mods ) throws LdapException
     {
-        COUNTERS.incrementMod();
-        connection.modify( dn, mods.toArray( new Modification[]{} ) );
+        modify( connection, toDn( dn ), mods );
     }
 
 
@@ -280,8 +374,21 @@ public abstract class LdapDataProvider
     protected void modify( LdapConnection connection, Dn dn, List<Modification> mods ) throws LdapException
     {
         COUNTERS.incrementMod();
-        connection.modify( dn, mods.toArray( new Modification[]
-            {} ) );
+        long start = System.nanoTime();
+        try
+        {
+            connection.modify( dn, mods.toArray( new Modification[]{} ) );
+        }
+        catch ( LdapException e )
+        {
+            reconnect( connection, e, false );
+            connection.modify( dn, mods.toArray( new Modification[]{} ) );
+        }
+        finally
+        {
+            METRICS.record( LdapMetrics.Operation.MOD, getClass(), start );
+        }
+        LdapConnectionProvider.getInstance().markWrite();
     }
 
 
@@ -297,10 +404,7 @@ public abstract class LdapDataProvider
     protected void modify( LdapConnection connection, String dn, List<Modification> mods,
         FortEntity entity ) throws LdapException
     {
-        COUNTERS.incrementMod();
-        audit( mods, entity );
-        connection.modify( dn, mods.toArray( new Modification[]
-            {} ) );
+        modify( connection, toDn( dn ), mods, entity );
     }
 
 
@@ -318,8 +422,21 @@ public abstract class LdapDataProvider
     {
         COUNTERS.incrementMod();
         audit( mods, entity );
-        connection.modify( dn, mods.toArray( new Modification[]
-            {} ) );
+        long start = System.nanoTime();
+        try
+        {
+            connection.modify( dn, mods.toArray( new Modification[]{} ) );
+        }
+        catch ( LdapException e )
+        {
+            reconnect( connection, e, false );
+            connection.modify( dn, mods.toArray( new Modification[]{} ) );
+        }
+        finally
+        {
+            METRICS.record( LdapMetrics.Operation.MOD, getClass(), start );
+        }
+        LdapConnectionProvider.getInstance().markWrite();
     }
 
 
@@ -333,7 +450,22 @@ public abstract class LdapDataProvider
     protected void delete( LdapConnection connection, String dn ) throws LdapException
     {
         COUNTERS.incrementDelete();
-        connection.delete( dn );
+        Dn name = toDn( dn );
+        long start = System.nanoTime();
+        try
+        {
+            connection.delete( name );
+        }
+        catch ( LdapException e )
+        {
+            reconnect( connection, e, false );
+            connection.delete( name );
+        }
+        finally
+        {
+            METRICS.record( LdapMetrics.Operation.DELETE, getClass(), start );
+        }
+        LdapConnectionProvider.getInstance().markWrite();
     }
 
 
@@ -349,16 +481,7 @@ public abstract class LdapDataProvider
      */
     protected void delete( LdapConnection connection, String dn, FortEntity entity ) throws LdapException
     {
-        COUNTERS.incrementDelete();
-        List<Modification> mods = new ArrayList<Modification>();
-        audit( mods, entity );
-
-        if ( mods.size() > 0 )
-        {
-            modify( connection, dn, mods );
-        }
-
-        connection.delete( dn );
+        delete( connection, toDn( dn ), entity );
     }
 
 
@@ -383,7 +506,21 @@ public abstract class LdapDataProvider
             modify( connection, dn, mods );
         }
 
-        connection.delete( dn );
+        long start = System.nanoTime();
+        try
+        {
+            connection.delete( dn );
+        }
+        catch ( LdapException e )
+        {
+            reconnect( connection, e, false );
+            connection.delete( dn );
+        }
+        finally
+        {
+            METRICS.record( LdapMetrics.Operation.DELETE, getClass(), start );
+        }
+        LdapConnectionProvider.getInstance().markWrite();
     }
 
 
@@ -484,6 +621,55 @@ public abstract class LdapDataProvider
     }
 
 
+    /**
+     * Called when an operation fails.  If the cause is a connection that was found closed, e.g. the server dropped it
+     * while it sat idle in the pool, it is reopened and bound so the caller may retry the operation once.  Otherwise the
+     * failure is rethrown.  A timeout, an unavailable server or a failed reopen is reported to {@link LdapCircuitBreaker}.
+     *
+     * @param connection   handle to ldap connection.
+     * @param e            contains the failure.
+     * @param isIdempotent if false, i.e. a write, only retry if the request was never sent.
+     * @throws LdapException the original failure if the operation must not be retried, or the connection could not be reopened.
+     */
+    private void reconnect( LdapConnection connection, LdapException e, boolean isIdempotent ) throws LdapException
+    {
+        if ( !( e instanceof InvalidConnectionException ) && ( !isIdempotent || connection.isConnected() ) )
+        {
+            if ( e instanceof LdapConnectionTimeOutException || e instanceof LdapServiceUnavailableException )
+            {
+                LdapCircuitBreaker.getInstance().failed( e );
+                // a late response must not be read by the next borrower, and a closed connection is not counted a success:
+                try
+                {
+                    connection.close();
+                }
+                catch ( IOException ioe )
+                {
+                    LOG.debug( "reconnect caught IOException={}", ioe.getMessage() );
+                }
+            }
+            throw e;
+        }
+        COUNTERS.incrementRetry();
+        LOG.info( "reconnect after {}", e.toString() );
+        try
+        {
+            if ( connection.isConnected() )
+            {
+                connection.close();
+            }
+            connection.connect();
+            connection.bind();
+        }
+        catch ( LdapException | IOException re )
+        {
+            LOG.warn( "reconnect failed, caught {}", re.toString() );
+            LdapCircuitBreaker.getInstance().failed( re );
+            throw e;
+        }
+    }
+
+
     /**
      * Add the audit context variables to the modfication set.
      *
@@ -537,163 +723,766 @@ public abstract class LdapDataProvider
         COUNTERS.incrementSearch();
 
         SearchRequest searchRequest = new SearchRequestImpl();
-        searchRequest.setBase( new Dn( baseDn ) );
+        searchRequest.setBase( toDn( baseDn ) );
+        searchRequest.setScope( scope );
+        searchRequest.setFilter( filter );
+        searchRequest.setTypesOnly( attrsOnly );
+        searchRequest.addAttributes( attrs );
+
+        long start = System.nanoTime();
+        try
+        {
+            return new TimedSearchCursor( connection.search( searchRequest ), getClass(), start );
+        }
+        catch ( LdapException e )
+        {
+            reconnect( connection, e, true );
+            return new TimedSearchCursor( connection.search( searchRequest ), getClass(), start );
+        }
+    }
+
+
+    /**
+     * Perform normal ldap search specifying default batch size and max entries to return.
+     *
+     * @param connection is LdapConnection object used for all communication with host.
+     * @param baseDn     contains address of distinguished name to begin ldap search
+     * @param scope      indicates depth of search starting at basedn.  0 (base dn),
+     *                   1 (one level down) or 2 (infinite) are valid values.
+     * @param filter     contains the search criteria
+     * @param attrs      is the requested list of attritubutes to return from directory search.
+     * @param attrsOnly  if true pull back attribute names only.
+     * @param maxEntries specifies the maximum number of entries to return in this search query.
+     * @return result set containing ldap entries returned from directory.
+     * @throws LdapException thrown in the event of error in ldap client or server code.
+     */
+    protected SearchCursor search( LdapConnection connection, String baseDn, SearchScope scope, String filter,
+        String[] attrs, boolean attrsOnly, int maxEntries ) throws LdapException
+    {
+        COUNTERS.incrementSearch();
+
+        SearchRequest searchRequest = new SearchRequestImpl();
+
+        searchRequest.setBase( toDn( baseDn ) );
+        searchRequest.setFilter( filter );
+        searchRequest.setScope( scope );
+        searchRequest.setSizeLimit( maxEntries );
+        searchRequest.setTypesOnly( attrsOnly );
+        searchRequest.addAttributes( attrs );
+
+        long start = System.nanoTime();
+        try
+        {
+            return new TimedSearchCursor( connection.search( searchRequest ), getClass(), start );
+        }
+        catch ( LdapException e )
+        {
+            reconnect( connection, e, true );
+            return new TimedSearchCursor( connection.search( searchRequest ), getClass(), start );
+        }
+    }
+
+
+    /**
+     * Perform an ldap search that returns its results a page at a time, using the RFC 2696 paged results control.  No more
+     * than a page of entries is held in memory and the server's size limit does not apply.  The search is sent to the server
+     * on the first call to {@link PagedSearchCursor#next()}.  The connection must not be closed, or used for anything else,
+     * until the cursor has been closed.
+     *
+     * @param connection is LdapConnection object used for all communication with host.
+     * @param baseDn     contains address of distinguished name to begin ldap search
+     * @param scope      indicates depth of search starting at basedn.  0 (base dn),
+     *                   1 (one level down) or 2 (infinite) are valid values.
+     * @param filter     contains the search criteria
+     * @param attrs      is the requested list of attritubutes to return from directory search.
+     * @param attrsOnly  if true pull back attribute names only.
+     * @param pageSize   specifies the number of entries to request from the server at a time.  If not positive, fortress
+     *                   config param 'ldap.search.max.batch.size' is used.
+     * @return cursor over the ldap entries returned from directory.
+     * @throws LdapException thrown in the event of error in ldap client or server code.
+     */
+    protected PagedSearchCursor searchPaged( LdapConnection connection, String baseDn, SearchScope scope, String filter,
+        String[] attrs, boolean attrsOnly, int pageSize ) throws LdapException
+    {
+        COUNTERS.incrementSearch();
+
+        SearchRequest searchRequest = new SearchRequestImpl();
+
+        searchRequest.setBase( toDn( baseDn ) );
+        searchRequest.setFilter( filter );
+        searchRequest.setScope( scope );
+        searchRequest.setTypesOnly( attrsOnly );
+        searchRequest.addAttributes( attrs );
+
+        if ( pageSize <= 0 )
+        {
+            pageSize = Config.getInstance().getInt( GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE );
+        }
+        return new PagedSearchCursor( connection, searchRequest, pageSize );
+    }
+
+
+    /**
+     * Converts an ldap entry returned by a paged search to an entity.  See {@link #stream}.
+     *
+     * @param <T> the type of entity.
+     */
+    protected interface EntryMapper<T>
+    {
+        /**
+         * @param entry    contains the ldap entry.
+         * @param sequence the position of the entry within the results, starting at 0.
+         * @return the entity.
+         * @throws LdapException in the event the entry could not be converted.
+         */
+        T map( Entry entry, long sequence ) throws LdapException;
+    }
+
+
+    /**
+     * Return the results of a paged search as a stream.  Entries are read from the server as the stream is consumed.  The
+     * cursor is closed, and the onClose action run, when the last entry has been read, when an error occurs, or when the
+     * stream is closed, whichever comes first.  Callers that may stop before the end must close the stream, e.g. with
+     * try-with-resources.  Errors are thrown as {@link FinderRuntimeException} with the given error id.
+     *
+     * @param cursor  contains the paged search, see {@link #searchPaged}.
+     * @param mapper  converts each entry.
+     * @param errorId contains the error id used to report failures, see {@link org.apache.directory.fortress.core.GlobalErrIds}.
+     * @param onClose runs once after the cursor is closed, e.g. to return the connection to its pool.
+     * @param <T>     the type of entity.
+     * @return stream of entities in the order returned by the server.
+     */
+    protected <T> Stream<T> stream( final PagedSearchCursor cursor, final EntryMapper<T> mapper, final int errorId,
+        final Runnable onClose )
+    {
+        final AtomicBoolean closed = new AtomicBoolean();
+        final Runnable close = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                if ( closed.compareAndSet( false, true ) )
+                {
+                    try
+                    {
+                        cursor.close();
+                    }
+                    finally
+                    {
+                        onClose.run();
+                    }
+                }
+            }
+        };
+        Iterator<T> iterator = new Iterator<T>()
+        {
+            private long sequence;
+            private T next;
+
+            @Override
+            public boolean hasNext()
+            {
+                if ( next == null && !closed.get() )
+                {
+                    try
+                    {
+                        if ( cursor.next() )
+                        {
+                            next = mapper.map( cursor.getEntry(), sequence++ );
+                        }
+                        else
+                        {
+                            close.run();
+                        }
+                    }
+                    catch ( LdapException | CursorException e )
+                    {
+                        close.run();
+                        String error = "stream caught " + e.getClass().getSimpleName() + "=" + e.getMessage();
+                        throw new FinderRuntimeException( errorId, error, e );
+                    }
+                    catch ( RuntimeException e )
+                    {
+                        close.run();
+                        throw e;
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public T next()
+            {
+                if ( !hasNext() )
+                {
+                    throw new NoSuchElementException();
+                }
+                T entity = next;
+                next = null;
+                return entity;
+            }
+        };
+        return StreamSupport.stream( Spliterators.spliteratorUnknownSize( iterator, Spliterator.ORDERED | Spliterator.NONNULL ),
+            false ).onClose( close );
+    }
+
+
+    /**
+     * This method will search the directory and return at most one record.  If more than one record is found
+     * an ldap exception will be thrown.
+     *
+     * @param connection is LdapConnection object used for all communication with host.
+     * @param baseDn     contains address of distinguished name to begin ldap search
+     * @param scope      indicates depth of search starting at basedn.  0 (base dn),
+     *                   1 (one level down) or 2 (infinite) are valid values.
+     * @param filter     contains the search criteria
+     * @param attrs      is the requested list of attritubutes to return from directory search.
+     * @param attrsOnly  if true pull back attribute names only.
+     * @return entry   containing target ldap node.
+     * @throws LdapException   thrown in the event of error in ldap client or server code.
+     * @throws CursorException If we weren't able to fetch an element from the search result
+     */
+    protected Entry searchNode( LdapConnection connection, String baseDn, SearchScope scope, String filter,
+        String[] attrs, boolean attrsOnly ) throws LdapException, CursorException
+    {
+        SearchRequest searchRequest = new SearchRequestImpl();
+
+        searchRequest.setBase( toDn( baseDn ) );
+        searchRequest.setFilter( filter );
         searchRequest.setScope( scope );
+        searchRequest.setTypesOnly( attrsOnly );
+        searchRequest.addAttributes( attrs );
+
+        SearchCursor result;
+        long start = System.nanoTime();
+        try
+        {
+            result = new TimedSearchCursor( connection.search( searchRequest ), getClass(), start );
+        }
+        catch ( LdapException e )
+        {
+            reconnect( connection, e, true );
+            result = new TimedSearchCursor( connection.search( searchRequest ), getClass(), start );
+        }
+
+        Entry entry = result.getEntry();
+
+        if ( result.next() )
+        {
+            throw new LdapException( "searchNode failed to return unique record for LDAP search of base DN [" +
+                baseDn + "] filter [" + filter + "]" );
+        }
+
+        return entry;
+    }
+
+
+    /**
+     * This search method uses OpenLDAP Proxy Authorization Control to assert arbitrary user identity onto connection.
+     *
+     * @param connection is LdapConnection object used for all communication with host.
+     * @param baseDn     contains address of distinguished name to begin ldap search
+     * @param scope      indicates depth of search starting at basedn.  0 (base dn),
+     *                   1 (one level down) or 2 (infinite) are valid values.
+     * @param filter     contains the search criteria
+     * @param attrs      is the requested list of attritubutes to return from directory search.
+     * @param attrsOnly  if true pull back attribute names only.
+     * @param userDn     string value represents the identity of user on who's behalf the request was initiated.  The
+     *                   value will be stored in openldap auditsearch record AuthZID's attribute.
+     * @return entry   containing target ldap node.
+     * @throws LdapException   thrown in the event of error in ldap client or server code.
+     * @throws CursorException If we weren't able to fetch an element from the search result
+     */
+    protected Entry searchNode( LdapConnection connection, String baseDn, SearchScope scope, String filter,
+        String[] attrs, boolean attrsOnly, String userDn ) throws LdapException, CursorException
+    {
+        COUNTERS.incrementSearch();
+
+        SearchRequest searchRequest = new SearchRequestImpl();
+
+        searchRequest.setBase( toDn( baseDn ) );
         searchRequest.setFilter( filter );
+        searchRequest.setScope( scope );
         searchRequest.setTypesOnly( attrsOnly );
         searchRequest.addAttributes( attrs );
 
-        return connection.search( searchRequest );
+        SearchCursor result;
+        long start = System.nanoTime();
+        try
+        {
+            result = new TimedSearchCursor( connection.search( searchRequest ), getClass(), start );
+        }
+        catch ( LdapException e )
+        {
+            reconnect( connection, e, true );
+            result = new TimedSearchCursor( connection.search( searchRequest ), getClass(), start );
+        }
+
+        Entry entry = result.getEntry();
+
+        if ( result.next() )
+        {
+            throw new LdapException( "searchNode failed to return unique record for LDAP search of base DN [" +
+                baseDn + "] filter [" + filter + "]" );
+        }
+
+        return entry;
+    }
+
+
+    /**
+     * This method uses the compare ldap func to assert audit record into the directory server's configured audit
+     * logger.
+     *
+     * This is for one reason - to force the ldap server to maintain an audit trail on checkAccess api.
+     *
+     * Use proxy authz control (RFC4370) to assert the caller's id onto the record.
+     *
+     * @param connection is LdapConnection object used for all communication with host.
+     * @param dn         contains address of distinguished name to begin ldap search
+     * @param userDn     dn for user node
+     * @param attribute  attribute used for compare
+     * @return true if compare operation succeeds
+     * @throws LdapException                thrown in the event of error in ldap client or server code.
+     * @throws UnsupportedEncodingException in the event the server cannot perform the operation.
+     */
+    protected boolean compareNode( LdapConnection connection, String dn, String userDn,
+        Attribute attribute ) throws LdapException, UnsupportedEncodingException
+    {
+        COUNTERS.incrementCompare();
+
+        CompareRequest compareRequest = new CompareRequestImpl();
+        compareRequest.setName( toDn( dn ) );
+        compareRequest.setAttributeId( attribute.getId() );
+        compareRequest.setAssertionValue( attribute.getString() );
+
+        // Assert the end user's dn onto the reqest using proxy authZ control so openldap can log who the user was (for authZ audit trail)
+        ProxiedAuthz proxiedAuthzControl = new ProxiedAuthzImpl();
+        proxiedAuthzControl.setAuthzId( "dn: " + userDn );
+        compareRequest.addControl( proxiedAuthzControl );
+        CompareResponse response;
+        long start = System.nanoTime();
+        try
+        {
+            response = connection.compare( compareRequest );
+        }
+        catch ( LdapException e )
+        {
+            reconnect( connection, e, true );
+            response = connection.compare( compareRequest );
+        }
+        finally
+        {
+            METRICS.record( LdapMetrics.Operation.COMPARE, getClass(), start );
+        }
+        return response.getLdapResult().getResultCode() == ResultCodeEnum.SUCCESS;
+    }
+
+
+    /**
+     * Start a read of the ldap record at specified location and return without waiting for the result.  The request is sent
+     * on the connection right away, so several may be outstanding on the same connection at once.  The connection must not
+     * be closed until the returned future has completed.
+     *
+     * @param connection handle to ldap connection.
+     * @param dn         contains ldap distinguished name.
+     * @param attrs      array contains array names to pull back.
+     * @return completes with the ldap entry, or exceptionally with {@link LdapException}, e.g. LdapNoSuchObjectException.
+     */
+    protected CompletableFuture<Entry> readAsync( LdapConnection connection, String dn, String[] attrs )
+    {
+        COUNTERS.incrementRead();
+        final SearchRequest searchRequest = new SearchRequestImpl();
+        try
+        {
+            searchRequest.setBase( toDn( dn ) );
+            searchRequest.setFilter( "(objectClass=*)" );
+            searchRequest.setScope( SearchScope.OBJECT );
+            searchRequest.addAttributes( attrs );
+        }
+        catch ( LdapException e )
+        {
+            return failed( e );
+        }
+        return new AsyncOperation<Entry>( connection, LdapMetrics.Operation.READ )
+        {
+            @Override
+            ResponseFuture<? extends Response> send( LdapAsyncConnection asyncConnection ) throws LdapException
+            {
+                return asyncConnection.searchAsync( searchRequest );
+            }
+
+
+            @Override
+            Entry receive( LdapAsyncConnection asyncConnection, ResponseFuture<? extends Response> future )
+                throws LdapException
+            {
+                List<Entry> entries = getEntries( asyncConnection, ( SearchFuture ) future );
+                return entries.isEmpty() ? null : entries.get( 0 );
+            }
+        }.start();
+    }
+
+
+    /**
+     * Start a search and return without waiting for the result.  The request is sent on the connection right away, so
+     * several may be outstanding on the same connection at once.  The connection must not be closed until the returned
+     * future has completed.
+     *
+     * @param connection is LdapConnection object used for all communication with host.
+     * @param baseDn     contains address of distinguished name to begin ldap search
+     * @param scope      indicates depth of search starting at basedn.
+     * @param filter     contains the search criteria
+     * @param attrs      is the requested list of attritubutes to return from directory search.
+     * @param attrsOnly  if true pull back attribute names only.
+     * @param maxEntries specifies the maximum number of entries to return in this search query.
+     * @return completes with the entries found, or exceptionally with {@link LdapException}.
+     */
+    protected CompletableFuture<List<Entry>> searchAsync( LdapConnection connection, String baseDn, SearchScope scope,
+        String filter, String[] attrs, boolean attrsOnly, int maxEntries )
+    {
+        COUNTERS.incrementSearch();
+        final SearchRequest searchRequest = new SearchRequestImpl();
+        try
+        {
+            searchRequest.setBase( toDn( baseDn ) );
+            searchRequest.setFilter( filter );
+            searchRequest.setScope( scope );
+            searchRequest.setSizeLimit( maxEntries );
+            searchRequest.setTypesOnly( attrsOnly );
+            searchRequest.addAttributes( attrs );
+        }
+        catch ( LdapException e )
+        {
+            return failed( e );
+        }
+        return new AsyncOperation<List<Entry>>( connection, LdapMetrics.Operation.SEARCH )
+        {
+            @Override
+            ResponseFuture<? extends Response> send( LdapAsyncConnection asyncConnection ) throws LdapException
+            {
+                return asyncConnection.searchAsync( searchRequest );
+            }
+
+
+            @Override
+            List<Entry> receive( LdapAsyncConnection asyncConnection, ResponseFuture<? extends Response> future )
+                throws LdapException
+            {
+                return getEntries( asyncConnection, ( SearchFuture ) future );
+            }
+        }.start();
+    }
+
+
+    /**
+     * Start a compare, see {@link #compareNode(LdapConnection, String, String, Attribute)}, and return without waiting for
+     * the result.  The connection must not be closed until the returned future has completed.
+     *
+     * @param connection is LdapConnection object used for all communication with host.
+     * @param dn         contains address of distinguished name to begin ldap search
+     * @param userDn     dn for user node
+     * @param attribute  attribute used for compare
+     * @return completes with true if compare operation succeeds, or exceptionally with {@link LdapException}.
+     */
+    protected CompletableFuture<Boolean> compareAsync( LdapConnection connection, String dn, String userDn,
+        Attribute attribute )
+    {
+        COUNTERS.incrementCompare();
+        final CompareRequest compareRequest = new CompareRequestImpl();
+        try
+        {
+            compareRequest.setName( toDn( dn ) );
+            compareRequest.setAttributeId( attribute.getId() );
+            compareRequest.setAssertionValue( attribute.getString() );
+            ProxiedAuthz proxiedAuthzControl = new ProxiedAuthzImpl();
+            proxiedAuthzControl.setAuthzId( "dn: " + userDn );
+            compareRequest.addControl( proxiedAuthzControl );
+        }
+        catch ( LdapException e )
+        {
+            return failed( e );
+        }
+        return new AsyncOperation<Boolean>( connection, LdapMetrics.Operation.COMPARE )
+        {
+            @Override
+            ResponseFuture<? extends Response> send( LdapAsyncConnection asyncConnection ) throws LdapException
+            {
+                return asyncConnection.compareAsync( compareRequest );
+            }
+
+
+            @Override
+            Boolean receive( LdapAsyncConnection asyncConnection, ResponseFuture<? extends Response> future )
+                throws LdapException
+            {
+                CompareResponse response = ( CompareResponse ) getResponse( asyncConnection, future );
+                return response.getLdapResult().getResultCode() == ResultCodeEnum.SUCCESS;
+            }
+        }.start();
+    }
+
+
+    /**
+     * Perform an LDAP bind, see {@link #bind(LdapConnection, String, String)}, without making the caller wait.  The bind
+     * goes through the pooled connection, so the pool restores the connection's identity when it is returned.  The
+     * connection must not be closed until the returned future has completed.
+     *
+     * @param connection connection to ldap server.
+     * @param szUserDn   contains the LDAP dn to the user entry in String format.
+     * @param password   contains the password in clear text.
+     * @return completes with the result of the operation, or exceptionally with {@link LdapException}.
+     */
+    protected CompletableFuture<BindResponse> bindAsync( final LdapConnection connection, final String szUserDn,
+        final String password )
+    {
+        final CompletableFuture<BindResponse> result = new CompletableFuture<>();
+        getAsync().execute( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    result.complete( bind( connection, szUserDn, password ) );
+                }
+                catch ( LdapException | RuntimeException e )
+                {
+                    result.completeExceptionally( e );
+                }
+            }
+        } );
+        return result;
+    }
+
+
+    /**
+     * An asynchronous operation.  The request is sent by the caller, and the response is waited on by a thread of
+     * {@link #getAsync()}.  A failure takes the same path as that of the blocking operations: if the connection was found
+     * closed, it is reopened and the request sent once more, otherwise timeouts and unavailable servers are reported to
+     * {@link LdapCircuitBreaker}, see {@link #reconnect(LdapConnection, LdapException, boolean)}.
+     *
+     * @param <T> type of the result.
+     */
+    private abstract class AsyncOperation<T> implements Runnable
+    {
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final LdapConnection connection;
+        private final LdapMetrics.Operation operation;
+        private final long start = System.nanoTime();
+        private LdapAsyncConnection asyncConnection;
+        private ResponseFuture<? extends Response> future;
+        private boolean retried;
+
+
+        AsyncOperation( LdapConnection connection, LdapMetrics.Operation operation )
+        {
+            this.connection = connection;
+            this.operation = operation;
+        }
+
+
+        /**
+         * Send the request.
+         */
+        abstract ResponseFuture<? extends Response> send( LdapAsyncConnection asyncConnection ) throws LdapException;
+
+
+        /**
+         * Wait for the response and return the result.
+         */
+        abstract T receive( LdapAsyncConnection asyncConnection, ResponseFuture<? extends Response> future )
+            throws LdapException;
+
+
+        /**
+         * Send the request and hand the wait for its response to the executor.
+         */
+        CompletableFuture<T> start()
+        {
+            try
+            {
+                asyncConnection = getAsyncConnection( connection );
+                try
+                {
+                    future = send( asyncConnection );
+                }
+                catch ( LdapException e )
+                {
+                    retry( e );
+                }
+                getAsync().execute( this );
+            }
+            catch ( LdapException e )
+            {
+                result.completeExceptionally( e );
+                METRICS.record( operation, LdapDataProvider.this.getClass(), start );
+            }
+            return result;
+        }
+
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                try
+                {
+                    result.complete( receive( asyncConnection, future ) );
+                }
+                catch ( LdapException e )
+                {
+                    if ( retried )
+                    {
+                        throw e;
+                    }
+                    retry( e );
+                    result.complete( receive( asyncConnection, future ) );
+                }
+            }
+            catch ( LdapException e )
+            {
+                result.completeExceptionally( e );
+            }
+            finally
+            {
+                METRICS.record( operation, LdapDataProvider.this.getClass(), start );
+            }
+        }
+
+
+        /**
+         * Reopen the connection and send the request again, or rethrow the failure.
+         */
+        private void retry( LdapException e ) throws LdapException
+        {
+            retried = true;
+            reconnect( connection, e, true );
+            future = send( asyncConnection );
+        }
     }
 
 
     /**
-     * Perform normal ldap search specifying default batch size and max entries to return.
-     *
-     * @param connection is LdapConnection object used for all communication with host.
-     * @param baseDn     contains address of distinguished name to begin ldap search
-     * @param scope      indicates depth of search starting at basedn.  0 (base dn),
-     *                   1 (one level down) or 2 (infinite) are valid values.
-     * @param filter     contains the search criteria
-     * @param attrs      is the requested list of attritubutes to return from directory search.
-     * @param attrsOnly  if true pull back attribute names only.
-     * @param maxEntries specifies the maximum number of entries to return in this search query.
-     * @return result set containing ldap entries returned from directory.
-     * @throws LdapException thrown in the event of error in ldap client or server code.
+     * Return a future completed with the failure.
      */
-    protected SearchCursor search( LdapConnection connection, String baseDn, SearchScope scope, String filter,
-        String[] attrs, boolean attrsOnly, int maxEntries ) throws LdapException
+    private static <T> CompletableFuture<T> failed( LdapException e )
     {
-        COUNTERS.incrementSearch();
-
-        SearchRequest searchRequest = new SearchRequestImpl();
-
-        searchRequest.setBase( new Dn( baseDn ) );
-        searchRequest.setFilter( filter );
-        searchRequest.setScope( scope );
-        searchRequest.setSizeLimit( maxEntries );
-        searchRequest.setTypesOnly( attrsOnly );
-        searchRequest.addAttributes( attrs );
-
-        return connection.search( searchRequest );
+        CompletableFuture<T> result = new CompletableFuture<>();
+        result.completeExceptionally( e );
+        return result;
     }
 
 
     /**
-     * This method will search the directory and return at most one record.  If more than one record is found
-     * an ldap exception will be thrown.
-     *
-     * @param connection is LdapConnection object used for all communication with host.
-     * @param baseDn     contains address of distinguished name to begin ldap search
-     * @param scope      indicates depth of search starting at basedn.  0 (base dn),
-     *                   1 (one level down) or 2 (infinite) are valid values.
-     * @param filter     contains the search criteria
-     * @param attrs      is the requested list of attritubutes to return from directory search.
-     * @param attrsOnly  if true pull back attribute names only.
-     * @return entry   containing target ldap node.
-     * @throws LdapException   thrown in the event of error in ldap client or server code.
-     * @throws CursorException If we weren't able to fetch an element from the search result
+     * Return the executor that waits on the responses to asynchronous operations, creating it the first time.  It has
+     * at most 'ldap.async.threads' threads, and queues at most 'ldap.async.queue' operations beyond those.  When both are
+     * full, the caller waits on the response itself, so the operation completes before it is returned.
      */
-    protected Entry searchNode( LdapConnection connection, String baseDn, SearchScope scope, String filter,
-        String[] attrs, boolean attrsOnly ) throws LdapException, CursorException
+    private static ExecutorService getAsync()
     {
-        SearchRequest searchRequest = new SearchRequestImpl();
-
-        searchRequest.setBase( new Dn( baseDn ) );
-        searchRequest.setFilter( filter );
-        searchRequest.setScope( scope );
-        searchRequest.setTypesOnly( attrsOnly );
-        searchRequest.addAttributes( attrs );
-
-        SearchCursor result = connection.search( searchRequest );
-
-        Entry entry = result.getEntry();
-
-        if ( result.next() )
+        if ( async == null )
         {
-            throw new LdapException( "searchNode failed to return unique record for LDAP search of base DN [" +
-                baseDn + "] filter [" + filter + "]" );
+            synchronized ( LdapDataProvider.class )
+            {
+                if ( async == null )
+                {
+                    int threads = Math.max( 1, Config.getInstance().getInt( GlobalIds.LDAP_ASYNC_THREADS, 16 ) );
+                    int queue = Math.max( 1, Config.getInstance().getInt( GlobalIds.LDAP_ASYNC_QUEUE, 1000 ) );
+                    ThreadPoolExecutor executor = new ThreadPoolExecutor( threads, threads, 60, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<Runnable>( queue ), new ThreadFactory()
+                        {
+                            private final AtomicInteger count = new AtomicInteger();
+
+                            @Override
+                            public Thread newThread( Runnable runnable )
+                            {
+                                Thread thread = new Thread( runnable, "fortress-ldap-async-" + count.incrementAndGet() );
+                                thread.setDaemon( true );
+                                return thread;
+                            }
+                        }, new ThreadPoolExecutor.CallerRunsPolicy() );
+                    executor.allowCoreThreadTimeOut( true );
+                    async = executor;
+                }
+            }
         }
-
-        return entry;
+        return async;
     }
 
 
     /**
-     * This search method uses OpenLDAP Proxy Authorization Control to assert arbitrary user identity onto connection.
-     *
-     * @param connection is LdapConnection object used for all communication with host.
-     * @param baseDn     contains address of distinguished name to begin ldap search
-     * @param scope      indicates depth of search starting at basedn.  0 (base dn),
-     *                   1 (one level down) or 2 (infinite) are valid values.
-     * @param filter     contains the search criteria
-     * @param attrs      is the requested list of attritubutes to return from directory search.
-     * @param attrsOnly  if true pull back attribute names only.
-     * @param userDn     string value represents the identity of user on who's behalf the request was initiated.  The
-     *                   value will be stored in openldap auditsearch record AuthZID's attribute.
-     * @return entry   containing target ldap node.
-     * @throws LdapException   thrown in the event of error in ldap client or server code.
-     * @throws CursorException If we weren't able to fetch an element from the search result
+     * Return the connection that implements the asynchronous operations, pooled connections are wrapped.
      */
-    protected Entry searchNode( LdapConnection connection, String baseDn, SearchScope scope, String filter,
-        String[] attrs, boolean attrsOnly, String userDn ) throws LdapException, CursorException
+    @SuppressWarnings("unchecked")
+    private LdapAsyncConnection getAsyncConnection( LdapConnection connection ) throws LdapException
     {
-        COUNTERS.incrementSearch();
-
-        SearchRequest searchRequest = new SearchRequestImpl();
-
-        searchRequest.setBase( new Dn( baseDn ) );
-        searchRequest.setFilter( filter );
-        searchRequest.setScope( scope );
-        searchRequest.setTypesOnly( attrsOnly );
-        searchRequest.addAttributes( attrs );
-
-        SearchCursor result = connection.search( searchRequest );
-
-        Entry entry = result.getEntry();
-
-        if ( result.next() )
+        LdapConnection unwrapped = connection;
+        while ( unwrapped instanceof Wrapper )
         {
-            throw new LdapException( "searchNode failed to return unique record for LDAP search of base DN [" +
-                baseDn + "] filter [" + filter + "]" );
+            unwrapped = ( ( Wrapper<LdapConnection> ) unwrapped ).wrapped();
         }
-
-        return entry;
+        if ( !( unwrapped instanceof LdapAsyncConnection ) )
+        {
+            throw new LdapException( "asynchronous operations not supported by " + connection.getClass().getName() );
+        }
+        return ( LdapAsyncConnection ) unwrapped;
     }
 
 
     /**
-     * This method uses the compare ldap func to assert audit record into the directory server's configured audit
-     * logger.
-     *
-     * This is for one reason - to force the ldap server to maintain an audit trail on checkAccess api.
-     *
-     * Use proxy authz control (RFC4370) to assert the caller's id onto the record.
-     *
-     * @param connection is LdapConnection object used for all communication with host.
-     * @param dn         contains address of distinguished name to begin ldap search
-     * @param userDn     dn for user node
-     * @param attribute  attribute used for compare
-     * @return true if compare operation succeeds
-     * @throws LdapException                thrown in the event of error in ldap client or server code.
-     * @throws UnsupportedEncodingException in the event the server cannot perform the operation.
+     * Wait for the next response to a request.
      */
-    protected boolean compareNode( LdapConnection connection, String dn, String userDn,
-        Attribute attribute ) throws LdapException, UnsupportedEncodingException
+    private Response getResponse( LdapAsyncConnection connection, ResponseFuture<? extends Response> future )
+        throws LdapException
     {
-        COUNTERS.incrementCompare();
+        Response response;
+        try
+        {
+            response = future.get( connection.getConfig().getTimeout(), TimeUnit.MILLISECONDS );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new LdapException( "interrupted waiting for response", e );
+        }
+        if ( response == null )
+        {
+            if ( future.isCancelled() )
+            {
+                throw new LdapException( "request cancelled, cause=" + future.getCause() );
+            }
+            future.cancel( true );
+            throw new LdapConnectionTimeOutException( "timed out waiting for response" );
+        }
+        return response;
+    }
 
-        CompareRequest compareRequest = new CompareRequestImpl();
-        compareRequest.setName( new Dn( dn ) );
-        compareRequest.setAttributeId( attribute.getId() );
-        compareRequest.setAssertionValue( attribute.getString() );
 
-        // Assert the end user's dn onto the reqest using proxy authZ control so openldap can log who the user was (for authZ audit trail)
-        ProxiedAuthz proxiedAuthzControl = new ProxiedAuthzImpl();
-        proxiedAuthzControl.setAuthzId( "dn: " + userDn );
-        compareRequest.addControl( proxiedAuthzControl );
-        CompareResponse response = connection.compare( compareRequest );
-        return response.getLdapResult().getResultCode() == ResultCodeEnum.SUCCESS;
+    /**
+     * Collect the entries returned by a search until it is done.
+     */
+    private List<Entry> getEntries( LdapAsyncConnection connection, SearchFuture future ) throws LdapException
+    {
+        List<Entry> entries = new ArrayList<>();
+        while ( true )
+        {
+            Response response = getResponse( connection, future );
+            if ( response instanceof SearchResultEntry )
+            {
+                entries.add( ( ( SearchResultEntry ) response ).getEntry() );
+            }
+            else if ( response instanceof SearchResultDone )
+            {
+                // A size limit ends the search early, but what was found is returned:
+                if ( ( ( SearchResultDone ) response ).getLdapResult().getResultCode() != ResultCodeEnum.SIZE_LIMIT_EXCEEDED )
+                {
+                    ResultCodeEnum.processResponse( ( SearchResultDone ) response );
+                }
+                return entries;
+            }
+        }
     }
 
 
@@ -815,7 +1604,7 @@ public abstract class LdapDataProvider
     {
         try
         {
-            return new Dn( dn ).getRdn().getName();
+            return toDn( dn ).getRdn().getName();
         }
         catch ( LdapInvalidDnException lide )
         {
@@ -828,7 +1617,7 @@ public abstract class LdapDataProvider
     {
         try
         {
-            return new Dn( dn ).getRdn().getNormValue();
+            return toDn( dn ).getRdn().getNormValue();
         }
         catch ( LdapInvalidDnException lide )
         {
@@ -1196,12 +1985,25 @@ public abstract class LdapDataProvider
     protected BindResponse bind( LdapConnection connection, String szUserDn, String password ) throws LdapException
     {
         COUNTERS.incrementBind();
-        Dn userDn = new Dn( szUserDn );
+        Dn userDn = toDn( szUserDn );
         BindRequest bindReq = new BindRequestImpl();
         bindReq.setDn( userDn );
         bindReq.setCredentials( password );
         bindReq.addControl( PP_REQ_CTRL );
-        return connection.bind( bindReq );
+        long start = System.nanoTime();
+        try
+        {
+            return connection.bind( bindReq );
+        }
+        catch ( LdapException e )
+        {
+            reconnect( connection, e, true );
+            return connection.bind( bindReq );
+        }
+        finally
+        {
+            METRICS.record( LdapMetrics.Operation.BIND, getClass(), start );
+        }
     }
 
 
@@ -1227,6 +2029,44 @@ public abstract class LdapDataProvider
     }
 
 
+    /**
+     * Return an action that closes an Admin LDAP connection, for use with {@link #stream}.
+     *
+     * @param connection handle to ldap connection object.
+     * @return action that calls {@link #closeAdminConnection(LdapConnection)}.
+     */
+    protected Runnable closeAdminConnectionTask( final LdapConnection connection )
+    {
+        return new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                closeAdminConnection( connection );
+            }
+        };
+    }
+
+
+    /**
+     * Return an action that closes a Log LDAP connection, for use with {@link #stream}.
+     *
+     * @param connection handle to ldap connection object.
+     * @return action that calls {@link #closeLogConnection(LdapConnection)}.
+     */
+    protected Runnable closeLogConnectionTask( final LdapConnection connection )
+    {
+        return new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                closeLogConnection( connection );
+            }
+        };
+    }
+
+
     /**
      * Calls the PoolMgr to close the User LDAP connection.
      *
@@ -1238,6 +2078,44 @@ public abstract class LdapDataProvider
     }
 
 
+    /**
+     * Return a User LDAP connection to its pool without waiting.  A connection a user was bound on is bound again with the
+     * pool's identity when it is returned, a round trip the caller need not wait for.
+     *
+     * @param connection handle to ldap connection object.
+     */
+    protected void closeUserConnectionLater( final LdapConnection connection )
+    {
+        if ( connection == null )
+        {
+            return;
+        }
+        Runnable close = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    closeUserConnection( connection );
+                }
+                catch ( RuntimeException e )
+                {
+                    LOG.warn( "closeUserConnectionLater caught RuntimeException={}", e.getMessage() );
+                }
+            }
+        };
+        try
+        {
+            getAsync().execute( close );
+        }
+        catch ( RejectedExecutionException e )
+        {
+            close.run();
+        }
+    }
+
+
     /**
      * Calls the PoolMgr to get an Admin connection to the LDAP server.
      *
@@ -1250,6 +2128,44 @@ public abstract class LdapDataProvider
     }
 
 
+    /**
+     * Get an Admin connection as {@link #getAdminConnection()} does, counted against the connection limit of the tenant.
+     *
+     * @param contextId contains the id of the tenant.
+     * @return ldap connection.
+     * @throws LdapException If we had an issue getting an LDAP connection, or the tenant holds its maximum.
+     */
+    public LdapConnection getAdminConnection( String contextId ) throws LdapException
+    {
+        return LdapConnectionProvider.getInstance().getAdminConnection( contextId );
+    }
+
+
+    /**
+     * Get an Admin connection for reading, from a replica if any are configured.  Close with {@link #closeAdminConnection(LdapConnection)}.
+     *
+     * @return ldap connection.
+     * @throws LdapException If we had an issue getting an LDAP connection
+     */
+    protected LdapConnection getAdminReadConnection() throws LdapException
+    {
+        return LdapConnectionProvider.getInstance().getAdminReadConnection();
+    }
+
+
+    /**
+     * Get an Admin connection for reading as {@link #getAdminReadConnection()} does, counted against the connection limit of the tenant.
+     *
+     * @param contextId contains the id of the tenant.
+     * @return ldap connection.
+     * @throws LdapException If we had an issue getting an LDAP connection, or the tenant holds its maximum.
+     */
+    protected LdapConnection getAdminReadConnection( String contextId ) throws LdapException
+    {
+        return LdapConnectionProvider.getInstance().getAdminReadConnection( contextId );
+    }
+
+
     /**
      * Calls the PoolMgr to get an Log connection to the LDAP server.
      *
@@ -1262,6 +2178,19 @@ public abstract class LdapDataProvider
     }
 
 
+    /**
+     * Get a Log connection as {@link #getLogConnection()} does, counted against the connection limit of the tenant.
+     *
+     * @param contextId contains the id of the tenant.
+     * @return ldap connection.
+     * @throws LdapException If we had an issue getting an LDAP connection, or the tenant holds its maximum.
+     */
+    protected LdapConnection getLogConnection( String contextId ) throws LdapException
+    {
+        return LdapConnectionProvider.getInstance().getLogConnection( contextId );
+    }
+
+
     /**
      * Calls the PoolMgr to get an User connection to the LDAP server.
      *
@@ -1274,6 +2203,45 @@ public abstract class LdapDataProvider
     }
 
 
+    /**
+     * Get a User connection as {@link #getUserConnection()} does, counted against the connection limit of the tenant.
+     *
+     * @param contextId contains the id of the tenant.
+     * @return ldap connection.
+     * @throws LdapException If we had an issue getting an LDAP connection, or the tenant holds its maximum.
+     */
+    protected LdapConnection getUserConnection( String contextId ) throws LdapException
+    {
+        return LdapConnectionProvider.getInstance().getUserConnection( contextId );
+    }
+
+
+    /**
+     * Get a User connection for authentication, from a replica only if config param 'replica.binds' is true.  Close with
+     * {@link #closeUserConnection(LdapConnection)}.
+     *
+     * @return ldap connection.
+     * @throws LdapException If we had an issue getting an LDAP connection
+     */
+    protected LdapConnection getUserReadConnection() throws LdapException
+    {
+        return LdapConnectionProvider.getInstance().getUserReadConnection();
+    }
+
+
+    /**
+     * Get a User connection for authentication as {@link #getUserReadConnection()} does, counted against the connection limit of the tenant.
+     *
+     * @param contextId contains the id of the tenant.
+     * @return ldap connection.
+     * @throws LdapException If we had an issue getting an LDAP connection, or the tenant holds its maximum.
+     */
+    protected LdapConnection getUserReadConnection( String contextId ) throws LdapException
+    {
+        return LdapConnectionProvider.getInstance().getUserReadConnection( contextId );
+    }
+
+
     /**
      * Return to call reference to dao counter object with running totals for ldap operations add, mod, delete, search, etc.
      *
@@ -1285,6 +2253,17 @@ public abstract class LdapDataProvider
     }
 
 
+    /**
+     * The latency of the ldap operations and of borrowing connections from the pools, for the current running process.
+     *
+     * @return {@link LdapMetrics} contains latency percentiles by operation, DAO and pool.
+     */
+    public static LdapMetrics getLdapMetrics()
+    {
+        return METRICS;
+    }
+
+
 
 
     /**
@@ -0,0 +1,128 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.directory.ldap.client.api.LdapConnectionPool;
+
+
+/**
+ * A read replica of the LDAP server along with its admin and user connection pools.  Used by {@link LdapConnectionProvider}.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class LdapEndpoint
+{
+    private final String host;
+    private final int port;
+    private final LdapConnectionPool adminPool;
+    private final LdapConnectionPool userPool;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private volatile boolean healthy = true;
+
+
+    LdapEndpoint( String host, int port, LdapConnectionPool adminPool, LdapConnectionPool userPool )
+    {
+        this.host = host;
+        this.port = port;
+        this.adminPool = adminPool;
+        this.userPool = userPool;
+    }
+
+
+    LdapConnectionPool getPool( boolean isAdmin )
+    {
+        return isAdmin ? adminPool : userPool;
+    }
+
+
+    /**
+     * @return the number of connections to this replica currently in use.
+     */
+    int getOutstanding()
+    {
+        return outstanding.get();
+    }
+
+
+    void borrowed()
+    {
+        outstanding.incrementAndGet();
+    }
+
+
+    void released()
+    {
+        outstanding.decrementAndGet();
+    }
+
+
+    /**
+     * @return false if the replica has been ejected, i.e. it could not be reached.
+     */
+    boolean isHealthy()
+    {
+        return healthy;
+    }
+
+
+    /**
+     * @param healthy contains the new state.
+     * @return true if the state has changed.
+     */
+    boolean setHealthy( boolean healthy )
+    {
+        boolean changed = this.healthy != healthy;
+        this.healthy = healthy;
+        return changed;
+    }
+
+
+    void close()
+    {
+        try
+        {
+            adminPool.close();
+        }
+        catch ( Exception e )
+        {
+            // ignore, closing the next
+        }
+        try
+        {
+            userPool.close();
+        }
+        catch ( Exception e )
+        {
+            // ignore
+        }
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return host + ":" + port;
+    }
+}
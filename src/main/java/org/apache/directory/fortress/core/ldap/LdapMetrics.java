@@ -0,0 +1,433 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.util.Config;
+import org.apache.directory.ldap.client.api.LdapConnectionPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Keeps the latency of the ldap operations performed by {@link LdapDataProvider}, by type and by DAO, and of borrowing
+ * connections from the pools of {@link LdapConnectionProvider}, and the connections held by each tenant.  Comparing the two tells whether time is spent waiting for a
+ * connection or waiting for the directory.  The values are available from {@link LdapDataProvider#getLdapMetrics()} and over
+ * JMX, see {@link LdapMetricsMXBean}.
+ * <p>
+ * The latency of a search covers the time until its last entry has been read, or the cursor closed.  If fortress config param
+ * 'ldap.metrics.methods' is true, the operations are also kept by the DAO method that called them.  Finding the method
+ * requires a stack trace per operation, so this is off by default.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class LdapMetrics implements LdapMetricsMXBean
+{
+    private static final String CLS_NM = LdapMetrics.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    private static final String OBJECT_NAME = "org.apache.directory.fortress:type=LdapMetrics";
+    private static final Operation[] OPERATIONS = Operation.values();
+    private final LatencyHistogram[] operations = newHistograms();
+    private final ConcurrentHashMap<Class<?>, LatencyHistogram[]> daos = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LatencyHistogram> methods = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<LdapConnectionPool, PoolMeter> pools = new ConcurrentHashMap<>();
+    private volatile TenantBulkhead tenants;
+    private volatile boolean isMethods;
+    private ObjectName objectName;
+
+    /**
+     * The types of ldap operation.
+     */
+    public enum Operation
+    {
+        READ, SEARCH, COMPARE, ADD, MOD, DELETE, BIND
+    }
+
+    private static volatile LdapMetrics sINSTANCE = null;
+
+    public static LdapMetrics getInstance()
+    {
+        if(sINSTANCE == null)
+        {
+            synchronized (LdapMetrics.class)
+            {
+                if(sINSTANCE == null)
+                {
+                    sINSTANCE = new LdapMetrics();
+                }
+            }
+        }
+        return sINSTANCE;
+    }
+
+    /**
+     * Private constructor
+     *
+     */
+    private LdapMetrics()
+    {
+    }
+
+
+    /**
+     * Record an ldap operation.
+     *
+     * @param operation contains the type of operation.
+     * @param dao       the class of the DAO that performed it.
+     * @param start     the value of {@link System#nanoTime()} when it started.
+     */
+    void record( Operation operation, Class<?> dao, long start )
+    {
+        long nanos = System.nanoTime() - start;
+        operations[operation.ordinal()].record( nanos );
+        getDao( dao )[operation.ordinal()].record( nanos );
+        if ( isMethods )
+        {
+            getMethod( dao, operation ).record( nanos );
+        }
+    }
+
+
+    /**
+     * Add a pool to those reported.
+     *
+     * @param name contains the name the pool is reported under.
+     * @param pool the pool.
+     */
+    void addPool( String name, LdapConnectionPool pool )
+    {
+        pools.put( pool, new PoolMeter( name ) );
+    }
+
+
+    /**
+     * Stop reporting all pools, called when they are closed.
+     */
+    void clearPools()
+    {
+        pools.clear();
+    }
+
+
+    /**
+     * @param tenants the limits of the tenants to report, null to stop reporting them.
+     */
+    void setTenants( TenantBulkhead tenants )
+    {
+        this.tenants = tenants;
+    }
+
+
+    /**
+     * Record a connection borrowed from a pool.
+     *
+     * @param pool      the pool.
+     * @param start     the value of {@link System#nanoTime()} when the borrow started.
+     * @param exhausted true if the maximum number of connections were already borrowed.
+     */
+    void recordBorrow( LdapConnectionPool pool, long start, boolean exhausted )
+    {
+        PoolMeter meter = pools.get( pool );
+        if ( meter != null )
+        {
+            meter.wait.record( System.nanoTime() - start );
+            if ( exhausted )
+            {
+                meter.exhausted.increment();
+            }
+        }
+    }
+
+
+    /**
+     * Read the configuration and register with the platform MBean server, unless fortress config param 'ldap.metrics.jmx'
+     * is false.  Called when the connection pools are created.
+     */
+    synchronized void start()
+    {
+        isMethods = Config.getInstance().getBoolean( GlobalIds.LDAP_METRICS_METHODS, false );
+        if ( objectName != null || !Config.getInstance().getBoolean( GlobalIds.LDAP_METRICS_JMX, true ) )
+        {
+            return;
+        }
+        try
+        {
+            ObjectName name = new ObjectName( OBJECT_NAME );
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if ( server.isRegistered( name ) )
+            {
+                // e.g. another application in this jvm
+                LOG.info( "start {} already registered", OBJECT_NAME );
+                return;
+            }
+            server.registerMBean( this, name );
+            objectName = name;
+        }
+        catch ( JMException | SecurityException e )
+        {
+            LOG.warn( "start {} caught {}", OBJECT_NAME, e.toString() );
+        }
+    }
+
+
+    /**
+     * Unregister from the platform MBean server, if registered.  Called when the connection pools are closed.
+     */
+    synchronized void stop()
+    {
+        if ( objectName != null )
+        {
+            try
+            {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean( objectName );
+            }
+            catch ( JMException | SecurityException e )
+            {
+                LOG.warn( "stop {} caught {}", OBJECT_NAME, e.toString() );
+            }
+            objectName = null;
+        }
+    }
+
+
+    /**
+     * @param operation contains the type of operation.
+     * @return the latency of the operations of the given type.
+     */
+    public LatencySnapshot getOperation( Operation operation )
+    {
+        return operations[operation.ordinal()].snapshot();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LdapCounters getCounters()
+    {
+        return LdapDataProvider.getLdapCounters();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, LatencySnapshot> getOperations()
+    {
+        Map<String, LatencySnapshot> snapshots = new TreeMap<>();
+        for ( Operation operation : OPERATIONS )
+        {
+            snapshots.put( operation.name().toLowerCase(), operations[operation.ordinal()].snapshot() );
+        }
+        return snapshots;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, LatencySnapshot> getDaos()
+    {
+        Map<String, LatencySnapshot> snapshots = new TreeMap<>();
+        for ( Map.Entry<Class<?>, LatencyHistogram[]> entry : daos.entrySet() )
+        {
+            for ( Operation operation : OPERATIONS )
+            {
+                LatencySnapshot snapshot = entry.getValue()[operation.ordinal()].snapshot();
+                if ( snapshot.getCount() > 0 )
+                {
+                    snapshots.put( entry.getKey().getSimpleName() + "." + operation.name().toLowerCase(), snapshot );
+                }
+            }
+        }
+        return snapshots;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, LatencySnapshot> getMethods()
+    {
+        Map<String, LatencySnapshot> snapshots = new TreeMap<>();
+        for ( Map.Entry<String, LatencyHistogram> entry : methods.entrySet() )
+        {
+            snapshots.put( entry.getKey(), entry.getValue().snapshot() );
+        }
+        return snapshots;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<LdapPoolStats> getPools()
+    {
+        List<LdapPoolStats> stats = new ArrayList<>();
+        for ( Map.Entry<LdapConnectionPool, PoolMeter> entry : pools.entrySet() )
+        {
+            LdapConnectionPool pool = entry.getKey();
+            PoolMeter meter = entry.getValue();
+            stats.add( new LdapPoolStats( meter.name, pool.getNumActive(), pool.getNumIdle(), pool.getMaxActive(),
+                meter.exhausted.sum(), meter.wait.snapshot() ) );
+        }
+        Collections.sort( stats, new Comparator<LdapPoolStats>()
+        {
+            @Override
+            public int compare( LdapPoolStats stats1, LdapPoolStats stats2 )
+            {
+                return stats1.getName().compareTo( stats2.getName() );
+            }
+        } );
+        return stats;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<LdapTenantStats> getTenants()
+    {
+        TenantBulkhead bulkhead = tenants;
+        if ( bulkhead == null )
+        {
+            return Collections.emptyList();
+        }
+        List<LdapTenantStats> stats = bulkhead.getStats();
+        Collections.sort( stats, new Comparator<LdapTenantStats>()
+        {
+            @Override
+            public int compare( LdapTenantStats stats1, LdapTenantStats stats2 )
+            {
+                return stats1.getContextId().compareTo( stats2.getContextId() );
+            }
+        } );
+        return stats;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getCircuit()
+    {
+        return LdapCircuitBreaker.getInstance().getState().name();
+    }
+
+
+    private LatencyHistogram[] getDao( Class<?> dao )
+    {
+        LatencyHistogram[] histograms = daos.get( dao );
+        if ( histograms == null )
+        {
+            LatencyHistogram[] newHistograms = newHistograms();
+            histograms = daos.putIfAbsent( dao, newHistograms );
+            if ( histograms == null )
+            {
+                histograms = newHistograms;
+            }
+        }
+        return histograms;
+    }
+
+
+    /**
+     * Find the DAO method on the stack.  Operations completed on another thread, e.g. asynchronous ones, are kept by type.
+     */
+    private LatencyHistogram getMethod( Class<?> dao, Operation operation )
+    {
+        String key = null;
+        String className = dao.getName();
+        for ( StackTraceElement element : new Throwable().getStackTrace() )
+        {
+            if ( className.equals( element.getClassName() ) )
+            {
+                key = dao.getSimpleName() + "." + element.getMethodName();
+                break;
+            }
+        }
+        if ( key == null )
+        {
+            key = dao.getSimpleName() + "." + operation.name().toLowerCase();
+        }
+        LatencyHistogram histogram = methods.get( key );
+        if ( histogram == null )
+        {
+            LatencyHistogram newHistogram = new LatencyHistogram();
+            histogram = methods.putIfAbsent( key, newHistogram );
+            if ( histogram == null )
+            {
+                histogram = newHistogram;
+            }
+        }
+        return histogram;
+    }
+
+
+    private static LatencyHistogram[] newHistograms()
+    {
+        LatencyHistogram[] histograms = new LatencyHistogram[OPERATIONS.length];
+        for ( int i = 0; i < histograms.length; i++ )
+        {
+            histograms[i] = new LatencyHistogram();
+        }
+        return histograms;
+    }
+
+
+    /**
+     * The borrow statistics of a pool.
+     */
+    private static final class PoolMeter
+    {
+        private final String name;
+        private final LatencyHistogram wait = new LatencyHistogram();
+        private final LongAdder exhausted = new LongAdder();
+
+        private PoolMeter( String name )
+        {
+            this.name = name;
+        }
+    }
+}
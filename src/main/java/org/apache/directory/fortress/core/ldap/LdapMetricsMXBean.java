@@ -0,0 +1,78 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * The management interface of {@link LdapMetrics}, registered with the platform MBean server as
+ * 'org.apache.directory.fortress:type=LdapMetrics' unless fortress config param 'ldap.metrics.jmx' is false.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public interface LdapMetricsMXBean
+{
+    /**
+     * @return the number of ldap operations by type.
+     */
+    LdapCounters getCounters();
+
+
+    /**
+     * @return the latency of the ldap operations by type, e.g. 'search'.
+     */
+    Map<String, LatencySnapshot> getOperations();
+
+
+    /**
+     * @return the latency of the ldap operations by DAO and type, e.g. 'UserDAO.search'.
+     */
+    Map<String, LatencySnapshot> getDaos();
+
+
+    /**
+     * @return the latency of the ldap operations by DAO method, e.g. 'UserDAO.getUser'.  Empty unless fortress config param
+     * 'ldap.metrics.methods' is true.
+     */
+    Map<String, LatencySnapshot> getMethods();
+
+
+    /**
+     * @return the state of each ldap connection pool.
+     */
+    List<LdapPoolStats> getPools();
+
+
+    /**
+     * @return the connections held by each tenant.  Empty unless fortress config param 'tenant.max.conn' is set, for all
+     * tenants or for one.
+     */
+    List<LdapTenantStats> getTenants();
+
+
+    /**
+     * @return the state of the circuit breaker, 'CLOSED', 'OPEN' or 'HALF_OPEN'.  Always 'CLOSED' unless fortress config param
+     * 'ldap.breaker.failures' is set.
+     */
+    String getCircuit();
+}
@@ -0,0 +1,118 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import java.beans.ConstructorProperties;
+
+
+/**
+ * The state of an ldap connection pool and the time spent waiting to borrow from it.  A borrow includes the validation of the
+ * connection and, if none was idle, opening a new one.  Unless fortress config param 'conn.max.wait.millis' is set, the pools
+ * grow past their maximum size rather than block.  The number of borrows that found the maximum in use is reported as exhausted.
+ * See {@link LdapMetrics}.
+ * <p>
+ * This class is immutable and thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class LdapPoolStats
+{
+    private final String name;
+    private final int active;
+    private final int idle;
+    private final int maxActive;
+    private final long exhausted;
+    private final LatencySnapshot borrowWait;
+
+
+    @ConstructorProperties({ "name", "active", "idle", "maxActive", "exhausted", "borrowWait" })
+    public LdapPoolStats( String name, int active, int idle, int maxActive, long exhausted, LatencySnapshot borrowWait )
+    {
+        this.name = name;
+        this.active = active;
+        this.idle = idle;
+        this.maxActive = maxActive;
+        this.exhausted = exhausted;
+        this.borrowWait = borrowWait;
+    }
+
+
+    /**
+     * @return the name of the pool, e.g. 'admin', 'user', 'log' or 'replica host:port admin'.
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+
+    /**
+     * @return the number of connections currently borrowed.
+     */
+    public int getActive()
+    {
+        return active;
+    }
+
+
+    /**
+     * @return the number of connections currently idle in the pool.
+     */
+    public int getIdle()
+    {
+        return idle;
+    }
+
+
+    /**
+     * @return the configured maximum number of borrowed connections.
+     */
+    public int getMaxActive()
+    {
+        return maxActive;
+    }
+
+
+    /**
+     * @return the number of borrows made while the maximum number of connections were already borrowed.
+     */
+    public long getExhausted()
+    {
+        return exhausted;
+    }
+
+
+    /**
+     * @return the time spent borrowing connections.
+     */
+    public LatencySnapshot getBorrowWait()
+    {
+        return borrowWait;
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return name + ": active=" + active + ", idle=" + idle + ", maxActive=" + maxActive + ", exhausted=" + exhausted
+            + ", borrowWait=[" + borrowWait + "]";
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import java.beans.ConstructorProperties;
+
+
+/**
+ * The connections a tenant is using and how often it was refused one because its budget was spent.  See fortress config params
+ * 'tenant.max.conn' and {@link LdapMetrics}.
+ * <p>
+ * This class is immutable and thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class LdapTenantStats
+{
+    private final String contextId;
+    private final int active;
+    private final int maxActive;
+    private final long rejected;
+    private final LatencySnapshot wait;
+
+
+    @ConstructorProperties({ "contextId", "active", "maxActive", "rejected", "wait" })
+    public LdapTenantStats( String contextId, int active, int maxActive, long rejected, LatencySnapshot wait )
+    {
+        this.contextId = contextId;
+        this.active = active;
+        this.maxActive = maxActive;
+        this.rejected = rejected;
+        this.wait = wait;
+    }
+
+
+    /**
+     * @return the id of the tenant.
+     */
+    public String getContextId()
+    {
+        return contextId;
+    }
+
+
+    /**
+     * @return the number of connections the tenant currently holds, across all pools.
+     */
+    public int getActive()
+    {
+        return active;
+    }
+
+
+    /**
+     * @return the number of connections the tenant may hold at once, 0 if unlimited.
+     */
+    public int getMaxActive()
+    {
+        return maxActive;
+    }
+
+
+    /**
+     * @return the number of connections refused because the tenant held its maximum for longer than the wait allowed.
+     */
+    public long getRejected()
+    {
+        return rejected;
+    }
+
+
+    /**
+     * @return the time spent waiting for the tenant's budget, before borrowing from a pool.
+     */
+    public LatencySnapshot getWait()
+    {
+        return wait;
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return contextId + ": active=" + active + ", maxActive=" + maxActive + ", rejected=" + rejected + ", wait=[" + wait
+            + "]";
+    }
+}
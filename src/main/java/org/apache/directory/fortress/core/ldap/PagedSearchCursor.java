@@ -0,0 +1,217 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.apache.directory.api.ldap.model.cursor.CursorException;
+import org.apache.directory.api.ldap.model.cursor.SearchCursor;
+import org.apache.directory.api.ldap.model.entry.Entry;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.message.Control;
+import org.apache.directory.api.ldap.model.message.ResultCodeEnum;
+import org.apache.directory.api.ldap.model.message.SearchRequest;
+import org.apache.directory.api.ldap.model.message.SearchResultDone;
+import org.apache.directory.api.ldap.model.message.controls.PagedResults;
+import org.apache.directory.api.ldap.model.message.controls.PagedResultsImpl;
+import org.apache.directory.ldap.client.api.LdapConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Walks the results of an ldap search one page at a time using the RFC 2696 paged results control.  Only the entries of the
+ * current page are held in memory, the next page is requested from the server when the current one has been read.  The search
+ * is not subject to the server's size limit so it may return any number of entries.
+ * <p>
+ * The cursor uses its connection until it is closed.  If it is closed before the last page was read, the server is told to
+ * discard the remaining results.  Obtain instances with {@link LdapDataProvider#searchPaged}.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class PagedSearchCursor implements Closeable
+{
+    private static final String CLS_NM = PagedSearchCursor.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    private static final byte[] NO_COOKIE = new byte[0];
+    private final LdapConnection connection;
+    private final SearchRequest request;
+    private final int pageSize;
+    private SearchCursor page;
+    private byte[] cookie;
+    private boolean done;
+    private int pages;
+
+
+    /**
+     * @param connection is LdapConnection object used for all communication with host.
+     * @param request    contains the search, the paged results control is added to it.
+     * @param pageSize   the number of entries to request from the server at a time.
+     */
+    PagedSearchCursor( LdapConnection connection, SearchRequest request, int pageSize )
+    {
+        this.connection = connection;
+        this.request = request;
+        this.pageSize = pageSize;
+    }
+
+
+    /**
+     * Advance to the next entry, requesting the next page from the server if necessary.
+     *
+     * @return true if there is another entry, false if the search is done.
+     * @throws LdapException   thrown in the event the server returned an error.
+     * @throws CursorException thrown in the event of error reading the results.
+     */
+    public boolean next() throws LdapException, CursorException
+    {
+        while ( !done )
+        {
+            if ( page == null )
+            {
+                page = connection.search( setPage( pageSize ) );
+                pages++;
+            }
+            while ( page.next() )
+            {
+                if ( page.isEntry() )
+                {
+                    return true;
+                }
+            }
+            endPage();
+        }
+        return false;
+    }
+
+
+    /**
+     * @return the entry the cursor is positioned on.
+     * @throws LdapException thrown in the event the cursor is not positioned on an entry.
+     */
+    public Entry getEntry() throws LdapException
+    {
+        if ( page == null )
+        {
+            throw new LdapException( "cursor not positioned on an entry" );
+        }
+        return page.getEntry();
+    }
+
+
+    /**
+     * @return the number of pages requested from the server so far.
+     */
+    public int getPages()
+    {
+        return pages;
+    }
+
+
+    /**
+     * Release the current page and, if the search has not been read to the end, ask the server to discard its results.
+     * Does not close the connection.
+     */
+    @Override
+    public void close()
+    {
+        closePage();
+        if ( !done && cookie != null && cookie.length > 0 )
+        {
+            // A page size of zero with the last cookie abandons the search:
+            try
+            {
+                SearchCursor abandon = connection.search( setPage( 0 ) );
+                abandon.close();
+            }
+            catch ( LdapException | IOException e )
+            {
+                LOG.debug( "close caught {} abandoning paged search={}", e.getClass().getSimpleName(), e.getMessage() );
+            }
+        }
+        done = true;
+    }
+
+
+    /**
+     * Read the cookie returned with the current page, an empty one means there are no more pages.
+     */
+    private void endPage() throws LdapException
+    {
+        SearchResultDone result = page.getSearchResultDone();
+        closePage();
+        if ( result == null )
+        {
+            throw new LdapException( "search ended without a result" );
+        }
+        if ( result.getLdapResult().getResultCode() != ResultCodeEnum.SUCCESS )
+        {
+            done = true;
+            ResultCodeEnum.processResponse( result );
+        }
+        Control control = result.getControl( PagedResults.OID );
+        if ( control instanceof PagedResults )
+        {
+            cookie = ( ( PagedResults ) control ).getCookie();
+        }
+        else
+        {
+            // The server ignored the control and returned every entry:
+            cookie = null;
+        }
+        if ( cookie == null || cookie.length == 0 )
+        {
+            done = true;
+        }
+    }
+
+
+    private SearchRequest setPage( int size )
+    {
+        PagedResults control = new PagedResultsImpl();
+        control.setSize( size );
+        control.setCookie( cookie != null ? cookie : NO_COOKIE );
+        control.setCritical( false );
+        // Replaces the control of the previous page:
+        request.addControl( control );
+        return request;
+    }
+
+
+    private void closePage()
+    {
+        if ( page != null )
+        {
+            try
+            {
+                page.close();
+            }
+            catch ( IOException e )
+            {
+                LOG.debug( "closePage caught IOException={}", e.getMessage() );
+            }
+            page = null;
+        }
+    }
+}
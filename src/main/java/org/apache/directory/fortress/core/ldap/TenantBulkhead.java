@@ -0,0 +1,239 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.directory.api.ldap.model.exception.LdapAdminLimitExceededException;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.util.ConfigSnapshot;
+import org.apache.directory.ldap.client.api.LdapConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Limits the number of connections each tenant may hold at once, across all the pools of {@link LdapConnectionProvider}, so a
+ * tenant running e.g. a bulk load cannot take the connections the others need.  The limit is fortress config param
+ * 'tenant.max.conn.[contextId]', else 'tenant.max.conn', 0 or absent means unlimited.  A tenant at its limit waits up to
+ * 'tenant.conn.wait.millis' for one of its connections to be returned, then is refused with
+ * {@link LdapAdminLimitExceededException}.  Connections taken without a contextId are not limited.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class TenantBulkhead
+{
+    private static final String CLS_NM = TenantBulkhead.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    private final ConfigSnapshot config;
+    private final int defaultMax;
+    private final long waitMillis;
+    private final boolean enabled;
+    private final ConcurrentHashMap<String, Budget> budgets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<LdapConnection, Budget> charged = new ConcurrentHashMap<>();
+
+
+    /**
+     * @param config contains the limits.
+     */
+    TenantBulkhead( ConfigSnapshot config )
+    {
+        this.config = config;
+        this.defaultMax = config.getInt( GlobalIds.TENANT_MAX_CONN, 0 );
+        this.waitMillis = config.getInt( GlobalIds.TENANT_CONN_WAIT_MILLIS, 0 );
+        boolean isLimited = defaultMax > 0;
+        for ( String name : config.getProperties().keySet() )
+        {
+            if ( name.startsWith( GlobalIds.TENANT_MAX_CONN + "." ) )
+            {
+                isLimited = true;
+                break;
+            }
+        }
+        this.enabled = isLimited;
+    }
+
+
+    /**
+     * @return true if any tenant has a limit.
+     */
+    boolean isEnabled()
+    {
+        return enabled;
+    }
+
+
+    /**
+     * Take one connection from the tenant's budget, waiting if it is spent.  Must be followed by
+     * {@link #charge(Budget, LdapConnection)}.
+     *
+     * @param contextId contains the id of the tenant, null or empty for the default one.
+     * @return the budget the connection was taken from, null if there is none to take from.
+     * @throws LdapException thrown in the event the tenant's budget was spent for longer than the wait allowed.
+     */
+    Budget acquire( String contextId ) throws LdapException
+    {
+        if ( !enabled )
+        {
+            return null;
+        }
+        Budget budget = getBudget( StringUtils.isEmpty( contextId ) ? GlobalIds.HOME : contextId );
+        if ( budget.permits != null )
+        {
+            long start = System.nanoTime();
+            boolean isAcquired;
+            try
+            {
+                isAcquired = budget.permits.tryAcquire( waitMillis, TimeUnit.MILLISECONDS );
+            }
+            catch ( InterruptedException ie )
+            {
+                Thread.currentThread().interrupt();
+                isAcquired = false;
+            }
+            budget.wait.record( System.nanoTime() - start );
+            if ( !isAcquired )
+            {
+                budget.rejected.increment();
+                String error = "acquire tenant [" + budget.contextId + "] holds its maximum of " + budget.max
+                    + " connections";
+                LOG.warn( error );
+                throw new LdapAdminLimitExceededException( error );
+            }
+        }
+        budget.active.incrementAndGet();
+        return budget;
+    }
+
+
+    /**
+     * Record the connection taken from a budget, or give the budget back if none was borrowed.
+     *
+     * @param budget     as returned by {@link #acquire(String)}, may be null.
+     * @param connection the connection borrowed, null if the borrow failed.
+     */
+    void charge( Budget budget, LdapConnection connection )
+    {
+        if ( budget == null )
+        {
+            return;
+        }
+        if ( connection != null )
+        {
+            charged.put( connection, budget );
+        }
+        else
+        {
+            budget.release();
+        }
+    }
+
+
+    /**
+     * Give the connection back to the budget it was taken from, if any.
+     *
+     * @param connection returned to its pool.
+     */
+    void release( LdapConnection connection )
+    {
+        if ( enabled && connection != null )
+        {
+            Budget budget = charged.remove( connection );
+            if ( budget != null )
+            {
+                budget.release();
+            }
+        }
+    }
+
+
+    /**
+     * @return the state of each tenant that has taken a connection.
+     */
+    List<LdapTenantStats> getStats()
+    {
+        List<LdapTenantStats> stats = new ArrayList<>();
+        for ( Budget budget : budgets.values() )
+        {
+            stats.add( new LdapTenantStats( budget.contextId, budget.active.get(), budget.max, budget.rejected.sum(),
+                budget.wait.snapshot() ) );
+        }
+        return stats;
+    }
+
+
+    private Budget getBudget( String contextId )
+    {
+        Budget budget = budgets.get( contextId );
+        if ( budget == null )
+        {
+            Budget newBudget = new Budget( contextId, config.getInt( GlobalIds.TENANT_MAX_CONN + "." + contextId,
+                defaultMax ) );
+            budget = budgets.putIfAbsent( contextId, newBudget );
+            if ( budget == null )
+            {
+                budget = newBudget;
+            }
+        }
+        return budget;
+    }
+
+
+    /**
+     * The connections of one tenant.
+     */
+    static final class Budget
+    {
+        private final String contextId;
+        private final int max;
+        // null if unlimited:
+        private final Semaphore permits;
+        private final AtomicInteger active = new AtomicInteger();
+        private final LongAdder rejected = new LongAdder();
+        private final LatencyHistogram wait = new LatencyHistogram();
+
+        private Budget( String contextId, int max )
+        {
+            this.contextId = contextId;
+            this.max = Math.max( max, 0 );
+            this.permits = max > 0 ? new Semaphore( max, true ) : null;
+        }
+
+        private void release()
+        {
+            active.decrementAndGet();
+            if ( permits != null )
+            {
+                permits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.apache.directory.api.ldap.model.cursor.ClosureMonitor;
+import org.apache.directory.api.ldap.model.cursor.CursorException;
+import org.apache.directory.api.ldap.model.cursor.SearchCursor;
+import org.apache.directory.api.ldap.model.entry.Entry;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.message.IntermediateResponse;
+import org.apache.directory.api.ldap.model.message.Referral;
+import org.apache.directory.api.ldap.model.message.Response;
+import org.apache.directory.api.ldap.model.message.SearchResultDone;
+
+
+/**
+ * Wraps the cursor of a search so its latency, see {@link LdapMetrics}, is recorded when the last entry has been read or the
+ * cursor closed, rather than when the request was sent.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class TimedSearchCursor implements SearchCursor
+{
+    private final SearchCursor cursor;
+    private final Class<?> dao;
+    private final long start;
+    private boolean recorded;
+
+
+    /**
+     * @param cursor the search results.
+     * @param dao    the class of the DAO that performed the search.
+     * @param start  the value of {@link System#nanoTime()} when the search started.
+     */
+    TimedSearchCursor( SearchCursor cursor, Class<?> dao, long start )
+    {
+        this.cursor = cursor;
+        this.dao = dao;
+        this.start = start;
+    }
+
+
+    private void record()
+    {
+        if ( !recorded )
+        {
+            recorded = true;
+            LdapMetrics.getInstance().record( LdapMetrics.Operation.SEARCH, dao, start );
+        }
+    }
+
+
+    @Override
+    public boolean next() throws LdapException, CursorException
+    {
+        boolean hasNext;
+        try
+        {
+            hasNext = cursor.next();
+        }
+        catch ( LdapException | CursorException | RuntimeException e )
+        {
+            record();
+            throw e;
+        }
+        if ( !hasNext )
+        {
+            record();
+        }
+        return hasNext;
+    }
+
+
+    @Override
+    public void close() throws IOException
+    {
+        record();
+        cursor.close();
+    }
+
+
+    @Override
+    public void close( Exception reason ) throws IOException
+    {
+        record();
+        cursor.close( reason );
+    }
+
+
+    @Override
+    public boolean isDone()
+    {
+        return cursor.isDone();
+    }
+
+
+    @Override
+    public SearchResultDone getSearchResultDone()
+    {
+        return cursor.getSearchResultDone();
+    }
+
+
+    @Override
+    public boolean isReferral()
+    {
+        return cursor.isReferral();
+    }
+
+
+    @Override
+    public Referral getReferral() throws LdapException
+    {
+        return cursor.getReferral();
+    }
+
+
+    @Override
+    public boolean isEntry()
+    {
+        return cursor.isEntry();
+    }
+
+
+    @Override
+    public Entry getEntry() throws LdapException
+    {
+        return cursor.getEntry();
+    }
+
+
+    @Override
+    public boolean isIntermediate()
+    {
+        return cursor.isIntermediate();
+    }
+
+
+    @Override
+    public IntermediateResponse getIntermediate() throws LdapException
+    {
+        return cursor.getIntermediate();
+    }
+
+
+    @Override
+    public boolean available()
+    {
+        return cursor.available();
+    }
+
+
+    @Override
+    public void before( Response element ) throws LdapException, CursorException
+    {
+        cursor.before( element );
+    }
+
+
+    @Override
+    public void after( Response element ) throws LdapException, CursorException
+    {
+        cursor.after( element );
+    }
+
+
+    @Override
+    public void beforeFirst() throws LdapException, CursorException
+    {
+        cursor.beforeFirst();
+    }
+
+
+    @Override
+    public void afterLast() throws LdapException, CursorException
+    {
+        cursor.afterLast();
+    }
+
+
+    @Override
+    public boolean first() throws LdapException, CursorException
+    {
+        return cursor.first();
+    }
+
+
+    @Override
+    public boolean isFirst()
+    {
+        return cursor.isFirst();
+    }
+
+
+    @Override
+    public boolean isBeforeFirst()
+    {
+        return cursor.isBeforeFirst();
+    }
+
+
+    @Override
+    public boolean last() throws LdapException, CursorException
+    {
+        return cursor.last();
+    }
+
+
+    @Override
+    public boolean isLast()
+    {
+        return cursor.isLast();
+    }
+
+
+    @Override
+    public boolean isAfterLast()
+    {
+        return cursor.isAfterLast();
+    }
+
+
+    @Override
+    public boolean isClosed()
+    {
+        return cursor.isClosed();
+    }
+
+
+    @Override
+    public boolean previous() throws LdapException, CursorException
+    {
+        return cursor.previous();
+    }
+
+
+    @Override
+    public Response get() throws CursorException
+    {
+        return cursor.get();
+    }
+
+
+    @Override
+    public void setClosureMonitor( ClosureMonitor monitor )
+    {
+        cursor.setClosureMonitor( monitor );
+    }
+
+
+    @Override
+    public String toString( String tabs )
+    {
+        return cursor.toString( tabs );
+    }
+
+
+    @Override
+    public Iterator<Response> iterator()
+    {
+        return cursor.iterator();
+    }
+}
@@ -21,6 +21,7 @@ package org.apache.directory.fortress.core.model;
 
 
 import java.io.Serializable;
+import java.util.BitSet;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.List;
@@ -283,6 +284,8 @@ public class Permission extends FortEntity implements Serializable
     @XmlElement(nillable = true)
     private Set<String> users;
     private Set<String> paSets;
+    // Computed by fortress for authorization checks.  Do not ship over http.
+    private transient BitSet roleIds;
 
     /**
      * This constructor is commonly used to create Permission that is a target for authorization API.
@@ -831,6 +834,28 @@ public class Permission extends FortEntity implements Serializable
             '}';
     }
 
+    /**
+     * Return the ids of the roles granted this permission.  Maintained by fortress on the permissions it caches for checkAccess.
+     *
+     * @return the role ids or null if not computed.
+     */
+    public BitSet getRoleIds()
+    {
+        return roleIds;
+    }
+
+
+    /**
+     * Set the ids of the roles granted this permission.  Maintained by fortress on the permissions it caches for checkAccess.
+     *
+     * @param roleIds contains the role ids.  It must not be modified after.
+     */
+    public void setRoleIds( BitSet roleIds )
+    {
+        this.roleIds = roleIds;
+    }
+
+
     public Set<String> getPaSets() {
         if ( paSets == null )
         {
@@ -0,0 +1,117 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.model;
+
+
+import java.util.BitSet;
+import java.util.List;
+
+
+/**
+ * Contains the inherited roles of a {@link Session} as a set of integer role ids assigned by fortress for the tenant.  It is
+ * computed by fortress when the session is created or its roles are changed, and is used during checkAccess.
+ * <p>
+ * The names of the activated roles and the hierarchy generation the set was computed from are kept so a stale set,
+ * e.g. after the caller has modified the session's role list or the role hierarchy has changed, can be detected and recomputed.
+ * <p>
+ * This class is immutable and thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class RoleBitSet
+{
+    private final BitSet roleIds;
+    private final String[] roleNames;
+    private final long generation;
+
+
+    /**
+     * @param roleIds    contains the ids of the activated roles and all of their ascendants.  It must not be modified after.
+     * @param roles      contains the activated roles the ids were computed from.
+     * @param generation of the role hierarchy used to compute the ids.
+     */
+    public RoleBitSet( BitSet roleIds, List<? extends UserRole> roles, long generation )
+    {
+        this.roleIds = roleIds;
+        this.generation = generation;
+        if ( roles == null )
+        {
+            this.roleNames = new String[0];
+        }
+        else
+        {
+            this.roleNames = new String[roles.size()];
+            for ( int i = 0; i < roleNames.length; i++ )
+            {
+                roleNames[i] = roles.get( i ).getName();
+            }
+        }
+    }
+
+
+    /**
+     * Determine if this set still corresponds to the activated roles and role hierarchy.
+     *
+     * @param roles      contains the activated roles of the session.
+     * @param generation of the current role hierarchy.
+     * @return true if the set may be used.
+     */
+    public boolean isCurrent( List<? extends UserRole> roles, long generation )
+    {
+        if ( this.generation != generation )
+        {
+            return false;
+        }
+        int size = roles == null ? 0 : roles.size();
+        if ( size != roleNames.length )
+        {
+            return false;
+        }
+        for ( int i = 0; i < size; i++ )
+        {
+            String name = roles.get( i ).getName();
+            if ( name == null ? roleNames[i] != null : !name.equals( roleNames[i] ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * @param otherIds contains role ids, i.e. those granted a permission.
+     * @return true if any role id is contained in both sets.
+     */
+    public boolean intersects( BitSet otherIds )
+    {
+        return otherIds != null && roleIds.intersects( otherIds );
+    }
+
+
+    /**
+     * @param roleId of a role.
+     * @return true if the role is contained in this set.
+     */
+    public boolean contains( int roleId )
+    {
+        return roleIds.get( roleId );
+    }
+}
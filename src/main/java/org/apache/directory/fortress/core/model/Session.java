@@ -189,6 +189,9 @@ public class Session  extends FortEntity implements PwMessage, Serializable
     private boolean isGroupSession;
     private String message;
     private List<Warning> warnings;
+    // Computed by fortress for authorization checks.  Do not ship over http.
+    private transient RoleBitSet roleIds;
+    private transient RoleBitSet adminRoleIds;
 
     /**
      * A 'true' value here indicates user successfully authenticated with Fortress.
@@ -839,6 +842,50 @@ public class Session  extends FortEntity implements PwMessage, Serializable
     }
 
 
+    /**
+     * Return the ids of the activated RBAC roles and their ascendants, see {@link RoleBitSet}.  This is maintained by fortress.
+     *
+     * @return the role ids or null if not yet computed.
+     */
+    public RoleBitSet getRoleIds()
+    {
+        return roleIds;
+    }
+
+
+    /**
+     * Set the ids of the activated RBAC roles and their ascendants.  This is maintained by fortress.
+     *
+     * @param roleIds contains the role ids.
+     */
+    public void setRoleIds( RoleBitSet roleIds )
+    {
+        this.roleIds = roleIds;
+    }
+
+
+    /**
+     * Return the ids of the activated ARBAC roles and their ascendants, see {@link RoleBitSet}.  This is maintained by fortress.
+     *
+     * @return the admin role ids or null if not yet computed.
+     */
+    public RoleBitSet getAdminRoleIds()
+    {
+        return adminRoleIds;
+    }
+
+
+    /**
+     * Set the ids of the activated ARBAC roles and their ascendants.  This is maintained by fortress.
+     *
+     * @param adminRoleIds contains the admin role ids.
+     */
+    public void setAdminRoleIds( RoleBitSet adminRoleIds )
+    {
+        this.adminRoleIds = adminRoleIds;
+    }
+
+
     /**
      * @see Object#toString()
      */
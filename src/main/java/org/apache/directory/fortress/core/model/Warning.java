@@ -104,7 +104,7 @@ public class Warning implements Serializable
     
 
     /**
-     * Type determines if warning is of type Role or Password Policy.
+     * Type determines if warning is of type Role, Password Policy or Directory.
      */
     @XmlType(name = "warnType")
     @XmlEnum
@@ -118,7 +118,12 @@ public class Warning implements Serializable
         /**
          * Problem during password policy validation.
          */
-        PASSWORD
+        PASSWORD,
+
+        /**
+         * The ldap server was unavailable, the result is based on data cached before.
+         */
+        DIRECTORY
     }
     
 
@@ -19,6 +19,7 @@
  */
 package org.apache.directory.fortress.core.rest;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
@@ -86,9 +87,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         Session retSession;
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setEntity( new User( userId, password ) );
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_AUTHN);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_AUTHN);
         if (response.getErrorCode() == 0)
         {
             retSession = response.getSession();
@@ -111,17 +110,15 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         Session retSession;
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setEntity(user);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse;
+        FortResponse response;
         if(isTrusted)
         {
-            szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_CREATE_TRUSTED);
+            response = RestUtils.getInstance().post(request, HttpIds.RBAC_CREATE_TRUSTED);
         }
         else
         {
-            szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_CREATE);
+            response = RestUtils.getInstance().post(request, HttpIds.RBAC_CREATE);
         }
-        FortResponse response = RestUtils.unmarshall(szResponse);
         if (response.getErrorCode() == 0)
         {
             retSession = response.getSession();
@@ -155,9 +152,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         Session retSession;
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setEntity( group );
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.RBAC_CREATE_GROUP_SESSION );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.RBAC_CREATE_GROUP_SESSION );
         if (response.getErrorCode() == 0)
         {
             retSession = response.getSession();
@@ -182,9 +177,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setSession(session);
         request.setEntity(perm);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_AUTHZ);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_AUTHZ);
         if (response.getErrorCode() == 0)
         {
             result = response.getAuthorized();
@@ -198,6 +191,25 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         return result;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The REST server has no bulk operation, each permission is checked with its own request.
+     */
+    @Override
+    public List<Boolean> checkAccess(Session session, List<Permission> perms)
+        throws SecurityException
+    {
+        VUtil.assertNotNull(perms, GlobalErrIds.PERM_NULL, CLS_NM + ".checkAccess");
+        VUtil.assertNotNull(session, GlobalErrIds.USER_SESS_NULL, CLS_NM + ".checkAccess");
+        List<Boolean> results = new ArrayList<>(perms.size());
+        for (Permission perm : perms)
+        {
+            results.add(checkAccess(session, perm));
+        }
+        return results;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -212,9 +224,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         request.setEntity2(user);
         request.setEntity( perm );
         request.setIsFlag( isTrusted );
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_CHECK);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_CHECK);
         if (response.getErrorCode() == 0)
         {
             result = response.getAuthorized();
@@ -240,9 +250,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         request.setEntity2(user);
         request.setEntity(role);
         request.setIsFlag( isTrusted );
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_CHECK_ROLE);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_CHECK_ROLE);
         if (response.getErrorCode() == 0)
         {
             result = response.getAuthorized();
@@ -265,9 +273,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         List<Permission> retPerms;
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setSession(session);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_PERMS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_PERMS);
         if (response.getErrorCode() == 0)
         {
             retPerms = response.getEntities();
@@ -292,9 +298,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         List<UserRole> retRoles;
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setSession(session);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_ROLES);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_ROLES);
         if (response.getErrorCode() == 0)
         {
             retRoles = response.getEntities();
@@ -319,9 +323,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         Set<String> retRoleNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setSession(session);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_AUTHZ_ROLES);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_AUTHZ_ROLES);
         if (response.getErrorCode() == 0)
         {
             Set<String> tempNames = response.getValueSet();
@@ -350,9 +352,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setSession(session);
         request.setEntity(role);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_ADD);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_ADD);
         if (response.getErrorCode() == 0)
         {
             Session outSession = response.getSession();
@@ -377,9 +377,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setSession(session);
         request.setEntity(role);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_DROP);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_DROP);
         if (response.getErrorCode() == 0)
         {
             Session outSession = response.getSession();
@@ -402,9 +400,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         String userId;
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setSession(session);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_USERID);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_USERID);
         if (response.getErrorCode() == 0)
         {
             User outUser = (User) response.getEntity();
@@ -431,9 +427,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setSession(session);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_USER);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_USER);
         if (response.getErrorCode() == 0)
         {
             retUser = (User) response.getEntity();
@@ -21,6 +21,7 @@ package org.apache.directory.fortress.core.rest;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.apache.directory.fortress.core.AuditMgr;
 import org.apache.directory.fortress.core.GlobalErrIds;
@@ -121,9 +122,7 @@ public class AuditMgrRestImpl extends Manageable implements AuditMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(uAudit);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.AUDIT_UAUTHZS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.AUDIT_UAUTHZS);
         if (response.getErrorCode() == 0)
         {
             outRecords = response.getEntities();
@@ -153,9 +152,7 @@ public class AuditMgrRestImpl extends Manageable implements AuditMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(uAudit);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.AUDIT_AUTHZS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.AUDIT_AUTHZS);
         if (response.getErrorCode() == 0)
         {
             outRecords = response.getEntities();
@@ -173,6 +170,20 @@ public class AuditMgrRestImpl extends Manageable implements AuditMgr
     }
 
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The REST server does not page, the results are returned in a single response and {@code pageSize} is ignored.
+     */
+    @Override
+    public Stream<AuthZ> streamAuthZs(UserAudit uAudit, int pageSize)
+        throws SecurityException
+    {
+        List<AuthZ> records = searchAuthZs(uAudit);
+        return records != null ? records.stream() : Stream.<AuthZ>empty();
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -185,9 +196,7 @@ public class AuditMgrRestImpl extends Manageable implements AuditMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(uAudit);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.AUDIT_BINDS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.AUDIT_BINDS);
         if (response.getErrorCode() == 0)
         {
             outRecords = response.getEntities();
@@ -217,9 +226,7 @@ public class AuditMgrRestImpl extends Manageable implements AuditMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(uAudit);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.AUDIT_SESSIONS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.AUDIT_SESSIONS);
         if (response.getErrorCode() == 0)
         {
             outRecords = response.getEntities();
@@ -249,9 +256,7 @@ public class AuditMgrRestImpl extends Manageable implements AuditMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(uAudit);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.AUDIT_MODS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.AUDIT_MODS);
         if (response.getErrorCode() == 0)
         {
             outRecords = response.getEntities();
@@ -281,9 +286,7 @@ public class AuditMgrRestImpl extends Manageable implements AuditMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(uAudit);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.AUDIT_INVLD);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.AUDIT_INVLD);
         if (response.getErrorCode() == 0)
         {
             outRecords = response.getEntities();
@@ -19,7 +19,7 @@
  */
 package org.apache.directory.fortress.core.rest;
 
-import java.util.Hashtable;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
@@ -31,6 +31,8 @@ import javax.xml.bind.Unmarshaller;
  * processing.
  * The intent is to reduce the performance penalty for calling JAXBContext.newInstance( class );
  * <p>
+ * Lookups do not lock.  Should two threads miss on the same class at once, both create a context and the first stored is kept.
+ * <p>
  * This class is thread safe.
  *
  * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
@@ -39,7 +41,7 @@ import javax.xml.bind.Unmarshaller;
 public class CachedJaxbContext
 {
 
-    private static volatile Hashtable<Class, JAXBCachedEntry> jaxbInstanceCache = new Hashtable();
+    private static final ConcurrentHashMap<Class, JAXBCachedEntry> jaxbInstanceCache = new ConcurrentHashMap<>();
 
     /**
      * Once constructed this object can be stored as static member of class that performs JAX XML processing.
@@ -48,17 +50,31 @@ public class CachedJaxbContext
      * @return handle to JAXBContext to be used to marshall or unmarshall XML data.
      * @throws JAXBException in the event the JAXBContext cannot be obtained.
      */
-    public synchronized JAXBContext getJaxbContext( Class type ) throws JAXBException
+    public JAXBContext getJaxbContext( Class type ) throws JAXBException
     {
+        return getEntry( type ).getContext();
+    }
 
+    /**
+     * Return the cached entry for a particular data type, which holds its JAXBContext along with pooled marshallers and unmarshallers.
+     *
+     * @param type contains the class name that is being marshalled/unmarshalled.
+     * @return handle to cached entry.
+     * @throws JAXBException in the event the JAXBContext cannot be obtained.
+     */
+    public JAXBCachedEntry getEntry( Class type ) throws JAXBException
+    {
         JAXBCachedEntry cache = jaxbInstanceCache.get( type );
         if ( cache == null )
         {
-            cache = new JAXBCachedEntry( type );
-            jaxbInstanceCache.put( type, cache );
-            return cache.getContext();
+            JAXBCachedEntry newCache = new JAXBCachedEntry( type );
+            cache = jaxbInstanceCache.putIfAbsent( type, newCache );
+            if ( cache == null )
+            {
+                cache = newCache;
+            }
         }
-        return cache.getContext();
+        return cache;
     }
 
     /**
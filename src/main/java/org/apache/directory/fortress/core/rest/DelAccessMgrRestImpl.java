@@ -80,9 +80,7 @@ public class DelAccessMgrRestImpl extends AccessMgrRestImpl implements DelAccess
         UserRole uRole = new UserRole(user.getUserId(), role.getName());
         request.setSession(session);
         request.setEntity(uRole);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ADMIN_ASSIGN);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ADMIN_ASSIGN);
         if (response.getErrorCode() == 0)
         {
             result = response.getAuthorized();
@@ -114,9 +112,7 @@ public class DelAccessMgrRestImpl extends AccessMgrRestImpl implements DelAccess
         UserRole uRole = new UserRole(user.getUserId(), role.getName());
         request.setSession(session);
         request.setEntity(uRole);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ADMIN_DEASSIGN);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ADMIN_DEASSIGN);
         if (response.getErrorCode() == 0)
         {
             result = response.getAuthorized();
@@ -150,9 +146,7 @@ public class DelAccessMgrRestImpl extends AccessMgrRestImpl implements DelAccess
         context.setRole(role);
         request.setSession(session);
         request.setEntity(context);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ADMIN_GRANT);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ADMIN_GRANT);
         if (response.getErrorCode() == 0)
         {
             result = response.getAuthorized();
@@ -186,9 +180,7 @@ public class DelAccessMgrRestImpl extends AccessMgrRestImpl implements DelAccess
         context.setRole(role);
         request.setSession(session);
         request.setEntity(context);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ADMIN_REVOKE);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ADMIN_REVOKE);
         if (response.getErrorCode() == 0)
         {
             result = response.getAuthorized();
@@ -220,9 +212,7 @@ public class DelAccessMgrRestImpl extends AccessMgrRestImpl implements DelAccess
         request.setContextId(this.contextId);
         request.setSession(session);
         request.setEntity(perm);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ADMIN_AUTHZ);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ADMIN_AUTHZ);
         if (response.getErrorCode() == 0)
         {
             result = response.getAuthorized();
@@ -251,9 +241,7 @@ public class DelAccessMgrRestImpl extends AccessMgrRestImpl implements DelAccess
         request.setContextId(this.contextId);
         request.setSession(session);
         request.setEntity(role);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ADMIN_ADD);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ADMIN_ADD);
         if (response.getErrorCode() == 0)
         {
             Session outSession = response.getSession();
@@ -280,9 +268,7 @@ public class DelAccessMgrRestImpl extends AccessMgrRestImpl implements DelAccess
         request.setContextId(this.contextId);
         request.setSession(session);
         request.setEntity(role);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ADMIN_DROP);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ADMIN_DROP);
         if (response.getErrorCode() == 0)
         {
             Session outSession = response.getSession();
@@ -307,9 +293,7 @@ public class DelAccessMgrRestImpl extends AccessMgrRestImpl implements DelAccess
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setSession(session);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ADMIN_ROLES);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ADMIN_ROLES);
         if (response.getErrorCode() == 0)
         {
             roles = response.getEntities();
@@ -336,9 +320,7 @@ public class DelAccessMgrRestImpl extends AccessMgrRestImpl implements DelAccess
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setSession(session);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ADMIN_AUTHZ_ROLES);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ADMIN_AUTHZ_ROLES);
         if (response.getErrorCode() == 0)
         {
             Set<String> tempNames = response.getValueSet();
@@ -367,9 +349,7 @@ public class DelAccessMgrRestImpl extends AccessMgrRestImpl implements DelAccess
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setSession(session);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ADMIN_PERMS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ADMIN_PERMS);
         if (response.getErrorCode() == 0)
         {
             retPerms = response.getEntities();
@@ -69,9 +69,7 @@ public final class DelAdminMgrRestImpl extends Manageable implements DelAdminMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(role);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ARLE_ADD);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ARLE_ADD);
         if (response.getErrorCode() == 0)
         {
             retRole = (AdminRole) response.getEntity();
@@ -95,9 +93,7 @@ public final class DelAdminMgrRestImpl extends Manageable implements DelAdminMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(role);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ARLE_DELETE);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ARLE_DELETE);
         if (response.getErrorCode() != 0)
         {
             throw new SecurityException(response.getErrorCode(), response.getErrorMessage());
@@ -117,9 +113,7 @@ public final class DelAdminMgrRestImpl extends Manageable implements DelAdminMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(role);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ARLE_UPDATE);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ARLE_UPDATE);
         if (response.getErrorCode() == 0)
         {
             retRole = (AdminRole) response.getEntity();
@@ -143,9 +137,7 @@ public final class DelAdminMgrRestImpl extends Manageable implements DelAdminMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(uAdminRole);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ARLE_ASGN);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ARLE_ASGN);
         if (response.getErrorCode() != 0)
         {
             throw new SecurityException(response.getErrorCode(), response.getErrorMessage());
@@ -164,9 +156,7 @@ public final class DelAdminMgrRestImpl extends Manageable implements DelAdminMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(uAdminRole);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ARLE_DEASGN);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ARLE_DEASGN);
         if (response.getErrorCode() != 0)
         {
             throw new SecurityException(response.getErrorCode(), response.getErrorMessage());
@@ -186,9 +176,7 @@ public final class DelAdminMgrRestImpl extends Manageable implements DelAdminMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(entity);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ORG_ADD);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ORG_ADD);
         if (response.getErrorCode() == 0)
         {
             retOrg = (OrgUnit) response.getEntity();
@@ -213,9 +201,7 @@ public final class DelAdminMgrRestImpl extends Manageable implements DelAdminMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(entity);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ORG_UPDATE);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ORG_UPDATE);
         if (response.getErrorCode() == 0)
         {
             retOrg = (OrgUnit) response.getEntity();
@@ -240,9 +226,7 @@ public final class DelAdminMgrRestImpl extends Manageable implements DelAdminMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(entity);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ORG_DELETE);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ORG_DELETE);
         if (response.getErrorCode() == 0)
         {
             retOrg = (OrgUnit) response.getEntity();
@@ -272,9 +256,7 @@ public final class DelAdminMgrRestImpl extends Manageable implements DelAdminMgr
         relationship.setParent(parent);
         relationship.setChild(child);
         request.setEntity(relationship);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ORG_DESC);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ORG_DESC);
         if (response.getErrorCode() != 0)
         {
             throw new SecurityException(response.getErrorCode(), response.getErrorMessage());
@@ -298,9 +280,7 @@ public final class DelAdminMgrRestImpl extends Manageable implements DelAdminMgr
         relationship.setParent(parent);
         relationship.setChild(child);
         request.setEntity(relationship);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ORG_ASC);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ORG_ASC);
         if (response.getErrorCode() != 0)
         {
             throw new SecurityException(response.getErrorCode(), response.getErrorMessage());
@@ -325,9 +305,7 @@ public final class DelAdminMgrRestImpl extends Manageable implements DelAdminMgr
         relationship.setParent(parent);
         relationship.setChild(child);
         request.setEntity(relationship);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ORG_ADDINHERIT);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ORG_ADDINHERIT);
         if (response.getErrorCode() != 0)
         {
             throw new SecurityException(response.getErrorCode(), response.getErrorMessage());
@@ -352,9 +330,7 @@ public final class DelAdminMgrRestImpl extends Manageable implements DelAdminMgr
         relationship.setParent(parent);
         relationship.setChild(child);
         request.setEntity(relationship);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ORG_DELINHERIT);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ORG_DELINHERIT);
         if (response.getErrorCode() != 0)
         {
             throw new SecurityException(response.getErrorCode(), response.getErrorMessage());
@@ -378,9 +354,7 @@ public final class DelAdminMgrRestImpl extends Manageable implements DelAdminMgr
         relationship.setParent(parentRole);
         relationship.setChild(childRole);
         request.setEntity(relationship);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ARLE_DESC);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ARLE_DESC);
         if (response.getErrorCode() != 0)
         {
             throw new SecurityException(response.getErrorCode(), response.getErrorMessage());
@@ -404,9 +378,7 @@ public final class DelAdminMgrRestImpl extends Manageable implements DelAdminMgr
         relationship.setParent(parentRole);
         relationship.setChild(childRole);
         request.setEntity(relationship);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ARLE_ASC);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ARLE_ASC);
         if (response.getErrorCode() != 0)
         {
             throw new SecurityException(response.getErrorCode(), response.getErrorMessage());
@@ -430,9 +402,7 @@ public final class DelAdminMgrRestImpl extends Manageable implements DelAdminMgr
         relationship.setParent(parentRole);
         relationship.setChild(childRole);
         request.setEntity(relationship);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ARLE_ADDINHERIT);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ARLE_ADDINHERIT);
         if (response.getErrorCode() != 0)
         {
             throw new SecurityException(response.getErrorCode(), response.getErrorMessage());
@@ -456,9 +426,7 @@ public final class DelAdminMgrRestImpl extends Manageable implements DelAdminMgr
         relationship.setParent(parentRole);
         relationship.setChild(childRole);
         request.setEntity(relationship);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ARLE_DELINHERIT);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ARLE_DELINHERIT);
         if (response.getErrorCode() != 0)
         {
             throw new SecurityException(response.getErrorCode(), response.getErrorMessage());
@@ -479,9 +447,7 @@ public final class DelAdminMgrRestImpl extends Manageable implements DelAdminMgr
         request.setContextId(this.contextId);
         perm.setAdmin(true);
         request.setEntity(perm);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.PERM_ADD);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.PERM_ADD);
         if (response.getErrorCode() == 0)
         {
             retPerm = (Permission) response.getEntity();
@@ -507,9 +473,7 @@ public final class DelAdminMgrRestImpl extends Manageable implements DelAdminMgr
         request.setContextId(this.contextId);
         perm.setAdmin(true);
         request.setEntity(perm);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.PERM_UPDATE);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.PERM_UPDATE);
         if (response.getErrorCode() == 0)
         {
             retPerm = (Permission) response.getEntity();
@@ -534,9 +498,7 @@ public final class DelAdminMgrRestImpl extends Manageable implements DelAdminMgr
         request.setContextId(this.contextId);
         perm.setAdmin(true);
         request.setEntity(perm);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.PERM_DELETE);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.PERM_DELETE);
         if (response.getErrorCode() != 0)
         {
             throw new SecurityException(response.getErrorCode(), response.getErrorMessage());
@@ -557,9 +519,7 @@ public final class DelAdminMgrRestImpl extends Manageable implements DelAdminMgr
         request.setContextId(this.contextId);
         pObj.setAdmin(true);
         request.setEntity(pObj);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.OBJ_ADD);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.OBJ_ADD);
         if (response.getErrorCode() == 0)
         {
             retObj = (PermObj) response.getEntity();
@@ -585,9 +545,7 @@ public final class DelAdminMgrRestImpl extends Manageable implements DelAdminMgr
         request.setContextId(this.contextId);
         pObj.setAdmin(true);
         request.setEntity(pObj);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.OBJ_UPDATE);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.OBJ_UPDATE);
         if (response.getErrorCode() == 0)
         {
             retObj = (PermObj) response.getEntity();
@@ -612,9 +570,7 @@ public final class DelAdminMgrRestImpl extends Manageable implements DelAdminMgr
         request.setContextId(this.contextId);
         pObj.setAdmin(true);
         request.setEntity(pObj);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.OBJ_DELETE);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.OBJ_DELETE);
         if (response.getErrorCode() != 0)
         {
             throw new SecurityException(response.getErrorCode(), response.getErrorMessage());
@@ -640,9 +596,7 @@ public final class DelAdminMgrRestImpl extends Manageable implements DelAdminMgr
         permGrant.setOpName(perm.getOpName());
         permGrant.setRoleNm(role.getName());
         request.setEntity(permGrant);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ROLE_GRANT);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ROLE_GRANT);
         if (response.getErrorCode() != 0)
         {
             throw new SecurityException(response.getErrorCode(), response.getErrorMessage());
@@ -668,9 +622,7 @@ public final class DelAdminMgrRestImpl extends Manageable implements DelAdminMgr
         permGrant.setOpName(perm.getOpName());
         permGrant.setRoleNm(role.getName());
         request.setEntity(permGrant);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ROLE_REVOKE);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ROLE_REVOKE);
         if (response.getErrorCode() != 0)
         {
             throw new SecurityException(response.getErrorCode(), response.getErrorMessage());
@@ -696,9 +648,7 @@ public final class DelAdminMgrRestImpl extends Manageable implements DelAdminMgr
         permGrant.setOpName(perm.getOpName());
         permGrant.setUserId(user.getUserId());
         request.setEntity(permGrant);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.USER_GRANT);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.USER_GRANT);
         if (response.getErrorCode() != 0)
         {
             throw new SecurityException(response.getErrorCode(), response.getErrorMessage());
@@ -724,9 +674,7 @@ public final class DelAdminMgrRestImpl extends Manageable implements DelAdminMgr
         permGrant.setOpName(perm.getOpName());
         permGrant.setUserId(user.getUserId());
         request.setEntity(permGrant);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.USER_REVOKE);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.USER_REVOKE);
         if (response.getErrorCode() != 0)
         {
             throw new SecurityException(response.getErrorCode(), response.getErrorMessage());
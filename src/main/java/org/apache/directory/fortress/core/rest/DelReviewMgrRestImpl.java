@@ -68,9 +68,7 @@ public class DelReviewMgrRestImpl extends Manageable implements DelReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(role);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ARLE_READ);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ARLE_READ);
         if (response.getErrorCode() == 0)
         {
             retRole = (AdminRole) response.getEntity();
@@ -95,9 +93,7 @@ public class DelReviewMgrRestImpl extends Manageable implements DelReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setValue(searchVal);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ARLE_SEARCH);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ARLE_SEARCH);
         if (response.getErrorCode() == 0)
         {
             retRoles = response.getEntities();
@@ -122,9 +118,7 @@ public class DelReviewMgrRestImpl extends Manageable implements DelReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(user);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ARLE_ASGNED);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ARLE_ASGNED);
         if (response.getErrorCode() == 0)
         {
             retUserRoles = response.getEntities();
@@ -149,9 +143,7 @@ public class DelReviewMgrRestImpl extends Manageable implements DelReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(role);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.USER_ASGNED_ADMIN);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.USER_ASGNED_ADMIN);
         if (response.getErrorCode() == 0)
         {
             retUsers = response.getEntities();
@@ -181,9 +173,7 @@ public class DelReviewMgrRestImpl extends Manageable implements DelReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(entity);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ORG_READ);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ORG_READ);
         if (response.getErrorCode() == 0)
         {
             retOrg = (OrgUnit) response.getEntity();
@@ -209,9 +199,7 @@ public class DelReviewMgrRestImpl extends Manageable implements DelReviewMgr
         request.setContextId(this.contextId);
         OrgUnit inOrg = new OrgUnit(searchVal, type);
         request.setEntity(inOrg);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ORG_SEARCH);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ORG_SEARCH);
         if (response.getErrorCode() == 0)
         {
             retOrgs = response.getEntities();
@@ -58,9 +58,7 @@ public class GroupMgrRestImpl  extends Manageable implements GroupMgr
         {
             ////request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.GROUP_ADD );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.GROUP_ADD );
         if ( response.getErrorCode() == 0 )
         {
             retGroup = ( Group ) response.getEntity();
@@ -86,9 +84,7 @@ public class GroupMgrRestImpl  extends Manageable implements GroupMgr
         {
             ////request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.GROUP_UPDATE );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.GROUP_UPDATE );
         if ( response.getErrorCode() == 0 )
         {
             retGroup = ( Group ) response.getEntity();
@@ -114,9 +110,7 @@ public class GroupMgrRestImpl  extends Manageable implements GroupMgr
         {
             ////request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.GROUP_DELETE );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.GROUP_DELETE );
         if ( response.getErrorCode() == 0 )
         {
             retGroup = ( Group ) response.getEntity();
@@ -160,9 +154,7 @@ public class GroupMgrRestImpl  extends Manageable implements GroupMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.GROUP_READ);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.GROUP_READ);
         if (response.getErrorCode() == 0)
         {
             retGroup = (Group) response.getEntity();
@@ -206,9 +198,7 @@ public class GroupMgrRestImpl  extends Manageable implements GroupMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.GROUP_ASGNED);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.GROUP_ASGNED);
         if (response.getErrorCode() == 0)
         {
             retGroups = response.getEntities();
@@ -235,9 +225,7 @@ public class GroupMgrRestImpl  extends Manageable implements GroupMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.GROUP_ROLE_ASGNED);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.GROUP_ROLE_ASGNED);
         if (response.getErrorCode() == 0)
         {
             retRoles = response.getEntities();
@@ -265,9 +253,7 @@ public class GroupMgrRestImpl  extends Manageable implements GroupMgr
         {
             ////request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.GROUP_ASGN );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.GROUP_ASGN );
         if ( response.getErrorCode() == 0 )
         {
             retGroup = ( Group ) response.getEntity();
@@ -295,9 +281,7 @@ public class GroupMgrRestImpl  extends Manageable implements GroupMgr
         {
             ////request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.GROUP_DEASGN );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.GROUP_DEASGN );
         if ( response.getErrorCode() == 0 )
         {
             retGroup = ( Group ) response.getEntity();
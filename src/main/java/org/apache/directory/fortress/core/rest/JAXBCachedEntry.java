@@ -19,12 +19,20 @@
  */
 package org.apache.directory.fortress.core.rest;
 
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
 
 /**
  * This class wraps JAXBContext and is used for simple caching mechanism during Fortress XML processing.
  * The intent is to leave future extension point in case schema validation is needed which prevents handling in cache itself.
+ * <p>
+ * It also pools the marshallers and unmarshallers created from the context.  They are not thread safe, so each is used by one
+ * thread at a time, but may be reused rather than created for every call.  The pools grow to the number of concurrent callers.
  *
  * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
  */
@@ -33,6 +41,8 @@ public class JAXBCachedEntry
 {
     private final Class cachedClass;
     private final JAXBContext context;
+    private final Queue<Marshaller> marshallers = new ConcurrentLinkedQueue<>();
+    private final Queue<Unmarshaller> unmarshallers = new ConcurrentLinkedQueue<>();
 
     /**
      * Public constructor requires the entity class to be passed.
@@ -65,4 +75,49 @@ public class JAXBCachedEntry
     {
         return context;
     }
-}
\ No newline at end of file
+
+
+    /**
+     * Take a marshaller from the pool, or create one if none are free.  Must be returned with {@link #releaseMarshaller(Marshaller)}.
+     *
+     * @return handle to JAXB marshaller for use by the calling thread.
+     * @throws JAXBException in the event the marshaller cannot be created.
+     */
+    public Marshaller acquireMarshaller() throws JAXBException
+    {
+        Marshaller marshaller = marshallers.poll();
+        return marshaller != null ? marshaller : context.createMarshaller();
+    }
+
+    /**
+     * Return a marshaller to the pool.
+     *
+     * @param marshaller obtained from {@link #acquireMarshaller()}.
+     */
+    public void releaseMarshaller( Marshaller marshaller )
+    {
+        marshallers.offer( marshaller );
+    }
+
+    /**
+     * Take an unmarshaller from the pool, or create one if none are free.  Must be returned with {@link #releaseUnmarshaller(Unmarshaller)}.
+     *
+     * @return handle to JAXB unmarshaller for use by the calling thread.
+     * @throws JAXBException in the event the unmarshaller cannot be created.
+     */
+    public Unmarshaller acquireUnmarshaller() throws JAXBException
+    {
+        Unmarshaller unmarshaller = unmarshallers.poll();
+        return unmarshaller != null ? unmarshaller : context.createUnmarshaller();
+    }
+
+    /**
+     * Return an unmarshaller to the pool.
+     *
+     * @param unmarshaller obtained from {@link #acquireUnmarshaller()}.
+     */
+    public void releaseUnmarshaller( Unmarshaller unmarshaller )
+    {
+        unmarshallers.offer( unmarshaller );
+    }
+}
@@ -20,19 +20,25 @@
 package org.apache.directory.fortress.core.rest;
 
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
 
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.io.IOUtils;
@@ -47,18 +53,38 @@ import org.apache.directory.fortress.core.util.Config;
 import org.apache.directory.fortress.core.util.EncryptUtil;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpRequest;
+import org.apache.http.HttpHost;
 import org.apache.http.HttpResponse;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.AuthCache;
 import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.entity.AbstractHttpEntity;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.auth.BasicScheme;
+import org.apache.http.impl.client.BasicAuthCache;
 import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -66,7 +92,9 @@ import static org.apache.directory.fortress.core.GlobalIds.*;
 
 
 /**
- * This utility class provides methods that wrap Apache's HTTP Client APIs.  This class is thread safe.
+ * This utility class provides methods that wrap Apache's HTTP Client APIs.  All requests share one client whose connections to
+ * fortress-rest are pooled and kept alive, so the TCP connect and TLS handshake are paid once per connection rather than once per
+ * request.  The pool is sized and timed by the 'http.*' fortress config params.  This class is thread safe.
  *
  * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
  */
@@ -81,6 +109,13 @@ public final class RestUtils
     private static final int HTTP_404_NOT_FOUND = 404;
     private static final int HTTP_500_INTERNAL_SERVER_ERROR = 500;
     private static final String VALID_RESPONSE = "FortResponse";
+    private static final int DEFAULT_MAX_TOTAL = 50;
+    private static final int DEFAULT_MAX_PER_ROUTE = 20;
+    private static final int DEFAULT_KEEPALIVE = 30;
+    private static final int DEFAULT_IDLE_TIMEOUT = 60;
+    private static final int DEFAULT_CONNECT_TIMEOUT = 5000;
+    private static final int DEFAULT_SOCKET_TIMEOUT = 30000;
+    private static final int DEFAULT_REQUEST_TIMEOUT = 5000;
     private static CachedJaxbContext cachedJaxbContext = new CachedJaxbContext();
 
     // static member contains this
@@ -96,6 +131,10 @@ public final class RestUtils
     // These members contain the http coordinates to a running fortress-rest instance:
     private String httpUid, httpPw, httpHost, httpPort, httpProtocol, fortressRestVersion, serviceName, uri;
 
+    // Shared by all requests:
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+
     /**
      * create a new request and set its tenant id.
      * @param szContextId contains the tenant id
@@ -143,7 +182,60 @@ public final class RestUtils
             System.setProperty( "javax.net.ssl.trustStore", trustStore );
             System.setProperty( "javax.net.ssl.trustStorePassword", trustStorePw );
         }
-        //System.setProperty( "http.maxConnections", "50" );
+        initClient();
+    }
+
+    /**
+     * Create the connection pool and the client that uses it.  Must follow the trust store setup as the ssl socket factory reads
+     * the system properties.
+     */
+    private void initClient()
+    {
+        Config cfg = Config.getInstance();
+        final long keepAlive = TimeUnit.SECONDS.toMillis( cfg.getInt( HTTP_KEEPALIVE, DEFAULT_KEEPALIVE ) );
+        int idleTimeout = cfg.getInt( HTTP_IDLE_TIMEOUT, DEFAULT_IDLE_TIMEOUT );
+        Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+            .register( "http", PlainConnectionSocketFactory.getSocketFactory() )
+            .register( "https", SSLConnectionSocketFactory.getSystemSocketFactory() )
+            .build();
+        connectionManager = new PoolingHttpClientConnectionManager( registry );
+        connectionManager.setMaxTotal( cfg.getInt( HTTP_MAX_TOTAL, DEFAULT_MAX_TOTAL ) );
+        connectionManager.setDefaultMaxPerRoute( cfg.getInt( HTTP_MAX_PER_ROUTE, DEFAULT_MAX_PER_ROUTE ) );
+        // A pooled connection that has sat unused for a while is checked before it is handed out, in case the server closed it:
+        connectionManager.setValidateAfterInactivity( 2000 );
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectTimeout( cfg.getInt( HTTP_CONNECT_TIMEOUT, DEFAULT_CONNECT_TIMEOUT ) )
+            .setSocketTimeout( cfg.getInt( HTTP_SOCKET_TIMEOUT, DEFAULT_SOCKET_TIMEOUT ) )
+            .setConnectionRequestTimeout( cfg.getInt( HTTP_REQUEST_TIMEOUT, DEFAULT_REQUEST_TIMEOUT ) )
+            .build();
+        httpClient = HttpClientBuilder.create().useSystemProperties()
+            .setConnectionManager( connectionManager )
+            .setDefaultRequestConfig( requestConfig )
+            .setKeepAliveStrategy( new ConnectionKeepAliveStrategy()
+            {
+                @Override
+                public long getKeepAliveDuration( HttpResponse response, HttpContext context )
+                {
+                    // Honor the server's Keep-Alive header if present, else use ours:
+                    long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration( response, context );
+                    return duration > 0 ? duration : keepAlive;
+                }
+            } )
+            .evictExpiredConnections()
+            .evictIdleConnections( idleTimeout, TimeUnit.SECONDS )
+            .build();
+        LOG.info( "HTTP Pool Properties: maxTotal:{}, maxPerRoute:{}, keepAlive:{}, idleTimeout:{}", connectionManager.getMaxTotal(),
+            connectionManager.getDefaultMaxPerRoute(), keepAlive, idleTimeout );
+    }
+
+    /**
+     * Return the statistics of the pool of connections to fortress-rest.
+     *
+     * @return PoolStats contains the number of connections leased, available, and requests pending, along with the pool size.
+     */
+    public PoolStats getPoolStats()
+    {
+        return connectionManager.getTotalStats();
     }
 
     private RestUtils(){
@@ -159,28 +251,36 @@ public final class RestUtils
      */
     public static String marshal( FortRequest request ) throws RestException
     {
-        String szRetValue;
+        // Create a stringWriter to hold the XML
+        final StringWriter stringWriter = new StringWriter();
+        marshal( request, new StreamResult( stringWriter ) );
+        return stringWriter.toString();
+    }
+
+
+    /**
+     * Marshall the request into an XML stream.
+     *
+     * @param request
+     * @param result contains the Writer or OutputStream the XML is written to.
+     * @throws RestException
+     */
+    private static void marshal( FortRequest request, StreamResult result ) throws RestException
+    {
         try
         {
-            // Create a JAXB context passing in the class of the object we want to marshal/unmarshal
-            final JAXBContext context = cachedJaxbContext.getJaxbContext( FortRequest.class );
-            // =============================================================================================================
-            // Marshalling OBJECT to XML
-            // =============================================================================================================
-            // Create the marshaller, that will transform the object into XML
-            final Marshaller marshaller = context.createMarshaller();
-            // Create a stringWriter to hold the XML
-            final StringWriter stringWriter = new StringWriter();
-            // Marshal the javaObject and write the XML to the stringWriter
-            marshaller.marshal( request, stringWriter );
-            szRetValue = stringWriter.toString();
+            // The marshaller is taken from a pool as it is not thread safe:
+            JAXBCachedEntry entry = cachedJaxbContext.getEntry( FortRequest.class );
+            Marshaller marshaller = entry.acquireMarshaller();
+            marshaller.marshal( request, result );
+            // Only returned to the pool if it succeeded:
+            entry.releaseMarshaller( marshaller );
         }
         catch ( JAXBException je )
         {
             String error = "marshal caught JAXBException=" + je;
             throw new RestException( GlobalErrIds.REST_MARSHALL_ERR, error, je );
         }
-        return szRetValue;
     }
 
 
@@ -192,16 +292,29 @@ public final class RestUtils
      * @throws RestException
      */
     public static FortResponse unmarshall( String szResponse ) throws RestException
+    {
+        return unmarshall( new StreamSource( new StringReader( szResponse ) ) );
+    }
+
+
+    /**
+     * Unmarshall an XML stream into its associated Java objects.
+     *
+     * @param source contains the Reader or InputStream the XML is read from.
+     * @return FortResponse
+     * @throws RestException
+     */
+    private static FortResponse unmarshall( StreamSource source ) throws RestException
     {
         FortResponse response;
         try
         {
-            // Create a JAXB context passing in the class of the object we want to marshal/unmarshal
-            final JAXBContext context = cachedJaxbContext.getJaxbContext( FortResponse.class );
-
-            // Create the unmarshaller, that will transform the XML back into an object
-            final Unmarshaller unmarshaller = context.createUnmarshaller();
-            response = ( FortResponse ) unmarshaller.unmarshal( new StringReader( szResponse ) );
+            // The unmarshaller is taken from a pool as it is not thread safe:
+            JAXBCachedEntry entry = cachedJaxbContext.getEntry( FortResponse.class );
+            Unmarshaller unmarshaller = entry.acquireUnmarshaller();
+            response = ( FortResponse ) unmarshaller.unmarshal( source );
+            // Only returned to the pool if it succeeded:
+            entry.releaseUnmarshaller( unmarshaller );
         }
         catch ( JAXBException je )
         {
@@ -244,8 +357,7 @@ public final class RestUtils
         {
             get = new HttpGet(url);
             setMethodHeaders( get );
-            szResponse = handleHttpMethod( get ,HttpClientBuilder.create().useSystemProperties()
-                .setDefaultCredentialsProvider(getCredentialProvider(userId, password)).build() );
+            szResponse = handleHttpMethod( get, httpClient, getContext( userId, password ) );
         }
         catch ( WebApplicationException we )
         {
@@ -299,26 +411,117 @@ public final class RestUtils
     public String post( String userId, String password, String szInput, String function ) throws RestException
     {
         LOG.debug( "post uri=[{}], function=[{}], request=[{}]", uri, function, szInput );
-        String szResponse = null;
+        return post( userId, password, new StringEntity( szInput, ContentType.TEXT_XML ), function, new ResponseReader<String>()
+        {
+            @Override
+            public String read( HttpEntity entity ) throws IOException
+            {
+                String szResponse = entity != null ? IOUtils.toString( entity.getContent(), "UTF-8" ) : null;
+                // Crack the response and see if it can be parsed as a valid Fortress Response object or generic HTTP:
+                return StringUtils.isNotEmpty( szResponse ) && szResponse.contains( VALID_RESPONSE ) ? szResponse : null;
+            }
+        } );
+    }
+
+
+    /**
+     * Perform an HTTP Post REST operation.
+     *
+     * @param szInput
+     * @param function
+     * @return String containing response
+     * @throws RestException
+     */
+    public String post( String szInput, String function ) throws RestException
+    {
+        return post(null,null,szInput, function);
+    }
+
+
+    /**
+     * Perform an HTTP Post REST operation.  The request is marshalled directly onto the connection and the response unmarshalled
+     * directly from it, so neither is held in memory as a String.
+     *
+     * @param userId
+     * @param password
+     * @param request
+     * @param function
+     * @return FortResponse
+     * @throws RestException
+     */
+    public FortResponse post( String userId, String password, FortRequest request, String function ) throws RestException
+    {
+        LOG.debug( "post uri=[{}], function=[{}]", uri, function );
+        return post( userId, password, new FortRequestEntity( request ), function, new ResponseReader<FortResponse>()
+        {
+            @Override
+            public FortResponse read( HttpEntity entity ) throws IOException
+            {
+                if ( entity == null )
+                {
+                    return null;
+                }
+                try
+                {
+                    return unmarshall( new StreamSource( entity.getContent() ) );
+                }
+                catch ( RestException | ClassCastException e )
+                {
+                    // Not a valid Fortress Response object:
+                    LOG.debug( "post read caught {}", e.getMessage() );
+                    return null;
+                }
+            }
+        } );
+    }
+
+
+    /**
+     * Perform an HTTP Post REST operation.
+     *
+     * @param request
+     * @param function
+     * @return FortResponse
+     * @throws RestException
+     */
+    public FortResponse post( FortRequest request, String function ) throws RestException
+    {
+        return post( null, null, request, function );
+    }
+
+
+    /**
+     * Send the request and map the HTTP status of the response.
+     *
+     * @param userId
+     * @param password
+     * @param entity contains the request body.
+     * @param function
+     * @param reader converts the response body.
+     * @return the converted response.
+     * @throws RestException
+     */
+    private <T> T post( String userId, String password, HttpEntity entity, String function, ResponseReader<T> reader )
+        throws RestException
+    {
+        T result = null;
         HttpPost post = new HttpPost( uri + function);
         post.addHeader( "Accept", "text/xml" );
         setMethodHeaders( post );
+        CloseableHttpResponse response = null;
         try
         {
-            HttpEntity entity = new StringEntity( szInput, ContentType.TEXT_XML );
             post.setEntity( entity );
-            org.apache.http.client.HttpClient httpclient = HttpClientBuilder.create().useSystemProperties()
-                .setDefaultCredentialsProvider(getCredentialProvider(userId, password)).build();
-            HttpResponse response = httpclient.execute( post );
+            response = httpClient.execute( post, getContext( userId, password ) );
             String error;
 
             switch ( response.getStatusLine().getStatusCode() )
             {
                 case HTTP_OK :
-                    szResponse = IOUtils.toString( response.getEntity().getContent(), "UTF-8" );
-                    if( StringUtils.isNotEmpty( szResponse ) && szResponse.contains(VALID_RESPONSE) )
+                    result = reader.read( response.getEntity() );
+                    if( result != null )
                     {
-                        LOG.debug( "post uri=[{}], function=[{}], response=[{}]", uri, function, szResponse );
+                        LOG.debug( "post uri=[{}], function=[{}], response=[{}]", uri, function, result );
                     }
                     else
                     {
@@ -336,11 +539,10 @@ public final class RestUtils
                     LOG.error( error );
                     throw new RestException( GlobalErrIds.REST_FORBIDDEN_ERR, error );
                 case HTTP_404_NOT_FOUND:
-                    szResponse = IOUtils.toString( response.getEntity().getContent(), "UTF-8" );
-                    // Crack the response and see if it can be parsed as a valid Fortress Response object or generic HTTP:
-                    if( StringUtils.isNotEmpty( szResponse ) && szResponse.contains(VALID_RESPONSE) )
+                    result = reader.read( response.getEntity() );
+                    if( result != null )
                     {
-                        LOG.debug( "HTTP: 404: post uri=[{}], function=[{}], response=[{}]", uri, function, szResponse );
+                        LOG.debug( "HTTP: 404: post uri=[{}], function=[{}], response=[{}]", uri, function, result );
                     }
                     else
                     {
@@ -350,11 +552,10 @@ public final class RestUtils
                     }
                     break;
                 case HTTP_500_INTERNAL_SERVER_ERROR:
-                    szResponse = IOUtils.toString( response.getEntity().getContent(), "UTF-8" );
-                    // Crack the response and see if it can be parsed as a valid Fortress Response object or generic HTTP:
-                    if( StringUtils.isNotEmpty( szResponse ) && szResponse.contains(VALID_RESPONSE) )
+                    result = reader.read( response.getEntity() );
+                    if( result != null )
                     {
-                        LOG.debug( "HTTP 500: post uri=[{}], function=[{}], response=[{}]", uri, function, szResponse );
+                        LOG.debug( "HTTP 500: post uri=[{}], function=[{}], response=[{}]", uri, function, result );
                     }
                     else
                     {
@@ -364,11 +565,10 @@ public final class RestUtils
                     }
                     break;
                 case HTTP_400_VALIDATION_EXCEPTION:
-                    szResponse = IOUtils.toString( response.getEntity().getContent(), "UTF-8" );
-                    // Crack the response and see if it can be parsed as a valid Fortress Response object or generic HTTP:
-                    if( StringUtils.isNotEmpty( szResponse ) && szResponse.contains(VALID_RESPONSE) )
+                    result = reader.read( response.getEntity() );
+                    if( result != null )
                     {
-                        LOG.debug( "HTTP 400: post uri=[{}], function=[{}], response=[{}]", uri, function, szResponse );
+                        LOG.debug( "HTTP 400: post uri=[{}], function=[{}], response=[{}]", uri, function, result );
                     }
                     else
                     {
@@ -385,6 +585,11 @@ public final class RestUtils
         }
         catch ( IOException ioe )
         {
+            // The request could not be marshalled onto the connection:
+            if ( ioe.getCause() instanceof RestException )
+            {
+                throw ( RestException ) ioe.getCause();
+            }
             String error = generateErrorMessage( uri, function, "caught IOException=" + ioe.getMessage() );
             LOG.error( error, ioe );
             throw new RestException( GlobalErrIds.REST_IO_ERR, error, ioe );
@@ -403,10 +608,14 @@ public final class RestUtils
         }
         finally
         {
-            // Release current connection to the connection pool.
+            // Read any unconsumed content so the connection may be reused, then release it to the connection pool.
+            if ( response != null )
+            {
+                EntityUtils.consumeQuietly( response.getEntity() );
+            }
             post.releaseConnection();
         }
-        return szResponse;
+        return result;
     }
 
     private String generateErrorMessage( String uri, String function, String messageToShow ) {
@@ -416,16 +625,21 @@ public final class RestUtils
 
 
     /**
-     * Perform an HTTP Post REST operation.
+     * The credentials are set on each request's context as the client is shared.  They are sent preemptively with basic auth,
+     * which saves the round trip of the 401 challenge.
      *
-     * @param szInput
-     * @param function
-     * @return String containing response
-     * @throws RestException
+     * @param uid
+     * @param password
+     * @return HttpClientContext for a single request.
      */
-    public String post( String szInput, String function ) throws RestException
+    private HttpClientContext getContext( String uid, String password )
     {
-        return post(null,null,szInput, function);
+        HttpClientContext context = HttpClientContext.create();
+        context.setCredentialsProvider( getCredentialProvider( uid, password ) );
+        AuthCache authCache = new BasicAuthCache();
+        authCache.put( new HttpHost( httpHost, Integer.valueOf( httpPort ), httpProtocol ), new BasicScheme() );
+        context.setAuthCache( authCache );
+        return context;
     }
 
     private CredentialsProvider getCredentialProvider(String uid, String password) {
@@ -471,15 +685,18 @@ public final class RestUtils
      * Process the HTTP method request.
      *
      * @param httpGetRequest
+     * @param client
+     * @param context
      * @return String containing response
      * @throws Exception
      */
-    private static String handleHttpMethod( HttpRequestBase httpGetRequest ,org.apache.http.client.HttpClient client ) throws RestException
+    private static String handleHttpMethod( HttpRequestBase httpGetRequest, CloseableHttpClient client, HttpClientContext context ) throws RestException
     {
         String szResponse = null;
+        CloseableHttpResponse response = null;
         try
         {
-            HttpResponse response = client.execute( httpGetRequest );
+            response = client.execute( httpGetRequest, context );
             LOG.debug( "handleHttpMethod Response status : {}", response.getStatusLine().getStatusCode() );
 
             Response.Status status = Response.Status.fromStatusCode( response.getStatusLine().getStatusCode() );
@@ -510,7 +727,11 @@ public final class RestUtils
         }
         finally
         {
-            // Release current connection to the connection pool.
+            // Read any unconsumed content so the connection may be reused, then release it to the connection pool.
+            if ( response != null )
+            {
+                EntityUtils.consumeQuietly( response.getEntity() );
+            }
             httpGetRequest.releaseConnection();
         }
         return szResponse;
@@ -563,4 +784,71 @@ public final class RestUtils
         }
         return props;
     }
-}
\ No newline at end of file
+
+    /**
+     * Converts the body of a response.
+     */
+    private interface ResponseReader<T>
+    {
+        /**
+         * @param entity contains the response body, may be null.
+         * @return the converted body, or null if it does not contain a valid Fortress response.
+         * @throws IOException in the event the body cannot be read.
+         */
+        T read( HttpEntity entity ) throws IOException;
+    }
+
+
+    /**
+     * Request body that marshals a FortRequest as it is written to the connection, rather than into a String beforehand.
+     * The length is not known in advance so the body is sent chunked.
+     */
+    private static final class FortRequestEntity extends AbstractHttpEntity
+    {
+        private final FortRequest request;
+
+        private FortRequestEntity( FortRequest request )
+        {
+            this.request = request;
+        }
+
+        @Override
+        public boolean isRepeatable()
+        {
+            return true;
+        }
+
+        @Override
+        public long getContentLength()
+        {
+            return -1;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException
+        {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writeTo( out );
+            return new ByteArrayInputStream( out.toByteArray() );
+        }
+
+        @Override
+        public void writeTo( OutputStream out ) throws IOException
+        {
+            try
+            {
+                marshal( request, new StreamResult( out ) );
+            }
+            catch ( RestException e )
+            {
+                throw new IOException( e.getMessage(), e );
+            }
+        }
+
+        @Override
+        public boolean isStreaming()
+        {
+            return false;
+        }
+    }
+}
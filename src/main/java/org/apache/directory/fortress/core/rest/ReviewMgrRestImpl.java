@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.stream.Stream;
 
 import org.apache.directory.fortress.core.GlobalErrIds;
 import org.apache.directory.fortress.core.ReviewMgr;
@@ -94,9 +95,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(permission);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.PERM_READ);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.PERM_READ);
         if (response.getErrorCode() == 0)
         {
             retPerm = (Permission) response.getEntity();
@@ -121,9 +120,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(permObj);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.OBJ_READ);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.OBJ_READ);
         if (response.getErrorCode() == 0)
         {
             retObj = (PermObj) response.getEntity();
@@ -148,9 +145,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(permission);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.PERM_SEARCH);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.PERM_SEARCH);
         if (response.getErrorCode() == 0)
         {
             retPerms = response.getEntities();
@@ -163,6 +158,20 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
     }
 
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The REST server does not page, the results are returned in a single response and {@code pageSize} is ignored.
+     */
+    @Override
+    public Stream<Permission> streamPermissions(Permission permission, int pageSize)
+        throws SecurityException
+    {
+        List<Permission> perms = findPermissions(permission);
+        return perms != null ? perms.stream() : Stream.<Permission>empty();
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -175,9 +184,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(permObj);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.PERM_OBJ_SEARCH);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.PERM_OBJ_SEARCH);
         if (response.getErrorCode() == 0)
         {
             retPerms = response.getEntities();
@@ -202,9 +209,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(permission);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.PERM_SEARCH_ANY);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.PERM_SEARCH_ANY);
         if (response.getErrorCode() == 0)
         {
             retPerms = response.getEntities();
@@ -229,9 +234,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(permObj);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.OBJ_SEARCH);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.OBJ_SEARCH);
         if (response.getErrorCode() == 0)
         {
             retObjs = response.getEntities();
@@ -258,9 +261,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         PermObj inObj = new PermObj();
         inObj.setOu(ou.getName());
         request.setEntity(inObj);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.OBJ_SEARCH);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.OBJ_SEARCH);
         if (response.getErrorCode() == 0)
         {
             retObjs = response.getEntities();
@@ -285,9 +286,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(role);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ROLE_READ);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ROLE_READ);
         if (response.getErrorCode() == 0)
         {
             retRole = (Role) response.getEntity();
@@ -312,9 +311,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setValue(searchVal);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ROLE_SEARCH);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ROLE_SEARCH);
         if (response.getErrorCode() == 0)
         {
             retRoles = response.getEntities();
@@ -340,9 +337,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         request.setContextId(this.contextId);
         request.setValue(searchVal);
         request.setLimit(limit);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ROLE_SEARCH);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ROLE_SEARCH);
         if (response.getErrorCode() == 0)
         {
             retRoles = response.getValues();
@@ -367,9 +362,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(user);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.USER_READ);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.USER_READ);
         if (response.getErrorCode() == 0)
         {
             retUser = (User) response.getEntity();
@@ -394,9 +387,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(user);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.USER_SEARCH);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.USER_SEARCH);
         if (response.getErrorCode() == 0)
         {
             retUsers = response.getEntities();
@@ -409,6 +400,20 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
     }
 
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The REST server does not page, the results are returned in a single response and {@code pageSize} is ignored.
+     */
+    @Override
+    public Stream<User> streamUsers(User user, int pageSize)
+        throws SecurityException
+    {
+        List<User> users = findUsers(user);
+        return users != null ? users.stream() : Stream.<User>empty();
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -423,9 +428,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         User inUser = new User();
         inUser.setOu( ou.getName() );
         request.setEntity(inUser);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.USER_SEARCH);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.USER_SEARCH);
         if (response.getErrorCode() == 0)
         {
             retUsers = response.getEntities();
@@ -451,9 +454,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         request.setContextId(this.contextId);
         request.setLimit( limit );
         request.setEntity(user);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.USER_SEARCH);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.USER_SEARCH);
         if (response.getErrorCode() == 0)
         {
             retUsers = response.getValues();
@@ -479,9 +480,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         request.setContextId(this.contextId);
         request.setLimit(limit);
         request.setEntity(role);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.USER_ASGNED);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.USER_ASGNED);
         if (response.getErrorCode() == 0)
         {
             retUsers = response.getValues();
@@ -510,9 +509,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         List<User> retUsers;
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setEntity(role);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.USER_ASGNED);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.USER_ASGNED);
         if (response.getErrorCode() == 0)
         {
             retUsers = response.getEntities();
@@ -537,9 +534,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(user);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ROLE_ASGNED);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ROLE_ASGNED);
         if (response.getErrorCode() == 0)
         {
             retUserRoles = response.getEntities();
@@ -564,9 +559,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setValue( userId );
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ROLE_ASGNED);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ROLE_ASGNED);
         if (response.getErrorCode() == 0)
         {
             retUserRoles = response.getValues();
@@ -591,9 +584,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity( role );
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.USER_AUTHZED);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.USER_AUTHZED);
         if (response.getErrorCode() == 0)
         {
             retUsers = response.getEntities();
@@ -610,6 +601,20 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
     }
 
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The REST server does not page, the results are returned in a single response and {@code pageSize} is ignored.
+     */
+    @Override
+    public Stream<User> streamAuthorizedUsers(Role role, int pageSize)
+        throws SecurityException
+    {
+        List<User> users = authorizedUsers(role);
+        return users != null ? users.stream() : Stream.<User>empty();
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -622,9 +627,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(user);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ROLE_AUTHZED);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ROLE_AUTHZED);
         if (response.getErrorCode() == 0)
         {
             Set<String> tempNames = response.getValueSet();
@@ -663,9 +666,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         request.setContextId(this.contextId);
         request.setEntity(role);
         request.setIsFlag( noInheritance );
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ROLE_PERMS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ROLE_PERMS);
         if (response.getErrorCode() == 0)
         {
             retPerms = response.getEntities();
@@ -690,9 +691,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         request.setContextId(this.contextId);
         request.setEntity(role);
         request.setIsFlag( noInhertiance );
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ROLE_PERM_ATTR_SETS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ROLE_PERM_ATTR_SETS);
         if (response.getErrorCode() == 0)
         {
             retAttrSets = response.getEntities();
@@ -716,9 +715,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(user);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.USER_PERMS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.USER_PERMS);
         if (response.getErrorCode() == 0)
         {
             retPerms = response.getEntities();
@@ -743,9 +740,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(perm);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.PERM_ROLES);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.PERM_ROLES);
         if (response.getErrorCode() == 0)
         {
             retRoleNames = response.getValues();
@@ -770,9 +765,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(perm);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.PERM_ROLES_AUTHZED);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.PERM_ROLES_AUTHZED);
         if (response.getErrorCode() == 0)
         {
             Set<String> tempNames = response.getValueSet();
@@ -799,9 +792,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(perm);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.PERM_USERS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.PERM_USERS);
         if (response.getErrorCode() == 0)
         {
             retUsers = response.getValues();
@@ -826,9 +817,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(perm);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.PERM_USERS_AUTHZED);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.PERM_USERS_AUTHZED);
         if (response.getErrorCode() == 0)
         {
             Set<String> tempNames = response.getValueSet();
@@ -855,9 +844,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(role);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.SSD_ROLE_SETS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.SSD_ROLE_SETS);
         if (response.getErrorCode() == 0)
         {
             retSsdRoleSets = response.getEntities();
@@ -886,9 +873,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(set);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.SSD_READ);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.SSD_READ);
         if (response.getErrorCode() == 0)
         {
             retSet = (SDSet) response.getEntity();
@@ -912,9 +897,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
          FortRequest request = new FortRequest();
          request.setContextId(this.contextId);
          request.setEntity(ssd);
-         String szRequest = RestUtils.marshal(request);
-         String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.SSD_SETS);
-         FortResponse response = RestUtils.unmarshall(szResponse);
+         FortResponse response = RestUtils.getInstance().post(request, HttpIds.SSD_SETS);
          if (response.getErrorCode() == 0)
          {
              retSsdSets = response.getEntities();
@@ -943,9 +926,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(ssd);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.SSD_ROLES);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.SSD_ROLES);
         if (response.getErrorCode() == 0)
         {
             Set<String> tempNames = response.getValueSet();
@@ -972,9 +953,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(ssd);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.SSD_CARD);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.SSD_CARD);
         if (response.getErrorCode() == 0)
         {
             retSet = (SDSet) response.getEntity();
@@ -999,9 +978,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(role);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.DSD_ROLE_SETS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.DSD_ROLE_SETS);
         if (response.getErrorCode() == 0)
         {
             retDsdRoleSets = response.getEntities();
@@ -1030,9 +1007,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(set);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.DSD_READ);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.DSD_READ);
         if (response.getErrorCode() == 0)
         {
             retSet = (SDSet) response.getEntity();
@@ -1056,9 +1031,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
          FortRequest request = new FortRequest();
          request.setContextId(this.contextId);
          request.setEntity(dsd);
-         String szRequest = RestUtils.marshal(request);
-         String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.DSD_SETS);
-         FortResponse response = RestUtils.unmarshall(szResponse);
+         FortResponse response = RestUtils.getInstance().post(request, HttpIds.DSD_SETS);
          if (response.getErrorCode() == 0)
          {
              retDsdSets = response.getEntities();
@@ -1087,9 +1060,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(dsd);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.DSD_ROLES);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.DSD_ROLES);
         if (response.getErrorCode() == 0)
         {
             Set<String> tempNames = response.getValueSet();
@@ -1116,9 +1087,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(dsd);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.DSD_CARD);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.DSD_CARD);
         if (response.getErrorCode() == 0)
         {
             retSet = (SDSet) response.getEntity();
@@ -1144,9 +1113,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
             FortRequest request = new FortRequest();
             request.setContextId(this.contextId);
             request.setEntity(permAttributeSet);
-            String szRequest = RestUtils.marshal(request);
-            String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.PERM_READ_PERM_ATTRIBUTE_SET);
-            FortResponse response = RestUtils.unmarshall(szResponse);
+            FortResponse response = RestUtils.getInstance().post(request, HttpIds.PERM_READ_PERM_ATTRIBUTE_SET);
             if (response.getErrorCode() == 0)
             {
                 retPermSet = (PermissionAttributeSet)response.getEntity();
@@ -1176,9 +1143,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         request.setEntity( user );
         request.setEntity2( permission);
         request.setValue( rcType.toString() );
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ROLE_FIND_CONSTRAINTS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ROLE_FIND_CONSTRAINTS);
         if (response.getErrorCode() == 0)
         {
             retConstraints = response.getEntities();
@@ -1201,9 +1166,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         request.setContextId( this.contextId );
         request.setEntity( role );
         request.setEntity2( roleConstraint );
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.USER_ASGNED_CONSTRAINTS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.USER_ASGNED_CONSTRAINTS);
         if (response.getErrorCode() == 0)
         {
             users = response.getEntities();
@@ -1230,9 +1193,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         constraint.setKey( key );
         constraint.setType( rcType );
         request.setEntity2( constraint );
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.USER_ASGNED_CONSTRAINTS_KEY);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.USER_ASGNED_CONSTRAINTS_KEY);
         if (response.getErrorCode() == 0)
         {
             uRoles = response.getEntities();
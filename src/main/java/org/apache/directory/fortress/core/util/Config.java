@@ -22,8 +22,13 @@ package org.apache.directory.fortress.core.util;
 
 import java.net.URL;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.configuration.PropertiesConfiguration;
 import org.apache.commons.lang.StringUtils;
@@ -48,6 +53,10 @@ import org.slf4j.LoggerFactory;
  * <p>
  * This object is thread safe but stores a static reference to Apache Commons Configuration {@link #config} object.
  * <p>
+ * Reads do not go to {@link #config}, whose methods are synchronized.  Once loaded, and after every change, the properties are
+ * copied into an immutable {@link ConfigSnapshot} which is published through a volatile reference and read without locking.
+ * Components that derive state from the configuration may register a {@link ConfigListener} to be told when a new snapshot is published.
+ * <p>
  *
  * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
  */
@@ -86,6 +95,11 @@ public final class Config
     // used internally to determine if the remote config has been loaded.
     private boolean remoteConfigLoaded = false;
 
+    // The current properties, replaced as a whole on every change:
+    private volatile ConfigSnapshot snapshot;
+    private final AtomicLong versions = new AtomicLong();
+    private final List<ConfigListener> listeners = new CopyOnWriteArrayList<>();
+
     /**
      * Return a static reference to this instance.  If the instance has not been instantiated, call the boostrap:
      * <ul>
@@ -125,6 +139,76 @@ public final class Config
         loadLocalConfig();
         // load the system property overrides:
         getExternalConfig();
+        publish();
+    }
+
+    /**
+     * Return the current configuration.  Callers reading several properties at once should use the same snapshot for all of them.
+     *
+     * @return immutable snapshot of the configuration.
+     */
+    public ConfigSnapshot getSnapshot()
+    {
+        return snapshot;
+    }
+
+    /**
+     * Register to be told each time the configuration changes.
+     *
+     * @param listener will be called after each new snapshot is published.
+     */
+    public void addListener( ConfigListener listener )
+    {
+        listeners.add( listener );
+    }
+
+    /**
+     * Stop being told of configuration changes.
+     *
+     * @param listener previously passed to {@link #addListener(ConfigListener)}.
+     */
+    public void removeListener( ConfigListener listener )
+    {
+        listeners.remove( listener );
+    }
+
+    /**
+     * Copy the apache commons config into a new snapshot, replace the current one, and tell the listeners.
+     */
+    private void publish()
+    {
+        ConfigSnapshot next;
+        synchronized ( config )
+        {
+            Map<String, String> props = new HashMap<>();
+            for ( Iterator<String> keys = config.getKeys(); keys.hasNext(); )
+            {
+                String key = keys.next();
+                Object value = config.getProperty( key );
+                if ( value instanceof List )
+                {
+                    List<?> values = ( List<?> ) value;
+                    value = values.isEmpty() ? null : values.get( 0 );
+                }
+                if ( value != null )
+                {
+                    props.put( key, String.valueOf( value ) );
+                }
+            }
+            next = new ConfigSnapshot( props, versions.incrementAndGet() );
+            snapshot = next;
+        }
+        for ( ConfigListener listener : listeners )
+        {
+            try
+            {
+                listener.configChanged( next );
+            }
+            catch ( RuntimeException e )
+            {
+                LOG.warn( "publish listener [{}] caught RuntimeException={}", listener, e.getMessage(), e );
+            }
+        }
     }
 
     /**
@@ -147,16 +231,8 @@ public final class Config
      */
     public String getProperty( String name, boolean nologvalue )
     {
-        String value = null;
-        if ( config != null )
-        {
-            value = ( String ) config.getProperty( name );
-            LOG.debug( "getProperty name [{}] value [{}]", name, nologvalue ? "****" : value );
-        }
-        else
-        {
-            LOG.warn( "getProperty invalid config, can't read prop [{}]", name );
-        }
+        String value = snapshot.getProperty( name );
+        LOG.debug( "getProperty name [{}] value [{}]", name, nologvalue ? "****" : value );
         return value;
     }
 
@@ -169,21 +245,8 @@ public final class Config
      */
     public String getProperty( String name, String defaultValue )
     {
-        String value = null;
-        if ( config != null )
-        {
-            value = ( String ) config.getProperty( name );
-            LOG.debug( "getProperty name [{}] value [{}] default value [{}]", name, value, defaultValue );
-        }
-        else
-        {
-            String warn = "getProperty invalid config, can't read prop [" + name + "]";
-            LOG.warn( warn );
-        }
-        if ( value == null || value.length() == 0 )
-        {
-            value = defaultValue;
-        }
+        String value = snapshot.getProperty( name, defaultValue );
+        LOG.debug( "getProperty name [{}] value [{}] default value [{}]", name, value, defaultValue );
         return value;
     }
 
@@ -195,16 +258,9 @@ public final class Config
      */
     public char getChar( String name )
     {
-        char value = 0;
-        if ( config != null )
-        {
-            value = ( char ) config.getProperty( name );
-            LOG.debug( "getChar name [{}] value [{}]", name, value );
-        }
-        else
-        {
-            LOG.warn( "getChar invalid config, can't read prop [{}]", name );
-        }
+        String szValue = snapshot.getProperty( name );
+        char value = StringUtils.isNotEmpty( szValue ) ? szValue.charAt( 0 ) : 0;
+        LOG.debug( "getChar name [{}] value [{}]", name, value );
         return value;
     }
 
@@ -217,16 +273,7 @@ public final class Config
      */
     public char getChar( String name, char defaultValue )
     {
-        char value = 0;
-        if ( config != null )
-        {
-            value = ( char ) config.getProperty( name );
-            LOG.debug( "getChar name [{}] value [{}]", name, value );
-        }
-        else
-        {
-            LOG.warn( "getChar invalid config, can't read prop [{}], using default [{}]", name, defaultValue );
-        }
+        char value = getChar( name );
         if ( value == 0 )
         {
             value = defaultValue;
@@ -242,24 +289,7 @@ public final class Config
      */
     public int getInt( String key )
     {
-        int value = 0;
-        try
-        {
-            if ( config != null )
-            {
-                value = config.getInt( key );
-                LOG.debug( "getInt name [{}] value [{}]", key, value );
-            }
-            else
-            {
-                LOG.warn( "getInt invalid config, can't read prop [{}]", key );
-            }
-        }
-        catch (org.apache.commons.configuration.ConversionException e)
-        {
-            LOG.debug( "getInt can't read prop [{}], exception [{}]", key, e );
-        }
-        return value;
+        return getInt( key, 0 );
     }
 
     /**
@@ -271,24 +301,8 @@ public final class Config
      */
     public int getInt( String key, int defaultValue )
     {
-        int value = defaultValue;
-        try
-        {
-            if ( config != null )
-            {
-                value = config.getInt( key, defaultValue );
-                LOG.debug( "getInt name [{}] value [{}]", key, value );
-            }
-            else
-            {
-                LOG.warn( "getInt invalid config, can't read prop [{}], using default [{}]", key, defaultValue );
-
-            }
-        }
-        catch (org.apache.commons.configuration.ConversionException e)
-        {
-            LOG.debug( "getInt can't read prop [{}], using default [{}], exception [{}]", key, defaultValue, e );
-        }
+        int value = snapshot.getInt( key, defaultValue );
+        LOG.debug( "getInt name [{}] value [{}]", key, value );
         return value;
     }
 
@@ -300,25 +314,7 @@ public final class Config
      */
     public boolean getBoolean( String key )
     {
-        boolean value = false;
-        try
-        {
-            if (config != null)
-            {
-                value = config.getBoolean(key);
-                LOG.debug( "getBoolean name [{}] value [{}]", key, value );
-            }
-            else
-            {
-                LOG.warn( "getBoolean invalid config, can't read prop [{}], using default [{}]", key, false );
-
-            }
-        }
-        catch (java.util.NoSuchElementException e )
-        {
-            LOG.debug( "getBoolean - no such element [{}], using default [{}]", key, false );
-        }
-        return value;
+        return getBoolean( key, false );
     }
 
     /**
@@ -330,59 +326,38 @@ public final class Config
      */
     public boolean getBoolean( String key, boolean defaultValue )
     {
-        boolean value = defaultValue;
-        try
-        {
-            if ( config != null )
-            {
-                value = config.getBoolean( key, defaultValue );
-                LOG.debug( "getBoolean name [{}] value [{}]", key, value );
-            }
-            else
-            {
-                LOG.warn( "getBoolean - invalid config, can't read prop [{}], using default [{}]", key, defaultValue );
-            }
-        }
-        catch (java.util.NoSuchElementException e )
-        {
-            LOG.debug( "getBoolean - no such element [{}], using default [{}]", key, defaultValue );
-        }
+        boolean value = snapshot.getBoolean( key, defaultValue );
+        LOG.debug( "getBoolean name [{}] value [{}]", key, value );
         return value;
     }
 
     /**
-     * Set the property String value to the apache commons config.
+     * Set the property String value to the apache commons config and publish a new snapshot.
      *
      * @param name         contains the name of the property.
      * @param value        contains the String value of the property.
      */
     public void setProperty( String name, String value )
     {
-        if ( config != null )
+        synchronized ( config )
         {
             config.setProperty( name, value );
         }
-        else
-        {
-            LOG.warn( "setProperty invalid config, can't set prop name [{}], value [{}]" + name, value);
-        }
+        publish();
     }
 
     /**
-     * Clear the property from apache commons config.
+     * Clear the property from apache commons config and publish a new snapshot.
      *
      * @param name  contains the name of the property.
      */
     public void clearProperty( String name )
     {
-        if ( config != null )
+        synchronized ( config )
         {
             config.clearProperty( name );
         }
-        else
-        {
-            LOG.warn( "clearProperty invalid config, prop name [{}]", name );
-        }
+        publish();
     }
 
     /**
@@ -419,7 +394,7 @@ public final class Config
 
     public boolean isRestEnabled()
     {
-        return ( ( getProperty( GlobalIds.ENABLE_REST ) != null ) && ( getProperty( GlobalIds.ENABLE_REST ).equalsIgnoreCase( "true" ) ) );
+        return snapshot.isRestEnabled();
     }
     /**
      * Fortress stores complex attribute types within a single attribute in ldap.  Usually a delimiter of '$' is used for string tokenization.
@@ -427,34 +402,27 @@ public final class Config
      */
     public String getDelimiter()
     {
-        return getProperty( "attr.delimiter", "$" );
+        return snapshot.getDelimiter();
     }
     public boolean isAuditDisabled()
     {
-        return ( ( getProperty( GlobalIds.DISABLE_AUDIT ) != null ) && ( getProperty( GlobalIds.DISABLE_AUDIT ).equalsIgnoreCase( "true" ) ) );
+        return snapshot.isAuditDisabled();
     }
     public boolean isOpenldap()
     {
-        return ( ( getProperty( GlobalIds.SERVER_TYPE ) != null ) && ( getProperty( GlobalIds.SERVER_TYPE ).equalsIgnoreCase( "openldap" ) ) );
+        return snapshot.isOpenldap();
     }
     public boolean isApacheds()
     {
-        return ( ( getProperty( GlobalIds.SERVER_TYPE ) != null ) && ( getProperty( GlobalIds.SERVER_TYPE ).equalsIgnoreCase( "apacheds" ) ) );
+        return snapshot.isApacheds();
     }
     public boolean isRealm()
     {
-        return GlobalIds.REALM_TYPE.equalsIgnoreCase( getProperty( GlobalIds.AUTHENTICATION_TYPE ) );
+        return snapshot.isRealm();
     }
     public boolean isRoleOccupant()
     {
-        // misc LDAP:
-        String ROLE_OCCUPANTS = "role.occupants";
-
-        // default is true:
-        boolean result = true;
-        if(( ( getProperty( ROLE_OCCUPANTS ) != null ) && ( getProperty( ROLE_OCCUPANTS ).equalsIgnoreCase( "false" ) ) ))
-            result = false;
-        return result;
+        return snapshot.isRoleOccupant();
     }
 
     private boolean isRemoteConfigLoaded()
@@ -742,26 +710,20 @@ public final class Config
                         String val = props.getProperty( key );
                         config.setProperty( key, val );
                     }
+                    publish();
                 }
 
                 //init ldap util vals since config is stored on server
-                boolean ldapfilterSizeFound = ( getProperty( GlobalIds.LDAP_FILTER_SIZE_PROP ) != null );
-                LdapUtil.getInstance().setLdapfilterSizeFound(ldapfilterSizeFound);
-                LdapUtil.getInstance().setLdapMetaChars( loadLdapEscapeChars() );
-                LdapUtil.getInstance().setLdapReplVals( loadValidLdapVals() );
-                try
+                initLdapUtil();
+                // and again should they be changed:
+                addListener( new ConfigListener()
                 {
-                    String lenProp = getProperty( GlobalIds.LDAP_FILTER_SIZE_PROP );
-                    if ( ldapfilterSizeFound )
+                    @Override
+                    public void configChanged( ConfigSnapshot snapshot )
                     {
-                        LdapUtil.getInstance().setLdapFilterSize(Integer.valueOf( lenProp ));
+                        initLdapUtil();
                     }
-                }
-                catch ( java.lang.NumberFormatException nfe )
-                {
-                    String error = "loadRemoteConfig caught NumberFormatException=" + nfe;
-                    LOG.warn( error );
-                }
+                } );
                 remoteConfigLoaded = true;
             }
             else
@@ -778,6 +740,30 @@ public final class Config
         }
     }
 
+    /**
+     * Load the ldap filter escape values into {@link LdapUtil}.
+     */
+    private void initLdapUtil()
+    {
+        boolean ldapfilterSizeFound = ( getProperty( GlobalIds.LDAP_FILTER_SIZE_PROP ) != null );
+        LdapUtil.getInstance().setLdapfilterSizeFound(ldapfilterSizeFound);
+        LdapUtil.getInstance().setLdapMetaChars( loadLdapEscapeChars() );
+        LdapUtil.getInstance().setLdapReplVals( loadValidLdapVals() );
+        try
+        {
+            String lenProp = getProperty( GlobalIds.LDAP_FILTER_SIZE_PROP );
+            if ( ldapfilterSizeFound )
+            {
+                LdapUtil.getInstance().setLdapFilterSize(Integer.valueOf( lenProp ));
+            }
+        }
+        catch ( java.lang.NumberFormatException nfe )
+        {
+            String error = "initLdapUtil caught NumberFormatException=" + nfe;
+            LOG.warn( error );
+        }
+    }
+
     /**
      * Constructs a key used to store dynamic role constraints inside the properties, as name:value.
      * The key format is: RC$contextId$role
@@ -787,10 +773,11 @@ public final class Config
      */
     public String getConstraintKey( String role, String contextId )
     {
+        String delimiter = snapshot.getDelimiter();
         return GlobalIds.CONSTRAINT_KEY_PREFIX +
-                getDelimiter() +
+                delimiter +
                 contextId +
-                getDelimiter()
+                delimiter
                 + role.toLowerCase();
     }
 
@@ -0,0 +1,231 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.util;
+
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.configuration.ConversionException;
+import org.apache.commons.configuration.PropertyConverter;
+import org.apache.directory.fortress.core.GlobalIds;
+
+
+/**
+ * Contains the fortress configuration at a point in time.  {@link Config} publishes a new instance each time the configuration
+ * is loaded or changed, so readers need no locks.  The switches consulted on every request, e.g. {@link #isAuditDisabled()}
+ * or {@link #getDelimiter()}, are resolved once when the snapshot is built.
+ * <p>
+ * This class is immutable and thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class ConfigSnapshot
+{
+    private static final String ROLE_OCCUPANTS = "role.occupants";
+    private static final String DELIMITER = "attr.delimiter";
+    private static final String DEFAULT_DELIMITER = "$";
+    private final Map<String, String> props;
+    private final long version;
+    private final boolean restEnabled;
+    private final boolean auditDisabled;
+    private final boolean openldap;
+    private final boolean apacheds;
+    private final boolean realm;
+    private final boolean roleOccupant;
+    private final String delimiter;
+    private final char delimiterChar;
+    private final String suffix;
+
+
+    /**
+     * @param props   contains the name/value pairs, copied.
+     * @param version increases each time the configuration changes.
+     */
+    public ConfigSnapshot( Map<String, String> props, long version )
+    {
+        this.props = Collections.unmodifiableMap( new HashMap<>( props ) );
+        this.version = version;
+        this.restEnabled = "true".equalsIgnoreCase( props.get( GlobalIds.ENABLE_REST ) );
+        this.auditDisabled = "true".equalsIgnoreCase( props.get( GlobalIds.DISABLE_AUDIT ) );
+        this.openldap = "openldap".equalsIgnoreCase( props.get( GlobalIds.SERVER_TYPE ) );
+        this.apacheds = "apacheds".equalsIgnoreCase( props.get( GlobalIds.SERVER_TYPE ) );
+        this.realm = GlobalIds.REALM_TYPE.equalsIgnoreCase( props.get( GlobalIds.AUTHENTICATION_TYPE ) );
+        // default is true:
+        this.roleOccupant = !"false".equalsIgnoreCase( props.get( ROLE_OCCUPANTS ) );
+        this.delimiter = getProperty( DELIMITER, DEFAULT_DELIMITER );
+        this.delimiterChar = delimiter.charAt( 0 );
+        this.suffix = props.get( GlobalIds.SUFFIX );
+    }
+
+
+    /**
+     * @return a number that increases each time the configuration changes.
+     */
+    public long getVersion()
+    {
+        return version;
+    }
+
+
+    /**
+     * @return unmodifiable Map containing every name/value pair.
+     */
+    public Map<String, String> getProperties()
+    {
+        return props;
+    }
+
+
+    /**
+     * @param name contains the name of the property.
+     * @return contains the value associated with the property or null if not not found.
+     */
+    public String getProperty( String name )
+    {
+        return props.get( name );
+    }
+
+
+    /**
+     * @param name         contains the name of the property.
+     * @param defaultValue will be returned if property value is not found or empty.
+     * @return contains the value for the property as a String.
+     */
+    public String getProperty( String name, String defaultValue )
+    {
+        String value = props.get( name );
+        if ( value == null || value.length() == 0 )
+        {
+            value = defaultValue;
+        }
+        return value;
+    }
+
+
+    /**
+     * @param name         contains the name of the property.
+     * @param defaultValue will be returned if property value is not found or not a number.
+     * @return The int value or default value if not found.
+     */
+    public int getInt( String name, int defaultValue )
+    {
+        String value = props.get( name );
+        if ( value == null )
+        {
+            return defaultValue;
+        }
+        try
+        {
+            return PropertyConverter.toInteger( value );
+        }
+        catch ( ConversionException e )
+        {
+            return defaultValue;
+        }
+    }
+
+
+    /**
+     * @param name         contains the name of the property.
+     * @param defaultValue will be returned if property value is not found or not a boolean.
+     * @return The boolean value or default value if not found.
+     */
+    public boolean getBoolean( String name, boolean defaultValue )
+    {
+        String value = props.get( name );
+        if ( value == null )
+        {
+            return defaultValue;
+        }
+        try
+        {
+            return PropertyConverter.toBoolean( value );
+        }
+        catch ( ConversionException e )
+        {
+            return defaultValue;
+        }
+    }
+
+
+    public boolean isRestEnabled()
+    {
+        return restEnabled;
+    }
+
+
+    public boolean isAuditDisabled()
+    {
+        return auditDisabled;
+    }
+
+
+    public boolean isOpenldap()
+    {
+        return openldap;
+    }
+
+
+    public boolean isApacheds()
+    {
+        return apacheds;
+    }
+
+
+    public boolean isRealm()
+    {
+        return realm;
+    }
+
+
+    public boolean isRoleOccupant()
+    {
+        return roleOccupant;
+    }
+
+
+    /**
+     * @return the delimiter of complex attribute values stored in ldap, fortress config param 'attr.delimiter', default is '$'.
+     */
+    public String getDelimiter()
+    {
+        return delimiter;
+    }
+
+
+    /**
+     * @return the first character of {@link #getDelimiter()}.
+     */
+    public char getDelimiterChar()
+    {
+        return delimiterChar;
+    }
+
+
+    /**
+     * @return the ldap suffix, fortress config param 'suffix', e.g. dc=example,dc=com.
+     */
+    public String getSuffix()
+    {
+        return suffix;
+    }
+}
@@ -31,6 +31,19 @@ import net.sf.ehcache.search.Query;
  */
 public interface Cache
 {
+    /**
+     * Computes the value of an entry that is not in the cache.
+     */
+    interface Loader
+    {
+        /**
+         * @param key name of the entry.
+         * @return the value to store, or null if it could not be computed, which is then not stored.
+         */
+        Object load( Object key );
+    }
+
+
     /**
      * Given a key name, return the corresponding value.
      *
@@ -41,6 +54,18 @@ public interface Cache
     Object get( Object key ) throws CacheException;
 
 
+    /**
+     * Given a key name, return the corresponding value, or compute and store it if not present.  Threads reading the same
+     * missing entry wait on a single load.
+     *
+     * @param key is the name used to store the entry.
+     * @param loader computes the value when the entry is not present.
+     * @return entry stored in the cache, or the value loaded, which may be null.
+     * @throws CacheException will wraps the implementation's exception.
+     */
+    Object get( Object key, Loader loader ) throws CacheException;
+
+
     /**
      * Add a new entry to the cache.
      *
@@ -0,0 +1,194 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.util.cache;
+
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Counts the reads, loads and evictions of one cache, for {@link CacheStats}.  Shared by every handle on the cache that
+ * {@link CacheMgr} returns.  When tracking is on, the distinct keys read until {@link #drainKeys()} are also counted, to
+ * compare with the capacity of the cache.  The keys are not kept, they are counted approximately by a HyperLogLog of 4KB.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class CacheCounters
+{
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final long capacity;
+    private final DistinctCounter keys;
+
+
+    /**
+     * @param capacity   maximum number of entries of the cache, 0 if unbounded.
+     * @param isTracking if true, count the distinct keys read.
+     */
+    CacheCounters( long capacity, boolean isTracking )
+    {
+        this.capacity = capacity;
+        this.keys = isTracking && capacity > 0 ? new DistinctCounter() : null;
+    }
+
+
+    void hit( Object key )
+    {
+        hits.increment();
+        track( key );
+    }
+
+
+    void miss( Object key )
+    {
+        misses.increment();
+        track( key );
+    }
+
+
+    /**
+     * @param nanos time the load took.
+     */
+    void load( long nanos )
+    {
+        loads.increment();
+        loadNanos.add( nanos );
+    }
+
+
+    void evict()
+    {
+        evictions.increment();
+    }
+
+
+    /**
+     * @return maximum number of entries of the cache, 0 if unbounded.
+     */
+    long getCapacity()
+    {
+        return capacity;
+    }
+
+
+    /**
+     * Return the number of distinct keys read since the last call, and start counting again.
+     *
+     * @return the number of keys, exact for a few and within about 3% beyond, or -1 if not tracking.
+     */
+    int drainKeys()
+    {
+        if ( keys == null )
+        {
+            return -1;
+        }
+        return keys.drain();
+    }
+
+
+    /**
+     * @param name of the cache.
+     * @param size number of entries held.
+     * @return the counts so far.
+     */
+    CacheStats getStats( String name, long size )
+    {
+        return new CacheStats( name, hits.sum(), misses.sum(), loads.sum(), loadNanos.sum(), evictions.sum(), size,
+            capacity );
+    }
+
+
+    private void track( Object key )
+    {
+        if ( keys != null )
+        {
+            keys.add( key );
+        }
+    }
+
+
+    /**
+     * Estimates the number of distinct keys added, from the longest run of leading zeros of their hashes, kept in 1024
+     * registers each for the keys whose hashes start with its index.  Until many registers are used, the count is taken from
+     * the number still empty instead.  A register is only written when its run grows, so adding a key already counted is
+     * a read.
+     */
+    private static final class DistinctCounter
+    {
+        private static final int BITS = 10;
+        private static final int REGISTERS = 1 << BITS;
+        private static final double ALPHA = 0.7213 / ( 1 + 1.079 / REGISTERS );
+        private volatile AtomicIntegerArray registers = new AtomicIntegerArray( REGISTERS );
+
+
+        private void add( Object key )
+        {
+            long hash = spread( key.hashCode() );
+            int index = ( int ) ( hash >>> ( 64 - BITS ) );
+            // the guard bit bounds the run by the bits left after the index:
+            int run = Long.numberOfLeadingZeros( ( hash << BITS ) | ( 1L << ( BITS - 1 ) ) ) + 1;
+            AtomicIntegerArray current = registers;
+            int previous = current.get( index );
+            while ( run > previous && !current.compareAndSet( index, previous, run ) )
+            {
+                previous = current.get( index );
+            }
+        }
+
+
+        private int drain()
+        {
+            AtomicIntegerArray drained = registers;
+            registers = new AtomicIntegerArray( REGISTERS );
+            double sum = 0;
+            int empty = 0;
+            for ( int i = 0; i < REGISTERS; i++ )
+            {
+                int run = drained.get( i );
+                sum += 1.0 / ( 1L << run );
+                if ( run == 0 )
+                {
+                    empty++;
+                }
+            }
+            double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+            if ( estimate <= 2.5 * REGISTERS && empty > 0 )
+            {
+                estimate = REGISTERS * Math.log( ( double ) REGISTERS / empty );
+            }
+            return ( int ) Math.min( Math.round( estimate ), Integer.MAX_VALUE );
+        }
+
+
+        private static long spread( int x )
+        {
+            long h = x + 0x9e3779b97f4a7c15L;
+            h = ( h ^ ( h >>> 30 ) ) * 0xbf58476d1ce4e5b9L;
+            h = ( h ^ ( h >>> 27 ) ) * 0x94d049bb133111ebL;
+            return h ^ ( h >>> 31 );
+        }
+    }
+}
@@ -19,13 +19,34 @@
  */
 package org.apache.directory.fortress.core.util.cache;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import net.sf.ehcache.CacheManager;
 import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+import net.sf.ehcache.config.CacheConfiguration;
 import net.sf.ehcache.constructs.blocking.BlockingCache;
+import net.sf.ehcache.event.CacheEventListenerAdapter;
 
 import org.apache.directory.fortress.core.CfgException;
 import org.apache.directory.fortress.core.CfgRuntimeException;
 import org.apache.directory.fortress.core.GlobalErrIds;
+import org.apache.directory.fortress.core.GlobalIds;
 import org.apache.directory.fortress.core.util.ClassUtil;
 import org.apache.directory.fortress.core.util.Config;
 import org.slf4j.Logger;
@@ -35,14 +56,28 @@ import org.slf4j.LoggerFactory;
 /**
  * This class is a facade and shields internal Fortress objects from specifics of the actual
  * cache implementation that is in use.
+ * <p>
+ * Every cache counts its reads, loads and evictions, returned by {@link #getStats()} and published over JMX, see
+ * {@link CacheMgrMXBean}.  If fortress config param 'cache.stats.interval' is set, the counts are logged every that many
+ * seconds, along with a warning for each cache that was read for more keys, e.g. tenants, than it can hold.
  *
  * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
  */
-public final class CacheMgr
+public final class CacheMgr implements CacheMgrMXBean
 {
     private static final Logger LOG = LoggerFactory.getLogger( CacheMgr.class.getName() );
     private static final String EHCACHE_CONFIG_FILE = "ehcache.config.file";
+    private static final String EHCACHE = "ehcache";
+    private static final String TINYLFU = "tinylfu";
+    private static final String OBJECT_NAME = "org.apache.directory.fortress:type=CacheMgr";
+    // Sizes of a tinylfu cache that is not within the ehcache config:
+    private static final long DEFAULT_MAX_ELEMENTS = 1000;
+    private static final long DEFAULT_TTL = 600;
     private CacheManager mEhCacheImpl;
+    private final ConcurrentHashMap<String, TinyLfuCacheImpl> tinyLfuCaches = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CacheCounters> counters = new ConcurrentHashMap<>();
+    private int statsInterval;
+    private final AtomicLong epoch = new AtomicLong();
     
     private static volatile CacheMgr sINSTANCE = null;
     
@@ -105,24 +140,225 @@ public final class CacheMgr
     private CacheMgr()
     {
     	init();
+        statsInterval = Config.getInstance().getInt( GlobalIds.CACHE_STATS_INTERVAL, 0 );
+        if ( statsInterval > 0 )
+        {
+            ScheduledExecutorService logger = Executors.newSingleThreadScheduledExecutor( new ThreadFactory()
+            {
+                @Override
+                public Thread newThread( Runnable runnable )
+                {
+                    Thread thread = new Thread( runnable, "fortress-cache-stats" );
+                    thread.setDaemon( true );
+                    return thread;
+                }
+            } );
+            logger.scheduleWithFixedDelay( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    logStats();
+                }
+            }, statsInterval, statsInterval, TimeUnit.SECONDS );
+        }
+        register();
     }
 
     /**
-     * Create a new reference to the ehcache cache implementation.
+     * Create a new reference to the cache implementation set for this name with fortress config param
+     * 'cache.impl.[cache name]', or else 'cache.impl'.  Either 'ehcache', the default, or 'tinylfu', see {@link TinyLfuCacheImpl}.
+     * A tinylfu cache takes its size and time to live and idle from the ehcache config of the same name, if present.
      *
      * @param cacheName contains the name of the cache to retrieve
      * @return reference to cache for specified object.
      */
     public Cache getCache( String cacheName )
-    {    	
+    {
+        if ( TINYLFU.equalsIgnoreCase( getImpl( cacheName ) ) )
+        {
+            return getTinyLfuCache( cacheName );
+        }
         Ehcache cache = mEhCacheImpl.getEhcache( cacheName );
         if(cache != null)
         {
-    	    return new EhCacheImpl( cacheName, new BlockingCache(cache) );
+    	    return new EhCacheImpl( cacheName, new BlockingCache(cache), getCounters( cacheName, cache ) );
         }
         else
         {
-    	    return CacheFactory.createInstance( cacheName, mEhCacheImpl );
+    	    return CacheFactory.createInstance( cacheName, mEhCacheImpl, new CacheCounters( 0, false ) );
+        }
+    }
+
+    private static String getImpl( String cacheName )
+    {
+        Config config = Config.getInstance();
+        String impl = config.getProperty( GlobalIds.CACHE_IMPL + "." + cacheName, config.getProperty( GlobalIds.CACHE_IMPL,
+            EHCACHE ) );
+        if ( !EHCACHE.equalsIgnoreCase( impl ) && !TINYLFU.equalsIgnoreCase( impl ) )
+        {
+            LOG.warn( "getCache cache name [{}] unknown impl [{}], using {}", cacheName, impl, EHCACHE );
+        }
+        return impl;
+    }
+
+    private Cache getTinyLfuCache( String cacheName )
+    {
+        TinyLfuCacheImpl cache = tinyLfuCaches.get( cacheName );
+        if ( cache == null )
+        {
+            long maxElements = DEFAULT_MAX_ELEMENTS;
+            long ttl = DEFAULT_TTL;
+            long tti = DEFAULT_TTL;
+            Ehcache ehcache = mEhCacheImpl.getEhcache( cacheName );
+            if ( ehcache != null )
+            {
+                CacheConfiguration cfg = ehcache.getCacheConfiguration();
+                // zero is unbounded within ehcache:
+                maxElements = cfg.getMaxEntriesLocalHeap() > 0 ? cfg.getMaxEntriesLocalHeap() : Integer.MAX_VALUE;
+                ttl = cfg.isEternal() ? 0 : cfg.getTimeToLiveSeconds();
+                tti = cfg.isEternal() ? 0 : cfg.getTimeToIdleSeconds();
+            }
+            TinyLfuCacheImpl created = new TinyLfuCacheImpl( cacheName, maxElements, ttl, tti, new CacheCounters(
+                maxElements, statsInterval > 0 ) );
+            cache = tinyLfuCaches.putIfAbsent( cacheName, created );
+            if ( cache == null )
+            {
+                LOG.info( "getCache cache name [{}] tinylfu maxElements [{}] ttl [{}] tti [{}]", cacheName, maxElements, ttl,
+                    tti );
+                cache = created;
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Return the counters shared by the handles on an ehcache, created along with a listener counting its evictions.
+     */
+    private CacheCounters getCounters( String cacheName, Ehcache cache )
+    {
+        CacheCounters cacheCounters = counters.get( cacheName );
+        if ( cacheCounters == null )
+        {
+            // zero is unbounded within ehcache:
+            CacheCounters created = new CacheCounters( cache.getCacheConfiguration().getMaxEntriesLocalHeap(),
+                statsInterval > 0 );
+            cacheCounters = counters.putIfAbsent( cacheName, created );
+            if ( cacheCounters == null )
+            {
+                cacheCounters = created;
+                final CacheCounters evicted = created;
+                cache.getCacheEventNotificationService().registerListener( new CacheEventListenerAdapter()
+                {
+                    @Override
+                    public void notifyElementEvicted( Ehcache ehcache, Element element )
+                    {
+                        evicted.evict();
+                    }
+                } );
+            }
+        }
+        return cacheCounters;
+    }
+
+    /**
+     * Return the counts of a cache.
+     *
+     * @param cacheName contains the name of the cache.
+     * @return the counts, or null if no cache has this name.
+     */
+    public CacheStats getStats( String cacheName )
+    {
+        TinyLfuCacheImpl tinyLfuCache = tinyLfuCaches.get( cacheName );
+        if ( tinyLfuCache != null )
+        {
+            return tinyLfuCache.getStats();
+        }
+        Ehcache cache = mEhCacheImpl.getEhcache( cacheName );
+        if ( cache == null )
+        {
+            return null;
+        }
+        return getCounters( cacheName, cache ).getStats( cacheName, cache.getSize() );
+    }
+
+    /**
+     * Return the counts of every cache, ordered by name.
+     *
+     * @return the counts, empty if there are no caches.
+     */
+    public List<CacheStats> getStats()
+    {
+        Set<String> names = new TreeSet<>( tinyLfuCaches.keySet() );
+        Collections.addAll( names, mEhCacheImpl.getCacheNames() );
+        List<CacheStats> stats = new ArrayList<>();
+        for ( String name : names )
+        {
+            CacheStats cacheStats = getStats( name );
+            if ( cacheStats != null )
+            {
+                stats.add( cacheStats );
+            }
+        }
+        return stats;
+    }
+
+    @Override
+    public List<CacheStats> getCaches()
+    {
+        return getStats();
+    }
+
+    /**
+     * Log the counts of every cache, and warn of those read for more keys than they hold since the last call.  A cache keyed
+     * by tenant that is smaller than the number of tenants using it evicts and reloads them in turn.
+     */
+    private void logStats()
+    {
+        try
+        {
+            for ( CacheStats stats : getStats() )
+            {
+                LOG.info( "cache {}", stats );
+                TinyLfuCacheImpl tinyLfuCache = tinyLfuCaches.get( stats.getName() );
+                CacheCounters cacheCounters = tinyLfuCache != null ? tinyLfuCache.getCounters() : counters.get(
+                    stats.getName() );
+                int keys = cacheCounters != null ? cacheCounters.drainKeys() : -1;
+                if ( stats.getCapacity() > 0 && keys > stats.getCapacity() )
+                {
+                    LOG.warn( "cache [{}] capacity {} is smaller than the {} keys, e.g. tenants, read from it in the last {} seconds",
+                        stats.getName(), stats.getCapacity(), keys, statsInterval );
+                }
+            }
+        }
+        catch ( RuntimeException e )
+        {
+            LOG.warn( "logStats caught {}", e.toString() );
+        }
+    }
+
+    private void register()
+    {
+        Config cfg = Config.getInstance();
+        if ( !cfg.getBoolean( GlobalIds.CACHE_METRICS_JMX, cfg.getBoolean( GlobalIds.LDAP_METRICS_JMX, true ) ) )
+        {
+            return;
+        }
+        try
+        {
+            ObjectName name = new ObjectName( OBJECT_NAME );
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if ( server.isRegistered( name ) )
+            {
+                // e.g. another application in this jvm
+                LOG.info( "register {} already registered", OBJECT_NAME );
+                return;
+            }
+            server.registerMBean( this, name );
+        }
+        catch ( JMException | SecurityException e )
+        {
+            LOG.warn( "register {} caught {}", OBJECT_NAME, e.toString() );
         }
     }
 
@@ -133,5 +369,22 @@ public final class CacheMgr
     public void clearAll()
     {
         mEhCacheImpl.clearAll();
+        for ( TinyLfuCacheImpl cache : tinyLfuCaches.values() )
+        {
+            cache.flush();
+        }
+        epoch.incrementAndGet();
+    }
+
+
+    /**
+     * Return the number of times {@link #clearAll()} has been called.  Data that fortress holds outside of ehcache, i.e. the role hierarchies,
+     * records this value when loaded and is discarded once it changes.
+     *
+     * @return current value of the counter.
+     */
+    public long getEpoch()
+    {
+        return epoch.get();
     }
 }
@@ -0,0 +1,157 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.util.cache;
+
+
+import java.beans.ConstructorProperties;
+
+
+/**
+ * The reads, loads and evictions a cache has counted, along with its size.  See {@link CacheMgr#getStats(String)}.
+ * <p>
+ * This class is immutable and thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class CacheStats
+{
+    private final String name;
+    private final long hits;
+    private final long misses;
+    private final long loads;
+    private final long loadNanos;
+    private final long evictions;
+    private final long size;
+    private final long capacity;
+
+
+    @ConstructorProperties({ "name", "hits", "misses", "loads", "loadNanos", "evictions", "size", "capacity" })
+    public CacheStats( String name, long hits, long misses, long loads, long loadNanos, long evictions, long size,
+        long capacity )
+    {
+        this.name = name;
+        this.hits = hits;
+        this.misses = misses;
+        this.loads = loads;
+        this.loadNanos = loadNanos;
+        this.evictions = evictions;
+        this.size = size;
+        this.capacity = capacity;
+    }
+
+
+    /**
+     * @return the name of the cache.
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+
+    /**
+     * @return the number of reads that found their entry.
+     */
+    public long getHits()
+    {
+        return hits;
+    }
+
+
+    /**
+     * @return the number of reads that did not find their entry, or found it expired.
+     */
+    public long getMisses()
+    {
+        return misses;
+    }
+
+
+    /**
+     * @return the hits divided by the reads, 0 if none.
+     */
+    public double getHitRatio()
+    {
+        long reads = hits + misses;
+        return reads == 0 ? 0 : ( double ) hits / reads;
+    }
+
+
+    /**
+     * @return the number of entries computed by the loader of a read that missed.
+     */
+    public long getLoads()
+    {
+        return loads;
+    }
+
+
+    /**
+     * @return the total time spent in loads, in nanoseconds.
+     */
+    public long getLoadNanos()
+    {
+        return loadNanos;
+    }
+
+
+    /**
+     * @return the mean time of a load, in milliseconds, 0 if none.
+     */
+    public double getAverageLoadMillis()
+    {
+        return loads == 0 ? 0 : loadNanos / 1e6 / loads;
+    }
+
+
+    /**
+     * @return the number of entries removed to make room for others.  Expired and cleared entries are not counted.
+     */
+    public long getEvictions()
+    {
+        return evictions;
+    }
+
+
+    /**
+     * @return the number of entries held.
+     */
+    public long getSize()
+    {
+        return size;
+    }
+
+
+    /**
+     * @return the maximum number of entries held, 0 if unbounded.
+     */
+    public long getCapacity()
+    {
+        return capacity;
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return String.format( "%s hits=%d misses=%d ratio=%.3f loads=%d avgLoadMs=%.2f evictions=%d size=%d/%d", name,
+            hits, misses, getHitRatio(), loads, getAverageLoadMillis(), evictions, size, capacity );
+    }
+}
@@ -44,6 +44,7 @@ public class EhCacheImpl implements Cache
 	
     private BlockingCache cache;
     private final String name;
+    private final CacheCounters counters;
 
 
     /**
@@ -51,10 +52,12 @@ public class EhCacheImpl implements Cache
      *
      * @param name name for the cache instance.
      * @param blockingCache that is being wrapped.
+     * @param counters records the reads and loads, shared by the instances wrapping the same cache.
      */
-    EhCacheImpl( String name, BlockingCache blockingCache )
+    EhCacheImpl( String name, BlockingCache blockingCache, CacheCounters counters )
     {
         this.name = name;
+        this.counters = counters;
         if ( blockingCache == null )
         {
             String error = " constructor cache: " + name + " is null";
@@ -84,15 +87,18 @@ public class EhCacheImpl implements Cache
             Element element = cache.get( key );
             if ( element != null )
             {
+                counters.hit( key );
                 return element.getObjectValue();
             }
             else
             {
+                counters.miss( key );
                 return null;
             }
         }
         catch (LockTimeoutException lte){
             LOG.warn("Lock timout exception for key {}", key);
+            counters.miss( key );
             return null;
         }
         catch ( net.sf.ehcache.CacheException ce )
@@ -104,6 +110,37 @@ public class EhCacheImpl implements Cache
     }
 
 
+    /**
+     * Given a key name, return the corresponding value, or compute and store it if not present.  The blocking cache holds the
+     * key locked from the missed get until the put, which is where the other readers of the key wait.
+     *
+     * @param key is the name used to store the entry.
+     * @param loader computes the value when the entry is not present.
+     * @return entry stored in the cache, or the value loaded, which may be null.
+     * @throws CacheException in the event ehcache throws an exception it will be wrapped.
+     */
+    @Override
+    public Object get( Object key, Loader loader ) throws CacheException
+    {
+        Object value = get( key );
+        if ( value == null )
+        {
+            long start = System.nanoTime();
+            try
+            {
+                value = loader.load( key );
+                counters.load( System.nanoTime() - start );
+            }
+            finally
+            {
+                // Storing a value, null or not, releases the lock held on this key for any threads waiting.
+                put( key, value );
+            }
+        }
+        return value;
+    }
+
+
     /**
      * Add a new entry to the cache.
      *
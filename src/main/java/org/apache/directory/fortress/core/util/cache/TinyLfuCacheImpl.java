@@ -0,0 +1,738 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.util.cache;
+
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import net.sf.ehcache.search.Attribute;
+import net.sf.ehcache.search.Query;
+
+import org.apache.directory.fortress.core.GlobalErrIds;
+
+
+/**
+ * This class provides cache functionality without a third party provider.  It is selected per cache with fortress config
+ * param 'cache.impl.[cache name]=tinylfu', see {@link CacheMgr#getCache(String)}.
+ * <p>
+ * The entries are held within a concurrent map.  Reads look the entry up and never lock, the entry read is recorded within a
+ * lossy buffer that is drained once in a while by whichever thread takes the eviction lock without waiting.  Writes, which
+ * follow a load from ldap, take the lock.
+ * <p>
+ * The size is bounded the W-TinyLFU way.  New entries enter a small LRU window.  Those pushed out of it are admitted to the
+ * main space only if they have been used more often than the entry they would evict, as estimated by a count-min sketch of
+ * recent reads, so a scan of many entries read once does not flush the ones read all the time.  The main space is a
+ * segmented LRU, entries read again while on probation are protected.
+ * <p>
+ * Entries expire after their time to live, or time to idle, whichever comes first.  Threads that miss on the same key while
+ * it is loaded with {@link #get(Object, Cache.Loader)} wait on that single load.  The search functions are not supported.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class TinyLfuCacheImpl implements Cache
+{
+    private static final int READ_BUFFER_SIZE = 128;
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+    // The read buffer is drained every this many reads, plus one:
+    private static final int DRAIN_MASK = 31;
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+    private static final int DEAD = 3;
+
+    private final String name;
+    private final long maximumSize;
+    private final long windowMax;
+    private final long protectedMax;
+    private final long ttlNanos;
+    private final long ttiNanos;
+    private final ConcurrentHashMap<Object, Node> data = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+    // Changed by every clear and flush, a load that overlapped one is not stored:
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicReferenceArray<Node> readBuffer = new AtomicReferenceArray<>( READ_BUFFER_SIZE );
+    private final AtomicLong reads = new AtomicLong();
+    private final CacheCounters counters;
+
+    // The fields below are guarded by the eviction lock:
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final AccessOrder window = new AccessOrder();
+    private final AccessOrder probation = new AccessOrder();
+    private final AccessOrder protectedOrder = new AccessOrder();
+    private long size;
+    private long windowSize;
+    private long protectedSize;
+
+
+    /**
+     * Create an empty cache.
+     *
+     * @param name name for the cache instance.
+     * @param maximumSize maximum number of entries held, at least one.
+     * @param timeToLiveSeconds seconds an entry is held after it is stored, 0 for no limit.
+     * @param timeToIdleSeconds seconds an entry is held after it is last read, 0 for no limit.
+     */
+    TinyLfuCacheImpl( String name, long maximumSize, long timeToLiveSeconds, long timeToIdleSeconds )
+    {
+        this( name, maximumSize, timeToLiveSeconds, timeToIdleSeconds, new CacheCounters( maximumSize, false ) );
+    }
+
+
+    /**
+     * Create an empty cache.
+     *
+     * @param name name for the cache instance.
+     * @param maximumSize maximum number of entries held, at least one.
+     * @param timeToLiveSeconds seconds an entry is held after it is stored, 0 for no limit.
+     * @param timeToIdleSeconds seconds an entry is held after it is last read, 0 for no limit.
+     * @param counters records the reads, loads and evictions.
+     */
+    TinyLfuCacheImpl( String name, long maximumSize, long timeToLiveSeconds, long timeToIdleSeconds,
+        CacheCounters counters )
+    {
+        this.name = name;
+        this.counters = counters;
+        this.maximumSize = Math.max( 1, maximumSize );
+        this.windowMax = Math.max( 1, this.maximumSize / 100 );
+        this.protectedMax = ( this.maximumSize - windowMax ) * 8 / 10;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos( timeToLiveSeconds );
+        this.ttiNanos = TimeUnit.SECONDS.toNanos( timeToIdleSeconds );
+        this.sketch = new FrequencySketch( this.maximumSize );
+    }
+
+
+    /**
+     * Given a key name, return the corresponding value.  Does not lock.
+     *
+     * @param key is the name used to store the entry.
+     * @return entry stored in the cache, or null if not present or expired.
+     */
+    @Override
+    public Object get( Object key ) throws CacheException
+    {
+        if ( key == null )
+        {
+            String error = "get detected null key cache name [" + name + "]";
+            throw new CacheException( GlobalErrIds.FT_CACHE_GET_ERR, error );
+        }
+        Node node = data.get( key );
+        if ( node == null )
+        {
+            counters.miss( key );
+            return null;
+        }
+        long now = System.nanoTime();
+        if ( isExpired( node, now ) )
+        {
+            counters.miss( key );
+            if ( evictionLock.tryLock() )
+            {
+                try
+                {
+                    if ( node.queue != DEAD )
+                    {
+                        remove( node );
+                    }
+                }
+                finally
+                {
+                    evictionLock.unlock();
+                }
+            }
+            return null;
+        }
+        if ( ttiNanos > 0 )
+        {
+            node.accessTime = now;
+        }
+        counters.hit( key );
+        recordRead( node );
+        return node.value;
+    }
+
+
+    /**
+     * Given a key name, return the corresponding value, or compute and store it if not present.  Only one thread loads a
+     * missing key, the others wait for its value.
+     *
+     * @param key is the name used to store the entry.
+     * @param loader computes the value when the entry is not present.
+     * @return entry stored in the cache, or the value loaded, which may be null.
+     * @throws CacheException in the event the key is null.
+     */
+    @Override
+    public Object get( Object key, Loader loader ) throws CacheException
+    {
+        Object value = get( key );
+        if ( value != null )
+        {
+            return value;
+        }
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> other = loading.putIfAbsent( key, flight );
+        if ( other != null )
+        {
+            return await( other );
+        }
+        long invalidation = invalidations.get();
+        long start = System.nanoTime();
+        try
+        {
+            value = loader.load( key );
+            counters.load( System.nanoTime() - start );
+            if ( value != null && invalidation == invalidations.get() )
+            {
+                put( key, value );
+            }
+            flight.complete( value );
+            return value;
+        }
+        catch ( RuntimeException re )
+        {
+            flight.completeExceptionally( re );
+            throw re;
+        }
+        finally
+        {
+            loading.remove( key, flight );
+            // in case of an Error, the waiting threads read the entry as missing:
+            flight.complete( null );
+        }
+    }
+
+
+    /**
+     * Add a new entry to the cache, or replace it.  A null value removes the entry.
+     *
+     * @param key name to be used for the entry.
+     * @param value object that is stored.
+     * @throws CacheException in the event the key is null.
+     */
+    @Override
+    public void put( Object key, Object value ) throws CacheException
+    {
+        if ( key == null )
+        {
+            String error = "put detected null key cache name [" + name + "]";
+            throw new CacheException( GlobalErrIds.FT_CACHE_PUT_ERR, error );
+        }
+        if ( value == null )
+        {
+            clear( key );
+            return;
+        }
+        long now = System.nanoTime();
+        evictionLock.lock();
+        try
+        {
+            Node node = data.get( key );
+            if ( node != null )
+            {
+                node.value = value;
+                node.writeTime = now;
+                node.accessTime = now;
+                onRead( node );
+            }
+            else
+            {
+                node = new Node( key, value, now );
+                data.put( key, node );
+                window.addLast( node );
+                size++;
+                windowSize++;
+                sketch.increment( key );
+                evict();
+            }
+        }
+        finally
+        {
+            evictionLock.unlock();
+        }
+    }
+
+
+    /**
+     * Clear a cache entry for a given name.
+     *
+     * @param key name that entry is stored as.
+     * @return boolean value will be false if entry not found and true if entry was found and removed.
+     */
+    @Override
+    public boolean clear( Object key ) throws CacheException
+    {
+        if ( key == null )
+        {
+            String error = "clear detected null key cache name [" + name + "]";
+            throw new CacheException( GlobalErrIds.FT_CACHE_CLEAR_ERR, error );
+        }
+        invalidations.incrementAndGet();
+        evictionLock.lock();
+        try
+        {
+            Node node = data.get( key );
+            if ( node == null )
+            {
+                return false;
+            }
+            remove( node );
+            return true;
+        }
+        finally
+        {
+            evictionLock.unlock();
+        }
+    }
+
+
+    /**
+     * Remove all entries from this cache.
+     */
+    @Override
+    public void flush() throws CacheException
+    {
+        invalidations.incrementAndGet();
+        evictionLock.lock();
+        try
+        {
+            for ( Node node : data.values() )
+            {
+                node.queue = DEAD;
+            }
+            data.clear();
+            window.clear();
+            probation.clear();
+            protectedOrder.clear();
+            size = 0;
+            windowSize = 0;
+            protectedSize = 0;
+        }
+        finally
+        {
+            evictionLock.unlock();
+        }
+    }
+
+
+    /**
+     * Not supported.
+     *
+     * @throws CacheException always.
+     */
+    @Override
+    public <T> Attribute<T> getSearchAttribute( String attributeName ) throws CacheException
+    {
+        String error = "getSearchAttribute not supported by cache name [" + name + "]";
+        throw new CacheException( GlobalErrIds.FT_CACHE_GET_ERR, error );
+    }
+
+
+    /**
+     * Not supported.
+     *
+     * @throws CacheException always.
+     */
+    @Override
+    public Query createQuery()
+    {
+        String error = "createQuery not supported by cache name [" + name + "]";
+        throw new CacheException( GlobalErrIds.FT_CACHE_GET_ERR, error );
+    }
+
+
+    /**
+     * @return the counters of this cache.
+     */
+    CacheCounters getCounters()
+    {
+        return counters;
+    }
+
+
+    /**
+     * @return the reads, loads and evictions counted so far.
+     */
+    CacheStats getStats()
+    {
+        return counters.getStats( name, data.size() );
+    }
+
+
+    private boolean isExpired( Node node, long now )
+    {
+        return ( ttlNanos > 0 && now - node.writeTime >= ttlNanos ) || ( ttiNanos > 0 && now - node.accessTime >= ttiNanos );
+    }
+
+
+    /**
+     * Record the read within the buffer, which is drained every few reads if the lock is free.
+     */
+    private void recordRead( Node node )
+    {
+        long read = reads.getAndIncrement();
+        readBuffer.lazySet( ( int ) ( read & READ_BUFFER_MASK ), node );
+        if ( ( read & DRAIN_MASK ) == DRAIN_MASK && evictionLock.tryLock() )
+        {
+            try
+            {
+                drainReads();
+            }
+            finally
+            {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+
+    private void drainReads()
+    {
+        for ( int i = 0; i < READ_BUFFER_SIZE; i++ )
+        {
+            Node node = readBuffer.getAndSet( i, null );
+            if ( node != null && node.queue != DEAD )
+            {
+                sketch.increment( node.key );
+                onRead( node );
+            }
+        }
+    }
+
+
+    /**
+     * Move an entry that was read to the back of its queue, or protect it if it was on probation.
+     */
+    private void onRead( Node node )
+    {
+        switch ( node.queue )
+        {
+            case WINDOW:
+                window.moveToBack( node );
+                break;
+
+            case PROBATION:
+                probation.remove( node );
+                node.queue = PROTECTED;
+                protectedOrder.addLast( node );
+                protectedSize++;
+                // the least recently read of the protected go back on probation:
+                while ( protectedSize > protectedMax )
+                {
+                    Node demoted = protectedOrder.pollFirst();
+                    protectedSize--;
+                    demoted.queue = PROBATION;
+                    probation.addLast( demoted );
+                }
+                break;
+
+            case PROTECTED:
+                protectedOrder.moveToBack( node );
+                break;
+
+            default:
+                break;
+        }
+    }
+
+
+    /**
+     * Move the entries pushed out of the window to probation and, while the cache is over its size, evict either the first
+     * of them or the least recently read entry on probation, whichever was read less often.
+     */
+    private void evict()
+    {
+        Node candidate = null;
+        while ( windowSize > windowMax )
+        {
+            Node node = window.pollFirst();
+            windowSize--;
+            node.queue = PROBATION;
+            probation.addLast( node );
+            if ( candidate == null )
+            {
+                candidate = node;
+            }
+        }
+        while ( size > maximumSize )
+        {
+            Node victim = probation.peekFirst();
+            if ( victim == null )
+            {
+                victim = protectedOrder.peekFirst() != null ? protectedOrder.peekFirst() : window.peekFirst();
+            }
+            Node evicted = victim;
+            if ( candidate != null && candidate != victim && candidate.queue == PROBATION )
+            {
+                evicted = sketch.frequency( candidate.key ) > sketch.frequency( victim.key ) ? victim : candidate;
+            }
+            if ( evicted == candidate )
+            {
+                candidate = null;
+            }
+            remove( evicted );
+            counters.evict();
+        }
+    }
+
+
+    private void remove( Node node )
+    {
+        switch ( node.queue )
+        {
+            case WINDOW:
+                window.remove( node );
+                windowSize--;
+                break;
+
+            case PROBATION:
+                probation.remove( node );
+                break;
+
+            case PROTECTED:
+                protectedOrder.remove( node );
+                protectedSize--;
+                break;
+
+            default:
+                return;
+        }
+        node.queue = DEAD;
+        size--;
+        data.remove( node.key, node );
+    }
+
+
+    private static Object await( CompletableFuture<Object> future )
+    {
+        try
+        {
+            return future.join();
+        }
+        catch ( CompletionException e )
+        {
+            if ( e.getCause() instanceof RuntimeException )
+            {
+                throw ( RuntimeException ) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+
+    /**
+     * An entry, linked within the queue it is on.
+     */
+    private static final class Node
+    {
+        private final Object key;
+        private volatile Object value;
+        private volatile long writeTime;
+        private volatile long accessTime;
+        // guarded by the eviction lock:
+        private int queue = WINDOW;
+        private Node prev;
+        private Node next;
+
+
+        private Node( Object key, Object value, long now )
+        {
+            this.key = key;
+            this.value = value;
+            this.writeTime = now;
+            this.accessTime = now;
+        }
+    }
+
+
+    /**
+     * Entries from the least to the most recently read.  Not thread safe.
+     */
+    private static final class AccessOrder
+    {
+        private Node first;
+        private Node last;
+
+
+        private void addLast( Node node )
+        {
+            node.prev = last;
+            node.next = null;
+            if ( last == null )
+            {
+                first = node;
+            }
+            else
+            {
+                last.next = node;
+            }
+            last = node;
+        }
+
+
+        private void remove( Node node )
+        {
+            if ( node.prev == null )
+            {
+                first = node.next;
+            }
+            else
+            {
+                node.prev.next = node.next;
+            }
+            if ( node.next == null )
+            {
+                last = node.prev;
+            }
+            else
+            {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+        }
+
+
+        private void moveToBack( Node node )
+        {
+            if ( node != last )
+            {
+                remove( node );
+                addLast( node );
+            }
+        }
+
+
+        private Node peekFirst()
+        {
+            return first;
+        }
+
+
+        private Node pollFirst()
+        {
+            Node node = first;
+            if ( node != null )
+            {
+                remove( node );
+            }
+            return node;
+        }
+
+
+        private void clear()
+        {
+            first = null;
+            last = null;
+        }
+    }
+
+
+    /**
+     * Estimates how often each key was read lately, within four bit counters, four per key, the lowest of which is the
+     * estimate.  The counters are halved once every ten reads per counter row, so the estimates follow recent use.  Not
+     * thread safe.
+     */
+    private static final class FrequencySketch
+    {
+        private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL,
+            0xcbf29ce484222325L };
+        private static final long RESET_MASK = 0x7777777777777777L;
+        private static final int MAXIMUM_ROWS = 1 << 16;
+        private final long[] table;
+        private final int tableMask;
+        private final int sampleSize;
+        private int additions;
+
+
+        private FrequencySketch( long maximumSize )
+        {
+            int rows = Integer.highestOneBit( ( int ) Math.min( Math.max( maximumSize, 8 ), MAXIMUM_ROWS ) - 1 ) << 1;
+            table = new long[rows];
+            tableMask = rows - 1;
+            sampleSize = 10 * rows;
+        }
+
+
+        private int frequency( Object key )
+        {
+            int hash = spread( key.hashCode() );
+            int start = ( hash & 3 ) << 2;
+            int frequency = 15;
+            for ( int i = 0; i < 4; i++ )
+            {
+                int offset = ( start + i ) << 2;
+                int count = ( int ) ( ( table[indexOf( hash, i )] >>> offset ) & 0xfL );
+                frequency = Math.min( frequency, count );
+            }
+            return frequency;
+        }
+
+
+        private void increment( Object key )
+        {
+            int hash = spread( key.hashCode() );
+            int start = ( hash & 3 ) << 2;
+            boolean added = false;
+            for ( int i = 0; i < 4; i++ )
+            {
+                int index = indexOf( hash, i );
+                int offset = ( start + i ) << 2;
+                long mask = 0xfL << offset;
+                if ( ( table[index] & mask ) != mask )
+                {
+                    table[index] += 1L << offset;
+                    added = true;
+                }
+            }
+            if ( added && ++additions == sampleSize )
+            {
+                for ( int i = 0; i < table.length; i++ )
+                {
+                    table[i] = ( table[i] >>> 1 ) & RESET_MASK;
+                }
+                additions >>>= 1;
+            }
+        }
+
+
+        private int indexOf( int hash, int i )
+        {
+            long h = ( hash + SEEDS[i] ) * SEEDS[i];
+            h += h >>> 32;
+            return ( int ) h & tableMask;
+        }
+
+
+        private static int spread( int x )
+        {
+            x = ( ( x >>> 16 ) ^ x ) * 0x45d9f3b;
+            x = ( ( x >>> 16 ) ^ x ) * 0x45d9f3b;
+            return ( x >>> 16 ) ^ x;
+        }
+    }
+}
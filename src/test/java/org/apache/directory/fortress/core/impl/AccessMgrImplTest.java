@@ -71,6 +71,7 @@ public class AccessMgrImplTest extends TestCase
         suite.addTest( new AccessMgrImplTest( "testAuthenticateLocked" ) );
         suite.addTest( new AdminMgrImplTest( "testUnlockUserAccount" ) );
         suite.addTest( new AccessMgrImplTest( "testCheckAccess" ) );
+        suite.addTest( new AccessMgrImplTest( "testCheckAccessBulk" ) );
 */
         suite.addTest( new AccessMgrImplTest( "testAbacConstraintsRole" ) );
 
@@ -809,6 +810,63 @@ public class AccessMgrImplTest extends TestCase
     }
 
 
+    public void testCheckAccessBulk()
+    {
+        // public List<Boolean> checkAccess(Session session, List<Permission> perms)
+        checkAccessBulk( "CHCK-ACS-BLK TU1_UPD TO1 TOP1 ", UserTestData.USERS_TU1_UPD, PermTestData.OBJS_TOB1,
+            PermTestData.OPS_TOP1, PermTestData.OBJS_TOB3, PermTestData.OPS_TOP3 );
+        checkAccessBulk( "CHCK-ACS-BLK TU3 TO3 TOP1 ", UserTestData.USERS_TU3, PermTestData.OBJS_TOB3, PermTestData.OPS_TOP3,
+            PermTestData.OBJS_TOB2, PermTestData.OPS_TOP2 );
+    }
+
+
+    public static void checkAccessBulk( String msg, String[][] uArray, String[][] oArray, String[][] opArray,
+        String[][] oArrayBad, String[][] opArrayBad )
+    {
+        LogUtil.logIt( msg );
+        try
+        {
+            AccessMgr accessMgr = AccessMgrFactory.createInstance( TestUtils.getContext() );
+            for ( String[] usr : uArray )
+            {
+                User user = UserTestData.getUser( usr );
+                Session session = accessMgr.createSession( user, false );
+                assertNotNull( session );
+                List<Permission> perms = new ArrayList<>();
+                List<Boolean> expected = new ArrayList<>();
+                int i = 0;
+                for ( String[] obj : oArray )
+                {
+                    int j = 0;
+                    for ( String[] op : opArray )
+                    {
+                        perms.add( new Permission( PermTestData.getName( obj ), PermTestData.getName( op ),
+                            PermTestData.getObjId( opArray[j] ) ) );
+                        expected.add( true );
+                        perms.add( new Permission( PermTestData.getName( oArrayBad[i] ), PermTestData.getName(
+                            opArrayBad[j] ), PermTestData.getObjId( opArrayBad[j] ) ) );
+                        expected.add( false );
+                        j++;
+                    }
+                    i++;
+                }
+                // A permission that does not exist is not authorized:
+                perms.add( new Permission( "BOGUS-OBJ", "BOGUS-OP" ) );
+                expected.add( false );
+                assertEquals( CLS_NM + ".checkAccessBulk failed userId [" + user.getUserId() + "]", expected,
+                    accessMgr.checkAccess( session, perms ) );
+            }
+            LOG.debug( "checkAccessBulk successful" );
+        }
+        catch ( SecurityException ex )
+        {
+            LOG.error( "checkAccessBulk: failed with SecurityException rc=" + ex.getErrorId() + ", " +
+                "msg=" + ex.getMessage(), ex );
+            fail( ex.getMessage() );
+        }
+    }
+
+
     /**
      *
      */
@@ -0,0 +1,100 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.apache.directory.fortress.core.GlobalIds;
+
+
+/**
+ * CacheInvalidator Tester.  Maps changed dns to the caches they affect, no directory is needed.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class CacheInvalidatorTest extends TestCase
+{
+    private static final String SUFFIX = "dc=example,dc=com";
+
+    public static Test suite()
+    {
+        TestSuite suite = new TestSuite();
+        suite.addTest( new CacheInvalidatorTest( "testNormalize" ) );
+        suite.addTest( new CacheInvalidatorTest( "testHomeEntry" ) );
+        suite.addTest( new CacheInvalidatorTest( "testTenantEntry" ) );
+        suite.addTest( new CacheInvalidatorTest( "testUserEntry" ) );
+        suite.addTest( new CacheInvalidatorTest( "testOtherEntry" ) );
+        return suite;
+    }
+
+    public CacheInvalidatorTest( String name )
+    {
+        super( name );
+    }
+
+    private static Map<String, String> containers()
+    {
+        Map<String, String> containers = new LinkedHashMap<>();
+        containers.put( GlobalIds.ADMIN_ROLE_ROOT, "ou=adminroles,ou=arbac" );
+        containers.put( GlobalIds.ROLE_ROOT, "ou=roles,ou=rbac" );
+        containers.put( GlobalIds.USER_ROOT, "ou=people" );
+        return containers;
+    }
+
+    public void testNormalize()
+    {
+        assertEquals( "cn=Role 1,ou=Roles,dc=example", CacheInvalidator.normalize(
+            " cn = Role 1 , ou=Roles,dc=example " ) );
+    }
+
+    public void testHomeEntry()
+    {
+        assertEquals( GlobalIds.ROLE_ROOT + '\0' + GlobalIds.HOME, CacheInvalidator.getTarget(
+            "cn=Role1,ou=Roles,ou=RBAC,dc=example,dc=com", SUFFIX, containers() ) );
+        assertEquals( GlobalIds.ADMIN_ROLE_ROOT + '\0' + GlobalIds.HOME, CacheInvalidator.getTarget(
+            "cn=Admin1, ou=AdminRoles, ou=ARBAC, dc=example, dc=com", SUFFIX, containers() ) );
+    }
+
+    public void testTenantEntry()
+    {
+        assertEquals( GlobalIds.ROLE_ROOT + '\0' + "Acme", CacheInvalidator.getTarget(
+            "cn=Role1,ou=Roles,ou=RBAC,ou=Acme,dc=example,dc=com", SUFFIX, containers() ) );
+    }
+
+    public void testUserEntry()
+    {
+        assertEquals( GlobalIds.USER_ROOT + '\0' + "Acme" + '\0' + "JoeUser", CacheInvalidator.getTarget(
+            "uid=JoeUser,ou=People,ou=Acme,dc=example,dc=com", SUFFIX, containers() ) );
+        assertNull( CacheInvalidator.getTarget( "ou=People,dc=example,dc=com", SUFFIX, containers() ) );
+    }
+
+    public void testOtherEntry()
+    {
+        assertNull( CacheInvalidator.getTarget( "cn=Group1,ou=Groups,dc=example,dc=com", SUFFIX, containers() ) );
+        assertNull( CacheInvalidator.getTarget( "cn=Role1,ou=Roles,ou=RBAC,dc=other,dc=com", SUFFIX, containers() ) );
+        assertNull( CacheInvalidator.getTarget( null, SUFFIX, containers() ) );
+    }
+}
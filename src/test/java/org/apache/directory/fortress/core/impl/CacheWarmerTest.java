@@ -0,0 +1,96 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.util.Config;
+import org.apache.directory.fortress.core.util.ConfigSnapshot;
+
+
+/**
+ * CacheWarmer Tester.  {@link #testGetContainers()} needs no directory, {@link #testReady()} waits for the warm-up of the
+ * directory the other tests use, if 'cache.warmup' is true.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class CacheWarmerTest extends TestCase
+{
+    private static final long READY_MINUTES = 2;
+
+    public static Test suite()
+    {
+        TestSuite suite = new TestSuite();
+        suite.addTest( new CacheWarmerTest( "testGetContainers" ) );
+        return suite;
+    }
+
+    public CacheWarmerTest( String name )
+    {
+        super( name );
+    }
+
+    /**
+     * The containers of the default tenant are the tops, under the suffix, of its configured roots, so they are not taken for
+     * tenants.
+     */
+    public void testGetContainers()
+    {
+        Map<String, String> props = new HashMap<>();
+        props.put( GlobalIds.SUFFIX, "dc=example,dc=com" );
+        props.put( GlobalIds.USER_ROOT, "ou=People,dc=example,dc=com" );
+        props.put( GlobalIds.ROLE_ROOT, "ou=Roles, ou=RBAC, dc=example, dc=com" );
+        props.put( GlobalIds.PERM_ROOT, "ou=Permissions,ou=RBAC,dc=example,dc=com" );
+        props.put( GlobalIds.CONFIG_ROOT_PARAM, "ou=Config,dc=example,dc=com" );
+        // not under the suffix, or not an ou:
+        props.put( GlobalIds.ADMIN_ROLE_ROOT, "ou=AdminRoles,ou=ARBAC,dc=other,dc=com" );
+        props.put( GlobalIds.ADMIN_PERM_ROOT, "cn=AdminPerms,dc=example,dc=com" );
+        assertEquals( new HashSet<>( Arrays.asList( "people", "rbac", "config" ) ), CacheWarmer.getContainers(
+            new ConfigSnapshot( props, 1 ) ) );
+    }
+
+    /**
+     * The warm-up signals ready once it is done, and has loaded the caches of at least the default tenant.
+     */
+    public void testReady() throws Exception
+    {
+        assertTrue( "not ready within " + READY_MINUTES + " minutes", CacheWarmer.awaitReady( READY_MINUTES,
+            TimeUnit.MINUTES ) );
+        assertTrue( CacheWarmer.isWarm() );
+        CacheWarmer warmer = CacheWarmer.getInstance();
+        assertTrue( warmer.isReady() );
+        if ( Config.getInstance().getBoolean( GlobalIds.CACHE_WARMUP, false ) )
+        {
+            assertTrue( "tenants " + warmer.getTenants(), warmer.getTenants() >= 1 );
+            assertTrue( "loaded " + warmer.getLoaded(), warmer.getLoaded() > 0 );
+            assertTrue( "millis " + warmer.getMillis(), warmer.getMillis() >= 0 );
+        }
+    }
+}
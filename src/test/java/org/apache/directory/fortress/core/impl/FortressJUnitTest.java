@@ -19,9 +19,13 @@
  */
 package org.apache.directory.fortress.core.impl;
 
+import org.apache.directory.fortress.core.ldap.LdapCircuitBreakerTest;
 import org.apache.directory.fortress.core.ldap.LdapCounters;
 import org.apache.directory.fortress.core.ldap.LdapDataProvider;
+import org.apache.directory.fortress.core.ldap.TenantBulkheadTest;
 import org.apache.directory.fortress.core.util.Config;
+import org.apache.directory.fortress.core.util.ConfigSnapshotTest;
+import org.apache.directory.fortress.core.util.cache.TinyLfuCacheImplTest;
 
 import junit.framework.Test;
 import junit.framework.TestCase;
@@ -92,6 +96,17 @@ public class FortressJUnitTest extends TestCase
         TestSuite suite = new TestSuite();
         //setAdminEnabled(false);
         setAdminEnabled( true );
+        // These need no directory:
+        suite.addTest( TinyLfuCacheImplTest.suite() );
+        suite.addTest( CacheInvalidatorTest.suite() );
+        suite.addTest( ConfigSnapshotTest.suite() );
+        suite.addTest( RoleIdUtilTest.suite() );
+        suite.addTest( PermUtilTest.suite() );
+        suite.addTest( UserCacheTest.suite() );
+        suite.addTest( CacheWarmerTest.suite() );
+        suite.addTest( LdapCircuitBreakerTest.suite() );
+        suite.addTest( TenantBulkheadTest.suite() );
+
         /***********************************************************/
         /* 0. Load the base Admin Policy if need be:
         /***********************************************************/
@@ -100,6 +115,10 @@ public class FortressJUnitTest extends TestCase
             // ARBAC Buildup APIs:
             suite.addTest( new DelegatedMgrImplTest( "testAddAdminUser" ) );
         }
+        suite.addTest( new ConfigSnapshotTest( "testListeners" ) );
+        suite.addTest( new CacheWarmerTest( "testReady" ) );
+        suite.addTest( new RoleIdUtilTest( "testGetIds" ) );
+        suite.addTest( new RoleIdUtilTest( "testClearAll" ) );
 
         /***********************************************************/
         /* 1. Tear Down Phase                                      */
@@ -202,6 +221,7 @@ public class FortressJUnitTest extends TestCase
         suite.addTest( new AdminMgrImplTest( "testAddDsdRoleMember" ) );
         suite.addTest( new AdminMgrImplTest( "testSsdCardinality" ) );
         suite.addTest( new AdminMgrImplTest( "testDsdCardinality" ) );
+        suite.addTest( SdIndexTest.suite() );
         suite.addTest( new AdminMgrImplTest( "testUpdateRole" ) );
         suite.addTest( new AdminMgrImplTest( "testAddUser" ) );
         suite.addTest( new AdminMgrImplTest( "testUpdateUser" ) );
@@ -218,6 +238,7 @@ public class FortressJUnitTest extends TestCase
         suite.addTest( new AdminMgrImplTest( "testUpdatePermissionOp" ) );
         suite.addTest( new AdminMgrImplTest( "testGrantPermissionRole" ) );
         suite.addTest( new AdminMgrImplTest( "testGrantPermissionUser" ) );
+        suite.addTest( new PermUtilTest( "testIndex" ) );
         suite.addTest( new AdminMgrImplTest( "testAddPermissionAttributeSet" ) );
         suite.addTest( new AdminMgrImplTest( "testAddPermissionAttributeToSet" ) );
         suite.addTest( new AdminMgrImplTest( "testAddPASetToPermission" ) );
@@ -312,6 +333,7 @@ public class FortressJUnitTest extends TestCase
         suite.addTest( new AccessMgrImplTest( "createSessionsDSD" ) );
         suite.addTest( new AccessMgrImplTest( "testSessionRole" ) );
         suite.addTest( new AccessMgrImplTest( "testCheckAccess" ) );
+        suite.addTest( new AccessMgrImplTest( "testCheckAccessBulk" ) );
         suite.addTest( new AccessMgrImplTest( "testAddActiveRole" ) );
         suite.addTest( new AccessMgrImplTest( "testDropActiveRole" ) );
         suite.addTest( new AccessMgrImplTest( "testSessionPermission" ) );
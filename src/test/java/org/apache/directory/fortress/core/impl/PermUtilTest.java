@@ -0,0 +1,125 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.apache.directory.fortress.core.model.Permission;
+import org.apache.directory.fortress.core.util.cache.CacheMgr;
+
+
+/**
+ * PermUtil Tester.  The key and backoff tests need no directory, {@link #testIndex()} reads the permissions added by
+ * {@link AdminMgrImplTest} and must run after them.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class PermUtilTest extends TestCase
+{
+    public static Test suite()
+    {
+        TestSuite suite = new TestSuite();
+        suite.addTest( new PermUtilTest( "testBuildKey" ) );
+        suite.addTest( new PermUtilTest( "testBackoff" ) );
+        return suite;
+    }
+
+    public PermUtilTest( String name )
+    {
+        super( name );
+    }
+
+    /**
+     * Keys are case insensitive whatever the default locale, and an objId makes a different key.
+     */
+    public void testBuildKey()
+    {
+        Locale locale = Locale.getDefault();
+        try
+        {
+            String key = PermUtil.buildKey( new Permission( "Items", "edit" ) );
+            assertEquals( key, PermUtil.buildKey( new Permission( "ITEMS", "EDIT" ) ) );
+            assertFalse( key.equals( PermUtil.buildKey( new Permission( "Items", "edit", "1" ) ) ) );
+            assertFalse( key.equals( PermUtil.buildKey( new Permission( "Itemsedit", "" ) ) ) );
+            Locale.setDefault( new Locale( "tr", "TR" ) );
+            assertEquals( key, PermUtil.buildKey( new Permission( "items", "edit" ) ) );
+        }
+        finally
+        {
+            Locale.setDefault( locale );
+        }
+    }
+
+    /**
+     * A tenant that fails to load waits a second, then twice as long after each further failure, up to a minute.
+     */
+    public void testBackoff()
+    {
+        long delay = PermUtil.getDelay( 0 );
+        assertEquals( TimeUnit.SECONDS.toNanos( 1 ), delay );
+        delay = PermUtil.getDelay( delay );
+        assertEquals( TimeUnit.SECONDS.toNanos( 2 ), delay );
+        for ( int i = 0; i < 10; i++ )
+        {
+            delay = PermUtil.getDelay( delay );
+        }
+        assertEquals( TimeUnit.MINUTES.toNanos( 1 ), delay );
+    }
+
+    /**
+     * A permission is served from the index with the role ids of the current mapping, one recorded missing stays so until the
+     * caches are cleared, after which the index is loaded again under the new mapping.
+     */
+    public void testIndex() throws Exception
+    {
+        PermUtil permUtil = PermUtil.getInstance();
+        if ( !permUtil.isEnabled() )
+        {
+            return;
+        }
+        String contextId = TestUtils.getContext();
+        Permission perm = new Permission( PermTestData.getName( PermTestData.OBJS_TOB1[0] ), PermTestData.getName(
+            PermTestData.OPS_TOP1[0] ), PermTestData.getObjId( PermTestData.OPS_TOP1[0] ) );
+        perm.setContextId( contextId );
+        Permission missing = new Permission( perm.getObjName(), "TEST-PERMUTIL-MISSING" );
+        missing.setContextId( contextId );
+
+        Permission indexed = permUtil.getPermission( perm );
+        assertNotNull( "permission not indexed", indexed );
+        assertEquals( RoleIdUtil.getInstance().getIds( indexed.getRoles(), contextId, false ), indexed.getRoleIds() );
+        assertNull( permUtil.getPermission( missing ) );
+        assertFalse( permUtil.isMissing( missing ) );
+        permUtil.putMissing( missing );
+        assertTrue( permUtil.isMissing( missing ) );
+        assertNull( permUtil.getPermission( missing ) );
+
+        CacheMgr.getInstance().clearAll();
+        assertFalse( permUtil.isMissing( missing ) );
+        indexed = permUtil.getPermission( perm );
+        assertNotNull( "permission not indexed after clear", indexed );
+        assertEquals( RoleIdUtil.getInstance().getIds( indexed.getRoles(), contextId, false ), indexed.getRoleIds() );
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.apache.directory.fortress.core.model.RoleBitSet;
+import org.apache.directory.fortress.core.model.UserRole;
+import org.apache.directory.fortress.core.util.cache.CacheMgr;
+
+
+/**
+ * RoleIdUtil Tester.  {@link #testRoleBitSet()} needs no directory, the others use {@link CacheMgr}, which reads its config
+ * from ldap.  Each test uses tenants of its own, so the ids it sees start from 0.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class RoleIdUtilTest extends TestCase
+{
+    private static final String TENANT = "test-roleids";
+
+    public static Test suite()
+    {
+        TestSuite suite = new TestSuite();
+        suite.addTest( new RoleIdUtilTest( "testRoleBitSet" ) );
+        return suite;
+    }
+
+    public RoleIdUtilTest( String name )
+    {
+        super( name );
+    }
+
+    /**
+     * A set is current only for the roles, in order, and hierarchy version it was computed from.
+     */
+    public void testRoleBitSet()
+    {
+        BitSet ids = new BitSet();
+        ids.set( 1 );
+        ids.set( 3 );
+        List<UserRole> roles = roles( "role1", "role2" );
+        RoleBitSet roleIds = new RoleBitSet( ids, roles, 5 );
+        assertTrue( roleIds.contains( 1 ) );
+        assertFalse( roleIds.contains( 2 ) );
+        assertTrue( roleIds.intersects( bits( 0, 3 ) ) );
+        assertFalse( roleIds.intersects( bits( 0, 2 ) ) );
+        assertFalse( roleIds.intersects( null ) );
+
+        assertTrue( roleIds.isCurrent( roles( "role1", "role2" ), 5 ) );
+        assertFalse( roleIds.isCurrent( roles, 6 ) );
+        assertFalse( roleIds.isCurrent( roles( "role2", "role1" ), 5 ) );
+        assertFalse( roleIds.isCurrent( roles( "role1" ), 5 ) );
+        assertFalse( roleIds.isCurrent( null, 5 ) );
+        assertTrue( new RoleBitSet( new BitSet(), null, 5 ).isCurrent( Collections.<UserRole>emptyList(), 5 ) );
+    }
+
+    /**
+     * Ids are dense, stable and case insensitive, and assigned separately per tenant and for RBAC and ARBAC roles.
+     */
+    public void testGetIds()
+    {
+        RoleIdUtil util = RoleIdUtil.getInstance();
+        String contextId = TENANT + "-ids";
+        assertEquals( bits( 0, 1 ), util.getIds( Arrays.asList( "roleA", "roleB" ), contextId, false ) );
+        assertEquals( bits( 0, 2 ), util.getIds( Arrays.asList( "ROLEA", "roleC" ), contextId, false ) );
+        assertEquals( bits( 1 ), util.getIds( Collections.singleton( "Roleb" ), contextId, false ) );
+        assertTrue( util.getIds( null, contextId, false ).isEmpty() );
+
+        assertEquals( bits( 0 ), util.getIds( Collections.singleton( "roleC" ), contextId, true ) );
+        assertEquals( bits( 0 ), util.getIds( Collections.singleton( "roleC" ), contextId + "-other", false ) );
+    }
+
+    /**
+     * Once the caches are cleared the ids are assigned again from 0.
+     */
+    public void testClearAll()
+    {
+        RoleIdUtil util = RoleIdUtil.getInstance();
+        String contextId = TENANT + "-clear";
+        assertEquals( bits( 0, 1 ), util.getIds( Arrays.asList( "roleA", "roleB" ), contextId, false ) );
+        CacheMgr.getInstance().clearAll();
+        assertEquals( bits( 0 ), util.getIds( Collections.singleton( "roleB" ), contextId, false ) );
+        assertEquals( bits( 1 ), util.getIds( Collections.singleton( "roleA" ), contextId, false ) );
+    }
+
+    private static List<UserRole> roles( String... names )
+    {
+        List<UserRole> roles = new ArrayList<>();
+        for ( String name : names )
+        {
+            roles.add( new UserRole( "user", name ) );
+        }
+        return roles;
+    }
+
+    private static BitSet bits( int... ids )
+    {
+        BitSet bits = new BitSet();
+        for ( int id : ids )
+        {
+            bits.set( id );
+        }
+        return bits;
+    }
+}
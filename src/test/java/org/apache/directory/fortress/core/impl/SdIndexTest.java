@@ -0,0 +1,130 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.apache.directory.fortress.core.model.SDSet;
+
+
+/**
+ * SdIndex Tester.  Changes the index of a tenant in memory after it was loaded from ldap, so the directory must be up, but
+ * nothing is written to it.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class SdIndexTest extends TestCase
+{
+    private static final String SET1 = "TEST-SDINDEX-1";
+    private static final String SET2 = "TEST-SDINDEX-2";
+    private static final String ROLE_A = "TEST-SDINDEX-ROLE-A";
+    private static final String ROLE_B = "TEST-SDINDEX-ROLE-B";
+    private static final String ROLE_C = "TEST-SDINDEX-ROLE-C";
+
+    public static Test suite()
+    {
+        TestSuite suite = new TestSuite();
+        suite.addTest( new SdIndexTest( "testPutRemove" ) );
+        suite.addTest( new SdIndexTest( "testPutBeforeLoad" ) );
+        return suite;
+    }
+
+    public SdIndexTest( String name )
+    {
+        super( name );
+    }
+
+    /**
+     * Sets put are found by each of their member roles, case insensitive, and no longer by the roles they lost or once removed.
+     */
+    public void testPutRemove() throws Exception
+    {
+        String contextId = TestUtils.getContext();
+        SdIndex index = new SdIndex( SDSet.SDType.STATIC, new SdP() );
+        assertTrue( getNames( index, contextId, ROLE_A, ROLE_B, ROLE_C ).isEmpty() );
+
+        index.put( createSet( SET1, ROLE_A, ROLE_B.toLowerCase() ), contextId );
+        assertEquals( names( SET1 ), getNames( index, contextId, ROLE_A.toLowerCase() ) );
+        assertEquals( names( SET1 ), getNames( index, contextId, ROLE_B ) );
+        SDSet sdSet = index.getSets( Collections.singleton( ROLE_A ), contextId ).iterator().next();
+        assertEquals( SDSet.SDType.STATIC, sdSet.getType() );
+        assertEquals( contextId, sdSet.getContextId() );
+
+        // replaced, role A is no longer a member:
+        index.put( createSet( SET1, ROLE_B, ROLE_C ), contextId );
+        index.put( createSet( SET2, ROLE_B ), contextId );
+        assertTrue( getNames( index, contextId, ROLE_A ).isEmpty() );
+        assertEquals( names( SET1, SET2 ), getNames( index, contextId, ROLE_B ) );
+        assertEquals( names( SET1 ), getNames( index, contextId, ROLE_C ) );
+        assertEquals( names( SET1, SET2 ), getNames( index, contextId, ROLE_A, ROLE_B, ROLE_C ) );
+
+        index.remove( SET1.toLowerCase(), contextId );
+        assertEquals( names( SET2 ), getNames( index, contextId, ROLE_B ) );
+        assertTrue( getNames( index, contextId, ROLE_C ).isEmpty() );
+        index.remove( SET2, contextId );
+        assertTrue( getNames( index, contextId, ROLE_A, ROLE_B, ROLE_C ).isEmpty() );
+    }
+
+    /**
+     * A set put before the tenant is loaded is ignored, the load reads the sets as they are in ldap.
+     */
+    public void testPutBeforeLoad() throws Exception
+    {
+        String contextId = TestUtils.getContext();
+        SdIndex index = new SdIndex( SDSet.SDType.STATIC, new SdP() );
+        index.put( createSet( SET1, ROLE_A ), contextId );
+        assertTrue( getNames( index, contextId, ROLE_A ).isEmpty() );
+    }
+
+    private static SDSet createSet( String name, String... roles )
+    {
+        SDSet sdSet = new SDSet();
+        sdSet.setName( name );
+        sdSet.setCardinality( 2 );
+        for ( String role : roles )
+        {
+            sdSet.addMember( role );
+        }
+        return sdSet;
+    }
+
+    private static Set<String> getNames( SdIndex index, String contextId, String... roles ) throws Exception
+    {
+        Set<String> names = new HashSet<>();
+        for ( SDSet sdSet : index.getSets( Arrays.asList( roles ), contextId ) )
+        {
+            names.add( sdSet.getName() );
+        }
+        return names;
+    }
+
+    private static Set<String> names( String... names )
+    {
+        return new HashSet<>( Arrays.asList( names ) );
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import net.sf.ehcache.search.Attribute;
+import net.sf.ehcache.search.Query;
+
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.model.User;
+import org.apache.directory.fortress.core.util.cache.Cache;
+
+
+/**
+ * UserCache Tester.  Holds the users in a map, no directory is needed.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class UserCacheTest extends TestCase
+{
+    private static final String TENANT = "acme";
+    private static final String USER = "joeUser";
+
+    public static Test suite()
+    {
+        TestSuite suite = new TestSuite();
+        suite.addTest( new UserCacheTest( "testDisabled" ) );
+        suite.addTest( new UserCacheTest( "testGetPut" ) );
+        suite.addTest( new UserCacheTest( "testCopies" ) );
+        suite.addTest( new UserCacheTest( "testKey" ) );
+        suite.addTest( new UserCacheTest( "testFailedReadNotStored" ) );
+        suite.addTest( new UserCacheTest( "testReadOverlappingRemoveNotStored" ) );
+        return suite;
+    }
+
+    public UserCacheTest( String name )
+    {
+        super( name );
+    }
+
+    public void testDisabled()
+    {
+        UserCache cache = new UserCache( null );
+        assertFalse( cache.isEnabled() );
+        long generation = cache.getGeneration();
+        cache.remove( TENANT, USER );
+        assertEquals( generation, cache.getGeneration() );
+    }
+
+    public void testGetPut()
+    {
+        UserCache cache = new UserCache( new MapCache() );
+        assertTrue( cache.isEnabled() );
+        User user = createUser( TENANT, USER );
+        assertNull( cache.get( user ) );
+        cache.put( user, read( user ), cache.getGeneration() );
+        User cached = cache.get( user );
+        assertNotNull( cached );
+        assertEquals( USER, cached.getUserId() );
+        assertEquals( "ou1", cached.getOu() );
+
+        cache.remove( TENANT, USER );
+        assertNull( cache.get( user ) );
+    }
+
+    /**
+     * Changes made by callers to the users they stored or were given do not reach the cache.
+     */
+    public void testCopies()
+    {
+        UserCache cache = new UserCache( new MapCache() );
+        User user = createUser( TENANT, USER );
+        User read = read( user );
+        cache.put( user, read, cache.getGeneration() );
+        read.setOu( "changed" );
+        cache.get( user ).setOu( "changed" );
+        assertEquals( "ou1", cache.get( user ).getOu() );
+    }
+
+    /**
+     * UserIds are case insensitive, tenants are kept apart, and a user without a contextId is of the HOME tenant.
+     */
+    public void testKey()
+    {
+        UserCache cache = new UserCache( new MapCache() );
+        User user = createUser( TENANT, USER );
+        cache.put( user, read( user ), cache.getGeneration() );
+        assertNotNull( cache.get( createUser( TENANT, USER.toUpperCase() ) ) );
+        assertNull( cache.get( createUser( "other", USER ) ) );
+        assertNull( cache.get( createUser( null, USER ) ) );
+
+        User home = createUser( null, USER );
+        cache.put( home, read( home ), cache.getGeneration() );
+        assertNotNull( cache.get( createUser( GlobalIds.HOME, USER ) ) );
+        assertNotNull( cache.get( createUser( GlobalIds.NULL, USER ) ) );
+    }
+
+    public void testFailedReadNotStored()
+    {
+        UserCache cache = new UserCache( new MapCache() );
+        User user = createUser( TENANT, USER );
+        cache.put( user, null, cache.getGeneration() );
+        assertNull( cache.get( user ) );
+    }
+
+    /**
+     * A user read before a removal may be stale, it is not stored, the next read is.
+     */
+    public void testReadOverlappingRemoveNotStored()
+    {
+        UserCache cache = new UserCache( new MapCache() );
+        User user = createUser( TENANT, USER );
+        long generation = cache.getGeneration();
+        cache.remove( TENANT, USER );
+        cache.put( user, read( user ), generation );
+        assertNull( cache.get( user ) );
+
+        cache.put( user, read( user ), cache.getGeneration() );
+        assertNotNull( cache.get( user ) );
+    }
+
+    private static User createUser( String contextId, String userId )
+    {
+        User user = new User( userId );
+        user.setContextId( contextId );
+        return user;
+    }
+
+    /**
+     * @return the user as read from ldap.
+     */
+    private static User read( User user )
+    {
+        User read = createUser( user.getContextId(), user.getUserId() );
+        read.setOu( "ou1" );
+        return read;
+    }
+
+    /**
+     * Holds the entries in a map, without bounds or expiry.
+     */
+    private static final class MapCache implements Cache
+    {
+        private final Map<Object, Object> entries = new ConcurrentHashMap<>();
+
+        @Override
+        public Object get( Object key )
+        {
+            return entries.get( key );
+        }
+
+        @Override
+        public Object get( Object key, Loader loader )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void put( Object key, Object value )
+        {
+            if ( value == null )
+            {
+                entries.remove( key );
+            }
+            else
+            {
+                entries.put( key, value );
+            }
+        }
+
+        @Override
+        public boolean clear( Object key )
+        {
+            return entries.remove( key ) != null;
+        }
+
+        @Override
+        public void flush()
+        {
+            entries.clear();
+        }
+
+        @Override
+        public <T> Attribute<T> getSearchAttribute( String attributeName )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Query createQuery()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
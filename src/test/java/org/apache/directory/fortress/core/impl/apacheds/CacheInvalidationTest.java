@@ -0,0 +1,158 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl.apacheds;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+
+import javax.management.JMX;
+import javax.management.ObjectName;
+
+import org.apache.directory.api.ldap.model.entry.DefaultModification;
+import org.apache.directory.api.ldap.model.entry.ModificationOperation;
+import org.apache.directory.ldap.client.api.LdapConnection;
+import org.apache.directory.ldap.client.api.LdapNetworkConnection;
+import org.apache.directory.server.annotations.CreateLdapServer;
+import org.apache.directory.server.annotations.CreateTransport;
+import org.apache.directory.server.core.annotations.ApplyLdifFiles;
+import org.apache.directory.server.core.annotations.CreateDS;
+import org.apache.directory.server.core.annotations.CreatePartition;
+import org.apache.directory.server.core.integ.AbstractLdapTestUnit;
+import org.apache.directory.server.core.integ.FrameworkRunner;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import org.apache.directory.fortress.core.AdminMgr;
+import org.apache.directory.fortress.core.AdminMgrFactory;
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.ReviewMgr;
+import org.apache.directory.fortress.core.ReviewMgrFactory;
+import org.apache.directory.fortress.core.impl.CacheInvalidatorMXBean;
+import org.apache.directory.fortress.core.impl.TestUtils;
+import org.apache.directory.fortress.core.model.User;
+import org.apache.directory.fortress.core.model.UserRole;
+import org.apache.directory.fortress.core.util.Config;
+
+
+/**
+ * Changes a role hierarchy through a second connection, as another process would, and checks the role cache of this
+ * process picks up the change within the lag of the cache invalidator, by the 'modifyTimestamp' of the entries.
+ * <p>
+ * Must run in its own JVM, as the invalidator is started when the managers are first used.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@RunWith(FrameworkRunner.class)
+@CreateDS(name = "classDS", partitions =
+    { @CreatePartition(name = "example", suffix = "dc=example,dc=com") })
+@CreateLdapServer(
+    transports =
+        {
+            @CreateTransport(protocol = "LDAP", port = 10389)
+    })
+@ApplyLdifFiles(
+    { "fortress-schema.ldif", "init-ldap.ldif" })
+public class CacheInvalidationTest extends AbstractLdapTestUnit
+{
+    private static final int INTERVAL = 1;
+    // one interval, plus the time to read the changes and reload the hierarchy:
+    private static final long LAG_MILLIS = INTERVAL * 1000 + 4000;
+    private static final String USER = "demoUser1";
+    private static final String PARENT = "role1";
+    private static final String CHILD = "role2";
+
+
+    @BeforeClass
+    public static void startInvalidator()
+    {
+        Config.getInstance().setProperty( GlobalIds.CACHE_INVALIDATION_INTERVAL, String.valueOf( INTERVAL ) );
+        Config.getInstance().setProperty( GlobalIds.CACHE_INVALIDATION_SOURCE, "timestamp" );
+    }
+
+
+    /**
+     * The role hierarchy is cached, a parent added to a role through another connection is inherited once the invalidator
+     * has read the change, and the change is counted by its metrics.
+     */
+    @Test
+    public void testExternalChange() throws Exception
+    {
+        AdminMgr adminMgr = AdminMgrFactory.createInstance( TestUtils.getContext() );
+        ReviewMgr reviewMgr = ReviewMgrFactory.createInstance( TestUtils.getContext() );
+        CacheInvalidatorMXBean metrics = JMX.newMXBeanProxy( ManagementFactory.getPlatformMBeanServer(),
+            new ObjectName( "org.apache.directory.fortress:type=CacheInvalidator" ), CacheInvalidatorMXBean.class );
+        assertEquals( "timestamp", metrics.getSource() );
+
+        adminMgr.assignUser( new UserRole( USER, CHILD ) );
+        assertFalse( "parent inherited before the change", isInherited( reviewMgr ) );
+
+        // let the invalidator read the changes made so far:
+        long polls = metrics.getPolls();
+        long deadline = System.currentTimeMillis() + LAG_MILLIS;
+        while ( metrics.getPolls() < polls + 2 && System.currentTimeMillis() < deadline )
+        {
+            Thread.sleep( 100 );
+        }
+        assertTrue( "invalidator not polling", metrics.getPolls() >= polls + 2 );
+        assertFalse( "parent inherited before the change", isInherited( reviewMgr ) );
+        long changes = metrics.getChanges();
+        long invalidations = metrics.getInvalidations();
+
+        LdapConnection connection = new LdapNetworkConnection( "localhost", 10389 );
+        try
+        {
+            connection.bind( "uid=admin,ou=system", "secret" );
+            connection.modify( "cn=" + CHILD + "," + Config.getInstance().getProperty( GlobalIds.ROLE_ROOT ),
+                new DefaultModification( ModificationOperation.ADD_ATTRIBUTE, GlobalIds.PARENT_NODES, PARENT ) );
+        }
+        finally
+        {
+            connection.close();
+        }
+
+        long changed = System.currentTimeMillis();
+        boolean inherited = false;
+        while ( !inherited && System.currentTimeMillis() - changed < LAG_MILLIS )
+        {
+            Thread.sleep( 100 );
+            inherited = isInherited( reviewMgr );
+        }
+        assertTrue( "change not applied within " + LAG_MILLIS + " ms", inherited );
+        assertTrue( "change not counted", metrics.getChanges() > changes );
+        assertTrue( "invalidation not counted", metrics.getInvalidations() > invalidations );
+        long lag = metrics.getLagMillis();
+        assertTrue( "lag " + lag, lag >= 0 && lag < LAG_MILLIS );
+        assertEquals( 0, metrics.getOverflows() );
+    }
+
+
+    private boolean isInherited( ReviewMgr reviewMgr ) throws Exception
+    {
+        Set<String> roles = reviewMgr.authorizedRoles( new User( USER ) );
+        assertTrue( "role not assigned", roles != null && roles.contains( CHILD ) );
+        return roles.contains( PARENT );
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl.apacheds;
+
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.ldap.client.api.LdapConnection;
+import org.apache.directory.server.annotations.CreateLdapServer;
+import org.apache.directory.server.annotations.CreateTransport;
+import org.apache.directory.server.core.annotations.ApplyLdifFiles;
+import org.apache.directory.server.core.annotations.CreateDS;
+import org.apache.directory.server.core.annotations.CreatePartition;
+import org.apache.directory.server.core.api.DirectoryService;
+import org.apache.directory.server.core.factory.DSAnnotationProcessor;
+import org.apache.directory.server.core.integ.AbstractLdapTestUnit;
+import org.apache.directory.server.core.integ.FrameworkRunner;
+import org.apache.directory.server.factory.ServerAnnotationProcessor;
+import org.apache.directory.server.ldap.LdapServer;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runner.RunWith;
+
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.ldap.LdapConnectionProvider;
+import org.apache.directory.fortress.core.util.Config;
+
+
+/**
+ * Reads through {@link LdapConnectionProvider} with the server of this class as provider and a second server, started
+ * on port 10390, as read replica.  Only the replica holds the entry {@link #MARKER}, so whether a connection can see it
+ * tells which server it is connected to.
+ * <p>
+ * Must run in its own JVM, as the replicas are configured when the connection provider is first used.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@RunWith(FrameworkRunner.class)
+@CreateDS(name = "classDS", partitions =
+    { @CreatePartition(name = "example", suffix = "dc=example,dc=com") })
+@CreateLdapServer(
+    transports =
+        {
+            @CreateTransport(protocol = "LDAP", port = 10389)
+    })
+@ApplyLdifFiles(
+    { "fortress-schema.ldif", "init-ldap.ldif" })
+public class ReplicaConnectionTest extends AbstractLdapTestUnit
+{
+    private static final String MARKER = "ou=ReplicaOnly,dc=example,dc=com";
+    private static final int PIN_MILLIS = 500;
+    private static DirectoryService replicaService;
+    private static LdapServer replicaServer;
+
+
+    /**
+     * The read replica, created from the annotations of this class.
+     */
+    @CreateDS(name = "replicaDS", partitions =
+        { @CreatePartition(name = "example", suffix = "dc=example,dc=com") })
+    @CreateLdapServer(
+        transports =
+            {
+                @CreateTransport(protocol = "LDAP", port = 10390)
+        })
+    @ApplyLdifFiles(
+        { "fortress-schema.ldif", "init-ldap.ldif" })
+    public static class Replica
+    {
+    }
+
+
+    @BeforeClass
+    public static void startReplica() throws Exception
+    {
+        Description description = Description.createSuiteDescription( Replica.class );
+        replicaService = DSAnnotationProcessor.getDirectoryService( description );
+        DSAnnotationProcessor.applyLdifs( description, replicaService );
+        DSAnnotationProcessor.injectEntries( replicaService, "dn: " + MARKER + "\n"
+            + "objectClass: top\n"
+            + "objectClass: organizationalUnit\n"
+            + "ou: ReplicaOnly\n\n" );
+        replicaServer = ServerAnnotationProcessor.createLdapServer( description, replicaService );
+
+        Config.getInstance().setProperty( GlobalIds.LDAP_REPLICAS, "localhost:10390" );
+        Config.getInstance().setProperty( GlobalIds.LDAP_READ_PIN_MILLIS, String.valueOf( PIN_MILLIS ) );
+        Config.getInstance().setProperty( GlobalIds.LDAP_HEALTH_INTERVAL, "1" );
+    }
+
+
+    @AfterClass
+    public static void stopReplica() throws Exception
+    {
+        if ( replicaServer != null && replicaServer.isStarted() )
+        {
+            replicaServer.stop();
+        }
+        if ( replicaService != null )
+        {
+            replicaService.shutdown();
+        }
+    }
+
+
+    /**
+     * Reads go to the replica, binds stay on the provider, and a write pins the reads of its thread to the provider for
+     * 'replica.read.pin.millis'.  Once the replica stops, reads fail over to the provider, and return to the replica
+     * when a health check finds it running again.
+     */
+    @Test
+    public void testReplicaReads() throws Exception
+    {
+        LdapConnectionProvider provider = LdapConnectionProvider.getInstance();
+
+        // replica selection:
+        assertTrue( "admin read not sent to the replica", isReplica( provider, true ) );
+        assertFalse( "bind sent to the replica", isReplica( provider, false ) );
+
+        // reads of the writing thread pinned to the provider after a write, those of other threads not:
+        provider.markWrite();
+        assertFalse( "read after write not sent to the provider", isReplica( provider, true ) );
+        assertTrue( "read of another thread pinned", isReplicaOnOtherThread( provider ) );
+        Thread.sleep( PIN_MILLIS * 2 );
+        assertTrue( "read not back on the replica after the pin expired", isReplica( provider, true ) );
+
+        // failover:
+        replicaServer.stop();
+        assertFalse( "read not failed over to the provider", isReplica( provider, true ) );
+        assertFalse( "ejected replica selected", isReplica( provider, true ) );
+
+        // readmitted by the health check:
+        replicaServer.start();
+        long deadline = System.currentTimeMillis() + 10000;
+        boolean readmitted = false;
+        while ( !readmitted && System.currentTimeMillis() < deadline )
+        {
+            Thread.sleep( 500 );
+            readmitted = isReplica( provider, true );
+        }
+        assertTrue( "replica not readmitted", readmitted );
+    }
+
+
+    private boolean isReplicaOnOtherThread( final LdapConnectionProvider provider ) throws Exception
+    {
+        FutureTask<Boolean> read = new FutureTask<>( new Callable<Boolean>()
+        {
+            @Override
+            public Boolean call() throws Exception
+            {
+                return isReplica( provider, true );
+            }
+        } );
+        new Thread( read ).start();
+        return read.get();
+    }
+
+
+    private boolean isReplica( LdapConnectionProvider provider, boolean isAdmin ) throws LdapException
+    {
+        LdapConnection connection = isAdmin ? provider.getAdminReadConnection() : provider.getUserReadConnection();
+        try
+        {
+            return connection.exists( new Dn( MARKER ) );
+        }
+        finally
+        {
+            if ( isAdmin )
+            {
+                provider.closeAdminConnection( connection );
+            }
+            else
+            {
+                provider.closeUserConnection( connection );
+            }
+        }
+    }
+}
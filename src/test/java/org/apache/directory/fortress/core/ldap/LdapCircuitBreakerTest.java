@@ -0,0 +1,210 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.apache.directory.api.ldap.model.exception.LdapServiceUnavailableException;
+import org.apache.directory.ldap.client.api.LdapConnection;
+
+
+/**
+ * LdapCircuitBreaker Tester.  Walks the breaker through its states, no directory is needed.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class LdapCircuitBreakerTest extends TestCase
+{
+    private static final long OPEN_MILLIS = 200;
+    private static final Exception FAILURE = new Exception( "test" );
+
+    public static Test suite()
+    {
+        TestSuite suite = new TestSuite();
+        suite.addTest( new LdapCircuitBreakerTest( "testOff" ) );
+        suite.addTest( new LdapCircuitBreakerTest( "testOpensOnConsecutiveFailures" ) );
+        suite.addTest( new LdapCircuitBreakerTest( "testOpenRefuses" ) );
+        suite.addTest( new LdapCircuitBreakerTest( "testHalfOpenLimitsProbes" ) );
+        suite.addTest( new LdapCircuitBreakerTest( "testHealthyProbesClose" ) );
+        suite.addTest( new LdapCircuitBreakerTest( "testFailedProbeOpens" ) );
+        suite.addTest( new LdapCircuitBreakerTest( "testStaleData" ) );
+        return suite;
+    }
+
+    public LdapCircuitBreakerTest( String name )
+    {
+        super( name );
+    }
+
+    public void testOff() throws Exception
+    {
+        LdapCircuitBreaker breaker = new LdapCircuitBreaker( 0, OPEN_MILLIS, 1, 300 );
+        assertFalse( breaker.isEnabled() );
+        for ( int i = 0; i < 10; i++ )
+        {
+            breaker.failed( FAILURE );
+        }
+        assertTrue( breaker.isClosed() );
+        breaker.acquire();
+    }
+
+    /**
+     * Only failures in a row open it, a connection returned healthy starts the count again.
+     */
+    public void testOpensOnConsecutiveFailures()
+    {
+        LdapCircuitBreaker breaker = new LdapCircuitBreaker( 3, OPEN_MILLIS, 1, 300 );
+        assertTrue( breaker.isEnabled() );
+        breaker.failed( FAILURE );
+        breaker.failed( FAILURE );
+        breaker.released( connection( true ) );
+        breaker.failed( FAILURE );
+        breaker.failed( FAILURE );
+        assertEquals( LdapCircuitBreaker.State.CLOSED, breaker.getState() );
+        // a connection returned broken is not a success:
+        breaker.released( connection( false ) );
+        breaker.failed( FAILURE );
+        assertEquals( LdapCircuitBreaker.State.OPEN, breaker.getState() );
+    }
+
+    public void testOpenRefuses()
+    {
+        LdapCircuitBreaker breaker = open( 2 );
+        try
+        {
+            breaker.acquire();
+            fail( "acquired while open" );
+        }
+        catch ( LdapServiceUnavailableException e )
+        {
+            // expected
+        }
+        assertEquals( LdapCircuitBreaker.State.OPEN, breaker.getState() );
+    }
+
+    public void testHalfOpenLimitsProbes() throws Exception
+    {
+        LdapCircuitBreaker breaker = open( 2 );
+        Thread.sleep( OPEN_MILLIS + 50 );
+        breaker.acquire();
+        assertEquals( LdapCircuitBreaker.State.HALF_OPEN, breaker.getState() );
+        breaker.acquire();
+        try
+        {
+            breaker.acquire();
+            fail( "acquired more than the probes" );
+        }
+        catch ( LdapServiceUnavailableException e )
+        {
+            // expected
+        }
+        assertEquals( LdapCircuitBreaker.State.HALF_OPEN, breaker.getState() );
+    }
+
+    public void testHealthyProbesClose() throws Exception
+    {
+        LdapCircuitBreaker breaker = open( 2 );
+        Thread.sleep( OPEN_MILLIS + 50 );
+        breaker.acquire();
+        breaker.acquire();
+        breaker.released( connection( true ) );
+        assertEquals( LdapCircuitBreaker.State.HALF_OPEN, breaker.getState() );
+        breaker.released( connection( true ) );
+        assertTrue( breaker.isClosed() );
+        breaker.acquire();
+        // and the failures are counted from zero again:
+        breaker.failed( FAILURE );
+        assertTrue( breaker.isClosed() );
+    }
+
+    public void testFailedProbeOpens() throws Exception
+    {
+        LdapCircuitBreaker breaker = open( 2 );
+        Thread.sleep( OPEN_MILLIS + 50 );
+        breaker.acquire();
+        breaker.released( connection( true ) );
+        breaker.failed( FAILURE );
+        assertEquals( LdapCircuitBreaker.State.OPEN, breaker.getState() );
+        try
+        {
+            breaker.acquire();
+            fail( "acquired while open" );
+        }
+        catch ( LdapServiceUnavailableException e )
+        {
+            // expected
+        }
+    }
+
+    public void testStaleData()
+    {
+        LdapCircuitBreaker breaker = new LdapCircuitBreaker( 1, OPEN_MILLIS, 1, 2 );
+        assertTrue( breaker.isUsable( 0 ) );
+        assertTrue( breaker.isUsable( 2000 ) );
+        assertFalse( breaker.isUsable( 2001 ) );
+    }
+
+    /**
+     * @return a breaker opened by two failures, that lets the given number of probes through once half open.
+     */
+    private static LdapCircuitBreaker open( int probes )
+    {
+        LdapCircuitBreaker breaker = new LdapCircuitBreaker( 2, OPEN_MILLIS, probes, 300 );
+        breaker.failed( FAILURE );
+        breaker.failed( FAILURE );
+        assertEquals( LdapCircuitBreaker.State.OPEN, breaker.getState() );
+        return breaker;
+    }
+
+    /**
+     * @return a connection that only answers whether it is connected.
+     */
+    static LdapConnection connection( final boolean isConnected )
+    {
+        return ( LdapConnection ) Proxy.newProxyInstance( LdapConnection.class.getClassLoader(), new Class<?>[]
+            { LdapConnection.class }, new InvocationHandler()
+            {
+                @Override
+                public Object invoke( Object proxy, Method method, Object[] args )
+                {
+                    switch ( method.getName() )
+                    {
+                        case "isConnected":
+                            return isConnected;
+                        case "hashCode":
+                            return System.identityHashCode( proxy );
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "connection@" + System.identityHashCode( proxy );
+                        default:
+                            throw new UnsupportedOperationException( method.getName() );
+                    }
+                }
+            } );
+    }
+}
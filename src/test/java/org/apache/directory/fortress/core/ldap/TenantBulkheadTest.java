@@ -0,0 +1,219 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.apache.directory.api.ldap.model.exception.LdapAdminLimitExceededException;
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.util.ConfigSnapshot;
+import org.apache.directory.ldap.client.api.LdapConnection;
+
+
+/**
+ * TenantBulkhead Tester.  Takes and returns connections of the tenants' budgets, no directory is needed.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class TenantBulkheadTest extends TestCase
+{
+    private static final String TENANT = "acme";
+
+    public static Test suite()
+    {
+        TestSuite suite = new TestSuite();
+        suite.addTest( new TenantBulkheadTest( "testOff" ) );
+        suite.addTest( new TenantBulkheadTest( "testDefaultLimit" ) );
+        suite.addTest( new TenantBulkheadTest( "testTenantLimit" ) );
+        suite.addTest( new TenantBulkheadTest( "testEmptyContextIsHome" ) );
+        suite.addTest( new TenantBulkheadTest( "testFailedBorrowReleases" ) );
+        suite.addTest( new TenantBulkheadTest( "testReleaseOnce" ) );
+        suite.addTest( new TenantBulkheadTest( "testWaitsForRelease" ) );
+        return suite;
+    }
+
+    public TenantBulkheadTest( String name )
+    {
+        super( name );
+    }
+
+    public void testOff() throws Exception
+    {
+        TenantBulkhead bulkhead = bulkhead( 0, 0 );
+        assertFalse( bulkhead.isEnabled() );
+        assertNull( bulkhead.acquire( TENANT ) );
+        assertTrue( bulkhead.getStats().isEmpty() );
+    }
+
+    public void testDefaultLimit() throws Exception
+    {
+        TenantBulkhead bulkhead = bulkhead( 2, 0 );
+        assertTrue( bulkhead.isEnabled() );
+        LdapConnection first = take( bulkhead, TENANT );
+        take( bulkhead, TENANT );
+        assertRefused( bulkhead, TENANT );
+        // other tenants have budgets of their own:
+        take( bulkhead, "other" );
+        LdapTenantStats stats = getStats( bulkhead, TENANT );
+        assertEquals( 2, stats.getActive() );
+        assertEquals( 2, stats.getMaxActive() );
+        assertEquals( 1, stats.getRejected() );
+
+        bulkhead.release( first );
+        assertEquals( 1, getStats( bulkhead, TENANT ).getActive() );
+        take( bulkhead, TENANT );
+    }
+
+    /**
+     * A limit for one tenant only leaves the others unlimited.
+     */
+    public void testTenantLimit() throws Exception
+    {
+        Map<String, String> props = new HashMap<>();
+        props.put( GlobalIds.TENANT_MAX_CONN + "." + TENANT, "1" );
+        TenantBulkhead bulkhead = new TenantBulkhead( new ConfigSnapshot( props, 1 ) );
+        assertTrue( bulkhead.isEnabled() );
+        take( bulkhead, TENANT );
+        assertRefused( bulkhead, TENANT );
+        for ( int i = 0; i < 10; i++ )
+        {
+            take( bulkhead, "other" );
+        }
+        assertEquals( 10, getStats( bulkhead, "other" ).getActive() );
+        assertEquals( 0, getStats( bulkhead, "other" ).getMaxActive() );
+    }
+
+    public void testEmptyContextIsHome() throws Exception
+    {
+        TenantBulkhead bulkhead = bulkhead( 1, 0 );
+        take( bulkhead, null );
+        assertRefused( bulkhead, "" );
+        assertEquals( 1, getStats( bulkhead, GlobalIds.HOME ).getActive() );
+    }
+
+    /**
+     * A budget charged without a connection, because the borrow failed, is given back at once.
+     */
+    public void testFailedBorrowReleases() throws Exception
+    {
+        TenantBulkhead bulkhead = bulkhead( 1, 0 );
+        bulkhead.charge( bulkhead.acquire( TENANT ), null );
+        assertEquals( 0, getStats( bulkhead, TENANT ).getActive() );
+        take( bulkhead, TENANT );
+    }
+
+    /**
+     * A connection returned twice, or never charged, gives back nothing more.
+     */
+    public void testReleaseOnce() throws Exception
+    {
+        TenantBulkhead bulkhead = bulkhead( 2, 0 );
+        LdapConnection connection = take( bulkhead, TENANT );
+        take( bulkhead, TENANT );
+        bulkhead.release( connection );
+        bulkhead.release( connection );
+        bulkhead.release( LdapCircuitBreakerTest.connection( true ) );
+        bulkhead.release( null );
+        assertEquals( 1, getStats( bulkhead, TENANT ).getActive() );
+        take( bulkhead, TENANT );
+        assertRefused( bulkhead, TENANT );
+    }
+
+    public void testWaitsForRelease() throws Exception
+    {
+        final TenantBulkhead bulkhead = bulkhead( 1, 5000 );
+        final LdapConnection connection = take( bulkhead, TENANT );
+        Thread releaser = new Thread( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    Thread.sleep( 100 );
+                }
+                catch ( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                }
+                bulkhead.release( connection );
+            }
+        } );
+        releaser.start();
+        long start = System.currentTimeMillis();
+        take( bulkhead, TENANT );
+        long waited = System.currentTimeMillis() - start;
+        releaser.join();
+        assertTrue( "waited " + waited, waited >= 50 && waited < 5000 );
+        assertEquals( 0, getStats( bulkhead, TENANT ).getRejected() );
+    }
+
+    private static TenantBulkhead bulkhead( int max, int waitMillis )
+    {
+        Map<String, String> props = new HashMap<>();
+        props.put( GlobalIds.TENANT_MAX_CONN, String.valueOf( max ) );
+        props.put( GlobalIds.TENANT_CONN_WAIT_MILLIS, String.valueOf( waitMillis ) );
+        return new TenantBulkhead( new ConfigSnapshot( props, 1 ) );
+    }
+
+    /**
+     * @return a connection charged to the tenant's budget.
+     */
+    private static LdapConnection take( TenantBulkhead bulkhead, String contextId ) throws Exception
+    {
+        TenantBulkhead.Budget budget = bulkhead.acquire( contextId );
+        assertNotNull( budget );
+        LdapConnection connection = LdapCircuitBreakerTest.connection( true );
+        bulkhead.charge( budget, connection );
+        return connection;
+    }
+
+    private static void assertRefused( TenantBulkhead bulkhead, String contextId ) throws Exception
+    {
+        try
+        {
+            bulkhead.acquire( contextId );
+            fail( "acquired over the limit of [" + contextId + "]" );
+        }
+        catch ( LdapAdminLimitExceededException e )
+        {
+            // expected
+        }
+    }
+
+    private static LdapTenantStats getStats( TenantBulkhead bulkhead, String contextId )
+    {
+        for ( LdapTenantStats stats : bulkhead.getStats() )
+        {
+            if ( stats.getContextId().equals( contextId ) )
+            {
+                return stats;
+            }
+        }
+        fail( "no stats for [" + contextId + "]" );
+        return null;
+    }
+}
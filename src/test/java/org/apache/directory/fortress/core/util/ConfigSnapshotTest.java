@@ -0,0 +1,196 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.util;
+
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.apache.directory.fortress.core.GlobalIds;
+
+
+/**
+ * ConfigSnapshot Tester.  The snapshot tests need no directory, {@link #testListeners()} uses {@link Config}, which reads its
+ * remote configuration from ldap.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class ConfigSnapshotTest extends TestCase
+{
+    private static final String NAME = "test.config.snapshot";
+
+    public static Test suite()
+    {
+        TestSuite suite = new TestSuite();
+        suite.addTest( new ConfigSnapshotTest( "testGetProperty" ) );
+        suite.addTest( new ConfigSnapshotTest( "testGetInt" ) );
+        suite.addTest( new ConfigSnapshotTest( "testGetBoolean" ) );
+        suite.addTest( new ConfigSnapshotTest( "testSwitches" ) );
+        suite.addTest( new ConfigSnapshotTest( "testImmutable" ) );
+        return suite;
+    }
+
+    public ConfigSnapshotTest( String name )
+    {
+        super( name );
+    }
+
+    public void testGetProperty()
+    {
+        Map<String, String> props = new HashMap<>();
+        props.put( NAME, "value" );
+        props.put( NAME + ".empty", "" );
+        ConfigSnapshot snapshot = new ConfigSnapshot( props, 7 );
+        assertEquals( 7, snapshot.getVersion() );
+        assertEquals( "value", snapshot.getProperty( NAME ) );
+        assertEquals( "value", snapshot.getProperty( NAME, "default" ) );
+        assertEquals( "default", snapshot.getProperty( NAME + ".empty", "default" ) );
+        assertEquals( "default", snapshot.getProperty( NAME + ".absent", "default" ) );
+        assertNull( snapshot.getProperty( NAME + ".absent" ) );
+    }
+
+    public void testGetInt()
+    {
+        Map<String, String> props = new HashMap<>();
+        props.put( NAME, "42" );
+        props.put( NAME + ".bad", "many" );
+        ConfigSnapshot snapshot = new ConfigSnapshot( props, 1 );
+        assertEquals( 42, snapshot.getInt( NAME, 0 ) );
+        assertEquals( 5, snapshot.getInt( NAME + ".bad", 5 ) );
+        assertEquals( 5, snapshot.getInt( NAME + ".absent", 5 ) );
+    }
+
+    public void testGetBoolean()
+    {
+        Map<String, String> props = new HashMap<>();
+        props.put( NAME, "true" );
+        props.put( NAME + ".bad", "perhaps" );
+        ConfigSnapshot snapshot = new ConfigSnapshot( props, 1 );
+        assertTrue( snapshot.getBoolean( NAME, false ) );
+        assertTrue( snapshot.getBoolean( NAME + ".bad", true ) );
+        assertFalse( snapshot.getBoolean( NAME + ".absent", false ) );
+    }
+
+    /**
+     * The switches read on every request are resolved when the snapshot is built.
+     */
+    public void testSwitches()
+    {
+        ConfigSnapshot defaults = new ConfigSnapshot( new HashMap<String, String>(), 1 );
+        assertFalse( defaults.isRestEnabled() );
+        assertFalse( defaults.isAuditDisabled() );
+        assertFalse( defaults.isOpenldap() );
+        assertFalse( defaults.isApacheds() );
+        assertTrue( defaults.isRoleOccupant() );
+        assertEquals( "$", defaults.getDelimiter() );
+        assertEquals( '$', defaults.getDelimiterChar() );
+        assertNull( defaults.getSuffix() );
+
+        Map<String, String> props = new HashMap<>();
+        props.put( GlobalIds.ENABLE_REST, "TRUE" );
+        props.put( GlobalIds.DISABLE_AUDIT, "true" );
+        props.put( GlobalIds.SERVER_TYPE, "apacheds" );
+        props.put( "role.occupants", "false" );
+        props.put( "attr.delimiter", "#" );
+        props.put( GlobalIds.SUFFIX, "dc=example,dc=com" );
+        ConfigSnapshot snapshot = new ConfigSnapshot( props, 2 );
+        assertTrue( snapshot.isRestEnabled() );
+        assertTrue( snapshot.isAuditDisabled() );
+        assertFalse( snapshot.isOpenldap() );
+        assertTrue( snapshot.isApacheds() );
+        assertFalse( snapshot.isRoleOccupant() );
+        assertEquals( '#', snapshot.getDelimiterChar() );
+        assertEquals( "dc=example,dc=com", snapshot.getSuffix() );
+    }
+
+    public void testImmutable()
+    {
+        Map<String, String> props = new HashMap<>();
+        props.put( NAME, "before" );
+        ConfigSnapshot snapshot = new ConfigSnapshot( props, 1 );
+        props.put( NAME, "after" );
+        assertEquals( "before", snapshot.getProperty( NAME ) );
+        try
+        {
+            snapshot.getProperties().put( NAME, "after" );
+            fail( "snapshot modified" );
+        }
+        catch ( UnsupportedOperationException e )
+        {
+            // expected
+        }
+    }
+
+    /**
+     * Each change publishes a new snapshot with a higher version to the listeners, a listener that fails does not stop the
+     * others, and a listener removed is no longer told.
+     */
+    public void testListeners()
+    {
+        Config cfg = Config.getInstance();
+        final List<ConfigSnapshot> published = new ArrayList<>();
+        ConfigListener failing = new ConfigListener()
+        {
+            @Override
+            public void configChanged( ConfigSnapshot snapshot )
+            {
+                throw new IllegalStateException( "test" );
+            }
+        };
+        ConfigListener listener = new ConfigListener()
+        {
+            @Override
+            public void configChanged( ConfigSnapshot snapshot )
+            {
+                published.add( snapshot );
+            }
+        };
+        cfg.addListener( failing );
+        cfg.addListener( listener );
+        try
+        {
+            ConfigSnapshot before = cfg.getSnapshot();
+            cfg.setProperty( NAME, "1" );
+            assertEquals( 1, published.size() );
+            ConfigSnapshot after = published.get( 0 );
+            assertSame( after, cfg.getSnapshot() );
+            assertTrue( after.getVersion() > before.getVersion() );
+            assertEquals( "1", after.getProperty( NAME ) );
+            assertNull( before.getProperty( NAME ) );
+
+            cfg.removeListener( listener );
+            cfg.clearProperty( NAME );
+            assertEquals( 1, published.size() );
+            assertNull( cfg.getProperty( NAME ) );
+        }
+        finally
+        {
+            cfg.removeListener( failing );
+            cfg.removeListener( listener );
+            cfg.clearProperty( NAME );
+        }
+    }
+}
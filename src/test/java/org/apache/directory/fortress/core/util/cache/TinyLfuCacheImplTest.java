@@ -0,0 +1,277 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.util.cache;
+
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+
+/**
+ * TinyLfuCacheImpl Tester.  Runs in memory, no directory is needed.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class TinyLfuCacheImplTest extends TestCase
+{
+    public static Test suite()
+    {
+        TestSuite suite = new TestSuite();
+        suite.addTest( new TinyLfuCacheImplTest( "testPutGetClear" ) );
+        suite.addTest( new TinyLfuCacheImplTest( "testPutNullRemoves" ) );
+        suite.addTest( new TinyLfuCacheImplTest( "testSizeIsBounded" ) );
+        suite.addTest( new TinyLfuCacheImplTest( "testFrequentEntriesSurviveScan" ) );
+        suite.addTest( new TinyLfuCacheImplTest( "testFlush" ) );
+        suite.addTest( new TinyLfuCacheImplTest( "testLoaderNotStoredWhenNull" ) );
+        suite.addTest( new TinyLfuCacheImplTest( "testConcurrentMissesLoadOnce" ) );
+        suite.addTest( new TinyLfuCacheImplTest( "testLoadOverlappingClearNotStored" ) );
+        suite.addTest( new TinyLfuCacheImplTest( "testTimeToLive" ) );
+        suite.addTest( new TinyLfuCacheImplTest( "testStatsCountLoadsAndKeys" ) );
+        suite.addTest( new TinyLfuCacheImplTest( "testDistinctKeysEstimated" ) );
+        return suite;
+    }
+
+    public TinyLfuCacheImplTest( String name )
+    {
+        super( name );
+    }
+
+    public void testPutGetClear()
+    {
+        TinyLfuCacheImpl cache = new TinyLfuCacheImpl( "test", 10, 0, 0 );
+        cache.put( "a", "1" );
+        assertEquals( "1", cache.get( "a" ) );
+        assertTrue( cache.clear( "a" ) );
+        assertNull( cache.get( "a" ) );
+        assertFalse( cache.clear( "a" ) );
+    }
+
+    public void testPutNullRemoves()
+    {
+        TinyLfuCacheImpl cache = new TinyLfuCacheImpl( "test", 10, 0, 0 );
+        cache.put( "a", "1" );
+        cache.put( "a", null );
+        assertNull( cache.get( "a" ) );
+    }
+
+    public void testSizeIsBounded()
+    {
+        TinyLfuCacheImpl cache = new TinyLfuCacheImpl( "test", 100, 0, 0 );
+        for ( int i = 0; i < 1000; i++ )
+        {
+            cache.put( i, i );
+        }
+        CacheStats stats = cache.getStats();
+        assertEquals( 100, stats.getSize() );
+        assertEquals( 900, stats.getEvictions() );
+    }
+
+    /**
+     * Entries read often are kept while a scan of entries read once passes through.
+     */
+    public void testFrequentEntriesSurviveScan()
+    {
+        TinyLfuCacheImpl cache = new TinyLfuCacheImpl( "test", 100, 0, 0 );
+        for ( int i = 0; i < 50; i++ )
+        {
+            cache.put( "hot" + i, i );
+        }
+        for ( int n = 0; n < 20; n++ )
+        {
+            for ( int i = 0; i < 50; i++ )
+            {
+                cache.get( "hot" + i );
+            }
+        }
+        for ( int i = 0; i < 10000; i++ )
+        {
+            cache.put( "scan" + i, i );
+        }
+        int kept = 0;
+        for ( int i = 0; i < 50; i++ )
+        {
+            if ( cache.get( "hot" + i ) != null )
+            {
+                kept++;
+            }
+        }
+        assertTrue( "kept " + kept, kept >= 45 );
+    }
+
+    public void testFlush()
+    {
+        TinyLfuCacheImpl cache = new TinyLfuCacheImpl( "test", 10, 0, 0 );
+        cache.put( "a", "1" );
+        cache.put( "b", "2" );
+        cache.flush();
+        assertNull( cache.get( "a" ) );
+        assertEquals( 0, cache.getStats().getSize() );
+        cache.put( "a", "3" );
+        assertEquals( "3", cache.get( "a" ) );
+    }
+
+    public void testLoaderNotStoredWhenNull()
+    {
+        TinyLfuCacheImpl cache = new TinyLfuCacheImpl( "test", 10, 0, 0 );
+        final AtomicInteger loads = new AtomicInteger();
+        Cache.Loader loader = new Cache.Loader()
+        {
+            @Override
+            public Object load( Object key )
+            {
+                loads.incrementAndGet();
+                return null;
+            }
+        };
+        assertNull( cache.get( "a", loader ) );
+        assertNull( cache.get( "a", loader ) );
+        assertEquals( 2, loads.get() );
+    }
+
+    public void testConcurrentMissesLoadOnce() throws Exception
+    {
+        final TinyLfuCacheImpl cache = new TinyLfuCacheImpl( "test", 10, 0, 0 );
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch loading = new CountDownLatch( 1 );
+        final CountDownLatch release = new CountDownLatch( 1 );
+        final Cache.Loader loader = new Cache.Loader()
+        {
+            @Override
+            public Object load( Object key )
+            {
+                loads.incrementAndGet();
+                loading.countDown();
+                try
+                {
+                    release.await();
+                }
+                catch ( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                }
+                return "1";
+            }
+        };
+        Thread[] threads = new Thread[8];
+        final Object[] values = new Object[threads.length];
+        for ( int i = 0; i < threads.length; i++ )
+        {
+            final int n = i;
+            threads[i] = new Thread( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    values[n] = cache.get( "a", loader );
+                }
+            } );
+            threads[i].start();
+            if ( i == 0 )
+            {
+                loading.await();
+            }
+        }
+        Thread.sleep( 100 );
+        release.countDown();
+        for ( Thread thread : threads )
+        {
+            thread.join();
+        }
+        assertEquals( 1, loads.get() );
+        for ( Object value : values )
+        {
+            assertEquals( "1", value );
+        }
+    }
+
+    public void testLoadOverlappingClearNotStored()
+    {
+        final TinyLfuCacheImpl cache = new TinyLfuCacheImpl( "test", 10, 0, 0 );
+        Object value = cache.get( "a", new Cache.Loader()
+        {
+            @Override
+            public Object load( Object key )
+            {
+                cache.clear( key );
+                return "stale";
+            }
+        } );
+        assertEquals( "stale", value );
+        assertNull( cache.get( "a" ) );
+    }
+
+    public void testTimeToLive() throws Exception
+    {
+        TinyLfuCacheImpl cache = new TinyLfuCacheImpl( "test", 10, 1, 0 );
+        cache.put( "a", "1" );
+        assertEquals( "1", cache.get( "a" ) );
+        Thread.sleep( 1100 );
+        assertNull( cache.get( "a" ) );
+        assertEquals( 0, cache.getStats().getSize() );
+    }
+
+    public void testStatsCountLoadsAndKeys()
+    {
+        CacheCounters counters = new CacheCounters( 2, true );
+        TinyLfuCacheImpl cache = new TinyLfuCacheImpl( "test", 2, 0, 0, counters );
+        Cache.Loader loader = new Cache.Loader()
+        {
+            @Override
+            public Object load( Object key )
+            {
+                return "v" + key;
+            }
+        };
+        for ( String key : new String[]
+            { "a", "b", "c", "a" } )
+        {
+            cache.get( key, loader );
+        }
+        CacheStats stats = cache.getStats();
+        assertEquals( 4, stats.getHits() + stats.getMisses() );
+        assertEquals( stats.getMisses(), stats.getLoads() );
+        assertEquals( 2, stats.getCapacity() );
+        assertEquals( 3, counters.drainKeys() );
+        assertEquals( 0, counters.drainKeys() );
+    }
+
+    /**
+     * Many more keys are read than the cache holds, each several times, and counted to within a few percent.
+     */
+    public void testDistinctKeysEstimated()
+    {
+        CacheCounters counters = new CacheCounters( 100, true );
+        for ( int n = 0; n < 3; n++ )
+        {
+            for ( int i = 0; i < 100000; i++ )
+            {
+                counters.hit( "tenant" + i );
+            }
+        }
+        int keys = counters.drainKeys();
+        assertTrue( "keys " + keys, keys > 90000 && keys < 110000 );
+        assertEquals( 0, counters.drainKeys() );
+        assertEquals( -1, new CacheCounters( 100, false ).drainKeys() );
+    }
+}